@@ -0,0 +1,129 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alipay.antchain.bridge.commons.core.am.AuthMessageTrustLevelEnum;
+import com.alipay.antchain.bridge.commons.core.am.AuthMessageV2;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainDomain;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainIdentity;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessage;
+import com.alipay.antchain.bridge.commons.core.sdp.AtomicFlagEnum;
+import com.alipay.antchain.bridge.commons.core.sdp.SDPMessageV2;
+import com.alipay.antchain.bridge.relayer.commons.constant.AuthMsgProcessStateEnum;
+import com.alipay.antchain.bridge.relayer.commons.constant.SDPMsgProcessStateEnum;
+import com.alipay.antchain.bridge.relayer.commons.constant.UpperProtocolTypeBeyondAMEnum;
+import com.alipay.antchain.bridge.relayer.commons.model.AuthMsgWrapper;
+import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgWrapper;
+import com.alipay.antchain.bridge.relayer.core.types.blockchain.HeterogeneousBlock;
+
+/**
+ * 各个benchmark共用的测试数据
+ */
+public class BenchmarkFixtures {
+
+    public static final String SENDER_PRODUCT = "mychain";
+
+    public static final String SENDER_BLOCKCHAIN_ID = "chain-id";
+
+    public static final String SENDER_DOMAIN = "antchain.com";
+
+    public static final String RECEIVER_DOMAIN = "dest.com";
+
+    public static AuthMessageV2 createAuthMessage(int senderIndex, byte[] payload) {
+        AuthMessageV2 authMessageV2 = new AuthMessageV2();
+        authMessageV2.setIdentity(CrossChainIdentity.fromHexStr(DigestUtil.sha256Hex(String.valueOf(senderIndex))));
+        authMessageV2.setTrustLevel(AuthMessageTrustLevelEnum.POSITIVE_TRUST);
+        authMessageV2.setUpperProtocol(UpperProtocolTypeBeyondAMEnum.SDP.ordinal());
+        authMessageV2.setPayload(payload);
+        return authMessageV2;
+    }
+
+    public static SDPMessageV2 createSDPMessage(int receiverIndex, int sequence, int payloadSize) {
+        SDPMessageV2 sdpMessageV2 = new SDPMessageV2();
+        sdpMessageV2.setAtomicFlag(AtomicFlagEnum.NONE_ATOMIC);
+        sdpMessageV2.setSdpPayload(new SDPMessageV2.SDPPayloadV2(RandomUtil.randomBytes(payloadSize)));
+        sdpMessageV2.setTargetDomain(new CrossChainDomain(RECEIVER_DOMAIN));
+        sdpMessageV2.setSequence(sequence);
+        sdpMessageV2.setTargetIdentity(CrossChainIdentity.fromHexStr(DigestUtil.sha256Hex("receiver-" + receiverIndex)));
+        return sdpMessageV2;
+    }
+
+    /**
+     * 生成{@code size}条SDP消息，分布在{@code sessionNum}个有序session中，
+     * 并按{@code unorderedRatio}的比例混入无序消息
+     */
+    public static List<SDPMsgWrapper> createSDPMsgWrappers(int size, int sessionNum, double unorderedRatio, int payloadSize) {
+        List<SDPMsgWrapper> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int session = i % sessionNum;
+            boolean unordered = i < size * unorderedRatio;
+            SDPMessageV2 sdpMessage = createSDPMessage(
+                    session,
+                    unordered ? SDPMsgWrapper.UNORDERED_SDP_MSG_SEQ : i / sessionNum,
+                    payloadSize
+            );
+            AuthMsgWrapper authMsgWrapper = new AuthMsgWrapper(
+                    SENDER_PRODUCT,
+                    SENDER_BLOCKCHAIN_ID,
+                    SENDER_DOMAIN,
+                    DigestUtil.sha256Hex("ucp-" + i),
+                    "am",
+                    AuthMsgProcessStateEnum.PROCESSED,
+                    0,
+                    createAuthMessage(session, sdpMessage.encode())
+            );
+            SDPMsgWrapper sdpMsgWrapper = new SDPMsgWrapper(
+                    "receiver-product",
+                    "receiver-chain-id",
+                    "am",
+                    SDPMsgProcessStateEnum.PENDING,
+                    "",
+                    false,
+                    "",
+                    authMsgWrapper,
+                    sdpMessage
+            );
+            sdpMsgWrapper.setId((long) i);
+            result.add(sdpMsgWrapper);
+        }
+        return result;
+    }
+
+    public static HeterogeneousBlock createHeterogeneousBlock(long height, int msgNum, int payloadSize) {
+        List<CrossChainMessage> messages = new ArrayList<>(msgNum);
+        for (int i = 0; i < msgNum; i++) {
+            messages.add(
+                    CrossChainMessage.createCrossChainMessage(
+                            CrossChainMessage.CrossChainMessageType.DEVELOPER_DESIGN,
+                            height,
+                            System.currentTimeMillis(),
+                            RandomUtil.randomBytes(32),
+                            RandomUtil.randomBytes(payloadSize),
+                            new byte[]{},
+                            new byte[]{},
+                            RandomUtil.randomBytes(32)
+                    )
+            );
+        }
+        return new HeterogeneousBlock(SENDER_PRODUCT, SENDER_DOMAIN, SENDER_BLOCKCHAIN_ID, height, messages);
+    }
+}
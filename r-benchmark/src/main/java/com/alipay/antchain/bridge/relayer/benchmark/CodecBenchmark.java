@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.benchmark;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import cn.hutool.core.util.RandomUtil;
+import com.alipay.antchain.bridge.relayer.commons.model.AuthMsgPackage;
+import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgWrapper;
+import com.alipay.antchain.bridge.relayer.core.types.blockchain.HeterogeneousBlock;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequest;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequestType;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.RelayerResponse;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 区块缓存、AM包以及relayer之间请求和响应的编解码
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecBenchmark {
+
+    @Param({"1", "32"})
+    private int msgNum;
+
+    @Param({"256", "4096"})
+    private int payloadSize;
+
+    private HeterogeneousBlock block;
+
+    private byte[] rawBlock;
+
+    private AuthMsgPackage authMsgPackage;
+
+    private RelayerRequest relayerRequest;
+
+    private byte[] rawRelayerRequest;
+
+    private RelayerResponse relayerResponse;
+
+    private byte[] rawRelayerResponse;
+
+    @Setup
+    public void setup() {
+        block = BenchmarkFixtures.createHeterogeneousBlock(100L, msgNum, payloadSize);
+        rawBlock = block.encode();
+
+        SDPMsgWrapper sdpMsgWrapper = BenchmarkFixtures.createSDPMsgWrappers(1, 1, 0, payloadSize).get(0);
+        authMsgPackage = new AuthMsgPackage();
+        authMsgPackage.setSdpMsgWrapper(sdpMsgWrapper);
+        authMsgPackage.setNotary(AuthMsgPackage.NOTARY_FLAG);
+        for (int i = 0; i < msgNum; i++) {
+            authMsgPackage.addAmMsg(
+                    Base64.getEncoder().encodeToString(RandomUtil.randomBytes(128)),
+                    "",
+                    sdpMsgWrapper.getAuthMsgWrapper().getAuthMessage().encode()
+            );
+        }
+
+        relayerRequest = new RelayerRequest(RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        relayerRequest.setNodeId(RandomUtil.randomString(64));
+        relayerRequest.setRequestPayload(RandomUtil.randomBytes(msgNum * payloadSize));
+        relayerRequest.setSigAlgo("Keccak256WithSecp256k1");
+        relayerRequest.setSignature(RandomUtil.randomBytes(65));
+        rawRelayerRequest = relayerRequest.encode();
+
+        relayerResponse = new RelayerResponse();
+        relayerResponse.setResponseCode(RelayerResponse.SUCCESS);
+        relayerResponse.setResponseMessage("");
+        relayerResponse.setResponsePayload(Base64.getEncoder().encodeToString(RandomUtil.randomBytes(msgNum * payloadSize)));
+        relayerResponse.setSigAlgo("Keccak256WithSecp256k1");
+        relayerResponse.setSignature(RandomUtil.randomBytes(65));
+        rawRelayerResponse = relayerResponse.encode();
+    }
+
+    @Benchmark
+    public byte[] encodeHeterogeneousBlock() {
+        return block.encode();
+    }
+
+    @Benchmark
+    public HeterogeneousBlock decodeHeterogeneousBlock() {
+        HeterogeneousBlock decoded = new HeterogeneousBlock();
+        decoded.decode(rawBlock);
+        return decoded;
+    }
+
+    @Benchmark
+    public byte[] encodeAuthMsgPackage() throws Exception {
+        return authMsgPackage.encode();
+    }
+
+    @Benchmark
+    public byte[] encodeRelayerRequest() {
+        return relayerRequest.encode();
+    }
+
+    @Benchmark
+    public RelayerRequest decodeRelayerRequest() {
+        return RelayerRequest.decode(rawRelayerRequest);
+    }
+
+    @Benchmark
+    public byte[] encodeRelayerResponse() {
+        return relayerResponse.encode();
+    }
+
+    @Benchmark
+    public RelayerResponse decodeRelayerResponse() {
+        return RelayerResponse.decode(rawRelayerResponse);
+    }
+}
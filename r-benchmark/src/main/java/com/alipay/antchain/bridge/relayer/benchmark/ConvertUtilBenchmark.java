@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alipay.antchain.bridge.relayer.commons.model.AuthMsgWrapper;
+import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgWrapper;
+import com.alipay.antchain.bridge.relayer.dal.entities.AuthMsgPoolEntity;
+import com.alipay.antchain.bridge.relayer.dal.entities.SDPMsgPoolEntity;
+import com.alipay.antchain.bridge.relayer.dal.utils.ConvertUtil;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * 消息模型与DB实体之间的转换
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConvertUtilBenchmark {
+
+    @Param({"256", "4096"})
+    private int payloadSize;
+
+    private AuthMsgWrapper authMsgWrapper;
+
+    private AuthMsgPoolEntity authMsgPoolEntity;
+
+    private SDPMsgWrapper sdpMsgWrapper;
+
+    private SDPMsgPoolEntity sdpMsgPoolEntity;
+
+    @Setup
+    public void setup() {
+        sdpMsgWrapper = BenchmarkFixtures.createSDPMsgWrappers(1, 1, 0, payloadSize).get(0);
+        authMsgWrapper = sdpMsgWrapper.getAuthMsgWrapper();
+        authMsgPoolEntity = ConvertUtil.convertFromAuthMsgWrapper(authMsgWrapper);
+        sdpMsgPoolEntity = ConvertUtil.convertFromSDPMsgWrapper(sdpMsgWrapper);
+    }
+
+    @Benchmark
+    public AuthMsgPoolEntity convertFromAuthMsgWrapper() {
+        return ConvertUtil.convertFromAuthMsgWrapper(authMsgWrapper);
+    }
+
+    @Benchmark
+    public AuthMsgWrapper convertFromAuthMsgPoolEntity() {
+        return ConvertUtil.convertFromAuthMsgPoolEntity(authMsgPoolEntity);
+    }
+
+    @Benchmark
+    public SDPMsgPoolEntity convertFromSDPMsgWrapper() {
+        return ConvertUtil.convertFromSDPMsgWrapper(sdpMsgWrapper);
+    }
+
+    @Benchmark
+    public SDPMsgWrapper convertFromSDPMsgPoolEntity() {
+        return ConvertUtil.convertFromSDPMsgPoolEntity(sdpMsgPoolEntity);
+    }
+}
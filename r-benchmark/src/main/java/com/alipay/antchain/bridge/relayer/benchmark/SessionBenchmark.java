@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import cn.hutool.core.util.ReflectUtil;
+import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgWrapper;
+import com.alipay.antchain.bridge.relayer.core.service.committer.CommitterService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 提交器按session分组SDP消息，以及session key的计算
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionBenchmark {
+
+    @Param({"64", "1024"})
+    private int msgNum;
+
+    @Param({"1", "16"})
+    private int sessionNum;
+
+    @Param({"0", "0.5"})
+    private double unorderedRatio;
+
+    @Param({"32"})
+    private int remainingWorkerNum;
+
+    private List<SDPMsgWrapper> sdpMsgWrappers;
+
+    private CommitterService committerService;
+
+    private Method groupSession;
+
+    @Setup
+    public void setup() {
+        sdpMsgWrappers = BenchmarkFixtures.createSDPMsgWrappers(msgNum, sessionNum, unorderedRatio, 256);
+        // groupSession是私有方法且不依赖注入的组件，直接反射调用
+        committerService = new CommitterService();
+        groupSession = ReflectUtil.getMethod(CommitterService.class, "groupSession", List.class, int.class);
+        groupSession.setAccessible(true);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public Map<String, List<SDPMsgWrapper>> groupSession() throws Exception {
+        return (Map<String, List<SDPMsgWrapper>>) groupSession.invoke(committerService, sdpMsgWrappers, remainingWorkerNum);
+    }
+
+    @Benchmark
+    public void calcSessionKey(Blackhole blackhole) {
+        for (SDPMsgWrapper sdpMsgWrapper : sdpMsgWrappers) {
+            blackhole.consume(sdpMsgWrapper.getSessionKey());
+        }
+    }
+}
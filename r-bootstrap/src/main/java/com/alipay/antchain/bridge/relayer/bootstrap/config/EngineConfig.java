@@ -66,10 +66,12 @@ public class EngineConfig {
     @Bean
     @Autowired
     public Map<BizDistributedTaskTypeEnum, BaseScheduleTaskExecutor> scheduleBizTaskExecutorMap(
-            QueryDomainCertApplicationScheduleTaskExecutor queryDomainCertApplicationScheduleTaskExecutor
+            QueryDomainCertApplicationScheduleTaskExecutor queryDomainCertApplicationScheduleTaskExecutor,
+            PluginServerHeartbeatScheduleTaskExecutor pluginServerHeartbeatScheduleTaskExecutor
     ) {
         Map<BizDistributedTaskTypeEnum, BaseScheduleTaskExecutor> res = MapUtil.newHashMap();
         res.put(BizDistributedTaskTypeEnum.DOMAIN_APPLICATION_QUERY, queryDomainCertApplicationScheduleTaskExecutor);
+        res.put(BizDistributedTaskTypeEnum.PLUGIN_SERVER_HEARTBEAT, pluginServerHeartbeatScheduleTaskExecutor);
         return res;
     }
 }
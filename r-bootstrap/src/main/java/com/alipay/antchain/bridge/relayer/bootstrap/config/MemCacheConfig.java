@@ -47,6 +47,12 @@ public class MemCacheConfig {
     @Value("${relayer.cache.relayer_node.ttl:3000}")
     private long relayerNodeInfoCacheTTL;
 
+    @Value("${relayer.cache.verified_cert.capacity:256}")
+    private int verifiedCertCacheCapacity;
+
+    @Value("${relayer.cache.verified_cert.ttl:600000}")
+    private long verifiedCertCacheTTL;
+
     @Bean
     public Cache<String, DomainCertWrapper> domainCertWrapperCache() {
         return CacheUtil.newLRUCache(30, domainCertCacheTTL);
@@ -81,4 +87,9 @@ public class MemCacheConfig {
     public Cache<String, RelayerNodeInfo> relayerNodeInfoCache() {
         return CacheUtil.newLRUCache(20, relayerNodeInfoCacheTTL);
     }
+
+    @Bean(name = "verifiedCertCache")
+    public Cache<String, Boolean> verifiedCertCache() {
+        return CacheUtil.newLRUCache(verifiedCertCacheCapacity, verifiedCertCacheTTL);
+    }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.config;
+
+import com.alipay.antchain.bridge.relayer.core.utils.PoolPeekCursor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 各服务扫描消息池的游标，共用同一套游标和退避配置
+ */
+@Configuration
+public class PoolPeekConfig {
+
+    @Value("${relayer.service.peek.cursor.enable:true}")
+    private boolean peekCursorEnabled;
+
+    @Value("${relayer.service.peek.backoff.base_interval:3000}")
+    private long peekBackoffBaseInterval;
+
+    @Value("${relayer.service.peek.backoff.max_interval:300000}")
+    private long peekBackoffMaxInterval;
+
+    @Value("${relayer.service.peek.backoff.max_size:256}")
+    private int peekBackoffMaxSize;
+
+    @Bean(name = "amPeekCursor")
+    public PoolPeekCursor amPeekCursor() {
+        return newPoolPeekCursor();
+    }
+
+    @Bean(name = "notReadyPeekCursor")
+    public PoolPeekCursor notReadyPeekCursor() {
+        return newPoolPeekCursor();
+    }
+
+    @Bean(name = "ucpPeekCursor")
+    public PoolPeekCursor ucpPeekCursor() {
+        return newPoolPeekCursor();
+    }
+
+    /**
+     * 交易未确认的消息不需要退避
+     */
+    @Bean(name = "txPendingPeekCursor")
+    public PoolPeekCursor txPendingPeekCursor() {
+        return new PoolPeekCursor(peekCursorEnabled, 0, 0, 0);
+    }
+
+    private PoolPeekCursor newPoolPeekCursor() {
+        return new PoolPeekCursor(peekCursorEnabled, peekBackoffBaseInterval, peekBackoffMaxInterval, peekBackoffMaxSize);
+    }
+}
@@ -42,6 +42,8 @@ import com.alipay.antchain.bridge.relayer.core.service.receiver.ReceiverService;
 import com.alipay.antchain.bridge.relayer.core.types.network.ws.WsSslFactory;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
 import com.alipay.antchain.bridge.relayer.dal.repository.IPluginServerRepository;
+import com.alipay.antchain.bridge.relayer.server.network.GRpcRelayerServer;
+import com.alipay.antchain.bridge.relayer.server.network.RelayerRequestAdmission;
 import com.alipay.antchain.bridge.relayer.server.network.WSRelayerServer;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import lombok.SneakyThrows;
@@ -79,6 +81,33 @@ public class RelayerCoreConfig {
     @Value("${relayer.plugin_server_manager.grpc.heartbeat.error_limit:5}")
     private int errorLimitForHeartbeat;
 
+    /**
+     * 为true时由值班节点批量心跳所有插件服务，为false时每个节点为每个插件服务调度心跳任务
+     */
+    @Value("${relayer.plugin_server_manager.grpc.heartbeat.coordinated:true}")
+    private boolean heartbeatCoordinated;
+
+    @Value("${relayer.plugin_server_manager.grpc.channel_pool_size:2}")
+    private int pluginServerChannelPoolSize;
+
+    @Value("${relayer.plugin_server_manager.grpc.call_timeout:30000}")
+    private long pluginServerCallTimeout;
+
+    @Value("${relayer.plugin_server_manager.grpc.write_call_timeout:60000}")
+    private long pluginServerWriteCallTimeout;
+
+    /**
+     * 是否对幂等读请求做对冲，默认关闭
+     */
+    @Value("${relayer.plugin_server_manager.grpc.hedge.enable:false}")
+    private boolean pluginServerHedgeEnable;
+
+    /**
+     * 对冲延迟的下限，实际延迟根据调用耗时估计
+     */
+    @Value("${relayer.plugin_server_manager.grpc.hedge.min_delay:200}")
+    private long pluginServerHedgeMinDelay;
+
     @Value("${relayer.network.node.crosschain_cert_path:null}")
     private Resource relayerCrossChainCert;
 
@@ -94,6 +123,24 @@ public class RelayerCoreConfig {
     @Value("${relayer.network.node.server.port:8082}")
     private int localNodeServerPort;
 
+    @Value("${relayer.network.node.server.admission.enable:false}")
+    private boolean admissionEnable;
+
+    @Value("${relayer.network.node.server.admission.max_in_flight_per_peer:64}")
+    private int admissionMaxInFlightPerPeer;
+
+    @Value("${relayer.network.node.server.admission.low_priority_max_concurrency:2}")
+    private int admissionLowPriorityMaxConcurrency;
+
+    @Value("${relayer.network.node.server.admission.retry_after:1000}")
+    private long admissionRetryAfter;
+
+    @Value("${relayer.network.node.grpc_server.enable:false}")
+    private boolean localNodeGrpcServerEnable;
+
+    @Value("${relayer.network.node.grpc_server.port:8083}")
+    private int localNodeGrpcServerPort;
+
     @Value("#{systemConfigRepository.defaultNetworkId}")
     private String defaultNetworkId;
 
@@ -176,8 +223,21 @@ public class RelayerCoreConfig {
                         clientHeartbeatThreadNum,
                         new ThreadFactoryBuilder().setNameFormat("plugin_manager-heartbeat-%d").build()
                 ),
+                new ThreadPoolExecutor(
+                        0,
+                        Integer.MAX_VALUE,
+                        60_000,
+                        TimeUnit.MILLISECONDS,
+                        new SynchronousQueue<>(),
+                        new ThreadFactoryBuilder().setNameFormat("plugin_manager-heartbeat-fanout-%d").build()
+                ),
                 heartbeatDelayedTime,
-                errorLimitForHeartbeat
+                errorLimitForHeartbeat,
+                pluginServerChannelPoolSize,
+                pluginServerCallTimeout,
+                pluginServerWriteCallTimeout,
+                pluginServerHedgeEnable ? pluginServerHedgeMinDelay : 0,
+                heartbeatCoordinated
         );
     }
 
@@ -206,7 +266,12 @@ public class RelayerCoreConfig {
                     receiverService,
                     crossChainMessageRepository,
                     redisson,
-                    isDiscoveryService
+                    isDiscoveryService,
+                    admissionEnable ? new RelayerRequestAdmission(
+                            admissionMaxInFlightPerPeer,
+                            admissionLowPriorityMaxConcurrency,
+                            admissionRetryAfter
+                    ) : null
             );
         } catch (Exception e) {
             throw new BeanInitializationException(
@@ -215,4 +280,21 @@ public class RelayerCoreConfig {
             );
         }
     }
+
+    @Bean(destroyMethod = "shutdown")
+    @Autowired
+    public GRpcRelayerServer grpcRelayerServer(
+            @Qualifier("wsRelayerServerExecutorService") ExecutorService wsRelayerServerExecutorService,
+            WsSslFactory wsSslFactory,
+            WSRelayerServer wsRelayerServer
+    ) {
+        return new GRpcRelayerServer(
+                localNodeGrpcServerEnable,
+                localNodeServerMode,
+                localNodeGrpcServerPort,
+                wsRelayerServer.getWsRelayerServerAPI(),
+                wsRelayerServerExecutorService,
+                wsSslFactory
+        );
+    }
 }
@@ -62,6 +62,12 @@ public class ThreadsConfig {
     @Value("${relayer.service.anchor.sync_task.threads.total_size:8}")
     private int blockSyncTaskTotalSize;
 
+    @Value("${relayer.service.anchor.pipeline.threads.core_size:6}")
+    private int anchorPipelineCoreSize;
+
+    @Value("${relayer.service.anchor.pipeline.threads.total_size:48}")
+    private int anchorPipelineTotalSize;
+
     @Value("${relayer.service.confirm.threads.core_size:4}")
     private int confirmServiceCoreSize;
 
@@ -200,6 +206,20 @@ public class ThreadsConfig {
         );
     }
 
+    @Bean(name = "anchorPipelineThreadsPool")
+    public ExecutorService anchorPipelineThreadsPool() {
+        // 每条链的流水线占用三个常驻线程，不排队，线程不足时等下次调度重试
+        return new ThreadPoolExecutor(
+                anchorPipelineCoreSize,
+                anchorPipelineTotalSize,
+                5000L,
+                TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("AnchorPipeline-worker-%d").build(),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
     @Bean(name = "confirmServiceThreadsPool")
     public ExecutorService confirmServiceThreadsPool() {
         return new ThreadPoolExecutor(
@@ -228,6 +248,14 @@ public class ThreadsConfig {
         );
     }
 
+    @Bean(name = "aclIndexReloadScheduleThreadsPool")
+    public ScheduledExecutorService aclIndexReloadScheduleThreadsPool() {
+        return new ScheduledThreadPoolExecutor(
+                1,
+                new ThreadFactoryBuilder().setNameFormat("acl_index-reload-%d").build()
+        );
+    }
+
     @Bean(name = "anchorScheduleTaskExecutorThreadsPool")
     public ExecutorService anchorScheduleTaskExecutorThreadsPool() {
         return new ThreadPoolExecutor(
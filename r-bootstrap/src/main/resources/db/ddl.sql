@@ -370,6 +370,8 @@ CREATE TABLE `dt_active_node`
     `node_id`          varchar(64) DEFAULT NULL,
     `node_ip`          varchar(64) DEFAULT NULL,
     `state`            varchar(64) DEFAULT NULL,
+    `queued_task_count` int(11)    DEFAULT 0,
+    `cpu_load`         double      DEFAULT 0,
     `last_active_time` datetime(3) DEFAULT CURRENT_TIMESTAMP(3),
     `gmt_create`       datetime    DEFAULT CURRENT_TIMESTAMP,
     `gmt_modified`     datetime    DEFAULT CURRENT_TIMESTAMP,
@@ -405,4 +407,33 @@ CREATE TABLE IF NOT EXISTS `bcdns_service`
     `gmt_modified` DATETIME DEFAULT CURRENT_TIMESTAMP
 );
 CREATE UNIQUE INDEX bcdns_network_id_domain_space
-    ON bcdns_service (domain_space);
\ No newline at end of file
+    ON bcdns_service (domain_space);
+-- Optional: partition the archive tables by month of gmt_create, so that old data
+-- can be removed by `ALTER TABLE ... DROP PARTITION ...` instead of `DELETE`.
+-- Partition key must be part of every unique key, so the primary key and `ucp_id`
+-- unique key of the archive tables are extended with `gmt_create`.
+-- Add partitions ahead of time by `ALTER TABLE ... REORGANIZE PARTITION p_max INTO (...)`.
+--
+-- ALTER TABLE `sdp_msg_archive`
+--     MODIFY `gmt_create` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+--     DROP PRIMARY KEY,
+--     ADD PRIMARY KEY (`id`, `gmt_create`);
+-- ALTER TABLE `sdp_msg_archive`
+--     PARTITION BY RANGE (TO_DAYS(`gmt_create`)) (
+--         PARTITION p202401 VALUES LESS THAN (TO_DAYS('2024-02-01')),
+--         PARTITION p202402 VALUES LESS THAN (TO_DAYS('2024-03-01')),
+--         PARTITION p_max VALUES LESS THAN MAXVALUE
+--     );
+--
+-- ALTER TABLE `auth_msg_archive`
+--     MODIFY `gmt_create` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+--     DROP PRIMARY KEY,
+--     ADD PRIMARY KEY (`id`, `gmt_create`),
+--     DROP INDEX `ucp_id`,
+--     ADD UNIQUE KEY `uk_ucp_id` (`ucp_id`, `gmt_create`);
+-- ALTER TABLE `auth_msg_archive`
+--     PARTITION BY RANGE (TO_DAYS(`gmt_create`)) (
+--         PARTITION p202401 VALUES LESS THAN (TO_DAYS('2024-02-01')),
+--         PARTITION p202402 VALUES LESS THAN (TO_DAYS('2024-03-01')),
+--         PARTITION p_max VALUES LESS THAN MAXVALUE
+--     );
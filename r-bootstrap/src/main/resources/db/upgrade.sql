@@ -0,0 +1,44 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+-- 已有数据库升级使用，可以重复执行，新部署直接执行ddl.sql即可
+
+use relayer;
+
+-- dt_active_node: 节点心跳上报排队任务数和CPU负载，用于调度时按负载分配任务
+SET @col_exists = (SELECT COUNT(*)
+                   FROM information_schema.COLUMNS
+                   WHERE TABLE_SCHEMA = DATABASE()
+                     AND TABLE_NAME = 'dt_active_node'
+                     AND COLUMN_NAME = 'queued_task_count');
+SET @ddl = IF(@col_exists = 0,
+              'ALTER TABLE `dt_active_node` ADD COLUMN `queued_task_count` int(11) DEFAULT 0 AFTER `state`',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @col_exists = (SELECT COUNT(*)
+                   FROM information_schema.COLUMNS
+                   WHERE TABLE_SCHEMA = DATABASE()
+                     AND TABLE_NAME = 'dt_active_node'
+                     AND COLUMN_NAME = 'cpu_load');
+SET @ddl = IF(@col_exists = 0,
+              'ALTER TABLE `dt_active_node` ADD COLUMN `cpu_load` double DEFAULT 0 AFTER `queued_task_count`',
+              'SELECT 1');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -39,6 +39,7 @@ import com.alipay.antchain.bridge.relayer.commons.constant.BCDNSStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.PluginServerStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.UpperProtocolTypeBeyondAMEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.*;
+import com.google.common.util.concurrent.Futures;
 import com.google.protobuf.ByteString;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.junit.AfterClass;
@@ -198,6 +199,22 @@ public abstract class TestBase {
         mockedStaticCrossChainServiceGrpc.when(
                 () -> CrossChainServiceGrpc.newBlockingStub(Mockito.any())
         ).thenReturn(crossChainServiceBlockingStub);
+        Mockito.when(crossChainServiceBlockingStub.withDeadlineAfter(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(crossChainServiceBlockingStub);
+
+        // bbc calls go through the future stub, answer them with the blocking stub mock
+        CrossChainServiceGrpc.CrossChainServiceFutureStub crossChainServiceFutureStub =
+                Mockito.mock(CrossChainServiceGrpc.CrossChainServiceFutureStub.class);
+        mockedStaticCrossChainServiceGrpc.when(
+                () -> CrossChainServiceGrpc.newFutureStub(Mockito.any())
+        ).thenReturn(crossChainServiceFutureStub);
+        Mockito.when(crossChainServiceFutureStub.withDeadlineAfter(Mockito.anyLong(), Mockito.any()))
+                .thenReturn(crossChainServiceFutureStub);
+        Mockito.when(crossChainServiceFutureStub.bbcCall(Mockito.any())).thenAnswer(
+                invocation -> Futures.immediateFuture(
+                        crossChainServiceBlockingStub.bbcCall(invocation.getArgument(0))
+                )
+        );
 
         Mockito.when(crossChainServiceBlockingStub.bbcCall(Mockito.argThat(
                 argument -> {
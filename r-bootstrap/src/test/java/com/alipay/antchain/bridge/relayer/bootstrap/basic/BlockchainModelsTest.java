@@ -39,12 +39,15 @@ import com.alipay.antchain.bridge.commons.bcdns.CrossChainCertificateFactory;
 import com.alipay.antchain.bridge.commons.bcdns.DomainNameCredentialSubject;
 import com.alipay.antchain.bridge.commons.bcdns.utils.CrossChainCertificateUtil;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainDomain;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessage;
 import com.alipay.antchain.bridge.relayer.commons.constant.OnChainServiceStatusEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.BlockchainStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.BlockchainMeta;
 import com.alipay.antchain.bridge.relayer.commons.model.DomainCertWrapper;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerBlockchainContent;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerBlockchainInfo;
+import com.alipay.antchain.bridge.relayer.core.types.blockchain.HeterogeneousBlock;
+import com.alibaba.fastjson.JSON;
 import org.bouncycastle.asn1.pkcs.PrivateKeyInfo;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -363,4 +366,67 @@ public class BlockchainModelsTest {
                 domainSpaceCert.getId()
         );
     }
+
+    @Test
+    public void testHeterogeneousBlockCodec() throws Exception {
+        HeterogeneousBlock block = new HeterogeneousBlock(
+                "mychain",
+                "antchain.com",
+                "chain-id",
+                100L,
+                ListUtil.toList(
+                        CrossChainMessage.createCrossChainMessage(
+                                CrossChainMessage.CrossChainMessageType.DEVELOPER_DESIGN,
+                                100L,
+                                System.currentTimeMillis(),
+                                RandomUtil.randomBytes(32),
+                                RandomUtil.randomBytes(64),
+                                new byte[]{},
+                                new byte[]{},
+                                RandomUtil.randomBytes(32)
+                        )
+                )
+        );
+
+        byte[] raw = block.encode();
+        Assert.assertEquals(HeterogeneousBlock.BINARY_CODEC_VERSION, raw[0]);
+        Assert.assertTrue(raw.length < JSON.toJSONBytes(block).length);
+
+        HeterogeneousBlock decoded = new HeterogeneousBlock();
+        decoded.decode(raw);
+        assertHeterogeneousBlockEquals(block, decoded);
+
+        // blocks cached in json by old versions
+        HeterogeneousBlock decodedFromJson = new HeterogeneousBlock();
+        decodedFromJson.decode(JSON.toJSONBytes(block));
+        assertHeterogeneousBlockEquals(block, decodedFromJson);
+    }
+
+    private void assertHeterogeneousBlockEquals(HeterogeneousBlock expected, HeterogeneousBlock actual) {
+        Assert.assertEquals(expected.getProduct(), actual.getProduct());
+        Assert.assertEquals(expected.getBlockchainId(), actual.getBlockchainId());
+        Assert.assertEquals(expected.getHeight(), actual.getHeight());
+        Assert.assertEquals(expected.getDomain(), actual.getDomain());
+        Assert.assertEquals(expected.getUniformCrosschainPacketContexts().size(), actual.getUniformCrosschainPacketContexts().size());
+        Assert.assertEquals(
+                expected.getUniformCrosschainPacketContexts().get(0).getUcpId(),
+                actual.getUniformCrosschainPacketContexts().get(0).getUcpId()
+        );
+        Assert.assertEquals(
+                expected.getUniformCrosschainPacketContexts().get(0).getProcessState(),
+                actual.getUniformCrosschainPacketContexts().get(0).getProcessState()
+        );
+        Assert.assertEquals(
+                expected.getUniformCrosschainPacketContexts().get(0).getSrcDomain(),
+                actual.getUniformCrosschainPacketContexts().get(0).getSrcDomain()
+        );
+        Assert.assertArrayEquals(
+                expected.getUniformCrosschainPacketContexts().get(0).getUcp().getSrcMessage().getMessage(),
+                actual.getUniformCrosschainPacketContexts().get(0).getUcp().getSrcMessage().getMessage()
+        );
+        Assert.assertEquals(
+                expected.getUniformCrosschainPacketContexts().get(0).getTxHash(),
+                actual.getUniformCrosschainPacketContexts().get(0).getTxHash()
+        );
+    }
 }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.basic;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.ByteUtil;
+import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.RandomUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alipay.antchain.bridge.commons.core.am.AuthMessageTrustLevelEnum;
+import com.alipay.antchain.bridge.commons.core.am.AuthMessageV2;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainDomain;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainIdentity;
+import com.alipay.antchain.bridge.commons.core.sdp.AtomicFlagEnum;
+import com.alipay.antchain.bridge.commons.core.sdp.SDPMessageV2;
+import com.alipay.antchain.bridge.relayer.commons.constant.AuthMsgProcessStateEnum;
+import com.alipay.antchain.bridge.relayer.commons.constant.SDPMsgProcessStateEnum;
+import com.alipay.antchain.bridge.relayer.commons.constant.UpperProtocolTypeBeyondAMEnum;
+import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
+import com.alipay.antchain.bridge.relayer.commons.model.AuthMsgWrapper;
+import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgWrapper;
+import com.alipay.antchain.bridge.relayer.core.manager.bbc.IAMClientContract;
+import com.alipay.antchain.bridge.relayer.core.manager.bbc.ISDPMsgClientContract;
+import com.alipay.antchain.bridge.relayer.core.service.committer.CommitterService;
+import com.alipay.antchain.bridge.relayer.core.types.blockchain.AbstractBlockchainClient;
+import com.alipay.antchain.bridge.relayer.core.types.blockchain.BlockchainClientPool;
+import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class CommitterServiceTest {
+
+    private static final String RECEIVER_PRODUCT = "simple-ethereum";
+
+    private static final String RECEIVER_BLOCKCHAIN_ID = "receiver-id";
+
+    private static final String SESSION = "test-session";
+
+    private static final int PAYLOAD_SIZE = 100;
+
+    private CommitterService committerService;
+
+    private ICrossChainMessageRepository crossChainMessageRepository;
+
+    private PlatformTransactionManager transactionManager;
+
+    private IAMClientContract amClientContract;
+
+    private final Map<Long, SDPMsgWrapper> sdpMsgs = new HashMap<>();
+
+    @Before
+    public void setUp() {
+        crossChainMessageRepository = Mockito.mock(ICrossChainMessageRepository.class);
+        transactionManager = Mockito.mock(PlatformTransactionManager.class);
+        amClientContract = Mockito.mock(IAMClientContract.class);
+
+        BlockchainClientPool blockchainClientPool = Mockito.mock(BlockchainClientPool.class);
+        AbstractBlockchainClient blockchainClient = Mockito.mock(AbstractBlockchainClient.class);
+        ISDPMsgClientContract sdpMsgClientContract = Mockito.mock(ISDPMsgClientContract.class);
+        Mockito.when(blockchainClientPool.getClient(RECEIVER_PRODUCT, RECEIVER_BLOCKCHAIN_ID)).thenReturn(blockchainClient);
+        Mockito.when(blockchainClient.getAMClientContract()).thenReturn(amClientContract);
+        Mockito.when(blockchainClient.getSDPMsgClientContract()).thenReturn(sdpMsgClientContract);
+        Mockito.when(sdpMsgClientContract.querySDPMsgSeqOnChain(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(0L);
+
+        Mockito.when(transactionManager.getTransaction(Mockito.any())).thenReturn(new SimpleTransactionStatus());
+        Mockito.when(crossChainMessageRepository.getSessionLock(SESSION)).thenReturn(new ReentrantLock());
+        Mockito.when(crossChainMessageRepository.getSDPMessage(Mockito.anyLong(), Mockito.anyBoolean())).thenAnswer(
+                invocation -> sdpMsgs.get((Long) invocation.getArgument(0))
+        );
+        Mockito.when(crossChainMessageRepository.getAuthMessage(Mockito.anyLong())).thenAnswer(
+                invocation -> sdpMsgs.get((Long) invocation.getArgument(0)).getAuthMsgWrapper()
+        );
+        Mockito.when(crossChainMessageRepository.updateSDPMessagesTxResult(
+                Mockito.anyList(), Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.any()
+        )).thenReturn(true);
+
+        committerService = new CommitterService();
+        ReflectionTestUtils.setField(committerService, "crossChainMessageRepository", crossChainMessageRepository);
+        ReflectionTestUtils.setField(committerService, "blockchainClientPool", blockchainClientPool);
+        ReflectionTestUtils.setField(committerService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(committerService, "batchCommitEnabled", true);
+        ReflectionTestUtils.setField(committerService, "batchCommitMaxMsgCount", 16);
+        ReflectionTestUtils.setField(committerService, "batchCommitMaxPkgBytes", 262144);
+    }
+
+    @Test
+    public void testBatchCommitLimitedByMsgCount() {
+        ReflectionTestUtils.setField(committerService, "batchCommitMaxMsgCount", 2);
+        Mockito.when(amClientContract.recvPkgFromRelayer(Mockito.any(), Mockito.anyString()))
+                .thenReturn(new AbstractBlockchainClient.SendResponseResult("tx", true, true, "0", ""));
+
+        runSession(prepareSDPMsgs(5));
+
+        Mockito.verify(amClientContract, Mockito.times(3)).recvPkgFromRelayer(Mockito.any(), Mockito.anyString());
+        Assert.assertEquals(
+                ListUtil.toList(ListUtil.toList(1L, 2L), ListUtil.toList(3L, 4L), ListUtil.toList(5L)),
+                captureUpdatedIds(3)
+        );
+        // 每个包的状态单独提交
+        Mockito.verify(transactionManager, Mockito.times(3)).commit(Mockito.any());
+    }
+
+    @Test
+    public void testBatchCommitLimitedByPkgBytes() {
+        List<SDPMsgWrapper> msgs = prepareSDPMsgs(4);
+        int msgBytes = msgs.get(0).getAuthMsgWrapper().getAuthMessage().encode().length;
+        ReflectionTestUtils.setField(committerService, "batchCommitMaxPkgBytes", msgBytes * 3);
+        Mockito.when(amClientContract.recvPkgFromRelayer(Mockito.any(), Mockito.anyString()))
+                .thenReturn(new AbstractBlockchainClient.SendResponseResult("tx", true, true, "0", ""));
+
+        runSession(msgs);
+
+        Mockito.verify(amClientContract, Mockito.times(2)).recvPkgFromRelayer(Mockito.any(), Mockito.anyString());
+        Assert.assertEquals(
+                ListUtil.toList(ListUtil.toList(1L, 2L, 3L), ListUtil.toList(4L)),
+                captureUpdatedIds(2)
+        );
+    }
+
+    @Test
+    public void testBatchCommitPartialFailure() {
+        ReflectionTestUtils.setField(committerService, "batchCommitMaxMsgCount", 2);
+        Mockito.when(amClientContract.recvPkgFromRelayer(Mockito.any(), Mockito.anyString()))
+                .thenReturn(new AbstractBlockchainClient.SendResponseResult("tx", true, true, "0", ""))
+                .thenReturn(new AbstractBlockchainClient.SendResponseResult("", false, false, "1", "revert"));
+
+        try {
+            runSession(prepareSDPMsgs(6));
+            Assert.fail();
+        } catch (AntChainBridgeRelayerException e) {
+            // expected
+        }
+
+        // 第二个包失败后停止提交，第一个包的状态已经落库
+        Mockito.verify(amClientContract, Mockito.times(2)).recvPkgFromRelayer(Mockito.any(), Mockito.anyString());
+        Assert.assertEquals(
+                ListUtil.toList(ListUtil.toList(1L, 2L)),
+                captureUpdatedIds(1)
+        );
+        Mockito.verify(transactionManager, Mockito.times(1)).commit(Mockito.any());
+        Mockito.verify(transactionManager, Mockito.never()).rollback(Mockito.any());
+        // 剩余消息保持PENDING
+        for (long id = 3; id <= 6; id++) {
+            Assert.assertEquals(SDPMsgProcessStateEnum.PENDING, sdpMsgs.get(id).getProcessState());
+        }
+    }
+
+    private void runSession(List<SDPMsgWrapper> msgs) {
+        Runnable task = ReflectionTestUtils.invokeMethod(committerService, "wrapRequestTask", SESSION, msgs);
+        Assert.assertNotNull(task);
+        task.run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Long>> captureUpdatedIds(int times) {
+        ArgumentCaptor<List<Long>> idsCaptor = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(crossChainMessageRepository, Mockito.times(times)).updateSDPMessagesTxResult(
+                idsCaptor.capture(), Mockito.any(), Mockito.any(), Mockito.anyBoolean(), Mockito.any()
+        );
+        return idsCaptor.getAllValues();
+    }
+
+    private List<SDPMsgWrapper> prepareSDPMsgs(int num) {
+        List<SDPMsgWrapper> msgs = ListUtil.toList();
+        for (int i = 0; i < num; i++) {
+            long id = i + 1;
+
+            AuthMessageV2 authMessage = new AuthMessageV2();
+            authMessage.setIdentity(CrossChainIdentity.fromHexStr(DigestUtil.sha256Hex("01")));
+            authMessage.setTrustLevel(AuthMessageTrustLevelEnum.POSITIVE_TRUST);
+            authMessage.setUpperProtocol(UpperProtocolTypeBeyondAMEnum.SDP.ordinal());
+            authMessage.setPayload(RandomUtil.randomBytes(PAYLOAD_SIZE));
+
+            SDPMessageV2 sdpMessage = new SDPMessageV2();
+            sdpMessage.setAtomicFlag(AtomicFlagEnum.ATOMIC_REQUEST);
+            sdpMessage.setSdpPayload(new SDPMessageV2.SDPPayloadV2("".getBytes()));
+            sdpMessage.setTargetDomain(new CrossChainDomain("dest"));
+            sdpMessage.setSequence(i);
+            sdpMessage.setTargetIdentity(CrossChainIdentity.fromHexStr(DigestUtil.sha256Hex("02")));
+
+            SDPMsgWrapper sdpMsgWrapper = new SDPMsgWrapper(
+                    id,
+                    new AuthMsgWrapper(
+                            id,
+                            "sender-product",
+                            "sender-id",
+                            "sender",
+                            HexUtil.encodeHexStr(ByteUtil.intToBytes(i)),
+                            "am",
+                            AuthMsgProcessStateEnum.PROCESSED,
+                            0,
+                            null,
+                            authMessage
+                    ),
+                    RECEIVER_PRODUCT,
+                    RECEIVER_BLOCKCHAIN_ID,
+                    "am",
+                    SDPMsgProcessStateEnum.PENDING,
+                    "",
+                    false,
+                    "",
+                    sdpMessage
+            );
+            sdpMsgs.put(id, sdpMsgWrapper);
+            msgs.add(sdpMsgWrapper);
+        }
+        return msgs;
+    }
+}
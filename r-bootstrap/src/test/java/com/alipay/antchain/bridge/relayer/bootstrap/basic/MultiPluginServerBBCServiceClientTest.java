@@ -0,0 +1,192 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.basic;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.hutool.core.thread.ThreadUtil;
+import com.alipay.antchain.bridge.commons.bbc.AbstractBBCContext;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
+import com.alipay.antchain.bridge.relayer.core.types.pluginserver.IBBCServiceClient;
+import com.alipay.antchain.bridge.relayer.core.types.pluginserver.MultiPluginServerBBCServiceClient;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class MultiPluginServerBBCServiceClientTest {
+
+    private static final String PRODUCT = "simple-ethereum";
+
+    private static final String DOMAIN = "chain.web3net";
+
+    private IBBCServiceClient primary;
+
+    private IBBCServiceClient secondary;
+
+    @Before
+    public void setUp() {
+        primary = Mockito.mock(IBBCServiceClient.class);
+        secondary = Mockito.mock(IBBCServiceClient.class);
+    }
+
+    @Test
+    public void testReadPrefersLowerLatency() {
+        AtomicInteger primaryCalls = new AtomicInteger();
+        AtomicInteger secondaryCalls = new AtomicInteger();
+        Mockito.when(primary.queryLatestHeight()).thenAnswer(
+                invocation -> {
+                    primaryCalls.incrementAndGet();
+                    ThreadUtil.sleep(30);
+                    return 1L;
+                }
+        );
+        Mockito.when(secondary.queryLatestHeight()).thenAnswer(
+                invocation -> {
+                    secondaryCalls.incrementAndGet();
+                    return 1L;
+                }
+        );
+        MultiPluginServerBBCServiceClient client = newClient(60_000);
+
+        // 两个插件服务都有延迟样本之后，每次都选延迟更低的那个
+        for (int i = 0; i < 100 && (primaryCalls.get() == 0 || secondaryCalls.get() == 0); i++) {
+            client.queryLatestHeight();
+        }
+        Assert.assertTrue(primaryCalls.get() > 0 && secondaryCalls.get() > 0);
+
+        int primaryCallsBefore = primaryCalls.get();
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(1L, client.queryLatestHeight().longValue());
+        }
+        Assert.assertEquals(primaryCallsBefore, primaryCalls.get());
+    }
+
+    @Test
+    public void testReadRetryOnConnectionFailure() {
+        Mockito.when(primary.queryLatestHeight()).thenThrow(new StatusRuntimeException(Status.UNAVAILABLE));
+        Mockito.when(secondary.queryLatestHeight()).thenReturn(2L);
+        MultiPluginServerBBCServiceClient client = newClient(60_000);
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(2L, client.queryLatestHeight().longValue());
+        }
+        // 连接失败之后进入冷却，不再被选中
+        Mockito.verify(primary, Mockito.atMost(1)).queryLatestHeight();
+    }
+
+    @Test
+    public void testReadNotRetryOnBusinessError() {
+        Mockito.when(primary.queryLatestHeight()).thenThrow(new IllegalStateException("biz error"));
+        Mockito.when(secondary.queryLatestHeight()).thenReturn(2L);
+        MultiPluginServerBBCServiceClient client = newClient(60_000);
+
+        int failures = 0;
+        for (int i = 0; i < 50; i++) {
+            try {
+                client.queryLatestHeight();
+            } catch (IllegalStateException e) {
+                failures++;
+            }
+        }
+        // 业务错误直接抛出，不重试也不影响路由
+        Assert.assertTrue(failures > 1);
+        Mockito.verify(primary, Mockito.times(failures)).queryLatestHeight();
+        Mockito.verify(secondary, Mockito.times(50 - failures)).queryLatestHeight();
+    }
+
+    @Test
+    public void testWriterPinningAndFailover() {
+        CrossChainMessageReceipt receipt = new CrossChainMessageReceipt();
+        Mockito.when(primary.relayAuthMessage(Mockito.any()))
+                .thenThrow(new StatusRuntimeException(Status.UNAVAILABLE))
+                .thenReturn(receipt);
+        Mockito.when(secondary.relayAuthMessage(Mockito.any())).thenReturn(receipt);
+        MultiPluginServerBBCServiceClient client = newClient(200);
+
+        // 写请求固定发给主插件服务，失败不重试
+        Assert.assertThrows(StatusRuntimeException.class, () -> client.relayAuthMessage(new byte[]{1}));
+        Mockito.verify(secondary, Mockito.never()).relayAuthMessage(Mockito.any());
+
+        // 主插件服务冷却期间切到下一个
+        for (int i = 0; i < 5; i++) {
+            Assert.assertSame(receipt, client.relayAuthMessage(new byte[]{1}));
+        }
+        Mockito.verify(primary, Mockito.times(1)).relayAuthMessage(Mockito.any());
+        Mockito.verify(secondary, Mockito.times(5)).relayAuthMessage(Mockito.any());
+
+        // 冷却结束后切回主插件服务
+        ThreadUtil.sleep(300);
+        Assert.assertSame(receipt, client.relayAuthMessage(new byte[]{1}));
+        Mockito.verify(primary, Mockito.times(2)).relayAuthMessage(Mockito.any());
+        Mockito.verify(secondary, Mockito.times(5)).relayAuthMessage(Mockito.any());
+    }
+
+    @Test
+    public void testContextSync() {
+        AbstractBBCContext context = Mockito.mock(AbstractBBCContext.class);
+        Mockito.when(primary.getContext()).thenReturn(context);
+        MultiPluginServerBBCServiceClient client = newClient(60_000);
+
+        client.setAmContract("0x01");
+
+        Mockito.verify(primary).setAmContract("0x01");
+        Mockito.verify(secondary, Mockito.never()).setAmContract(Mockito.anyString());
+        Mockito.verify(secondary).startup(context);
+    }
+
+    @Test
+    public void testContextResyncAfterCooldown() {
+        AbstractBBCContext context = Mockito.mock(AbstractBBCContext.class);
+        Mockito.when(primary.getContext()).thenReturn(context);
+        Mockito.when(primary.queryLatestHeight()).thenReturn(1L);
+        Mockito.when(secondary.queryLatestHeight()).thenReturn(2L);
+        Mockito.doThrow(new IllegalStateException("sync failed"))
+                .doNothing()
+                .when(secondary).startup(context);
+        MultiPluginServerBBCServiceClient client = newClient(200);
+
+        client.setAmContract("0x01");
+        Mockito.verify(secondary, Mockito.times(1)).startup(context);
+
+        // 上下文没有同步的插件服务不处理请求
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(1L, client.queryLatestHeight().longValue());
+        }
+        Mockito.verify(secondary, Mockito.times(1)).startup(context);
+        Mockito.verify(secondary, Mockito.never()).queryLatestHeight();
+
+        // 冷却结束后补同步，成功后重新参与路由
+        ThreadUtil.sleep(300);
+        boolean secondaryUsed = false;
+        for (int i = 0; i < 100 && !secondaryUsed; i++) {
+            secondaryUsed = client.queryLatestHeight() == 2L;
+        }
+        Assert.assertTrue(secondaryUsed);
+        Mockito.verify(secondary, Mockito.times(2)).startup(context);
+    }
+
+    private MultiPluginServerBBCServiceClient newClient(long unhealthyCooldown) {
+        LinkedHashMap<String, IBBCServiceClient> clients = new LinkedHashMap<>();
+        clients.put("ps-primary", primary);
+        clients.put("ps-secondary", secondary);
+        return new MultiPluginServerBBCServiceClient(PRODUCT, DOMAIN, clients, unhealthyCooldown);
+    }
+}
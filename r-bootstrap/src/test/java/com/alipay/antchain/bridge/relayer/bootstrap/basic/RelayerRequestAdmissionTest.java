@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.basic;
+
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequestType;
+import com.alipay.antchain.bridge.relayer.server.network.RelayerRequestAdmission;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RelayerRequestAdmissionTest {
+
+    private static final String PEER_A = "relayer-a";
+
+    private static final String PEER_B = "relayer-b";
+
+    @Test
+    public void testLaneOf() {
+        Assert.assertEquals(RelayerRequestAdmission.Lane.HIGH, RelayerRequestAdmission.laneOf(RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGES_BATCH));
+        Assert.assertEquals(RelayerRequestAdmission.Lane.HIGH, RelayerRequestAdmission.laneOf(RelayerRequestType.SESSION_START));
+        Assert.assertEquals(RelayerRequestAdmission.Lane.LOW, RelayerRequestAdmission.laneOf(RelayerRequestType.QUERY_CROSSCHAIN_MSG_RECEIPT));
+        Assert.assertEquals(RelayerRequestAdmission.Lane.LOW, RelayerRequestAdmission.laneOf(null));
+    }
+
+    @Test
+    public void testMaxInFlightPerPeer() {
+        RelayerRequestAdmission admission = new RelayerRequestAdmission(2, 10, 1000);
+
+        RelayerRequestAdmission.Ticket t1 = admission.tryAdmit(PEER_A, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        RelayerRequestAdmission.Ticket t2 = admission.tryAdmit(PEER_A, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        Assert.assertNotNull(t1);
+        Assert.assertNotNull(t2);
+        Assert.assertNull(admission.tryAdmit(PEER_A, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE));
+
+        // 其他节点不受影响
+        RelayerRequestAdmission.Ticket t3 = admission.tryAdmit(PEER_B, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        Assert.assertNotNull(t3);
+
+        t1.close();
+        RelayerRequestAdmission.Ticket t4 = admission.tryAdmit(PEER_A, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        Assert.assertNotNull(t4);
+
+        t2.close();
+        t3.close();
+        t4.close();
+    }
+
+    @Test
+    public void testLowLaneLimit() {
+        RelayerRequestAdmission admission = new RelayerRequestAdmission(10, 1, 1000);
+
+        RelayerRequestAdmission.Ticket query = admission.tryAdmit(PEER_A, RelayerRequestType.QUERY_CROSSCHAIN_MSG_RECEIPT);
+        Assert.assertNotNull(query);
+        Assert.assertNull(admission.tryAdmit(PEER_B, RelayerRequestType.GET_RELAYER_BLOCKCHAIN_INFO));
+
+        // 低优先级占满时高优先级请求照常准入
+        RelayerRequestAdmission.Ticket am = admission.tryAdmit(PEER_B, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGES_BATCH);
+        Assert.assertNotNull(am);
+        am.close();
+
+        query.close();
+        RelayerRequestAdmission.Ticket next = admission.tryAdmit(PEER_B, RelayerRequestType.GET_RELAYER_BLOCKCHAIN_INFO);
+        Assert.assertNotNull(next);
+        next.close();
+    }
+
+    @Test
+    public void testRejectedLowLaneReleasesPeerSlot() {
+        RelayerRequestAdmission admission = new RelayerRequestAdmission(1, 1, 1000);
+
+        RelayerRequestAdmission.Ticket query = admission.tryAdmit(PEER_A, RelayerRequestType.QUERY_CROSSCHAIN_MSG_RECEIPT);
+        Assert.assertNotNull(query);
+        Assert.assertNull(admission.tryAdmit(PEER_B, RelayerRequestType.QUERY_CROSSCHAIN_MSG_RECEIPT));
+
+        // 被低优先级通道拒绝的请求不能占用节点的并发额度
+        RelayerRequestAdmission.Ticket am = admission.tryAdmit(PEER_B, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        Assert.assertNotNull(am);
+        am.close();
+        query.close();
+    }
+
+    @Test
+    public void testPeerOfAddress() {
+        RelayerRequestAdmission admission = new RelayerRequestAdmission(1, 10, 1000);
+
+        // 未认证的请求按对端地址准入，伪造的节点ID无法占用已认证节点的额度
+        RelayerRequestAdmission.Ticket hello = admission.tryAdmit(
+                RelayerRequestAdmission.peerOfAddress("127.0.0.1"),
+                RelayerRequestType.HELLO_START
+        );
+        Assert.assertNotNull(hello);
+        Assert.assertNull(admission.tryAdmit(RelayerRequestAdmission.peerOfAddress("127.0.0.1"), RelayerRequestType.HELLO_COMPLETE));
+
+        RelayerRequestAdmission.Ticket am = admission.tryAdmit("127.0.0.1", RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGE);
+        Assert.assertNotNull(am);
+
+        Assert.assertEquals(RelayerRequestAdmission.peerOfAddress(null), RelayerRequestAdmission.peerOfAddress(""));
+
+        hello.close();
+        am.close();
+        Assert.assertEquals(1000, admission.getRetryAfter());
+    }
+}
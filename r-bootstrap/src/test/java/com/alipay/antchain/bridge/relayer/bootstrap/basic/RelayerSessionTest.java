@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.basic;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.util.Arrays;
+
+import com.alipay.antchain.bridge.relayer.core.types.network.RelayerSession;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RelayerSessionTest {
+
+    @Test
+    public void testDeriveSessionKey() {
+        KeyPair requester = RelayerSession.generateEphemeralKeyPair();
+        KeyPair responder = RelayerSession.generateEphemeralKeyPair();
+        byte[] requesterPubkey = requester.getPublic().getEncoded();
+        byte[] responderPubkey = responder.getPublic().getEncoded();
+
+        byte[] keyOfRequester = RelayerSession.deriveSessionKey(requester.getPrivate(), responderPubkey, requesterPubkey, responderPubkey);
+        byte[] keyOfResponder = RelayerSession.deriveSessionKey(responder.getPrivate(), requesterPubkey, requesterPubkey, responderPubkey);
+        Assert.assertArrayEquals(keyOfRequester, keyOfResponder);
+        Assert.assertEquals(32, keyOfRequester.length);
+
+        // 公钥顺序不同则派生出不同的密钥
+        byte[] swapped = RelayerSession.deriveSessionKey(requester.getPrivate(), responderPubkey, responderPubkey, requesterPubkey);
+        Assert.assertFalse(Arrays.equals(keyOfRequester, swapped));
+
+        KeyPair other = RelayerSession.generateEphemeralKeyPair();
+        byte[] keyOfOther = RelayerSession.deriveSessionKey(other.getPrivate(), requesterPubkey, requesterPubkey, responderPubkey);
+        Assert.assertFalse(Arrays.equals(keyOfRequester, keyOfOther));
+    }
+
+    @Test
+    public void testMac() {
+        KeyPair requester = RelayerSession.generateEphemeralKeyPair();
+        KeyPair responder = RelayerSession.generateEphemeralKeyPair();
+        byte[] requesterPubkey = requester.getPublic().getEncoded();
+        byte[] responderPubkey = responder.getPublic().getEncoded();
+
+        RelayerSession sessionOfRequester = new RelayerSession(
+                "session-1", "responder",
+                RelayerSession.deriveSessionKey(requester.getPrivate(), responderPubkey, requesterPubkey, responderPubkey),
+                System.currentTimeMillis() + 60_000, null
+        );
+        RelayerSession sessionOfResponder = new RelayerSession(
+                "session-1", "requester",
+                RelayerSession.deriveSessionKey(responder.getPrivate(), requesterPubkey, requesterPubkey, responderPubkey),
+                System.currentTimeMillis() + 60_000, null
+        );
+
+        byte[] data = "hello relayer".getBytes(StandardCharsets.UTF_8);
+        byte[] mac = sessionOfRequester.mac(data);
+        Assert.assertTrue(sessionOfResponder.verifyMac(data, mac));
+        Assert.assertFalse(sessionOfResponder.verifyMac("hello relayer!".getBytes(StandardCharsets.UTF_8), mac));
+        Assert.assertFalse(sessionOfResponder.verifyMac(data, null));
+        Assert.assertFalse(sessionOfResponder.verifyMac(data, new byte[0]));
+
+        RelayerSession otherSession = new RelayerSession(
+                "session-2", "responder", new byte[32], System.currentTimeMillis() + 60_000, null
+        );
+        Assert.assertFalse(otherSession.verifyMac(data, mac));
+    }
+
+    @Test
+    public void testExpireAndRekey() {
+        RelayerSession session = new RelayerSession(
+                "session-1", "responder", new byte[32], System.currentTimeMillis() + 10_000, null
+        );
+        Assert.assertFalse(session.isExpired());
+        Assert.assertFalse(session.needRekey(1_000));
+        Assert.assertTrue(session.needRekey(20_000));
+
+        session.setExpireTime(System.currentTimeMillis() - 1);
+        Assert.assertTrue(session.isExpired());
+    }
+
+    @Test
+    public void testEncodeAndDecode() {
+        KeyPair keyPair = RelayerSession.generateEphemeralKeyPair();
+        byte[] pubkey = keyPair.getPublic().getEncoded();
+        RelayerSession session = new RelayerSession(
+                "session-1", "responder",
+                RelayerSession.deriveSessionKey(keyPair.getPrivate(), pubkey, pubkey, pubkey),
+                System.currentTimeMillis() + 60_000, null
+        );
+
+        RelayerSession decoded = RelayerSession.decode(session.encode());
+        Assert.assertEquals(session.getSessionId(), decoded.getSessionId());
+        Assert.assertEquals(session.getRemoteNodeId(), decoded.getRemoteNodeId());
+        Assert.assertEquals(session.getExpireTime(), decoded.getExpireTime());
+        Assert.assertArrayEquals(session.getSessionKey(), decoded.getSessionKey());
+        Assert.assertNull(decoded.getRemoteRelayerCertificate());
+
+        byte[] data = "hello relayer".getBytes(StandardCharsets.UTF_8);
+        Assert.assertTrue(decoded.verifyMac(data, session.mac(data)));
+    }
+}
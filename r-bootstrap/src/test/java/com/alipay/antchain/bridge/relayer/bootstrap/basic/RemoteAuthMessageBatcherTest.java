@@ -0,0 +1,175 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.basic;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import cn.hutool.core.collection.ListUtil;
+import com.alipay.antchain.bridge.commons.core.am.IAuthMessage;
+import com.alipay.antchain.bridge.relayer.core.service.process.RemoteAuthMessageBatcher;
+import com.alipay.antchain.bridge.relayer.core.types.network.RelayerClient;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerRequestUnsupportedException;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequestType;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.PropagateCrossChainMsgsRespPayload;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class RemoteAuthMessageBatcherTest {
+
+    private static final String RELAYER_NODE_ID = "relayer-a";
+
+    private static final String DOMAIN = "chain.web3net";
+
+    private RemoteAuthMessageBatcher batcher;
+
+    private RelayerClient relayerClient;
+
+    private IAuthMessage authMsg;
+
+    private final ExecutorService propagateThreadsPool = Executors.newFixedThreadPool(4);
+
+    @After
+    public void tearDown() {
+        propagateThreadsPool.shutdownNow();
+    }
+
+    @Before
+    public void setUp() {
+        relayerClient = Mockito.mock(RelayerClient.class);
+        authMsg = Mockito.mock(IAuthMessage.class);
+        Mockito.when(authMsg.encode()).thenReturn(new byte[]{1, 2, 3});
+
+        batcher = new RemoteAuthMessageBatcher();
+        ReflectionTestUtils.setField(batcher, "batchEnable", true);
+        ReflectionTestUtils.setField(batcher, "batchSize", 2);
+        ReflectionTestUtils.setField(batcher, "batchLinger", 500L);
+        ReflectionTestUtils.setField(batcher, "batchWaitTimeout", 3000L);
+    }
+
+    @Test
+    public void testResultsMatchedByUcpId() throws Exception {
+        // 结果顺序与请求不同，且缺少ucp-2的结果
+        Mockito.when(relayerClient.propagateCrossChainMsgsAsync(Mockito.anyList())).thenReturn(
+                CompletableFuture.completedFuture(ListUtil.toList(
+                        new PropagateCrossChainMsgsRespPayload.ItemResult("ucp-3", false, "rejected"),
+                        new PropagateCrossChainMsgsRespPayload.ItemResult("ucp-1", true, null)
+                ))
+        );
+        ReflectionTestUtils.setField(batcher, "batchSize", 3);
+
+        List<CompletableFuture<Void>> futures = ListUtil.toList(
+                propagateAsync("ucp-1"), propagateAsync("ucp-2"), propagateAsync("ucp-3")
+        );
+
+        futures.get(0).get(5, TimeUnit.SECONDS);
+        assertFailed(futures.get(1));
+        assertFailed(futures.get(2));
+        Mockito.verify(relayerClient, Mockito.never())
+                .propagateCrossChainMsgAsync(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void testNoResendOnBatchFailure() throws Exception {
+        CompletableFuture<List<PropagateCrossChainMsgsRespPayload.ItemResult>> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new RuntimeException("read timeout"));
+        Mockito.when(relayerClient.propagateCrossChainMsgsAsync(Mockito.anyList())).thenReturn(failed);
+
+        CompletableFuture<Void> f1 = propagateAsync("ucp-1");
+        CompletableFuture<Void> f2 = propagateAsync("ucp-2");
+        assertFailed(f1);
+        assertFailed(f2);
+
+        // 对端可能已经处理过，不逐条重发，批量也不被禁用
+        Mockito.verify(relayerClient, Mockito.never())
+                .propagateCrossChainMsgAsync(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.when(relayerClient.propagateCrossChainMsgsAsync(Mockito.anyList())).thenReturn(
+                CompletableFuture.completedFuture(ListUtil.toList(
+                        new PropagateCrossChainMsgsRespPayload.ItemResult("ucp-3", true, null),
+                        new PropagateCrossChainMsgsRespPayload.ItemResult("ucp-4", true, null)
+                ))
+        );
+        CompletableFuture<Void> f3 = propagateAsync("ucp-3");
+        CompletableFuture<Void> f4 = propagateAsync("ucp-4");
+        f3.get(5, TimeUnit.SECONDS);
+        f4.get(5, TimeUnit.SECONDS);
+        Mockito.verify(relayerClient, Mockito.times(2)).propagateCrossChainMsgsAsync(Mockito.anyList());
+    }
+
+    @Test
+    public void testFallbackWhenBatchUnsupported() throws Exception {
+        CompletableFuture<List<PropagateCrossChainMsgsRespPayload.ItemResult>> unsupported = new CompletableFuture<>();
+        unsupported.completeExceptionally(
+                new RelayerRequestUnsupportedException(RELAYER_NODE_ID, RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGES_BATCH)
+        );
+        Mockito.when(relayerClient.propagateCrossChainMsgsAsync(Mockito.anyList())).thenReturn(unsupported);
+        Mockito.when(relayerClient.propagateCrossChainMsgAsync(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        CompletableFuture<Void> f1 = propagateAsync("ucp-1");
+        CompletableFuture<Void> f2 = propagateAsync("ucp-2");
+        f1.get(5, TimeUnit.SECONDS);
+        f2.get(5, TimeUnit.SECONDS);
+        Mockito.verify(relayerClient, Mockito.times(2))
+                .propagateCrossChainMsgAsync(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        // 之后一段时间内直接逐条同步发送
+        batcher.propagate(RELAYER_NODE_ID, relayerClient, DOMAIN, "ucp-3", authMsg, "", "");
+        Mockito.verify(relayerClient).propagateCrossChainMsg(DOMAIN, "ucp-3", authMsg, "", "");
+        Mockito.verify(relayerClient, Mockito.times(1)).propagateCrossChainMsgsAsync(Mockito.anyList());
+    }
+
+    @Test
+    public void testWaitTimeout() {
+        // 响应一直没有返回
+        Mockito.when(relayerClient.propagateCrossChainMsgsAsync(Mockito.anyList())).thenReturn(new CompletableFuture<>());
+        ReflectionTestUtils.setField(batcher, "batchSize", 1);
+        ReflectionTestUtils.setField(batcher, "batchWaitTimeout", 200L);
+
+        try {
+            batcher.propagate(RELAYER_NODE_ID, relayerClient, DOMAIN, "ucp-1", authMsg, "", "");
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(e.getCause() instanceof TimeoutException);
+        }
+    }
+
+    private CompletableFuture<Void> propagateAsync(String ucpId) {
+        return CompletableFuture.runAsync(
+                () -> batcher.propagate(RELAYER_NODE_ID, relayerClient, DOMAIN, ucpId, authMsg, "", ""),
+                propagateThreadsPool
+        );
+    }
+
+    private void assertFailed(CompletableFuture<Void> future) throws Exception {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            // expected
+        }
+    }
+}
@@ -19,8 +19,11 @@ package com.alipay.antchain.bridge.relayer.bootstrap.manager;
 import java.util.List;
 import javax.annotation.Resource;
 
+import cn.hutool.cache.Cache;
 import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.HexUtil;
 import com.alipay.antchain.bridge.bcdns.factory.BlockChainDomainNameServiceFactory;
 import com.alipay.antchain.bridge.bcdns.service.BCDNSTypeEnum;
 import com.alipay.antchain.bridge.bcdns.service.IBlockChainDomainNameService;
@@ -41,7 +44,10 @@ import com.alipay.antchain.bridge.relayer.commons.model.DomainCertApplicationDO;
 import com.alipay.antchain.bridge.relayer.commons.model.DomainCertWrapper;
 import com.alipay.antchain.bridge.relayer.core.manager.bcdns.IBCDNSManager;
 import com.alipay.antchain.bridge.relayer.core.manager.blockchain.IBlockchainManager;
+import com.alipay.antchain.bridge.relayer.dal.entities.DomainSpaceCertEntity;
+import com.alipay.antchain.bridge.relayer.dal.mapper.DomainSpaceCertMapper;
 import com.alipay.antchain.bridge.relayer.dal.repository.IBlockchainRepository;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -63,6 +69,12 @@ public class BCDNSManagerTest extends TestBase {
     @Resource
     private IBlockchainRepository blockchainRepository;
 
+    @Resource
+    private DomainSpaceCertMapper domainSpaceCertMapper;
+
+    @Resource(name = "verifiedCertCache")
+    private Cache<String, Boolean> verifiedCertCache;
+
     @Mock
     private IBlockChainDomainNameService bcdnsService;
 
@@ -148,6 +160,62 @@ public class BCDNSManagerTest extends TestBase {
         );
     }
 
+    @Test
+    public void testValidateCrossChainCertificateCacheHit() {
+        initRootBCDNS();
+        verifiedCertCache.clear();
+        Assert.assertTrue(bcdnsManager.validateCrossChainCertificate(relayerCert));
+        Assert.assertEquals(1, verifiedCertCache.size());
+
+        // 信任根从DB直接删除，缓存命中时不再读取信任根
+        deleteTrustRootOf(relayerCert);
+        Assert.assertTrue(bcdnsManager.validateCrossChainCertificate(relayerCert));
+        // 验证失败的结果不缓存
+        Assert.assertFalse(bcdnsManager.validateCrossChainCertificate(relayerCertWrongIssuer));
+        Assert.assertEquals(1, verifiedCertCache.size());
+    }
+
+    @Test
+    public void testValidateCrossChainCertificateCacheExpiry() {
+        initRootBCDNS();
+        verifiedCertCache.clear();
+
+        // 已经过期的证书不缓存
+        AbstractCrossChainCertificate expiredCert = Mockito.spy(relayerCert);
+        Mockito.doReturn(System.currentTimeMillis() / 1000 - 10).when(expiredCert).getExpirationDate();
+        Assert.assertTrue(bcdnsManager.validateCrossChainCertificate(expiredCert));
+        Assert.assertEquals(0, verifiedCertCache.size());
+
+        // 缓存时间不超过证书的过期时间
+        AbstractCrossChainCertificate expiringCert = Mockito.spy(relayerCert);
+        Mockito.doReturn(System.currentTimeMillis() / 1000 + 2).when(expiringCert).getExpirationDate();
+        Assert.assertTrue(bcdnsManager.validateCrossChainCertificate(expiringCert));
+        deleteTrustRootOf(relayerCert);
+        Assert.assertTrue(bcdnsManager.validateCrossChainCertificate(expiringCert));
+
+        ThreadUtil.sleep(2500);
+        Assert.assertFalse(bcdnsManager.validateCrossChainCertificate(expiringCert));
+    }
+
+    @Test
+    public void testValidateCrossChainCertificateCacheInvalidation() {
+        initRootBCDNS();
+        Assert.assertTrue(bcdnsManager.validateCrossChainCertificate(relayerCert));
+
+        // 重新保存域名空间证书后，之前的验证结果失效
+        domainSpaceCertMapper.delete(
+                new LambdaQueryWrapper<DomainSpaceCertEntity>()
+                        .eq(DomainSpaceCertEntity::getDomainSpace, dotComDomainSpace)
+        );
+        bcdnsManager.saveDomainSpaceCerts(
+                MapUtil.builder(dotComDomainSpace, dotComDomainSpaceCert).build()
+        );
+        Assert.assertEquals(0, verifiedCertCache.size());
+
+        deleteTrustRootOf(relayerCert);
+        Assert.assertFalse(bcdnsManager.validateCrossChainCertificate(relayerCert));
+    }
+
     @Test
     public void testApplyDomainCertificate() {
         initRootBCDNS();
@@ -274,6 +342,13 @@ public class BCDNSManagerTest extends TestBase {
         mockedStatic.close();
     }
 
+    private void deleteTrustRootOf(AbstractCrossChainCertificate certificate) {
+        domainSpaceCertMapper.delete(
+                new LambdaQueryWrapper<DomainSpaceCertEntity>()
+                        .eq(DomainSpaceCertEntity::getOwnerOidHex, HexUtil.encodeHexStr(certificate.getIssuer().encode()))
+        );
+    }
+
     private void initRootBCDNS() {
         bcdnsManager.registerBCDNSService(
                 CrossChainDomain.ROOT_DOMAIN_SPACE,
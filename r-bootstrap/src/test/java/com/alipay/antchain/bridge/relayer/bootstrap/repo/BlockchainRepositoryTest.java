@@ -20,6 +20,7 @@ import java.util.List;
 import javax.annotation.Resource;
 
 import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.map.MapUtil;
 import com.alipay.antchain.bridge.relayer.bootstrap.TestBase;
 import com.alipay.antchain.bridge.relayer.commons.constant.BlockchainStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
@@ -33,6 +34,7 @@ import com.alipay.antchain.bridge.relayer.dal.entities.DomainCertEntity;
 import com.alipay.antchain.bridge.relayer.dal.mapper.AnchorProcessMapper;
 import com.alipay.antchain.bridge.relayer.dal.mapper.DomainCertMapper;
 import com.alipay.antchain.bridge.relayer.dal.repository.IBlockchainRepository;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.FixMethodOrder;
@@ -221,6 +223,85 @@ public class BlockchainRepositoryTest extends TestBase {
         );
     }
 
+    @Test
+    public void testSetAnchorProcessHeights() {
+        String blockchainId = testchain1Meta.getBlockchainId() + "setAnchorProcessHeights";
+        anchorProcessMapper.insert(
+                new AnchorProcessEntity(
+                        testchain1Meta.getProduct(),
+                        blockchainId,
+                        BlockTaskTypeEnum.POLLING.getCode(),
+                        200L
+                )
+        );
+        anchorProcessMapper.insert(
+                new AnchorProcessEntity(
+                        testchain1Meta.getProduct(),
+                        blockchainId,
+                        BlockTaskTypeEnum.SYNC.getCode(),
+                        150L
+                )
+        );
+
+        // 只更新部分任务的高度，其他任务的高度要保留
+        String notifyHeightType = BlockTaskTypeEnum.NOTIFY.toNotifyWorkerHeightType(NotifyTaskTypeEnum.CROSSCHAIN_MSG_WORKER.getCode());
+        blockchainRepository.setAnchorProcessHeights(
+                testchain1Meta.getProduct(),
+                blockchainId,
+                MapUtil.<String, Long>builder()
+                        .put(BlockTaskTypeEnum.SYNC.getCode(), 300L)
+                        .put(notifyHeightType, 120L)
+                        .build()
+        );
+
+        AnchorProcessHeights anchorProcessHeights = blockchainRepository.getAnchorProcessHeights(
+                testchain1Meta.getProduct(),
+                blockchainId
+        );
+        Assert.assertNotNull(anchorProcessHeights);
+        Assert.assertEquals(200L, anchorProcessHeights.getProcessHeights().get(BlockTaskTypeEnum.POLLING.getCode()).longValue());
+        Assert.assertEquals(300L, anchorProcessHeights.getProcessHeights().get(BlockTaskTypeEnum.SYNC.getCode()).longValue());
+        Assert.assertEquals(120L, anchorProcessHeights.getProcessHeights().get(notifyHeightType).longValue());
+
+        // 缓存中已有高度时合并写入
+        blockchainRepository.setAnchorProcessHeight(
+                testchain1Meta.getProduct(),
+                blockchainId,
+                BlockTaskTypeEnum.POLLING.getCode(),
+                250L
+        );
+        blockchainRepository.setAnchorProcessHeights(
+                testchain1Meta.getProduct(),
+                blockchainId,
+                MapUtil.of(BlockTaskTypeEnum.SYNC.getCode(), 310L)
+        );
+        Assert.assertEquals(
+                250L,
+                blockchainRepository.getAnchorProcessHeight(testchain1Meta.getProduct(), blockchainId, BlockTaskTypeEnum.POLLING.getCode()).longValue()
+        );
+        Assert.assertEquals(
+                310L,
+                blockchainRepository.getAnchorProcessHeight(testchain1Meta.getProduct(), blockchainId, BlockTaskTypeEnum.SYNC.getCode()).longValue()
+        );
+        Assert.assertEquals(
+                120L,
+                blockchainRepository.getAnchorProcessHeight(testchain1Meta.getProduct(), blockchainId, notifyHeightType).longValue()
+        );
+
+        // saveHeights写入DB的高度
+        List<AnchorProcessEntity> entities = anchorProcessMapper.selectList(
+                new LambdaQueryWrapper<AnchorProcessEntity>()
+                        .eq(AnchorProcessEntity::getProduct, testchain1Meta.getProduct())
+                        .eq(AnchorProcessEntity::getBlockchainId, blockchainId)
+        );
+        Assert.assertEquals(3, entities.size());
+        Assert.assertEquals(
+                310L,
+                entities.stream().filter(e -> BlockTaskTypeEnum.SYNC.getCode().equals(e.getTask()))
+                        .findFirst().get().getBlockHeight().longValue()
+        );
+    }
+
     @Test
     public void test0_GetAllBlockchainMeta() {
         saveSomeBlockchains();
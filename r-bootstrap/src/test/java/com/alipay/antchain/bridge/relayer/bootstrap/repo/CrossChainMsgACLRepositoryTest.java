@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.bootstrap.repo;
+
+import javax.annotation.Resource;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alipay.antchain.bridge.relayer.bootstrap.TestBase;
+import com.alipay.antchain.bridge.relayer.commons.model.CrossChainMsgACLItem;
+import com.alipay.antchain.bridge.relayer.core.manager.gov.CrossChainMsgACLIndex;
+import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMsgACLRepository;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CrossChainMsgACLRepositoryTest extends TestBase {
+
+    private static final String ID_A = DigestUtil.sha256Hex("identity_a");
+
+    private static final String ID_B = DigestUtil.sha256Hex("identity_b");
+
+    private static final String ID_C = DigestUtil.sha256Hex("identity_c");
+
+    private static final String ID_D = DigestUtil.sha256Hex("identity_d");
+
+    @Resource
+    private ICrossChainMsgACLRepository crossChainMsgACLRepository;
+
+    @Test
+    public void testACLIndexMatchesCheckItem() {
+        // 精确规则、双方任意、发送方任意、接收方任意
+        saveItem("acl_exact", "exact.owner", ID_A, "exact.grant", ID_B);
+        saveItem("acl_any_any", "anyany.owner", null, "anyany.grant", null);
+        saveItem("acl_any_grant", "anygrant.owner", ID_A, "anygrant.grant", null);
+        saveItem("acl_any_owner", "anyowner.owner", null, "anyowner.grant", ID_B);
+        saveItem("acl_deleted", "deleted.owner", ID_A, "deleted.grant", ID_B);
+        crossChainMsgACLRepository.deleteItem("acl_deleted");
+
+        CrossChainMsgACLIndex index = CrossChainMsgACLIndex.build(crossChainMsgACLRepository.getAllValidItems());
+
+        Assert.assertTrue(index.check("exact.owner", ID_A, "exact.grant", ID_B));
+        Assert.assertFalse(index.check("exact.owner", ID_C, "exact.grant", ID_B));
+        Assert.assertTrue(index.check("anyany.owner", ID_C, "anyany.grant", ID_D));
+        Assert.assertTrue(index.check("anygrant.owner", ID_A, "anygrant.grant", ID_D));
+        Assert.assertFalse(index.check("anygrant.owner", ID_C, "anygrant.grant", ID_B));
+        Assert.assertTrue(index.check("anyowner.owner", ID_C, "anyowner.grant", ID_B));
+        Assert.assertFalse(index.check("anyowner.owner", ID_A, "anyowner.grant", ID_D));
+        Assert.assertFalse(index.check("deleted.owner", ID_A, "deleted.grant", ID_B));
+
+        // 所有组合下索引和DB查询的结果保持一致
+        String[] domains = new String[]{"exact", "anyany", "anygrant", "anyowner", "deleted", "unknown"};
+        String[] ownerIds = new String[]{ID_A, ID_C, ID_A.toUpperCase()};
+        String[] grantIds = new String[]{ID_B, ID_D, ID_B.toUpperCase()};
+        for (String domain : domains) {
+            for (String ownerId : ownerIds) {
+                for (String grantId : grantIds) {
+                    String ownerDomain = domain + ".owner";
+                    String grantDomain = domain + ".grant";
+                    CrossChainMsgACLItem item = new CrossChainMsgACLItem();
+                    item.setOwnerDomain(ownerDomain);
+                    item.setOwnerIdentityHex(ownerId);
+                    item.setGrantDomain(grantDomain);
+                    item.setGrantIdentityHex(grantId);
+                    Assert.assertEquals(
+                            StrUtil.format("mismatch for ({}, {}, {}, {})", ownerDomain, ownerId, grantDomain, grantId),
+                            crossChainMsgACLRepository.checkItem(item),
+                            index.check(ownerDomain, ownerId, grantDomain, grantId)
+                    );
+                }
+            }
+        }
+    }
+
+    private void saveItem(String bizId, String ownerDomain, String ownerIdHex, String grantDomain, String grantIdHex) {
+        crossChainMsgACLRepository.saveItem(
+                CrossChainMsgACLItem.builder()
+                        .bizId(bizId)
+                        .ownerDomain(ownerDomain)
+                        .ownerIdentity(ownerIdHex)
+                        .ownerIdentityHex(ownerIdHex)
+                        .grantDomain(grantDomain)
+                        .grantIdentity(grantIdHex)
+                        .grantIdentityHex(grantIdHex)
+                        .build()
+        );
+    }
+}
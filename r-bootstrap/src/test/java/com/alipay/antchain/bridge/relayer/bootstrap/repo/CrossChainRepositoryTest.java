@@ -17,7 +17,9 @@
 package com.alipay.antchain.bridge.relayer.bootstrap.repo;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Resource;
 
 import cn.hutool.core.collection.ListUtil;
@@ -158,6 +160,23 @@ public class CrossChainRepositoryTest extends TestBase {
         Assert.assertEquals(31, authMsgWrappers.size());
     }
 
+    @Test
+    public void testPeekAuthMessagesFromId() {
+        saveElevenAM(getAMCurrentId());
+
+        List<AuthMsgWrapper> firstPage = crossChainMessageRepository.peekAuthMessages("test", 5, 10, 0, ListUtil.empty());
+        Assert.assertEquals(5, firstPage.size());
+
+        long lastSeenId = firstPage.get(firstPage.size() - 1).getAuthMsgId();
+        List<AuthMsgWrapper> secondPage = crossChainMessageRepository.peekAuthMessages(
+                "test", 5, 10, lastSeenId, ListUtil.of(lastSeenId + 1)
+        );
+        Assert.assertEquals(5, secondPage.size());
+        Assert.assertTrue(
+                secondPage.stream().allMatch(am -> am.getAuthMsgId() > lastSeenId + 1)
+        );
+    }
+
     @Test
     public void testArchiveAuthMessages() {
         saveElevenAM(getAMCurrentId());
@@ -298,6 +317,32 @@ public class CrossChainRepositoryTest extends TestBase {
         );
     }
 
+    @Test
+    public void testBatchUpdateSDPMessageResults() {
+        saveSomeSDP();
+        long lastId = getSDPCurrentId();
+
+        SDPMsgCommitResult resultByTxHash = new SDPMsgCommitResult(
+                "eth", "ethid", DigestUtil.sha256Hex(Integer.toString(9)), true, "", System.currentTimeMillis()
+        );
+        SDPMsgCommitResult resultById = new SDPMsgCommitResult(
+                lastId, "eth", "ethid", DigestUtil.sha256Hex(Integer.toString(10)), false, "test!", System.currentTimeMillis()
+        );
+
+        Assert.assertTrue(
+                crossChainMessageRepository.batchUpdateSDPMessageResults(ListUtil.toList(resultByTxHash, resultById)) >= 2
+        );
+
+        Assert.assertEquals(
+                SDPMsgProcessStateEnum.TX_SUCCESS,
+                crossChainMessageRepository.getSDPMessage(DigestUtil.sha256Hex(Integer.toString(9))).getProcessState()
+        );
+        SDPMsgWrapper sdpMsgWrapper = crossChainMessageRepository.getSDPMessage(lastId, false);
+        Assert.assertEquals(SDPMsgProcessStateEnum.TX_FAILED, sdpMsgWrapper.getProcessState());
+        Assert.assertFalse(sdpMsgWrapper.isTxSuccess());
+        Assert.assertEquals("test!", sdpMsgWrapper.getTxFailReason());
+    }
+
     @Test
     public void testPeekTxPendingSDPMessageIds() {
         saveSomeSDP();
@@ -419,6 +464,135 @@ public class CrossChainRepositoryTest extends TestBase {
         Assert.assertNotNull(authMsgWrapper.getAuthMessage());
     }
 
+    @Test
+    public void testBatchUpdateAuthMessagesState() {
+        long startId = getAMCurrentId();
+        saveElevenAM(startId);
+
+        String ucpId1 = HexUtil.encodeHexStr(ByteUtil.longToBytes(startId + 1));
+        String ucpId2 = HexUtil.encodeHexStr(ByteUtil.longToBytes(startId + 2));
+        String ucpId3 = HexUtil.encodeHexStr(ByteUtil.longToBytes(startId + 3));
+        Assert.assertTrue(crossChainMessageRepository.updateAuthMessageState(ucpId1, AuthMsgProcessStateEnum.NOT_READY));
+        Assert.assertTrue(crossChainMessageRepository.updateAuthMessageState(ucpId2, AuthMsgProcessStateEnum.NOT_READY));
+
+        Map<String, AuthMsgProcessStateEnum> newStateMap = new HashMap<>();
+        newStateMap.put(ucpId1, AuthMsgProcessStateEnum.PROVED);
+        newStateMap.put(ucpId2, AuthMsgProcessStateEnum.PENDING);
+        // 不是NOT_READY的消息不会被更新
+        newStateMap.put(ucpId3, AuthMsgProcessStateEnum.PROVED);
+
+        Assert.assertEquals(
+                2,
+                crossChainMessageRepository.batchUpdateAuthMessagesState(newStateMap, AuthMsgProcessStateEnum.NOT_READY)
+        );
+        Assert.assertEquals(AuthMsgProcessStateEnum.PROVED, crossChainMessageRepository.getAuthMessageState(ucpId1));
+        Assert.assertEquals(AuthMsgProcessStateEnum.PENDING, crossChainMessageRepository.getAuthMessageState(ucpId2));
+        Assert.assertEquals(AuthMsgProcessStateEnum.PENDING, crossChainMessageRepository.getAuthMessageState(ucpId3));
+
+        Assert.assertEquals(
+                0,
+                crossChainMessageRepository.batchUpdateAuthMessagesState(new HashMap<>(), AuthMsgProcessStateEnum.NOT_READY)
+        );
+    }
+
+    @Test
+    public void testGetUcpIds() {
+        saveElevenAM(getAMCurrentId());
+
+        Map<Long, String> ucpIds = crossChainMessageRepository.getUcpIds(ListUtil.of(1L, 3L, 5L, 100L));
+        // 不存在的id不在结果中
+        Assert.assertEquals(3, ucpIds.size());
+        Assert.assertEquals(HexUtil.encodeHexStr(ByteUtil.longToBytes(1L)), ucpIds.get(1L));
+        Assert.assertEquals(HexUtil.encodeHexStr(ByteUtil.longToBytes(5L)), ucpIds.get(5L));
+        Assert.assertFalse(ucpIds.containsKey(100L));
+
+        Assert.assertTrue(crossChainMessageRepository.getUcpIds(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testQuerySDPMessages() {
+        saveElevenAM(getAMCurrentId());
+        saveSomeSDP();
+        markSDPMessageState(2L, SDPMsgProcessStateEnum.TX_SUCCESS);
+
+        String ucpIdOfSDP2 = HexUtil.encodeHexStr(ByteUtil.longToBytes(2L));
+        String ucpIdOfSDP3 = HexUtil.encodeHexStr(ByteUtil.longToBytes(3L));
+        List<String> ucpIds = ListUtil.of(ucpIdOfSDP2, ucpIdOfSDP3, "unknown");
+
+        Map<String, SDPMsgWrapper> result = crossChainMessageRepository.querySDPMessages(ucpIds, 0);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(SDPMsgProcessStateEnum.TX_SUCCESS, result.get(ucpIdOfSDP2).getProcessState());
+        Assert.assertEquals(DigestUtil.sha256Hex("1"), result.get(ucpIdOfSDP2).getTxHash());
+        Assert.assertEquals(SDPMsgProcessStateEnum.PENDING, result.get(ucpIdOfSDP3).getProcessState());
+
+        // 归档之后仍然可以查到
+        Assert.assertEquals(1, crossChainMessageRepository.archiveMessagesByIdRange("eth", "ethid", 2, 2));
+        result = crossChainMessageRepository.querySDPMessages(ucpIds, 0);
+        Assert.assertEquals(2, result.size());
+        Assert.assertEquals(SDPMsgProcessStateEnum.TX_SUCCESS, result.get(ucpIdOfSDP2).getProcessState());
+
+        // 只返回在指定时间之后有更新的消息
+        Assert.assertTrue(crossChainMessageRepository.querySDPMessages(ucpIds, System.currentTimeMillis() + 60_000).isEmpty());
+        Assert.assertTrue(crossChainMessageRepository.querySDPMessages(new ArrayList<>(), 0).isEmpty());
+    }
+
+    @Test
+    public void testGetMinIdOfTxFinishedSDPMessages() {
+        saveSomeSDP();
+        markSDPMessageState(3L, SDPMsgProcessStateEnum.TX_SUCCESS);
+        markSDPMessageState(6L, SDPMsgProcessStateEnum.TX_FAILED);
+        markSDPMessageState(8L, SDPMsgProcessStateEnum.TX_PENDING);
+
+        Assert.assertEquals(new Long(3L), crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "ethid", 0));
+        Assert.assertEquals(new Long(3L), crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "ethid", 3));
+        Assert.assertEquals(new Long(6L), crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "ethid", 4));
+        // 交易还没有结束的消息不算在内
+        Assert.assertNull(crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "ethid", 7));
+        Assert.assertNull(crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "other", 0));
+    }
+
+    @Test
+    public void testArchiveMessagesByIdRange() {
+        saveElevenAM(getAMCurrentId());
+        saveSomeSDP();
+        markSDPMessageState(2L, SDPMsgProcessStateEnum.TX_SUCCESS);
+        markSDPMessageState(3L, SDPMsgProcessStateEnum.TX_FAILED);
+        markSDPMessageState(5L, SDPMsgProcessStateEnum.TX_SUCCESS);
+        markSDPMessageState(4L, SDPMsgProcessStateEnum.TX_PENDING);
+        markSDPMessageState(9L, SDPMsgProcessStateEnum.TX_SUCCESS);
+
+        Assert.assertEquals(0, crossChainMessageRepository.archiveMessagesByIdRange("eth", "other", 1, 11));
+        Assert.assertEquals(3, crossChainMessageRepository.archiveMessagesByIdRange("eth", "ethid", 1, 5));
+
+        // 范围内交易已结束的SDP消息和对应的AM消息搬到归档表
+        List<Long> archivedIds = ListUtil.of(2L, 3L, 5L);
+        Assert.assertEquals(3, sdpMsgArchiveMapper.selectBatchIds(archivedIds).size());
+        Assert.assertEquals(0, sdpMsgPoolMapper.selectBatchIds(archivedIds).size());
+        Assert.assertEquals(3, authMsgArchiveMapper.selectBatchIds(archivedIds).size());
+        Assert.assertEquals(0, authMsgPoolMapper.selectBatchIds(archivedIds).size());
+
+        // 范围内交易没有结束的和范围外的消息保留在消息池
+        Assert.assertEquals(3, sdpMsgPoolMapper.selectBatchIds(ListUtil.of(1L, 4L, 9L)).size());
+        Assert.assertEquals(3, authMsgPoolMapper.selectBatchIds(ListUtil.of(1L, 4L, 9L)).size());
+        Assert.assertEquals(0, sdpMsgArchiveMapper.selectBatchIds(ListUtil.of(1L, 4L, 9L)).size());
+
+        // 重复归档同一个范围不会有副作用
+        Assert.assertEquals(0, crossChainMessageRepository.archiveMessagesByIdRange("eth", "ethid", 1, 5));
+        Assert.assertEquals(new Long(9L), crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "ethid", 0));
+
+        Assert.assertEquals(1, crossChainMessageRepository.archiveMessagesByIdRange("eth", "ethid", 6, 11));
+        Assert.assertNull(crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages("eth", "ethid", 0));
+    }
+
+    private void markSDPMessageState(long id, SDPMsgProcessStateEnum state) {
+        SDPMsgPoolEntity entity = new SDPMsgPoolEntity();
+        entity.setProcessState(state);
+        Assert.assertEquals(
+                1,
+                sdpMsgPoolMapper.update(entity, new LambdaUpdateWrapper<SDPMsgPoolEntity>().eq(BaseEntity::getId, id))
+        );
+    }
+
     private long getAMCurrentId() {
         AuthMsgPoolEntity entity = new AuthMsgPoolEntity();
         entity.setId(0L);
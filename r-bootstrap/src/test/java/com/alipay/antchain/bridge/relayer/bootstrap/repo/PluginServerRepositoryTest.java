@@ -22,6 +22,7 @@ import javax.annotation.Resource;
 
 import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.map.MapUtil;
 import com.alipay.antchain.bridge.relayer.bootstrap.TestBase;
 import com.alipay.antchain.bridge.relayer.commons.constant.PluginServerStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.PluginServerDO;
@@ -83,6 +84,48 @@ public class PluginServerRepositoryTest extends TestBase {
         );
     }
 
+    @Test
+    public void testBatchUpdatePluginServerStates() {
+        savePS();
+
+        pluginServerRepository.batchUpdatePluginServerStates(
+                MapUtil.of(pluginServerDO.getPsId(), PluginServerStateEnum.HEARTBEAT_LOST)
+        );
+        Assert.assertEquals(
+                PluginServerStateEnum.HEARTBEAT_LOST,
+                pluginServerRepository.getPluginServerStateEnum(pluginServerDO.getPsId())
+        );
+        Assert.assertEquals(
+                1,
+                pluginServerRepository.getAllPluginServers(PluginServerStateEnum.HEARTBEAT_LOST).size()
+        );
+        Assert.assertTrue(
+                pluginServerRepository.getAllPluginServers(PluginServerStateEnum.READY).isEmpty()
+        );
+    }
+
+    @Test
+    public void testPluginServerStateCache() {
+        savePS();
+
+        // 读路径回填缓存
+        Assert.assertEquals(
+                PluginServerStateEnum.INIT,
+                pluginServerRepository.getPluginServerStateEnum(pluginServerDO.getPsId())
+        );
+
+        // 写入后缓存中的状态被替换，后续读取不会拿到旧值
+        pluginServerRepository.updatePluginServerState(pluginServerDO.getPsId(), PluginServerStateEnum.READY);
+        Assert.assertEquals(
+                PluginServerStateEnum.READY,
+                pluginServerRepository.getPluginServerStateEnum(pluginServerDO.getPsId())
+        );
+        Assert.assertEquals(
+                PluginServerStateEnum.READY,
+                pluginServerRepository.getPluginServerStateEnum(pluginServerDO.getPsId())
+        );
+    }
+
     private void savePS() {
         pluginServerRepository.insertNewPluginServer(pluginServerDO);
     }
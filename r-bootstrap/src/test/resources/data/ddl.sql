@@ -334,6 +334,8 @@ CREATE TABLE IF NOT EXISTS `dt_active_node`
     `node_id`          varchar(64) DEFAULT NULL,
     `node_ip`          varchar(64) DEFAULT NULL,
     `state`            varchar(64) DEFAULT NULL,
+    `queued_task_count` int(11)    DEFAULT 0,
+    `cpu_load`         double      DEFAULT 0,
     `last_active_time` datetime(3) DEFAULT CURRENT_TIMESTAMP(3),
     `gmt_create`       datetime    DEFAULT CURRENT_TIMESTAMP,
     `gmt_modified`     datetime    DEFAULT CURRENT_TIMESTAMP,
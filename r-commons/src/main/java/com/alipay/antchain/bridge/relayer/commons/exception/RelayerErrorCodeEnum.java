@@ -113,6 +113,10 @@ public enum RelayerErrorCodeEnum {
 
     SERVER_RELAYER_HELLO_ERROR("0404", "relayer hello error"),
 
+    SERVER_RELAYER_BUSY("0405", "relayer server busy"),
+
+    SERVER_REQUEST_TYPE_UNSUPPORTED("0406", "relayer request type unsupported"),
+
     /**
      *
      */
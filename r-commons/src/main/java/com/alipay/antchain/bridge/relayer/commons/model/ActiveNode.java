@@ -19,6 +19,16 @@ public class ActiveNode {
     private String nodeIp;
     private long lastActiveTime;
 
+    /**
+     * 节点上排队和执行中的值班任务数
+     */
+    private int queuedTaskCount;
+
+    /**
+     * 节点上报的CPU负载，按核数归一化
+     */
+    private double cpuLoad;
+
     public boolean ifActive(long activateTimeLength) {
         return (System.currentTimeMillis() - this.lastActiveTime) <= activateTimeLength;
     }
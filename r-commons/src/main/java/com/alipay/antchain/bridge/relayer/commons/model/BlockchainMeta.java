@@ -16,6 +16,8 @@
 
 package com.alipay.antchain.bridge.relayer.commons.model;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -75,6 +77,7 @@ public class BlockchainMeta {
                 "is_domain_registered",
                 Constants.HETEROGENEOUS_BBC_CONTEXT,
                 "plugin_server_id",
+                "secondary_plugin_server_ids",
                 Constants.AM_SERVICE_STATUS,
                 "extra_properties"
         );
@@ -100,6 +103,13 @@ public class BlockchainMeta {
         @JSONField(name = "plugin_server_id")
         private String pluginServerId;
 
+        /**
+         * 同时服务该链的其他插件服务id，逗号分隔。
+         * 读请求在所有健康的插件服务之间分摊，写请求优先发往{@code plugin_server_id}
+         */
+        @JSONField(name = "secondary_plugin_server_ids")
+        private String secondaryPluginServerIds;
+
         @JSONField(name = Constants.AM_SERVICE_STATUS)
         private OnChainServiceStatusEnum amServiceStatus;
 
@@ -153,6 +163,22 @@ public class BlockchainMeta {
         return properties.getPluginServerId();
     }
 
+    /**
+     * 服务该链的所有插件服务id，第一个为主插件服务
+     */
+    public List<String> getAllPluginServerIds() {
+        List<String> psIds = new ArrayList<>();
+        if (StrUtil.isNotEmpty(properties.getPluginServerId())) {
+            psIds.add(properties.getPluginServerId());
+        }
+        if (StrUtil.isNotEmpty(properties.getSecondaryPluginServerIds())) {
+            StrUtil.split(properties.getSecondaryPluginServerIds(), ',', true, true).stream()
+                    .filter(psId -> !psIds.contains(psId))
+                    .forEach(psIds::add);
+        }
+        return psIds;
+    }
+
     public void updateProperties(BlockchainProperties properties) {
         if (StrUtil.isNotEmpty(properties.getAmClientContractAddress())) {
             this.properties.setAmClientContractAddress(properties.getAmClientContractAddress());
@@ -175,6 +201,9 @@ public class BlockchainMeta {
         if (StrUtil.isNotEmpty(properties.getPluginServerId())) {
             this.properties.setPluginServerId(properties.getPluginServerId());
         }
+        if (StrUtil.isNotEmpty(properties.getSecondaryPluginServerIds())) {
+            this.properties.setSecondaryPluginServerIds(properties.getSecondaryPluginServerIds());
+        }
         if (ObjectUtil.isNotNull(properties.getAmServiceStatus())) {
             this.properties.setAmServiceStatus(properties.getAmServiceStatus());
         }
@@ -18,6 +18,8 @@ package com.alipay.antchain.bridge.relayer.commons.model;
 
 public interface IDistributedTask {
 
+    String getNodeId();
+
     void setNodeId(String nodeId);
 
     void setStartTime(long startTime);
@@ -21,6 +21,7 @@ import com.alipay.antchain.bridge.relayer.core.types.pluginserver.GRpcBBCService
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.GRpcPluginServerClient;
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.IBBCServiceClient;
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.IPluginServerClient;
+import com.alipay.antchain.bridge.relayer.core.types.pluginserver.PluginServerChannelPool;
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception.PluginServerConnectionFailException;
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception.PluginServerRegistrationFailException;
 import com.alipay.antchain.bridge.relayer.core.utils.PluginServerUtils;
@@ -44,6 +45,12 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
 
     private final ScheduledExecutorService heartbeatExecutorService;
 
+    /**
+     * 批量心跳时并行请求插件服务的线程池，线程数随插件服务数量增长，
+     * 不占用心跳和hedge的定时线程
+     */
+    private final ExecutorService heartbeatFanOutExecutorService;
+
     private final Resource tlsClientKeyFile;
 
     private final Resource tlsClientCaFile;
@@ -56,12 +63,27 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
 
     private final Map<String, ScheduledFuture> heartbeatFutureMap = new HashMap<>();
 
-    private final Map<String, CrossChainServiceGrpc.CrossChainServiceBlockingStub> blockingStubMap = new HashMap<>();
+    private final Map<String, PluginServerChannelPool> channelPoolMap = new ConcurrentHashMap<>();
 
     private final long heartbeatDelayedTime;
 
     private final int errorLimitForHeartbeat;
 
+    private final int channelPoolSize;
+
+    private final long callTimeout;
+
+    private final long writeCallTimeout;
+
+    private final long hedgeDelay;
+
+    /**
+     * 为true时由值班节点统一批量心跳，不再为每个插件服务单独调度心跳任务
+     */
+    private final boolean heartbeatCoordinated;
+
+    private volatile long lastCoordinatedHeartbeatTime = 0;
+
     public GRpcBBCPluginManager(
             Resource clientKeyPath,
             Resource clientCaPath,
@@ -69,8 +91,14 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
             TransactionTemplate transactionTemplate,
             ExecutorService clientExecutorService,
             ScheduledExecutorService heartbeatExecutorService,
+            ExecutorService heartbeatFanOutExecutorService,
             long heartbeatDelayedTime,
-            int errorLimitForHeartbeat
+            int errorLimitForHeartbeat,
+            int channelPoolSize,
+            long callTimeout,
+            long writeCallTimeout,
+            long hedgeDelay,
+            boolean heartbeatCoordinated
     ) {
         this.tlsClientKeyFile = clientKeyPath;
         this.tlsClientCaFile = clientCaPath;
@@ -78,8 +106,14 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
         this.transactionTemplate = transactionTemplate;
         this.clientExecutorService = clientExecutorService;
         this.heartbeatExecutorService = heartbeatExecutorService;
+        this.heartbeatFanOutExecutorService = heartbeatFanOutExecutorService;
         this.heartbeatDelayedTime = heartbeatDelayedTime;
         this.errorLimitForHeartbeat = errorLimitForHeartbeat;
+        this.channelPoolSize = Math.max(1, channelPoolSize);
+        this.callTimeout = callTimeout;
+        this.writeCallTimeout = writeCallTimeout;
+        this.hedgeDelay = hedgeDelay;
+        this.heartbeatCoordinated = heartbeatCoordinated;
     }
 
     /**
@@ -126,7 +160,7 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
             );
         }
 
-        return new GRpcBBCServiceClient(psId, product, domain, this.blockingStubMap.get(psId));
+        return new GRpcBBCServiceClient(psId, product, domain, this.channelPoolMap.get(psId));
     }
 
     private boolean checkIfProductSupport(String psId, String product) {
@@ -185,8 +219,9 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
         Response response;
         CrossChainServiceGrpc.CrossChainServiceBlockingStub stub;
         try {
-            stub = getPluginServerGRpcStub(pluginServerDO);
-            response = stub.heartbeat(Empty.getDefaultInstance());
+            stub = getPluginServerChannelPool(pluginServerDO).getBlockingStub();
+            response = stub.withDeadlineAfter(callTimeout, TimeUnit.MILLISECONDS)
+                    .heartbeat(Empty.getDefaultInstance());
         } catch (Exception e) {
             throw new PluginServerConnectionFailException(
                     String.format("test connection with plugin server %s failed, %b, %s",
@@ -205,7 +240,28 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
         return stub;
     }
 
-    private CrossChainServiceGrpc.CrossChainServiceBlockingStub createPluginServerGRpcStub(PluginServerDO pluginServerDO) {
+    private PluginServerChannelPool createPluginServerChannelPool(PluginServerDO pluginServerDO) {
+        List<ManagedChannel> channels = new ArrayList<>();
+        try {
+            for (int i = 0; i < channelPoolSize; i++) {
+                channels.add(createPluginServerChannel(pluginServerDO));
+            }
+        } catch (RuntimeException e) {
+            channels.forEach(ManagedChannel::shutdown);
+            throw e;
+        }
+        log.info("create {} channels for plugin server {}", channels.size(), pluginServerDO.getPsId());
+        return new PluginServerChannelPool(
+                pluginServerDO.getPsId(),
+                channels,
+                this.heartbeatExecutorService,
+                callTimeout,
+                writeCallTimeout,
+                hedgeDelay
+        );
+    }
+
+    private ManagedChannel createPluginServerChannel(PluginServerDO pluginServerDO) {
         String commonName = PluginServerUtils.getPluginServerCertX509CommonName(pluginServerDO.getProperties().getPluginServerCert());
         if (StrUtil.isEmpty(commonName)) {
             throw new AntChainBridgeRelayerException(
@@ -235,15 +291,21 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
             );
         }
 
-        return CrossChainServiceGrpc.newBlockingStub(channel);
+        return channel;
+    }
+
+    private PluginServerChannelPool getPluginServerChannelPool(PluginServerDO pluginServerDO) {
+        return this.channelPoolMap.computeIfAbsent(
+                pluginServerDO.getPsId(),
+                psId -> this.createPluginServerChannelPool(pluginServerDO)
+        );
     }
 
-    private CrossChainServiceGrpc.CrossChainServiceBlockingStub getPluginServerGRpcStub(PluginServerDO pluginServerDO) {
-        if (this.blockingStubMap.containsKey(pluginServerDO.getPsId())) {
-            return this.blockingStubMap.get(pluginServerDO.getPsId());
+    private void removePluginServerChannelPool(String psId) {
+        PluginServerChannelPool channelPool = this.channelPoolMap.remove(psId);
+        if (ObjectUtil.isNotNull(channelPool)) {
+            channelPool.shutdown();
         }
-        this.blockingStubMap.put(pluginServerDO.getPsId(), this.createPluginServerGRpcStub(pluginServerDO));
-        return this.blockingStubMap.get(pluginServerDO.getPsId());
     }
 
     /**
@@ -277,7 +339,7 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
         }
 
         this.pluginServerClientMap.remove(psId);
-        this.blockingStubMap.remove(psId);
+        this.removePluginServerChannelPool(psId);
 
         this.pluginServerRepository.deletePluginServer(pluginServerDO);
     }
@@ -340,18 +402,132 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
     private void startPluginServerClient(PluginServerDO pluginServerDO) {
         this.pluginServerClientMap.put(
                 pluginServerDO.getPsId(),
-                new GRpcPluginServerClient(
-                        pluginServerDO.getPsId(),
-                        tryConnectionWithPluginServer(pluginServerDO),
-                        errorLimitForHeartbeat
-                )
+                createPluginServerClient(pluginServerDO)
         );
-        this.addHeartbeatTask(pluginServerDO.getPsId());
+        if (!heartbeatCoordinated) {
+            this.addHeartbeatTask(pluginServerDO.getPsId());
+        }
         if (pluginServerDO.getState() != PluginServerStateEnum.READY) {
             this.pluginServerRepository.updatePluginServerState(pluginServerDO.getPsId(), PluginServerStateEnum.READY);
         }
     }
 
+    private IPluginServerClient createPluginServerClient(PluginServerDO pluginServerDO) {
+        return new GRpcPluginServerClient(
+                pluginServerDO.getPsId(),
+                tryConnectionWithPluginServer(pluginServerDO),
+                errorLimitForHeartbeat,
+                callTimeout
+        );
+    }
+
+    /**
+     * 批量心跳所有READY和HEARTBEAT_LOST的插件服务
+     * <pre>
+     *     处理逻辑：
+     *      1. 距离上次批量心跳不足 heartbeatDelayedTime 则直接返回
+     *      2. 在 fan-out 线程池并行向所有插件服务发送心跳，每个插件服务从开始心跳起最多等待 callTimeout，超时视为失败
+     *      3. 计算状态变化：HEARTBEAT_LOST 心跳成功转为 READY，READY 心跳失败转为 HEARTBEAT_LOST
+     *      4. 在一个事务内批量写入状态变化和插件服务信息的变化
+     *     使用场景：
+     *      由值班节点的 PLUGIN_SERVER_HEARTBEAT 任务调用，其他节点通过缓存读取插件服务状态
+     * </pre>
+     */
+    @Override
+    public void heartbeatPluginServers() {
+        long now = System.currentTimeMillis();
+        if (now - lastCoordinatedHeartbeatTime < heartbeatDelayedTime) {
+            return;
+        }
+        lastCoordinatedHeartbeatTime = now;
+
+        List<PluginServerDO> pluginServers = pluginServerRepository.getAllPluginServers(
+                PluginServerStateEnum.READY,
+                PluginServerStateEnum.HEARTBEAT_LOST
+        );
+        if (ObjectUtil.isEmpty(pluginServers)) {
+            return;
+        }
+
+        Map<String, Future<PluginServerInfo>> futureMap = new HashMap<>();
+        Map<String, Long> startTimeMap = new ConcurrentHashMap<>();
+        for (PluginServerDO pluginServerDO : pluginServers) {
+            futureMap.put(
+                    pluginServerDO.getPsId(),
+                    this.heartbeatFanOutExecutorService.submit(() -> {
+                        startTimeMap.put(pluginServerDO.getPsId(), System.currentTimeMillis());
+                        return heartbeatPluginServer(pluginServerDO);
+                    })
+            );
+        }
+
+        Map<String, PluginServerStateEnum> stateChanges = new HashMap<>();
+        Map<String, PluginServerInfo> infoChanges = new HashMap<>();
+        for (PluginServerDO pluginServerDO : pluginServers) {
+            String psId = pluginServerDO.getPsId();
+            Future<PluginServerInfo> future = futureMap.get(psId);
+            try {
+                // 每个插件服务的超时从它开始心跳时计算，互不影响
+                long deadline = startTimeMap.getOrDefault(psId, System.currentTimeMillis()) + callTimeout;
+                PluginServerInfo info = future.get(
+                        Math.max(0, deadline - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS
+                );
+                if (ifNeedUpdatePluginServer(pluginServerDO, info)) {
+                    infoChanges.put(psId, info);
+                }
+                if (PluginServerStateEnum.HEARTBEAT_LOST == pluginServerDO.getState()) {
+                    stateChanges.put(psId, PluginServerStateEnum.READY);
+                }
+                log.debug(
+                        "Heartbeat success for plugin server {} : ( products: {} , domains: {} )",
+                        psId,
+                        String.join(",", ObjectUtil.defaultIfNull(info.getProducts(), ListUtil.of())),
+                        String.join(",", ObjectUtil.defaultIfNull(info.getDomains(), ListUtil.of()))
+                );
+            } catch (Exception e) {
+                future.cancel(true);
+                if (PluginServerStateEnum.READY == pluginServerDO.getState()) {
+                    log.error("heartbeat failed for plugin server {} and freeze this plugin server", psId, e);
+                    stateChanges.put(psId, PluginServerStateEnum.HEARTBEAT_LOST);
+                } else {
+                    log.warn("heartbeat failed for plugin server {} and keeping HEARTBEAT_LOST", psId, e);
+                }
+            }
+        }
+
+        if (ObjectUtil.isEmpty(stateChanges) && ObjectUtil.isEmpty(infoChanges)) {
+            return;
+        }
+        transactionTemplate.execute(
+                new TransactionCallbackWithoutResult() {
+                    @Override
+                    protected void doInTransactionWithoutResult(TransactionStatus status) {
+                        infoChanges.forEach(pluginServerRepository::updatePluginServerInfo);
+                        pluginServerRepository.batchUpdatePluginServerStates(stateChanges);
+                    }
+                }
+        );
+        log.info("batch heartbeat for {} plugin servers with state changes {} and {} info changes",
+                pluginServers.size(), stateChanges, infoChanges.size());
+    }
+
+    private PluginServerInfo heartbeatPluginServer(PluginServerDO pluginServerDO) {
+        // 值班节点可能还没有这个插件服务的client，心跳前先建立连接
+        IPluginServerClient pluginServerClient = this.pluginServerClientMap.computeIfAbsent(
+                pluginServerDO.getPsId(),
+                psId -> createPluginServerClient(pluginServerDO)
+        );
+        PluginServerInfo info = pluginServerClient.heartbeat();
+        if (ObjectUtil.isEmpty(info)) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.CORE_PLUGIN_SERVER_ERROR,
+                    "null response from heartbeat for plugin server " + pluginServerDO.getPsId()
+            );
+        }
+        return info;
+    }
+
     private void addHeartbeatTask(String psId) {
         if (this.heartbeatFutureMap.containsKey(psId)) {
             log.info("heartbeat task already exists for plugin server {}", psId);
@@ -487,7 +663,7 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
      *      1.判断该插件服务是否在心跳任务集合中（应当在），如果不在说明该服务已经停止，会抛出异常
      *      2.如果心跳任务还在执行则停止心跳任务
      *      3.移除插件服务的 client
-     *      4.移除链的 stub
+     *      4.移除插件服务的连接池，并关闭连接
      *      5.移除心跳任务
      *      6.更新数据库状态为`stop`，schedule 的 Cleaner 会根据`stop`状态清除链的 client
      *     使用场景：
@@ -510,7 +686,7 @@ public class GRpcBBCPluginManager implements IBBCPluginManager {
         }
 
         this.pluginServerClientMap.remove(psId);
-        this.blockingStubMap.remove(psId);
+        this.removePluginServerChannelPool(psId);
         this.heartbeatFutureMap.remove(psId);
 
         this.pluginServerRepository.updatePluginServerState(psId, PluginServerStateEnum.STOP);
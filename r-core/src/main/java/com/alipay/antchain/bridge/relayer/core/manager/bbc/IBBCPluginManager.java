@@ -34,4 +34,9 @@ public interface IBBCPluginManager {
     PluginServerInfo getPluginServerInfo(String psId);
 
     void updatePluginServerInfo(String psId);
+
+    /**
+     * 批量心跳所有运行中的插件服务，并一次性写入状态变化
+     */
+    void heartbeatPluginServers();
 }
@@ -22,15 +22,20 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
+import cn.hutool.cache.Cache;
 import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.thread.lock.LockUtil;
+import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
 import com.alipay.antchain.bridge.bcdns.service.BCDNSTypeEnum;
 import com.alipay.antchain.bridge.bcdns.service.IBlockChainDomainNameService;
 import com.alipay.antchain.bridge.bcdns.types.base.DomainRouter;
@@ -87,6 +92,22 @@ public class BCDNSManager implements IBCDNSManager {
 
     private final Map<String, IBlockChainDomainNameService> bcdnsClientMap = new ConcurrentHashMap<>();
 
+    /**
+     * 已验证通过的证书，key为证书哈希和信任根版本，只缓存验证通过的结果
+     */
+    @Resource(name = "verifiedCertCache")
+    private Cache<String, Boolean> verifiedCertCache;
+
+    /**
+     * 信任根发生变化时递增，使之前的验证结果全部失效
+     */
+    private final AtomicLong trustRootVersion = new AtomicLong(0);
+
+    @PostConstruct
+    public void init() {
+        bcdnsRepository.addTrustRootChangedListener(this::invalidateVerifiedCerts);
+    }
+
     @Override
     public IBlockChainDomainNameService getBCDNSService(String domainSpace) {
         if (bcdnsClientMap.containsKey(domainSpace)) {
@@ -151,6 +172,7 @@ public class BCDNSManager implements IBCDNSManager {
 
             startBCDNSService(bcdnsServiceDO);
             saveBCDNSServiceData(bcdnsServiceDO);
+            onTrustRootChanged(domainSpace);
         } catch (AntChainBridgeRelayerException e) {
             throw e;
         } catch (Exception e) {
@@ -297,6 +319,7 @@ public class BCDNSManager implements IBCDNSManager {
     public void deleteBCDNSServiceDate(String domainSpace) {
         bcdnsRepository.deleteBCDNSServiceDO(domainSpace);
         bcdnsClientMap.remove(domainSpace);
+        onTrustRootChanged(domainSpace);
     }
 
     @Override
@@ -334,6 +357,10 @@ public class BCDNSManager implements IBCDNSManager {
 
     @Override
     public boolean validateCrossChainCertificate(AbstractCrossChainCertificate certificate) {
+        String cacheKey = getVerifiedCertKey("issuer", certificate);
+        if (ObjectUtil.isNotNull(verifiedCertCache.get(cacheKey, false))) {
+            return true;
+        }
         DomainSpaceCertWrapper trustRootCert = bcdnsRepository.getDomainSpaceCert(certificate.getIssuer());
         if (ObjectUtil.isNull(trustRootCert)) {
             log.warn(
@@ -343,10 +370,14 @@ public class BCDNSManager implements IBCDNSManager {
             );
             return false;
         }
-        return trustRootCert.getDomainSpaceCert().getCredentialSubjectInstance().verifyIssueProof(
+        boolean verified = trustRootCert.getDomainSpaceCert().getCredentialSubjectInstance().verifyIssueProof(
                 certificate.getEncodedToSign(),
                 certificate.getProof()
         );
+        if (verified) {
+            putVerifiedCert(cacheKey, certificate, trustRootCert.getDomainSpaceCert());
+        }
+        return verified;
     }
 
     @Override
@@ -356,6 +387,10 @@ public class BCDNSManager implements IBCDNSManager {
 
     @Override
     public boolean validateCrossChainCertificate(AbstractCrossChainCertificate certificate, Map<String, AbstractCrossChainCertificate> domainSpaceCertPath) {
+        String cacheKey = getVerifiedCertKey("path", certificate);
+        if (ObjectUtil.isNotNull(verifiedCertCache.get(cacheKey, false))) {
+            return true;
+        }
         try {
             List<AbstractCrossChainCertificate> sequentialCerts = domainSpaceCertPath.entrySet().stream().sorted(
                             Comparator.comparing(o -> StrUtil.reverse(o.getKey()))
@@ -373,11 +408,15 @@ public class BCDNSManager implements IBCDNSManager {
                 saveDomainSpaceCerts(domainSpaceCertPath);
             }
 
-            return sequentialCerts.get(sequentialCerts.size() - 1)
+            boolean verified = sequentialCerts.get(sequentialCerts.size() - 1)
                     .getCredentialSubjectInstance().verifyIssueProof(
                             certificate.getEncodedToSign(),
                             certificate.getProof()
                     );
+            if (verified) {
+                putVerifiedCert(cacheKey, certificate, sequentialCerts.toArray(new AbstractCrossChainCertificate[0]));
+            }
+            return verified;
         } catch (Exception e) {
             log.error("failed to verify crosschain cert (type: {}, cert_id: {})", certificate.getType().name(), certificate.getId(), e);
             return false;
@@ -394,6 +433,8 @@ public class BCDNSManager implements IBCDNSManager {
                 }
                 bcdnsRepository.saveDomainSpaceCert(new DomainSpaceCertWrapper(entry.getValue()));
                 log.info("successful to save domain space cert for {}", entry.getKey());
+                // 新的域名空间证书可能改变证书链的验证结果
+                onTrustRootChanged(entry.getKey());
             } catch (Exception e) {
                 log.error("failed to save domain space certs for space {} : ", entry.getKey(), e);
             }
@@ -694,6 +735,38 @@ public class BCDNSManager implements IBCDNSManager {
         verifyCertPath(certPath, currIndex + 1);
     }
 
+    private String getVerifiedCertKey(String type, AbstractCrossChainCertificate certificate) {
+        return StrUtil.format("{}^{}^{}", type, trustRootVersion.get(), DigestUtil.sha256Hex(certificate.encode()));
+    }
+
+    /**
+     * 缓存时间不超过证书链中最早的过期时间
+     */
+    private void putVerifiedCert(String cacheKey, AbstractCrossChainCertificate certificate, AbstractCrossChainCertificate... issuerCerts) {
+        long timeout = verifiedCertCache.timeout();
+        for (AbstractCrossChainCertificate cert : ArrayUtil.append(issuerCerts, certificate)) {
+            // 证书的过期时间单位为秒，非正数表示没有设置过期时间
+            if (cert.getExpirationDate() > 0) {
+                timeout = Math.min(timeout, cert.getExpirationDate() * 1000 - System.currentTimeMillis());
+            }
+        }
+        if (timeout <= 0) {
+            return;
+        }
+        verifiedCertCache.put(cacheKey, true, timeout);
+    }
+
+    private void onTrustRootChanged(String domainSpace) {
+        invalidateVerifiedCerts();
+        bcdnsRepository.publishTrustRootChanged(domainSpace);
+    }
+
+    private void invalidateVerifiedCerts() {
+        trustRootVersion.incrementAndGet();
+        verifiedCertCache.clear();
+        log.info("verified cert cache invalidated cause that trust root changed");
+    }
+
     private Lock getBCDNSCallingLock(String domainSpace, BCDNSTypeEnum bcdnsType) {
         if (BCDNSTypeEnum.BIF == bcdnsType) {
             return redisson.getLock(BCDNS_CALLING_LOCK_PREFIX + domainSpace);
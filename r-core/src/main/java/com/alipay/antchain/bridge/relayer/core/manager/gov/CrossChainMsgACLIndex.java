@@ -0,0 +1,77 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.manager.gov;
+
+import java.util.*;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alipay.antchain.bridge.relayer.commons.model.CrossChainMsgACLItem;
+import lombok.Getter;
+
+/**
+ * ACL规则的内存索引，按照 owner domain 和 grant domain 分组，
+ * 身份为空的规则表示任意身份，与数据库的四种匹配方式保持一致
+ */
+public class CrossChainMsgACLIndex {
+
+    public static CrossChainMsgACLIndex build(List<CrossChainMsgACLItem> items) {
+        Map<String, Set<String>> rules = new HashMap<>();
+        for (CrossChainMsgACLItem item : items) {
+            if (item.getIsDeleted() != 0) {
+                continue;
+            }
+            rules.computeIfAbsent(getDomainKey(item.getOwnerDomain(), item.getGrantDomain()), k -> new HashSet<>())
+                    .add(getIdentityKey(item.getOwnerIdentityHex(), item.getGrantIdentityHex()));
+        }
+        return new CrossChainMsgACLIndex(rules, items.size());
+    }
+
+    private static String getDomainKey(String ownerDomain, String grantDomain) {
+        return StrUtil.format("{}^{}", ownerDomain, grantDomain);
+    }
+
+    private static String getIdentityKey(String ownerIdHex, String grantIdHex) {
+        return StrUtil.format(
+                "{}^{}",
+                ObjectUtil.isNull(ownerIdHex) ? CrossChainMsgACLItem.MEANS_ANY : ownerIdHex.toLowerCase(),
+                ObjectUtil.isNull(grantIdHex) ? CrossChainMsgACLItem.MEANS_ANY : grantIdHex.toLowerCase()
+        );
+    }
+
+    private final Map<String, Set<String>> rules;
+
+    @Getter
+    private final int size;
+
+    private CrossChainMsgACLIndex(Map<String, Set<String>> rules, int size) {
+        this.rules = rules;
+        this.size = size;
+    }
+
+    public boolean check(String ownerDomain, String ownerIdHex, String grantDomain, String grantIdHex) {
+        Set<String> identities = rules.get(getDomainKey(ownerDomain, grantDomain));
+        if (ObjectUtil.isEmpty(identities)) {
+            return false;
+        }
+        // 依次匹配：精确规则、双方任意、发送方任意、接收方任意
+        return (ObjectUtil.isAllNotEmpty(ownerIdHex, grantIdHex) && identities.contains(getIdentityKey(ownerIdHex, grantIdHex)))
+                || identities.contains(getIdentityKey(null, null))
+                || (ObjectUtil.isNotNull(ownerIdHex) && identities.contains(getIdentityKey(ownerIdHex, null)))
+                || (ObjectUtil.isNotNull(grantIdHex) && identities.contains(getIdentityKey(null, grantIdHex)));
+    }
+}
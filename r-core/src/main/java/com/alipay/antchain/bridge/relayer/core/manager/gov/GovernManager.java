@@ -17,24 +17,77 @@
 package com.alipay.antchain.bridge.relayer.core.manager.gov;
 
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
+import cn.hutool.core.util.ObjectUtil;
 import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
 import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.CrossChainMsgACLItem;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMsgACLRepository;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 @Slf4j
 public class GovernManager implements IGovernManager {
 
+    /**
+     * 后台检查索引是否需要重新加载的间隔
+     */
+    private static final long ACL_INDEX_CHECK_INTERVAL = 1000;
+
     @Resource
     private ICrossChainMsgACLRepository crossChainMsgACLRepository;
 
+    @Resource(name = "aclIndexReloadScheduleThreadsPool")
+    private ScheduledExecutorService aclIndexReloadScheduleThreadsPool;
+
+    /**
+     * 为true时使用内存中的ACL索引校验跨链消息，不再每条消息查询一次DB
+     */
+    @Value("${relayer.gov.acl.index.enable:true}")
+    private boolean aclIndexEnabled;
+
+    /**
+     * 兜底的全量刷新间隔，防止错过其他节点的变更通知
+     */
+    @Value("${relayer.gov.acl.index.refresh_interval:60000}")
+    private long aclIndexRefreshInterval;
+
+    private volatile CrossChainMsgACLIndex aclIndex;
+
+    private volatile boolean aclIndexDirty = true;
+
+    private volatile long aclIndexLoadTime = 0;
+
+    @PostConstruct
+    public void init() {
+        if (!aclIndexEnabled) {
+            return;
+        }
+        crossChainMsgACLRepository.addItemsChangedListener(() -> this.aclIndexDirty = true);
+        reloadACLIndexQuietly();
+        // 索引在后台重新加载，校验时只读取最近一次加载成功的索引
+        aclIndexReloadScheduleThreadsPool.scheduleWithFixedDelay(
+                this::reloadACLIndexQuietly,
+                ACL_INDEX_CHECK_INTERVAL,
+                ACL_INDEX_CHECK_INTERVAL,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
     @Override
     public boolean verifyCrossChainMsgACL(String ownerDomain, String ownerIdHex, String grantDomain, String grantIdHex) {
+        CrossChainMsgACLIndex index = this.aclIndex;
+        if (aclIndexEnabled && ObjectUtil.isNotNull(index)) {
+            return index.check(ownerDomain, ownerIdHex, grantDomain, grantIdHex);
+        }
+        // 索引没有启用或者还没有加载成功的时候查询DB
         CrossChainMsgACLItem crossChainMsgACLItem = new CrossChainMsgACLItem();
         crossChainMsgACLItem.setOwnerDomain(ownerDomain);
         crossChainMsgACLItem.setOwnerIdentityHex(ownerIdHex);
@@ -47,11 +100,13 @@ public class GovernManager implements IGovernManager {
     @Override
     public void addCrossChainMsgACL(CrossChainMsgACLItem crossChainMsgACLItem) {
         crossChainMsgACLRepository.saveItem(crossChainMsgACLItem);
+        onACLChanged();
     }
 
     @Override
     public void delCrossChainMsgACL(String bizId) {
         crossChainMsgACLRepository.deleteItem(bizId);
+        onACLChanged();
     }
 
     @Override
@@ -79,4 +134,41 @@ public class GovernManager implements IGovernManager {
     public boolean hasCrossChainMsgACL(String bizId) {
         return crossChainMsgACLRepository.hasItemByBizId(bizId);
     }
+
+    private void onACLChanged() {
+        if (!aclIndexEnabled) {
+            return;
+        }
+        this.aclIndexDirty = true;
+        crossChainMsgACLRepository.publishItemsChanged();
+        // 本地的变更直接重新加载，让后续的校验马上生效
+        reloadACLIndexQuietly();
+    }
+
+    private void reloadACLIndexQuietly() {
+        try {
+            reloadACLIndexIfNeeded();
+        } catch (Exception e) {
+            // 继续使用上一次加载成功的索引，下一次检查时重试
+            log.warn("failed to reload crosschain msg acl index and keep using the last one", e);
+        }
+    }
+
+    @Synchronized
+    private void reloadACLIndexIfNeeded() {
+        if (ObjectUtil.isNotNull(this.aclIndex) && !aclIndexDirty
+                && System.currentTimeMillis() - aclIndexLoadTime < aclIndexRefreshInterval) {
+            return;
+        }
+        // 先清除标志，加载期间到达的变化在下一次检查时处理
+        this.aclIndexDirty = false;
+        try {
+            this.aclIndex = CrossChainMsgACLIndex.build(crossChainMsgACLRepository.getAllValidItems());
+        } catch (RuntimeException e) {
+            this.aclIndexDirty = true;
+            throw e;
+        }
+        this.aclIndexLoadTime = System.currentTimeMillis();
+        log.debug("reload crosschain msg acl index with {} items", this.aclIndex.getSize());
+    }
 }
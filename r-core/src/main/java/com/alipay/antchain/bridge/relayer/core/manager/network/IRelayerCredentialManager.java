@@ -20,8 +20,11 @@ import java.security.PrivateKey;
 
 import com.alipay.antchain.bridge.commons.bcdns.AbstractCrossChainCertificate;
 import com.alipay.antchain.bridge.commons.bcdns.RelayerCredentialSubject;
+import com.alipay.antchain.bridge.relayer.core.types.network.RelayerSession;
 import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequest;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.SessionStartRequest;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.RelayerResponse;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.SessionStartRespPayload;
 
 public interface IRelayerCredentialManager {
 
@@ -30,6 +33,14 @@ public interface IRelayerCredentialManager {
      */
     void signRelayerRequest(RelayerRequest relayerRequest);
 
+    /**
+     * 使用会话密钥计算请求的MAC，请求不再携带证书
+     *
+     * @param relayerRequest
+     * @param session
+     */
+    void signRelayerRequest(RelayerRequest relayerRequest, RelayerSession session);
+
     /**
      * @param relayerResponse
      */
@@ -45,6 +56,25 @@ public interface IRelayerCredentialManager {
 
     boolean validateRelayerResponse(RelayerResponse relayerResponse);
 
+    /**
+     * 响应使用会话MAC时用会话密钥校验，否则按证书签名校验
+     */
+    boolean validateRelayerResponse(RelayerResponse relayerResponse, RelayerSession session);
+
+    /**
+     * 作为服务端接受会话请求，请求需要先通过证书签名校验
+     */
+    SessionStartRespPayload acceptSession(SessionStartRequest request);
+
+    boolean hasValidSession(String sessionId, String nodeId);
+
+    /**
+     * 清理当前线程的会话上下文，每个请求处理结束后调用
+     */
+    void clearSessionContext();
+
+    boolean isSessionEnable();
+
     String getLocalNodeId();
 
     String getLocalNodeSigAlgo();
@@ -16,22 +16,36 @@
 
 package com.alipay.antchain.bridge.relayer.core.manager.network;
 
+import java.security.KeyPair;
 import java.security.PrivateKey;
 import java.security.Signature;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Resource;
 
 import cn.hutool.core.collection.ConcurrentHashSet;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.commons.bcdns.AbstractCrossChainCertificate;
 import com.alipay.antchain.bridge.commons.bcdns.RelayerCredentialSubject;
 import com.alipay.antchain.bridge.commons.bcdns.utils.CrossChainCertificateUtil;
 import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
 import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum;
 import com.alipay.antchain.bridge.relayer.core.manager.bcdns.IBCDNSManager;
+import com.alipay.antchain.bridge.relayer.core.types.network.RelayerSession;
 import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequest;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.SessionStartRequest;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.RelayerResponse;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.SessionStartRespPayload;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBucket;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -40,6 +54,8 @@ import org.springframework.stereotype.Component;
 @Getter
 public class RelayerCredentialManager implements IRelayerCredentialManager {
 
+    private static final String RELAYER_SESSION_KEY_PREFIX = "RELAYER_SESSION_";
+
     @Value("#{relayerCoreConfig.localRelayerCrossChainCertificate}")
     private AbstractCrossChainCertificate localRelayerCertificate;
 
@@ -58,16 +74,36 @@ public class RelayerCredentialManager implements IRelayerCredentialManager {
     @Value("#{relayerCoreConfig.localRelayerIssuerDomainSpace}")
     private String localRelayerIssuerDomainSpace;
 
+    @Value("${relayer.network.node.session.enable:false}")
+    private boolean sessionEnable;
+
+    @Value("${relayer.network.node.session.ttl:600000}")
+    private long sessionTtl;
+
     @Resource
     private IBCDNSManager bcdnsManager;
 
+    @Resource
+    private RedissonClient redisson;
+
     private final Set<String> validatedCertIdCache = new ConcurrentHashSet<>();
 
+    /**
+     * 本节点作为服务端接受的会话，Redis中保存一份供集群内其他节点使用
+     */
+    private final Map<String, RelayerSession> acceptedSessionCache = MapUtil.newConcurrentHashMap();
+
+    /**
+     * 当前线程正在处理的请求所属会话，响应使用该会话密钥计算MAC
+     */
+    private final ThreadLocal<RelayerSession> currentSession = new ThreadLocal<>();
+
     @Override
     public void signRelayerRequest(RelayerRequest relayerRequest) {
         try {
             relayerRequest.setNodeId(localNodeId);
             relayerRequest.setSenderRelayerCertificate(localRelayerCertificate);
+            relayerRequest.setSessionId(null);
             relayerRequest.setSigAlgo(localNodeSigAlgo);
 
             Signature signer = Signature.getInstance(localNodeSigAlgo);
@@ -83,8 +119,24 @@ public class RelayerCredentialManager implements IRelayerCredentialManager {
         }
     }
 
+    @Override
+    public void signRelayerRequest(RelayerRequest relayerRequest, RelayerSession session) {
+        relayerRequest.setNodeId(localNodeId);
+        relayerRequest.setSenderRelayerCertificate(null);
+        relayerRequest.setSessionId(session.getSessionId());
+        relayerRequest.setSigAlgo(RelayerSession.MAC_ALGO);
+        relayerRequest.setSignature(session.mac(relayerRequest.rawEncode()));
+    }
+
     @Override
     public void signRelayerResponse(RelayerResponse relayerResponse) {
+        RelayerSession session = currentSession.get();
+        if (ObjectUtil.isNotNull(session)) {
+            relayerResponse.setRemoteRelayerCertificate(null);
+            relayerResponse.setSigAlgo(RelayerSession.MAC_ALGO);
+            relayerResponse.setSignature(session.mac(relayerResponse.rawEncode()));
+            return;
+        }
         try {
             relayerResponse.setRemoteRelayerCertificate(localRelayerCertificate);
             relayerResponse.setSigAlgo(localNodeSigAlgo);
@@ -121,6 +173,10 @@ public class RelayerCredentialManager implements IRelayerCredentialManager {
     @Override
     public boolean validateRelayerRequest(RelayerRequest relayerRequest) {
 
+        if (relayerRequest.isSessionAuthenticated()) {
+            return validateSessionRequest(relayerRequest);
+        }
+
         if (!validatedCertIdCache.contains(relayerRequest.calcRelayerNodeId())) {
             if (!bcdnsManager.validateCrossChainCertificate(relayerRequest.getSenderRelayerCertificate())) {
                 return false;
@@ -138,6 +194,93 @@ public class RelayerCredentialManager implements IRelayerCredentialManager {
         return false;
     }
 
+    @Override
+    public boolean validateRelayerResponse(RelayerResponse relayerResponse, RelayerSession session) {
+        if (!StrUtil.equals(RelayerSession.MAC_ALGO, relayerResponse.getSigAlgo())) {
+            return validateRelayerResponse(relayerResponse);
+        }
+        return ObjectUtil.isNotNull(session) && session.verifyMac(relayerResponse.rawEncode(), relayerResponse.getSignature());
+    }
+
+    @Override
+    public SessionStartRespPayload acceptSession(SessionStartRequest request) {
+        if (!sessionEnable) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.CORE_RELAYER_NETWORK_ERROR,
+                    "relayer session not enabled"
+            );
+        }
+
+        KeyPair ephemeralKeyPair = RelayerSession.generateEphemeralKeyPair();
+        byte[] myPublicKey = ephemeralKeyPair.getPublic().getEncoded();
+        RelayerSession session = new RelayerSession(
+                IdUtil.fastSimpleUUID(),
+                request.calcRelayerNodeId(),
+                RelayerSession.deriveSessionKey(
+                        ephemeralKeyPair.getPrivate(),
+                        request.getEphemeralPublicKey(),
+                        request.getEphemeralPublicKey(),
+                        myPublicKey
+                ),
+                System.currentTimeMillis() + sessionTtl,
+                request.getSenderRelayerCertificate()
+        );
+
+        getSessionBucket(session.getSessionId()).set(session.encode(), Duration.of(sessionTtl, ChronoUnit.MILLIS));
+        acceptedSessionCache.values().removeIf(RelayerSession::isExpired);
+        acceptedSessionCache.put(session.getSessionId(), session);
+        log.info("accept relayer session {} from relayer {}", session.getSessionId(), session.getRemoteNodeId());
+
+        return new SessionStartRespPayload(session.getSessionId(), myPublicKey, sessionTtl);
+    }
+
+    @Override
+    public boolean hasValidSession(String sessionId, String nodeId) {
+        RelayerSession session = getAcceptedSession(sessionId);
+        return ObjectUtil.isNotNull(session) && StrUtil.equals(session.getRemoteNodeId(), nodeId);
+    }
+
+    @Override
+    public void clearSessionContext() {
+        currentSession.remove();
+    }
+
+    private boolean validateSessionRequest(RelayerRequest relayerRequest) {
+        RelayerSession session = getAcceptedSession(relayerRequest.getSessionId());
+        if (ObjectUtil.isNull(session) || !StrUtil.equals(session.getRemoteNodeId(), relayerRequest.getNodeId())) {
+            return false;
+        }
+        if (!StrUtil.equals(RelayerSession.MAC_ALGO, relayerRequest.getSigAlgo())
+                || !session.verifyMac(relayerRequest.rawEncode(), relayerRequest.getSignature())) {
+            return false;
+        }
+        // 证书在建立会话时已经校验过，这里补全给后续处理使用
+        relayerRequest.setSenderRelayerCertificate(session.getRemoteRelayerCertificate());
+        currentSession.set(session);
+        return true;
+    }
+
+    private RelayerSession getAcceptedSession(String sessionId) {
+        RelayerSession session = acceptedSessionCache.get(sessionId);
+        if (ObjectUtil.isNull(session)) {
+            String raw = getSessionBucket(sessionId).get();
+            if (StrUtil.isEmpty(raw)) {
+                return null;
+            }
+            session = RelayerSession.decode(raw);
+            acceptedSessionCache.put(sessionId, session);
+        }
+        if (session.isExpired()) {
+            acceptedSessionCache.remove(sessionId);
+            return null;
+        }
+        return session;
+    }
+
+    private RBucket<String> getSessionBucket(String sessionId) {
+        return redisson.getBucket(RELAYER_SESSION_KEY_PREFIX + sessionId, StringCodec.INSTANCE);
+    }
+
     @Override
     public boolean validateRelayerResponse(RelayerResponse relayerResponse) {
         if (!validatedCertIdCache.contains(relayerResponse.calcRelayerNodeId())) {
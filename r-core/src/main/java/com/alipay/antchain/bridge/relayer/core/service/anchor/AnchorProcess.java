@@ -1,6 +1,12 @@
 package com.alipay.antchain.bridge.relayer.core.service.anchor;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import com.alipay.antchain.bridge.relayer.commons.model.BlockchainMeta;
 import com.alipay.antchain.bridge.relayer.core.service.anchor.context.AnchorProcessContext;
@@ -9,6 +15,7 @@ import com.alipay.antchain.bridge.relayer.core.service.receiver.ReceiverService;
 import com.alipay.antchain.bridge.relayer.core.types.blockchain.BlockchainClientPool;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RedissonClient;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -25,12 +32,24 @@ import org.springframework.transaction.support.TransactionTemplate;
  *   - 账本处理任务
  *  3. 一个提交器，该提交器封装了像该区块链提交tx的逻辑
  * </pre>
+ * <p>
+ * 三组任务可以在一次调度中顺序执行（{@link #run()}），也可以以流水线方式各自独立循环执行（{@link #runPipelined(ExecutorService, long, long)}），
+ * 流水线模式下同步任务与处理任务之间通过blockQueue交接区块，同步任务领先处理任务的高度差不超过maxDiffBetweenSyncAndNotify。
  */
 @Getter
 @Setter
 @Slf4j
 public class AnchorProcess {
 
+    /**
+     * 流水线线程池满导致阶段启动被拒绝时，告警日志的最小间隔
+     */
+    private static final long STAGE_REJECTED_WARN_INTERVAL = 60_000;
+
+    private static final AtomicLong STAGE_REJECTED_COUNT = new AtomicLong(0);
+
+    private static final AtomicLong LAST_STAGE_REJECTED_WARN_TIME = new AtomicLong(0);
+
     /**
      * process上下文
      */
@@ -43,6 +62,18 @@ public class AnchorProcess {
 
     private BlockNotifyTask notifyTask;
 
+    // 流水线模式下的三个阶段
+    private final PipelineStage pollingStage = new PipelineStage("polling");
+
+    private final PipelineStage syncStage = new PipelineStage("sync");
+
+    private final PipelineStage notifyStage = new PipelineStage("notify");
+
+    /**
+     * 流水线的截止时间，一般为本节点锚定任务时间片的结束时间
+     */
+    private volatile long pipelineDeadline = 0;
+
     public AnchorProcess(
             BlockchainMeta chainMeta,
             TransactionTemplate transactionTemplate,
@@ -55,7 +86,8 @@ public class AnchorProcess {
             int syncBatchSize,
             int syncAsyncQuerySize,
             int maxDiffBetweenSyncAndNotify,
-            int notifyBatchSize
+            int notifyBatchSize,
+            long heightFlushPeriod
     ) {
         // init context
         this.processContext = new AnchorProcessContext(
@@ -70,7 +102,8 @@ public class AnchorProcess {
                 syncBatchSize,
                 syncAsyncQuerySize,
                 maxDiffBetweenSyncAndNotify,
-                notifyBatchSize
+                notifyBatchSize,
+                heightFlushPeriod
         );
 
         // init tasks
@@ -84,11 +117,11 @@ public class AnchorProcess {
 
         try {
             // 同步最新高度
-            this.blockPollingTask.doProcess();
+            pollingStage.runExclusively(blockPollingTask::doProcess);
             // 同步远程区块
-            this.blockSyncTask.doProcess();
+            syncStage.runExclusively(blockSyncTask::doProcess);
             // 区块处理任务
-            this.notifyTask.doProcess();
+            notifyStage.runExclusively(notifyTask::doProcess);
         } catch (Exception e) {
             log.error("anchor process failed for {} : ", processContext.getBlockchainMeta().getMetaKey(), e);
             return;
@@ -97,6 +130,46 @@ public class AnchorProcess {
         log.debug("success to run anchor process for {} : ", processContext.getBlockchainMeta().getMetaKey());
     }
 
+    /**
+     * 以流水线模式运行锚定任务，三个阶段各自在{@code pipelineThreadsPool}中循环执行直到{@code deadline}。
+     * <p>
+     * 重复调用只会延长截止时间，已经在运行的阶段不会重复启动。
+     * 线程池满导致任一阶段没有启动时，停止本链已启动的阶段，本次改为顺序执行一轮{@link #run()}。
+     *
+     * @param pipelineThreadsPool 执行各阶段循环的线程池
+     * @param deadline            各阶段循环的截止时间
+     * @param stageInterval       阶段没有被上下游唤醒时，两次执行之间的最大间隔
+     */
+    @Synchronized
+    public void runPipelined(ExecutorService pipelineThreadsPool, long deadline, long stageInterval) {
+        this.pipelineDeadline = deadline;
+
+        // 最新高度更新后唤醒同步任务
+        boolean allStarted = pollingStage.start(pipelineThreadsPool, stageInterval, () -> {
+            blockPollingTask.doProcess();
+            syncStage.wakeUp();
+        });
+        // 同步到新区块后唤醒处理任务
+        allStarted = allStarted && syncStage.start(pipelineThreadsPool, stageInterval, () -> {
+            blockSyncTask.doProcess();
+            notifyStage.wakeUp();
+        });
+        // 处理进度推进后唤醒因高度差过大而等待的同步任务
+        allStarted = allStarted && notifyStage.start(pipelineThreadsPool, stageInterval, () -> {
+            notifyTask.doProcess();
+            syncStage.wakeUp();
+        });
+        if (allStarted) {
+            return;
+        }
+
+        // 只有部分阶段运行时流水线无法推进，停止已启动的阶段，本次顺序执行
+        pollingStage.stop();
+        syncStage.stop();
+        notifyStage.stop();
+        run();
+    }
+
     public void updateBlockchainMetaIntoClient(BlockchainMeta blockchainMeta) {
         processContext.getBlockchainClient().setBlockchainMeta(blockchainMeta);
     }
@@ -108,4 +181,97 @@ public class AnchorProcess {
     public void setDomain(String domain) {
         processContext.getBlockchainClient().setDomain(domain);
     }
+
+    private class PipelineStage {
+
+        private final String name;
+
+        private final Semaphore wakeUpSignal = new Semaphore(0);
+
+        /**
+         * 同一时间只允许一个线程执行该阶段的任务，流水线停止后顺序执行时会等待正在执行的任务结束
+         */
+        private final ReentrantLock taskLock = new ReentrantLock();
+
+        private volatile boolean stopped = false;
+
+        private Future<?> future;
+
+        PipelineStage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @return 阶段是否在运行
+         */
+        @Synchronized
+        boolean start(ExecutorService pipelineThreadsPool, long stageInterval, Runnable stageTask) {
+            stopped = false;
+            if (future != null && !future.isDone()) {
+                return true;
+            }
+            try {
+                future = pipelineThreadsPool.submit(() -> loop(stageInterval, stageTask));
+                log.info("start anchor pipeline stage {} for {}", name, processContext.getBlockchainMeta().getMetaKey());
+                return true;
+            } catch (RejectedExecutionException e) {
+                onRejected();
+                return false;
+            }
+        }
+
+        /**
+         * 通知阶段循环在当前任务执行完后退出
+         */
+        void stop() {
+            stopped = true;
+            wakeUp();
+        }
+
+        void runExclusively(Runnable task) {
+            taskLock.lock();
+            try {
+                task.run();
+            } finally {
+                taskLock.unlock();
+            }
+        }
+
+        private void onRejected() {
+            long rejectedCount = STAGE_REJECTED_COUNT.incrementAndGet();
+            long now = System.currentTimeMillis();
+            long lastWarnTime = LAST_STAGE_REJECTED_WARN_TIME.get();
+            if (now - lastWarnTime >= STAGE_REJECTED_WARN_INTERVAL && LAST_STAGE_REJECTED_WARN_TIME.compareAndSet(lastWarnTime, now)) {
+                log.warn("anchor pipeline threads pool is full and {} stage starts rejected in total, " +
+                                "latest is stage {} for {} which would run sequentially this time",
+                        rejectedCount, name, processContext.getBlockchainMeta().getMetaKey());
+            } else {
+                log.debug("anchor pipeline stage {} for {} rejected and would run sequentially this time",
+                        name, processContext.getBlockchainMeta().getMetaKey());
+            }
+        }
+
+        void wakeUp() {
+            if (wakeUpSignal.availablePermits() == 0) {
+                wakeUpSignal.release();
+            }
+        }
+
+        private void loop(long stageInterval, Runnable stageTask) {
+            while (!stopped && System.currentTimeMillis() < pipelineDeadline && !Thread.currentThread().isInterrupted()) {
+                try {
+                    runExclusively(stageTask);
+                } catch (Exception e) {
+                    log.error("anchor pipeline stage {} failed for {} : ", name, processContext.getBlockchainMeta().getMetaKey(), e);
+                }
+                try {
+                    wakeUpSignal.tryAcquire(stageInterval, TimeUnit.MILLISECONDS);
+                    wakeUpSignal.drainPermits();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            log.info("anchor pipeline stage {} stopped for {}", name, processContext.getBlockchainMeta().getMetaKey());
+        }
+    }
 }
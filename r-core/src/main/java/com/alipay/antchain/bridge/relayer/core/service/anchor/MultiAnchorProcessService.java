@@ -46,6 +46,9 @@ public class MultiAnchorProcessService {
     @Resource
     private ExecutorService blockSyncTaskThreadsPool;
 
+    @Resource
+    private ExecutorService anchorPipelineThreadsPool;
+
     @Resource
     private TransactionTemplate transactionTemplate;
 
@@ -70,6 +73,21 @@ public class MultiAnchorProcessService {
     @Value("${relayer.service.anchor.block_cache_ttl:300000}")
     private int blockCacheTTL;
 
+    /**
+     * 是否以流水线模式运行anchorProcess，轮询、同步、处理三个任务各自独立循环
+     */
+    @Value("${relayer.service.anchor.pipeline.enable:false}")
+    private boolean pipelineEnable;
+
+    @Value("${relayer.service.anchor.pipeline.stage_interval:100}")
+    private long pipelineStageInterval;
+
+    /**
+     * 本地高度游标写入DB的间隔，时间片结束前该间隔内的高度更新会立即写入
+     */
+    @Value("${relayer.service.anchor.height_cursor.flush_period:3000}")
+    private long heightFlushPeriod;
+
     /**
      * 启动指定anchorProcess
      *
@@ -88,6 +106,30 @@ public class MultiAnchorProcessService {
         anchorProcess.run();
     }
 
+    /**
+     * 启动指定anchorProcess，流水线模式下各阶段会持续运行到{@code deadline}，否则顺序执行一轮
+     *
+     * @param blockchainProduct
+     * @param blockchainId
+     * @param deadline          本节点锚定任务时间片的结束时间
+     */
+    public void runAnchorProcess(String blockchainProduct, String blockchainId, long deadline) {
+        AnchorProcess anchorProcess = getAnchorProcess(blockchainProduct, blockchainId);
+        if (ObjectUtil.isNull(anchorProcess)) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.SERVICE_MULTI_ANCHOR_PROCESS_START_ANCHOR_FAILED,
+                    "null anchor process for {}-{}", blockchainProduct, blockchainId
+            );
+        }
+        // 时间片变化时重新加载高度游标，并写入到期的高度
+        anchorProcess.getProcessContext().getHeightCursors().onSchedule(deadline);
+        if (!pipelineEnable) {
+            anchorProcess.run();
+            return;
+        }
+        anchorProcess.runPipelined(anchorPipelineThreadsPool, deadline, pipelineStageInterval);
+    }
+
     /**
      * 获取anchorProcess对象
      *
@@ -143,7 +185,8 @@ public class MultiAnchorProcessService {
                 syncTaskBatchSize,
                 syncTaskAsyncQuerySize,
                 maxDiffBetweenSyncAndNotify,
-                notifyTaskBatchSize
+                notifyTaskBatchSize,
+                heightFlushPeriod
         );
         if (ObjectUtil.isNull(anchorProcess)) {
             throw new AntChainBridgeRelayerException(
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.service.anchor.context;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 锚定任务的高度游标，由持有该链锚定任务时间片的节点保存在本地内存。
+ * <p>
+ * 高度只在超过刷新间隔或者接近时间片结束时，一次性写入DB和redis，
+ * 接近时间片结束时每次更新都会立即写入，保证下一个持有者能读到最新的高度。
+ * 时间片发生变化后，游标会从DB或redis重新加载。
+ */
+@Slf4j
+public class AnchorHeightCursors {
+
+    private final AnchorProcessContext processContext;
+
+    private final long flushPeriod;
+
+    private final Map<String, Long> heights = new HashMap<>();
+
+    private boolean dirty = false;
+
+    private long lastFlushTime = System.currentTimeMillis();
+
+    /**
+     * 当前持有的时间片的结束时间
+     */
+    private long deadline = 0;
+
+    public AnchorHeightCursors(AnchorProcessContext processContext, long flushPeriod) {
+        this.processContext = processContext;
+        this.flushPeriod = flushPeriod;
+    }
+
+    /**
+     * 每次调度锚定任务时调用，时间片变化时重新加载游标，并写入到期未写的高度
+     *
+     * @param deadline 时间片结束时间
+     */
+    @Synchronized
+    public void onSchedule(long deadline) {
+        if (deadline != this.deadline) {
+            flushIfDirty();
+            heights.clear();
+            this.deadline = deadline;
+            log.debug("reload anchor height cursors for {} with new time slice ending at {}",
+                    processContext.getBlockchainMeta().getMetaKey(), deadline);
+            return;
+        }
+        if (ifNeedFlush()) {
+            flushIfDirty();
+        }
+    }
+
+    @Synchronized
+    public long getHeight(String heightType) {
+        Long height = heights.get(heightType);
+        if (height == null) {
+            height = processContext.getBlockchainRepository().getAnchorProcessHeight(
+                    processContext.getAnchorProduct(),
+                    processContext.getAnchorBlockchainId(),
+                    heightType
+            );
+            heights.put(heightType, height);
+        }
+        return height;
+    }
+
+    @Synchronized
+    public void setHeight(String heightType, long height) {
+        heights.put(heightType, height);
+        dirty = true;
+        if (ifNeedFlush()) {
+            flushIfDirty();
+        }
+    }
+
+    private boolean ifNeedFlush() {
+        long now = System.currentTimeMillis();
+        return now - lastFlushTime >= flushPeriod || deadline - now <= flushPeriod;
+    }
+
+    private void flushIfDirty() {
+        if (!dirty) {
+            return;
+        }
+        processContext.getBlockchainRepository().setAnchorProcessHeights(
+                processContext.getAnchorProduct(),
+                processContext.getAnchorBlockchainId(),
+                new HashMap<>(heights)
+        );
+        dirty = false;
+        lastFlushTime = System.currentTimeMillis();
+    }
+}
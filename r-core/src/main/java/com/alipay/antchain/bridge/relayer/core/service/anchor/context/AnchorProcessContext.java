@@ -62,6 +62,8 @@ public class AnchorProcessContext {
 
     private int notifyBatchSize;
 
+    private AnchorHeightCursors heightCursors;
+
     public AnchorProcessContext(
             BlockchainMeta blockchainMeta,
             TransactionTemplate transactionTemplate,
@@ -74,7 +76,8 @@ public class AnchorProcessContext {
             int syncBatchSize,
             int syncAsyncQuerySize,
             int maxDiffBetweenSyncAndNotify,
-            int notifyBatchSize
+            int notifyBatchSize,
+            long heightFlushPeriod
     ) {
         this.blockchainClientPool = blockchainClientPool;
         this.anchorProduct = blockchainMeta.getProduct();
@@ -95,6 +98,7 @@ public class AnchorProcessContext {
         this.syncAsyncQuerySize = syncAsyncQuerySize;
         this.maxDiffBetweenSyncAndNotify = maxDiffBetweenSyncAndNotify;
         this.notifyBatchSize = notifyBatchSize;
+        this.heightCursors = new AnchorHeightCursors(this, heightFlushPeriod);
 
         // init blockchain client
         blockchainClientPool.createClient(blockchainMeta);
@@ -21,49 +21,27 @@ public abstract class BlockBaseTask {
     public abstract void doProcess();
 
     public void saveRemoteBlockHeaderHeight(long height) {
-        processContext.getBlockchainRepository().setAnchorProcessHeight(
-                processContext.getBlockchainMeta().getProduct(),
-                processContext.getBlockchainMeta().getBlockchainId(),
-                BlockTaskTypeEnum.POLLING.getCode(),
-                height
-        );
+        processContext.getHeightCursors().setHeight(BlockTaskTypeEnum.POLLING.getCode(), height);
     }
 
     protected long getRemoteBlockHeaderHeight() {
-        return processContext.getBlockchainRepository().getAnchorProcessHeight(
-                processContext.getBlockchainMeta().getProduct(),
-                processContext.getBlockchainMeta().getBlockchainId(),
-                BlockTaskTypeEnum.POLLING.getCode()
-        );
+        return processContext.getHeightCursors().getHeight(BlockTaskTypeEnum.POLLING.getCode());
     }
 
     protected long getLocalBlockHeaderHeight() {
         return Math.max(
                 processContext.getBlockchainMeta().getProperties().getInitBlockHeight(),
-                processContext.getBlockchainRepository().getAnchorProcessHeight(
-                        processContext.getBlockchainMeta().getProduct(),
-                        processContext.getBlockchainMeta().getBlockchainId(),
-                        BlockTaskTypeEnum.SYNC.getCode()
-                )
+                processContext.getHeightCursors().getHeight(BlockTaskTypeEnum.SYNC.getCode())
         );
     }
 
     protected void saveLocalBlockHeaderHeight(long height) {
-        processContext.getBlockchainRepository().setAnchorProcessHeight(
-                processContext.getBlockchainMeta().getProduct(),
-                processContext.getBlockchainMeta().getBlockchainId(),
-                BlockTaskTypeEnum.SYNC.getCode(),
-                height
-        );
+        processContext.getHeightCursors().setHeight(BlockTaskTypeEnum.SYNC.getCode(), height);
     }
 
     public long getNotifyBlockHeaderHeight(String workerType) {
         return Math.max(
-                processContext.getBlockchainRepository().getAnchorProcessHeight(
-                        processContext.getBlockchainMeta().getProduct(),
-                        processContext.getBlockchainMeta().getBlockchainId(),
-                        BlockTaskTypeEnum.NOTIFY.toNotifyWorkerHeightType(workerType)
-                ),
+                processContext.getHeightCursors().getHeight(BlockTaskTypeEnum.NOTIFY.toNotifyWorkerHeightType(workerType)),
                 processContext.getBlockchainMeta().getProperties().getInitBlockHeight()
         );
     }
@@ -73,11 +51,6 @@ public abstract class BlockBaseTask {
     }
 
     public void saveNotifyBlockHeaderHeight(String workerType, long height) {
-        processContext.getBlockchainRepository().setAnchorProcessHeight(
-                processContext.getBlockchainMeta().getProduct(),
-                processContext.getBlockchainMeta().getBlockchainId(),
-                BlockTaskTypeEnum.NOTIFY.toNotifyWorkerHeightType(workerType),
-                height
-        );
+        processContext.getHeightCursors().setHeight(BlockTaskTypeEnum.NOTIFY.toNotifyWorkerHeightType(workerType), height);
     }
 }
\ No newline at end of file
@@ -122,7 +122,27 @@ public class BlockNotifyTask extends BlockBaseTask {
             );
             
             for (; currentHeight <= endHeight; ++currentHeight) {
-                
+
+                // 连续的空区块没有需要处理的消息，一次性跳过，只更新一次处理高度
+                long lastEmptyHeight = Math.min(
+                        getProcessContext().getBlockQueue().getLastEmptyBlockHeight(currentHeight),
+                        localBlockHeaderHeight
+                );
+                if (lastEmptyHeight >= currentHeight) {
+                    saveNotifyBlockHeaderHeight(notifyTaskType.getCode(), lastEmptyHeight);
+                    log.info(
+                            "blockchain {} notify task {} skip empty blocks from {} to {}",
+                            getProcessContext().getBlockchainMeta().getMetaKey(),
+                            notifyTaskType.getCode(),
+                            currentHeight,
+                            lastEmptyHeight
+                    );
+                    // 空区块不占用批量处理的数量
+                    endHeight = Math.max(endHeight, lastEmptyHeight);
+                    currentHeight = lastEmptyHeight;
+                    continue;
+                }
+
                 AbstractBlock block = getProcessContext().getBlockQueue().getBlockFromQueue(currentHeight);
                 if (ObjectUtil.isNull(block)) {
                     log.error(
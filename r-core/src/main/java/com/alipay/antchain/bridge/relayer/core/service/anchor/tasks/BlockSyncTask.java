@@ -108,6 +108,12 @@ public class BlockSyncTask extends BlockBaseTask {
     }
 
     public List<AbstractBlock> queryRemoteBlock(long height, long size) {
+        // 优先一次请求获取整个窗口的区块，插件服务不支持时逐个高度并发查询
+        List<AbstractBlock> blocks = getProcessContext().getBlockchainClient().getEssentialHeadersByHeightRange(height, height + size - 1);
+        if (!blocks.isEmpty()) {
+            return blocks;
+        }
+
         List<Future<AbstractBlock>> blockFutures = new ArrayList<>((int) size);
         for (long queryHeight = height; queryHeight < height + size; ++queryHeight) {
             long finalQueryHeight = queryHeight;
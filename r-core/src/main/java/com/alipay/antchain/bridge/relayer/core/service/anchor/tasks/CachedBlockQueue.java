@@ -16,10 +16,17 @@
 
 package com.alipay.antchain.bridge.relayer.core.service.anchor.tasks;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 import cn.hutool.cache.Cache;
 import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.relayer.core.service.anchor.context.AnchorProcessContext;
@@ -27,16 +34,23 @@ import com.alipay.antchain.bridge.relayer.core.types.blockchain.AbstractBlock;
 import com.alipay.antchain.bridge.relayer.core.types.blockchain.HeterogeneousBlock;
 import lombok.Getter;
 import lombok.Setter;
+import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RBatch;
 import org.redisson.api.RBucket;
+import org.redisson.api.RScoredSortedSet;
+import org.redisson.api.RScoredSortedSetAsync;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.StringCodec;
 
 @Getter
 @Setter
 @Slf4j
 public class CachedBlockQueue implements IBlockQueue {
 
+    private static final int MAX_EMPTY_BLOCK_RANGES = 1024;
+
     private AnchorProcessContext processContext;
 
     private final Cache<String, AbstractBlock> blockCache;
@@ -45,7 +59,13 @@ public class CachedBlockQueue implements IBlockQueue {
 
     private final int blockCacheTTL;
 
-    private long latestBlockHeightFetched = Long.MAX_VALUE;
+    private volatile long latestBlockHeightFetched = Long.MAX_VALUE;
+
+    /**
+     * 空区块不进缓存，只记录连续的高度区间，key为区间起始高度，value为区间结束高度。
+     * 区间同时写入redis，处理同一条链的其他节点也能跳过这些空区块
+     */
+    private final TreeMap<Long, Long> emptyBlockRanges = new TreeMap<>();
 
     public CachedBlockQueue(
             AnchorProcessContext processContext,
@@ -60,10 +80,24 @@ public class CachedBlockQueue implements IBlockQueue {
     }
 
     public void putBlockIntoQueue(AbstractBlock block) {
+        if (block.ifEmpty()) {
+            putEmptyBlockHeight(block.getHeight());
+            return;
+        }
         putBlockIntoCache(block);
     }
 
     public AbstractBlock getBlockFromQueue(long height) {
+        if (getLastEmptyBlockHeight(height) >= height) {
+            return new HeterogeneousBlock(
+                    processContext.getAnchorProduct(),
+                    processContext.getBlockchainClient().getDomain(),
+                    processContext.getAnchorBlockchainId(),
+                    height,
+                    ListUtil.empty()
+            );
+        }
+
         if (blockCache.containsKey(getMemCacheKey(height))) {
             return blockCache.get(getMemCacheKey(height), false);
         }
@@ -101,6 +135,117 @@ public class CachedBlockQueue implements IBlockQueue {
         return block;
     }
 
+    @Override
+    public long getLastEmptyBlockHeight(long height) {
+        long lastEmptyHeight = getLastEmptyBlockHeightFromMem(height);
+        if (lastEmptyHeight >= height || blockCache.containsKey(getMemCacheKey(height))) {
+            return lastEmptyHeight;
+        }
+        // 本地没有记录时从redis读取其他节点写入的空区块区间
+        try {
+            Collection<String> ranges = getEmptyRangesInRedis().valueRangeReversed(
+                    Double.NEGATIVE_INFINITY, true, height, true, 0, 1
+            );
+            if (ObjectUtil.isEmpty(ranges)) {
+                return lastEmptyHeight;
+            }
+            long[] range = decodeEmptyRange(ranges.iterator().next());
+            if (range[1] < height) {
+                return lastEmptyHeight;
+            }
+            mergeEmptyRange(range[0], range[1]);
+            return range[1];
+        } catch (Exception e) {
+            log.error(
+                    "failed to read empty block ranges ( product: {}, blockchain_id: {}, height: {} ) from redis.",
+                    processContext.getAnchorProduct(), processContext.getAnchorBlockchainId(), height,
+                    e
+            );
+            return lastEmptyHeight;
+        }
+    }
+
+    @Synchronized
+    private long getLastEmptyBlockHeightFromMem(long height) {
+        Map.Entry<Long, Long> range = emptyBlockRanges.floorEntry(height);
+        if (range == null || range.getValue() < height) {
+            return height - 1;
+        }
+        return range.getValue();
+    }
+
+    private void putEmptyBlockHeight(long height) {
+        List<String> mergedRanges = new ArrayList<>();
+        long[] range = mergeEmptyRange(height, height, mergedRanges);
+
+        // 合并后的区间替换redis里被合并的区间
+        RBatch batch = redisson.createBatch();
+        RScoredSortedSetAsync<String> rangesInRedis = batch.getScoredSortedSet(getEmptyRangesRedisKey(), StringCodec.INSTANCE);
+        if (!mergedRanges.isEmpty()) {
+            rangesInRedis.removeAllAsync(mergedRanges);
+        }
+        rangesInRedis.addAsync(range[0], encodeEmptyRange(range[0], range[1]));
+        rangesInRedis.removeRangeByRankAsync(0, -MAX_EMPTY_BLOCK_RANGES - 1);
+        rangesInRedis.expireAsync(Duration.ofMillis(blockCacheTTL));
+        batch.executeAsync().exceptionally(
+                e -> {
+                    log.error(
+                            "failed to put empty block range [{}, {}] ( product: {}, blockchain_id: {} ) into redis.",
+                            range[0], range[1], processContext.getAnchorProduct(), processContext.getAnchorBlockchainId(),
+                            e
+                    );
+                    return null;
+                }
+        );
+    }
+
+    private void mergeEmptyRange(long start, long end) {
+        mergeEmptyRange(start, end, new ArrayList<>());
+    }
+
+    /**
+     * 把区间合并进本地记录，返回合并后的区间，被合并的已有区间编码后放入mergedRanges
+     */
+    @Synchronized
+    private long[] mergeEmptyRange(long start, long end, List<String> mergedRanges) {
+        Map.Entry<Long, Long> lower = emptyBlockRanges.floorEntry(start);
+        if (lower != null && lower.getValue() >= start - 1) {
+            mergedRanges.add(encodeEmptyRange(lower.getKey(), lower.getValue()));
+            start = lower.getKey();
+            end = Math.max(lower.getValue(), end);
+        }
+        Map.Entry<Long, Long> higher = emptyBlockRanges.higherEntry(start);
+        while (higher != null && higher.getKey() <= end + 1) {
+            mergedRanges.add(encodeEmptyRange(higher.getKey(), higher.getValue()));
+            end = Math.max(end, higher.getValue());
+            emptyBlockRanges.remove(higher.getKey());
+            higher = emptyBlockRanges.higherEntry(start);
+        }
+        emptyBlockRanges.put(start, end);
+
+        while (emptyBlockRanges.size() > MAX_EMPTY_BLOCK_RANGES) {
+            emptyBlockRanges.pollFirstEntry();
+        }
+        return new long[]{start, end};
+    }
+
+    private RScoredSortedSet<String> getEmptyRangesInRedis() {
+        return redisson.getScoredSortedSet(getEmptyRangesRedisKey(), StringCodec.INSTANCE);
+    }
+
+    private String getEmptyRangesRedisKey() {
+        return StrUtil.format("{}^{}^empty_ranges", processContext.getAnchorProduct(), processContext.getAnchorBlockchainId());
+    }
+
+    private static String encodeEmptyRange(long start, long end) {
+        return start + "-" + end;
+    }
+
+    private static long[] decodeEmptyRange(String range) {
+        int idx = range.indexOf('-');
+        return new long[]{Long.parseLong(range.substring(0, idx)), Long.parseLong(range.substring(idx + 1))};
+    }
+
     private void putBlockIntoCache(AbstractBlock block) {
 
         log.debug("put block {} from blockchain {}-{} into cache", block.getHeight(), block.getProduct(), block.getBlockchainId());
@@ -23,4 +23,12 @@ public interface IBlockQueue {
     void putBlockIntoQueue(AbstractBlock block);
 
     AbstractBlock getBlockFromQueue(long height);
+
+    /**
+     * 从{@code height}开始连续的空区块中最后一个区块的高度
+     *
+     * @param height 起始高度
+     * @return 最后一个连续空区块的高度，{@code height}不是已知的空区块时返回{@code height - 1}
+     */
+    long getLastEmptyBlockHeight(long height);
 }
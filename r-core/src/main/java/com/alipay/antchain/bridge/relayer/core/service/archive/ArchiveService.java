@@ -21,6 +21,7 @@ import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 import javax.annotation.Resource;
 
+import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
 import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum;
@@ -45,6 +46,18 @@ public class ArchiveService {
     @Value("${relayer.service.archive.batch_size:64}")
     private int archiveBatchSize;
 
+    /**
+     * 按id范围分段归档，每段一个事务，避免按id列表归档时长时间持有行锁
+     */
+    @Value("${relayer.service.archive.range.enable:false}")
+    private boolean archiveByRange;
+
+    @Value("${relayer.service.archive.range.size:1000}")
+    private long archiveRangeSize;
+
+    @Value("${relayer.service.archive.range.max_ranges_per_run:16}")
+    private int archiveMaxRangesPerRun;
+
     @Resource
     private IBlockchainManager blockchainManager;
 
@@ -83,6 +96,11 @@ public class ArchiveService {
                 return;
             }
 
+            if (archiveByRange) {
+                processByRange(blockchainProduct, blockchainId, domain);
+                return;
+            }
+
             // 分别捞出待处理流水
             List<SDPMsgWrapper> sdpMsgWrappers = crossChainMessageRepository.peekTxFinishedSDPMessageIds(
                     blockchainProduct,
@@ -176,6 +194,37 @@ public class ArchiveService {
 
     }
 
+    private void processByRange(String blockchainProduct, String blockchainId, String domain) {
+        Long startId = crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages(blockchainProduct, blockchainId, 0);
+        if (ObjectUtil.isNull(startId)) {
+            blockchainIdleDCache.setLastEmptyAMArchiveTime(blockchainProduct, blockchainId);
+            log.debug("sdp msgs to archive is empty for {}-{}", blockchainProduct, blockchainId);
+            return;
+        }
+
+        Lock lock = getArchiveSessionLock(domain);
+        if (!lock.tryLock()) {
+            log.info("AMCommitter: unable to get the archive lock: {}", domain);
+            return;
+        }
+        try {
+            for (int i = 0; i < archiveMaxRangesPerRun && ObjectUtil.isNotNull(startId); i++) {
+                long rangeStart = startId;
+                long rangeEnd = startId + archiveRangeSize - 1;
+                Integer count = transactionTemplate.execute(
+                        status -> crossChainMessageRepository.archiveMessagesByIdRange(
+                                blockchainProduct, blockchainId, rangeStart, rangeEnd
+                        )
+                );
+                log.info("archive {} msgs with id range [{}, {}] for {}-{}",
+                        count, rangeStart, rangeEnd, blockchainProduct, blockchainId);
+                startId = crossChainMessageRepository.getMinIdOfTxFinishedSDPMessages(blockchainProduct, blockchainId, rangeEnd + 1);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private Lock getArchiveSessionLock(String domain) {
         return redisson.getLock(SESSION_AM_LOCK + domain);
     }
@@ -65,6 +65,21 @@ public class CommitterService {
     @Value("${relayer.service.committer.threads.core_size:32}")
     private int committerServiceCoreSize;
 
+    /**
+     * Pack consecutive messages of one session into a single {@link AuthMsgPackage}
+     * and commit them with one on-chain transaction. The state of each package is persisted
+     * right after it is sent. The AM contract of receiving blockchain must support
+     * packages with multiple proofs.
+     */
+    @Value("${relayer.service.committer.ccmsg.batch.enable:false}")
+    private boolean batchCommitEnabled;
+
+    @Value("${relayer.service.committer.ccmsg.batch.max_msg_count:16}")
+    private int batchCommitMaxMsgCount;
+
+    @Value("${relayer.service.committer.ccmsg.batch.max_pkg_bytes:262144}")
+    private int batchCommitMaxPkgBytes;
+
     public void process(String blockchainProduct, String blockchainId) {
 
         if (isBusyBlockchain(blockchainProduct, blockchainId)) {
@@ -208,24 +223,28 @@ public class CommitterService {
             sessionLock.lock();
             log.info("get distributed lock for session {}", sessionName);
             try {
-                transactionTemplate.execute(
-                        new TransactionCallbackWithoutResult() {
-                            @Override
-                            protected void doInTransactionWithoutResult(TransactionStatus status) {
-                                // 这是个分布式并发任务，加了session锁后，要check下每个SDP消息的最新状态，防止重复处理
-                                List<SDPMsgWrapper> sessionMsgsUpdate = filterOutdatedMsg(sessionMsgs);
+                // 这是个分布式并发任务，加了session锁后，要check下每个SDP消息的最新状态，防止重复处理
+                List<SDPMsgWrapper> sessionMsgsUpdate = filterOutdatedMsg(sessionMsgs);
 
-                                // p2p按seq排序，后续需要按序提交
-                                sortSDPMsgList(sessionMsgsUpdate);
+                if (sessionMsgsUpdate.isEmpty()) {
+                    return;
+                }
 
-                                for (SDPMsgWrapper sdpMsgWrapper : sessionMsgsUpdate) {
-                                    // 逐笔提交，但包装为数组调用批量更新接口
-                                    log.info("committing msg of id {} for session {}", sdpMsgWrapper.getId(), sessionName);
-                                    batchCommitSDPMsg(sessionName, ListUtil.toList(sdpMsgWrapper));
-                                }
-                            }
-                        }
-                );
+                // p2p按seq排序，后续需要按序提交
+                sortSDPMsgList(sessionMsgsUpdate);
+
+                if (batchCommitEnabled) {
+                    // 整个session一起提交，按数目和大小限制拆分为多个AM包
+                    log.info("committing {} msgs in batch for session {}", sessionMsgsUpdate.size(), sessionName);
+                    batchCommitSDPMsg(sessionName, sessionMsgsUpdate);
+                    return;
+                }
+
+                for (SDPMsgWrapper sdpMsgWrapper : sessionMsgsUpdate) {
+                    // 逐笔提交，但包装为数组调用批量更新接口
+                    log.info("committing msg of id {} for session {}", sdpMsgWrapper.getId(), sessionName);
+                    batchCommitSDPMsg(sessionName, ListUtil.toList(sdpMsgWrapper));
+                }
             } catch (AntChainBridgeRelayerException e) {
                 throw e;
             } catch (Exception e) {
@@ -243,9 +262,10 @@ public class CommitterService {
     }
 
     private List<SDPMsgWrapper> filterOutdatedMsg(List<SDPMsgWrapper> sessionMsgs) {
+        // session锁已保证同一session只有一个提交者，这里无需行锁
         return sessionMsgs.stream().filter(
                 sdpMsgWrapper ->
-                        crossChainMessageRepository.getSDPMessage(sdpMsgWrapper.getId(), true)
+                        crossChainMessageRepository.getSDPMessage(sdpMsgWrapper.getId(), false)
                                 .getProcessState() == SDPMsgProcessStateEnum.PENDING
         ).collect(Collectors.toList());
     }
@@ -260,9 +280,14 @@ public class CommitterService {
             for (SDPMsgWrapper msg : msgSet.getExpired()) {
                 msg.setProcessState(SDPMsgProcessStateEnum.TX_SUCCESS);
                 log.info("AMCommitter: am {} has been committed on chain", msg.getAuthMsgWrapper().getAuthMsgId());
-                if (!crossChainMessageRepository.updateSDPMessage(msg)) {
-                    throw new RuntimeException("database update failed");
-                }
+            }
+            if (
+                    !crossChainMessageRepository.updateSDPMessagesState(
+                            msgSet.getExpired().stream().map(SDPMsgWrapper::getId).collect(Collectors.toList()),
+                            SDPMsgProcessStateEnum.TX_SUCCESS
+                    )
+            ) {
+                throw new RuntimeException("database update failed");
             }
         }
     }
@@ -293,36 +318,60 @@ public class CommitterService {
                     )
             );
 
-            SDPMsgCommitResult res = commitAmPkg(
-                    msgSet.getUpload().get(0).getReceiverBlockchainProduct(),
-                    msgSet.getUpload().get(0).getReceiverBlockchainId(),
-                    AuthMsgPackage.convertFrom(msgSet.getUpload(), null)
-            );
-
-            // Send tx result situations:
-            //
-            // - unknown_exception: unknown exception from upper operations
-            // - tx_sent_failed: failed to send tx, returned with errcode and errmsg
-            // - tx_success: tx has been sent successfully
-            // - tx_pending: tx has been sent but pending to execute
-            //   1. revert error, returned with REVERT_ERROR and errmsg
-            //   2. other chain error, returned with errcode and errmsg
-            //   3. success
-
-            if (!res.isCommitSuccess()) {
-                log.error("AMCommitter: amPkg for session {} commit failed, error msg: {}", sessionName, res.getFailReason());
-                throw new RuntimeException("failed to commit msgs");
-            }
+            for (List<SDPMsgWrapper> pkgMsgs : splitIntoPackages(msgSet.getUpload())) {
+                SDPMsgCommitResult res = commitAmPkg(
+                        pkgMsgs.get(0).getReceiverBlockchainProduct(),
+                        pkgMsgs.get(0).getReceiverBlockchainId(),
+                        AuthMsgPackage.convertFrom(pkgMsgs, null)
+                );
 
-            for (SDPMsgWrapper msg : msgSet.getUpload()) {
-                msg.setTxSuccess(res.isCommitSuccess());
-                msg.setTxHash(res.getTxHash());
-                msg.setTxFailReason(res.getFailReason());
-                msg.setProcessState(calculateProcessState(res));
+                // Send tx result situations:
+                //
+                // - unknown_exception: unknown exception from upper operations
+                // - tx_sent_failed: failed to send tx, returned with errcode and errmsg
+                // - tx_success: tx has been sent successfully
+                // - tx_pending: tx has been sent but pending to execute
+                //   1. revert error, returned with REVERT_ERROR and errmsg
+                //   2. other chain error, returned with errcode and errmsg
+                //   3. success
+
+                if (!res.isCommitSuccess()) {
+                    // 之前的包状态已落库，剩余消息保持PENDING等待下一轮
+                    log.error("AMCommitter: amPkg with {} msgs for session {} commit failed, error msg: {}",
+                            pkgMsgs.size(), sessionName, res.getFailReason());
+                    throw new RuntimeException("failed to commit msgs");
+                }
 
-                if (!crossChainMessageRepository.updateSDPMessage(msg)) {
-                    throw new RuntimeException("database update failed");
+                SDPMsgProcessStateEnum processState = calculateProcessState(res);
+                for (SDPMsgWrapper msg : pkgMsgs) {
+                    msg.setTxSuccess(res.isCommitSuccess());
+                    msg.setTxHash(res.getTxHash());
+                    msg.setTxFailReason(res.getFailReason());
+                    msg.setProcessState(processState);
                 }
+
+                // 同一个AM包内的消息共享同一笔交易，一次更新；
+                // 每个包上链后立即独立提交db事务，避免后续包失败时回滚已上链消息的状态
+                transactionTemplate.execute(
+                        new TransactionCallbackWithoutResult() {
+                            @Override
+                            protected void doInTransactionWithoutResult(TransactionStatus status) {
+                                if (
+                                        !crossChainMessageRepository.updateSDPMessagesTxResult(
+                                                pkgMsgs.stream().map(SDPMsgWrapper::getId).collect(Collectors.toList()),
+                                                processState,
+                                                res.getTxHash(),
+                                                res.isCommitSuccess(),
+                                                res.getFailReason()
+                                        )
+                                ) {
+                                    throw new RuntimeException("database update failed");
+                                }
+                            }
+                        }
+                );
+                log.info("AMCommitter: amPkg with {} msgs for session {} committed with tx {}",
+                        pkgMsgs.size(), sessionName, res.getTxHash());
             }
             log.info("AMCommitter: messages for session {} status updated in database", sessionName);
 
@@ -335,6 +384,38 @@ public class CommitterService {
         }
     }
 
+    /**
+     * Split the sorted messages into packages limited by
+     * message count and the total size of auth messages.
+     *
+     * @param msgs messages to upload with auth message loaded
+     * @return packages in original order
+     */
+    private List<List<SDPMsgWrapper>> splitIntoPackages(List<SDPMsgWrapper> msgs) {
+        int maxMsgCount = batchCommitEnabled ? Math.max(batchCommitMaxMsgCount, 1) : 1;
+
+        List<List<SDPMsgWrapper>> pkgs = new ArrayList<>();
+        List<SDPMsgWrapper> currPkg = new ArrayList<>();
+        long currPkgBytes = 0;
+        for (SDPMsgWrapper msg : msgs) {
+            int msgBytes = msg.getAuthMsgWrapper().getAuthMessage().encode().length;
+            if (
+                    !currPkg.isEmpty()
+                            && (currPkg.size() >= maxMsgCount || currPkgBytes + msgBytes > batchCommitMaxPkgBytes)
+            ) {
+                pkgs.add(currPkg);
+                currPkg = new ArrayList<>();
+                currPkgBytes = 0;
+            }
+            currPkg.add(msg);
+            currPkgBytes += msgBytes;
+        }
+        if (!currPkg.isEmpty()) {
+            pkgs.add(currPkg);
+        }
+        return pkgs;
+    }
+
     private SDPMsgProcessStateEnum calculateProcessState(SDPMsgCommitResult res) {
         if (res.isConfirmed()) {
             return res.isCommitSuccess() ? SDPMsgProcessStateEnum.TX_SUCCESS : SDPMsgProcessStateEnum.TX_FAILED;
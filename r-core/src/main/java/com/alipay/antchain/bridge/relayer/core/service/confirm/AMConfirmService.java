@@ -1,17 +1,10 @@
 package com.alipay.antchain.bridge.relayer.core.service.confirm;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import javax.annotation.Resource;
 
-import cn.hutool.core.collection.ListUtil;
-import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
@@ -25,7 +18,10 @@ import com.alipay.antchain.bridge.relayer.core.types.blockchain.BlockchainClient
 import com.alipay.antchain.bridge.relayer.core.types.blockchain.HeteroBlockchainClient;
 import com.alipay.antchain.bridge.relayer.core.types.network.IRelayerClientPool;
 import com.alipay.antchain.bridge.relayer.core.types.network.RelayerClient;
+import com.alipay.antchain.bridge.relayer.core.utils.PoolPeekCursor;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -55,12 +51,29 @@ public class AMConfirmService {
     @Resource
     private IBlockchainManager blockchainManager;
 
+    /**
+     * 向对端relayer增量查询回执的状态，key为发送链和接收链domain
+     */
+    private final Map<String, RemoteReceiptCursor> remoteReceiptCursorMap = new ConcurrentHashMap<>();
+
+    /**
+     * 按接收链扫描TX_PENDING消息的游标，交易未确认的消息不需要退避
+     */
+    @Resource(name = "txPendingPeekCursor")
+    private PoolPeekCursor txPendingPeekCursor;
+
     public void process(String product, String blockchainId) {
-        List<SDPMsgWrapper> sdpMsgWrappers = crossChainMessageRepository.peekSDPMessages(
-                product,
-                blockchainId,
-                SDPMsgProcessStateEnum.TX_PENDING,
-                confirmBatchSize
+        List<SDPMsgWrapper> sdpMsgWrappers = txPendingPeekCursor.peek(
+                StrUtil.format("{}:{}", product, blockchainId),
+                confirmBatchSize,
+                (fromId, excludedIds) -> crossChainMessageRepository.peekSDPMessages(
+                        product,
+                        blockchainId,
+                        SDPMsgProcessStateEnum.TX_PENDING,
+                        confirmBatchSize,
+                        fromId
+                ),
+                SDPMsgWrapper::getId
         );
         if (ObjectUtil.isEmpty(sdpMsgWrappers)) {
             log.debug("none tx pending sdp message in DB for blockchain {}-{}", product, blockchainId);
@@ -73,45 +86,62 @@ public class AMConfirmService {
         }
         HeteroBlockchainClient heteroBlockchainClient = (HeteroBlockchainClient) client;
 
-        List<Future<CrossChainMessageReceipt>> futureList = new ArrayList<>();
-        sdpMsgWrappers.forEach(
-                sdpMsgWrapper -> futureList.add(
-                        confirmServiceThreadsPool.submit(
-                                () -> heteroBlockchainClient.queryCommittedTxReceipt(sdpMsgWrapper.getTxHash())
-                        )
-                )
-        );
+        // 先批量查询回执，插件服务不支持或者没有返回的交易再逐笔查询
+        List<String> txHashes = sdpMsgWrappers.stream()
+                .map(SDPMsgWrapper::getTxHash)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<String, CrossChainMessageReceipt> receiptMap = new HashMap<>(heteroBlockchainClient.queryCommittedTxReceipts(txHashes));
 
-        List<SDPMsgCommitResult> commitResults = new ArrayList<>();
-        futureList.forEach(
-                future -> {
-                    CrossChainMessageReceipt receipt;
+        // 逐笔查询使用异步请求，等待插件服务响应期间不占用线程
+        Map<String, Future<CrossChainMessageReceipt>> futureMap = new HashMap<>();
+        txHashes.stream()
+                .filter(txHash -> !receiptMap.containsKey(txHash))
+                .forEach(
+                        txHash -> futureMap.put(
+                                txHash,
+                                heteroBlockchainClient.queryCommittedTxReceiptAsync(txHash)
+                        )
+                );
+        futureMap.forEach(
+                (txHash, future) -> {
                     try {
-                        receipt = future.get();
+                        receiptMap.put(txHash, future.get());
                     } catch (InterruptedException | ExecutionException e) {
                         throw new RuntimeException(
                                 String.format("failed to query cross-chain receipt for ( product: %s, bid: %s )", product, blockchainId),
                                 e
                         );
                     }
+                }
+        );
+
+        List<SDPMsgCommitResult> commitResults = new ArrayList<>();
+        receiptMap.forEach(
+                (txHash, receipt) -> {
+                    if (ObjectUtil.isNull(receipt)) {
+                        // 插件服务没有返回回执，下一轮再查询
+                        log.warn("null receipt returned for tx {} on ( product: {}, bid: {} )", txHash, product, blockchainId);
+                        return;
+                    }
                     if (receipt.isConfirmed()) {
                         commitResults.add(
                                 new SDPMsgCommitResult(
                                         product,
                                         blockchainId,
-                                        receipt.getTxhash(),
+                                        txHash,
                                         receipt.isSuccessful(),
                                         receipt.getErrorMsg(),
                                         System.currentTimeMillis()
                                 )
                         );
                         log.info("sdp confirmed : (tx: {}, is_success: {}, error_msg: {})",
-                                receipt.getTxhash(), receipt.isSuccessful(), receipt.getErrorMsg());
+                                txHash, receipt.isSuccessful(), receipt.getErrorMsg());
                     }
                 }
         );
 
-        crossChainMessageRepository.updateSDPMessageResults(commitResults);
+        crossChainMessageRepository.batchUpdateSDPMessageResults(commitResults);
     }
 
     public void processSentToRemoteRelayer(String product, String blockchainId) {
@@ -125,58 +155,76 @@ public class AMConfirmService {
             return;
         }
 
-        List<Future<Map<Long, CrossChainMessageReceipt>>> futureList = new ArrayList<>();
+        // 一次查询获取所有消息的ucp id
+        Map<Long, String> ucpIdByAmId = crossChainMessageRepository.getUcpIds(
+                sdpMsgWrappersSent.stream()
+                        .map(sdpMsgWrapper -> sdpMsgWrapper.getAuthMsgWrapper().getAuthMsgId())
+                        .collect(Collectors.toList())
+        );
+
+        // 获取客户端在线程池中执行，查询回执的网络请求异步发送，等待响应期间不占用线程
+        Map<String, RemoteReceiptCursor> newCursorMap = new ConcurrentHashMap<>();
+        List<CompletableFuture<Map<Long, CrossChainMessageReceipt>>> futureList = new ArrayList<>();
         sdpMsgWrappersSent.stream().collect(Collectors.groupingBy(SDPMsgWrapper::getReceiverBlockchainDomain))
-                .forEach((key, value) -> futureList.add(
-                        confirmServiceThreadsPool.submit(
-                                () -> {
-                                    RelayerClient relayerClient = relayerClientPool.getRelayerClientByDomain(key);
-                                    if (ObjectUtil.isNull(relayerClient)) {
-                                        relayerClient = relayerClientPool.getRelayerClient(
-                                                relayerNetworkManager.getRelayerNode(relayerNetworkManager.findRemoteRelayer(key), false),
-                                                key
-                                        );
-                                    }
-                                    Map<String, Long> ucpIdsMap = value.stream().map(
-                                                    sdpMsgWrapper -> MapUtil.entry(
-                                                            sdpMsgWrapper.getId(),
-                                                            crossChainMessageRepository.getUcpId(
-                                                                    sdpMsgWrapper.getAuthMsgWrapper().getAuthMsgId()
-                                                            )
-                                                    )
-                                            ).filter(entry -> StrUtil.isNotEmpty(entry.getValue()))
-                                            .collect(Collectors.toMap(
-                                                    Map.Entry::getValue,
-                                                    Map.Entry::getKey
-                                            ));
-                                    if (ObjectUtil.isNotEmpty(ucpIdsMap)) {
-                                        Map<String, CrossChainMessageReceipt> receiptMap = relayerClient.queryCrossChainMessageReceipts(
-                                                ListUtil.toList(ucpIdsMap.keySet())
+                .forEach((key, value) -> {
+                    Map<String, Long> ucpIdsMap = value.stream()
+                            .filter(sdpMsgWrapper -> StrUtil.isNotEmpty(ucpIdByAmId.get(sdpMsgWrapper.getAuthMsgWrapper().getAuthMsgId())))
+                            .collect(Collectors.toMap(
+                                    sdpMsgWrapper -> ucpIdByAmId.get(sdpMsgWrapper.getAuthMsgWrapper().getAuthMsgId()),
+                                    SDPMsgWrapper::getId
+                            ));
+                    if (ObjectUtil.isEmpty(ucpIdsMap)) {
+                        return;
+                    }
+
+                    // 上一轮查询过的ucp只需要对端返回cursor之后有变化的回执
+                    String cursorKey = StrUtil.format("{}:{}:{}", product, blockchainId, key);
+                    RemoteReceiptCursor lastCursor = remoteReceiptCursorMap.get(cursorKey);
+                    List<String> freshUcpIds = new ArrayList<>();
+                    List<String> subscribedUcpIds = new ArrayList<>();
+                    ucpIdsMap.keySet().forEach(
+                            ucpId -> (ObjectUtil.isNotNull(lastCursor) && lastCursor.getUcpIds().contains(ucpId) ?
+                                    subscribedUcpIds : freshUcpIds).add(ucpId)
+                    );
+
+                    futureList.add(
+                            CompletableFuture.supplyAsync(
+                                    () -> getRelayerClient(key),
+                                    confirmServiceThreadsPool
+                            ).thenCompose(
+                                    relayerClient -> relayerClient.queryCrossChainMessageReceiptsSinceAsync(
+                                            freshUcpIds,
+                                            subscribedUcpIds,
+                                            ObjectUtil.isNull(lastCursor) ? 0 : lastCursor.getCursor()
+                                    )
+                            ).<Map<Long, CrossChainMessageReceipt>>thenApply(
+                                    respPayload -> {
+                                        newCursorMap.put(
+                                                cursorKey,
+                                                new RemoteReceiptCursor(respPayload.getCursor(), new HashSet<>(ucpIdsMap.keySet()))
                                         );
-                                        if (ObjectUtil.isEmpty(receiptMap)) {
-                                            return new HashMap<>();
-                                        }
-                                        return receiptMap.entrySet().stream()
-                                                .collect(Collectors.toMap(
-                                                        entry -> ucpIdsMap.get(entry.getKey()),
-                                                        Map.Entry::getValue
-                                                ));
+                                        return ObjectUtil.isEmpty(respPayload.getReceipts()) ? new HashMap<>() :
+                                                respPayload.getReceipts().entrySet().stream()
+                                                        .filter(entry -> ucpIdsMap.containsKey(entry.getKey()) && ObjectUtil.isNotNull(entry.getValue()))
+                                                        .collect(Collectors.toMap(
+                                                                entry -> ucpIdsMap.get(entry.getKey()),
+                                                                Map.Entry::getValue
+                                                        ));
                                     }
-                                    return new HashMap<>();
-                                }
-                        )
-                ));
+                            )
+                    );
+                });
 
         List<SDPMsgCommitResult> commitResults = new ArrayList<>();
         futureList.forEach(
                 future -> {
                     Map<Long, CrossChainMessageReceipt> receiptMap;
                     try {
-                        receiptMap = future.get();
-                    } catch (InterruptedException | ExecutionException e) {
+                        receiptMap = future.join();
+                    } catch (CompletionException e) {
                         throw new RuntimeException(
                                 String.format("failed to query cross-chain receipt for ( product: %s, bid: %s )", product, blockchainId),
-                                e
+                                ObjectUtil.isNull(e.getCause()) ? e : e.getCause()
                         );
                     }
                     receiptMap.forEach(
@@ -203,6 +251,41 @@ public class AMConfirmService {
                 }
         );
 
-        crossChainMessageRepository.updateSDPMessageResults(commitResults);
+        crossChainMessageRepository.batchUpdateSDPMessageResults(commitResults);
+
+        // 回执落库之后再推进cursor，避免确认结果丢失后不再返回
+        newCursorMap.forEach(
+                (cursorKey, cursor) -> {
+                    if (ObjectUtil.isNull(cursor.getCursor())) {
+                        // 对端不支持增量查询
+                        remoteReceiptCursorMap.remove(cursorKey);
+                    } else {
+                        remoteReceiptCursorMap.put(cursorKey, cursor);
+                    }
+                }
+        );
+    }
+
+    private RelayerClient getRelayerClient(String domain) {
+        RelayerClient relayerClient = relayerClientPool.getRelayerClientByDomain(domain);
+        if (ObjectUtil.isNull(relayerClient)) {
+            relayerClient = relayerClientPool.getRelayerClient(
+                    relayerNetworkManager.getRelayerNode(relayerNetworkManager.findRemoteRelayer(domain), false),
+                    domain
+            );
+        }
+        return relayerClient;
+    }
+
+    /**
+     * 向对端relayer增量查询回执的cursor，以及使用该cursor时已经查询过的ucp
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class RemoteReceiptCursor {
+
+        private final Long cursor;
+
+        private final Set<String> ucpIds;
     }
 }
@@ -322,7 +322,7 @@ public class DomainRouterQueryService {
                 respPayload.getRand()
         );
 
-        relayerClientPool.addRelayerClient(remoteNodeInfo.getNodeId(), relayerClient);
+        relayerClientPool.addRelayerClient(remoteNodeInfo.getNodeId(), (BaseRelayerClient) relayerClient);
 
         return remoteNodeInfo;
     }
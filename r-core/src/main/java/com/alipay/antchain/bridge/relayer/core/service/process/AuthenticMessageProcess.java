@@ -2,6 +2,7 @@ package com.alipay.antchain.bridge.relayer.core.service.process;
 
 import javax.annotation.Resource;
 
+import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.commons.core.sdp.AbstractSDPMessage;
@@ -21,6 +22,7 @@ import com.alipay.antchain.bridge.relayer.core.types.exception.SendAuthMessageEx
 import com.alipay.antchain.bridge.relayer.core.types.exception.UnknownRelayerForDestDomainException;
 import com.alipay.antchain.bridge.relayer.core.types.network.IRelayerClientPool;
 import com.alipay.antchain.bridge.relayer.core.types.network.RelayerClient;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerBusyException;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
 import com.alipay.antchain.bridge.relayer.dal.repository.IScheduleRepository;
 import com.alipay.antchain.bridge.relayer.dal.repository.impl.BlockchainIdleDCache;
@@ -53,6 +55,9 @@ public class AuthenticMessageProcess {
     @Resource
     private IScheduleRepository scheduleRepository;
 
+    @Resource
+    private RemoteAuthMessageBatcher remoteAuthMessageBatcher;
+
     @Value("${relayer.service.process.sdp.acl_on:true}")
     private boolean sdpACLOn;
 
@@ -104,6 +109,11 @@ public class AuthenticMessageProcess {
 
             return crossChainMessageRepository.updateAuthMessage(amMsgWrapper);
         } catch (SendAuthMessageException e) {
+            if (ExceptionUtil.isCausedBy(e, RelayerBusyException.class)) {
+                // 对端繁忙不计入失败次数，消息保持原状态等待下次处理，由调用方决定是否退避
+                log.info("remote relayer busy and am {} will be sent later", amMsgWrapper.getAuthMsgId());
+                throw (RelayerBusyException) ExceptionUtil.getCausedBy(e, RelayerBusyException.class);
+            }
             amMsgWrapper.setFailCount(amMsgWrapper.getFailCount() + 1);
             if (amMsgWrapper.getFailCount() > ccmsgFailLimit) {
                 amMsgWrapper.setProcessState(AuthMsgProcessStateEnum.FAILED);
@@ -270,7 +280,9 @@ public class AuthenticMessageProcess {
                         sdpMsgWrapper.getReceiverBlockchainDomain()
                 );
             }
-            relayerClient.propagateCrossChainMsg(
+            remoteAuthMessageBatcher.propagate(
+                    relayerNodeId,
+                    relayerClient,
                     sdpMsgWrapper.getSenderBlockchainDomain(),
                     sdpMsgWrapper.getAuthMsgWrapper().getUcpId(),
                     sdpMsgWrapper.getAuthMsgWrapper().getAuthMessage(),
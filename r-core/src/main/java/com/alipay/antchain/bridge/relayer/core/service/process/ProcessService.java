@@ -1,13 +1,15 @@
 package com.alipay.antchain.bridge.relayer.core.service.process;
 
+import java.util.HashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 import javax.annotation.Resource;
 
 import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.commons.core.sdp.SDPMessageFactory;
@@ -21,6 +23,8 @@ import com.alipay.antchain.bridge.relayer.commons.model.AuthMsgWrapper;
 import com.alipay.antchain.bridge.relayer.commons.model.UniformCrosschainPacketContext;
 import com.alipay.antchain.bridge.relayer.core.manager.blockchain.IBlockchainManager;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerNetworkManager;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerBusyException;
+import com.alipay.antchain.bridge.relayer.core.utils.PoolPeekCursor;
 import com.alipay.antchain.bridge.relayer.core.utils.ProcessUtils;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
 import com.alipay.antchain.bridge.relayer.dal.repository.impl.BlockchainIdleDCache;
@@ -29,8 +33,6 @@ import lombok.extern.slf4j.Slf4j;
 import org.redisson.api.RedissonClient;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.TransactionStatus;
-import org.springframework.transaction.support.TransactionCallbackWithoutResult;
 import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
@@ -73,6 +75,18 @@ public class ProcessService {
     @Resource
     private RedissonClient redisson;
 
+    /**
+     * 按domain扫描待处理AM消息的游标
+     */
+    @Resource(name = "amPeekCursor")
+    private PoolPeekCursor amPeekCursor;
+
+    /**
+     * 按domain扫描NOT_READY消息的游标
+     */
+    @Resource(name = "notReadyPeekCursor")
+    private PoolPeekCursor notReadyPeekCursor;
+
     /**
      * 执行指定区块的分布式调度任务
      *
@@ -90,10 +104,17 @@ public class ProcessService {
         if (this.blockchainIdleDCache.ifAMProcessIdle(blockchainProduct, blockchainId)) {
             log.debug("am process : blockchain is idle {}-{}.", blockchainProduct, blockchainId);
         } else if (StrUtil.isNotEmpty(domainName)) {
-            authMsgWrapperList = crossChainMessageRepository.peekAuthMessages(
+            authMsgWrapperList = amPeekCursor.peek(
                     domainName,
                     ccmsgBatchSize,
-                    ccmsgFailLimit
+                    (fromId, excludedIds) -> crossChainMessageRepository.peekAuthMessages(
+                            domainName,
+                            ccmsgBatchSize,
+                            ccmsgFailLimit,
+                            fromId,
+                            excludedIds
+                    ),
+                    AuthMsgWrapper::getAuthMsgId
             );
         }
 
@@ -115,45 +136,61 @@ public class ProcessService {
                 blockchainId,
                 authMsgWrapperList.stream().map(
                         authMsgWrapper -> processServiceThreadsPool.submit(
-                                wrapAMTask(authMsgWrapper.getAuthMsgId())
+                                wrapAMTask(domainName, authMsgWrapper.getAuthMsgId())
                         )
                 ).collect(Collectors.toList()),
                 log
         );
     }
 
-    private Runnable wrapAMTask(long amId) {
-        return () -> transactionTemplate.execute(
-                new TransactionCallbackWithoutResult() {
-                    @Override
-                    protected void doInTransactionWithoutResult(TransactionStatus status) {
-
-                        AuthMsgWrapper am = crossChainMessageRepository.getAuthMessage(amId, true);
-                        if (ObjectUtil.isNull(am)) {
-                            log.error("none auth message found for auth id {}", amId);
-                            return;
-                        }
+    private Runnable wrapAMTask(String domain, long amId) {
+        return () -> {
+            Boolean progressed;
+            try {
+                progressed = transactionTemplate.execute(
+                        status -> {
+                            AuthMsgWrapper am = crossChainMessageRepository.getAuthMessage(amId, true);
+                            if (ObjectUtil.isNull(am)) {
+                                log.error("none auth message found for auth id {}", amId);
+                                return true;
+                            }
 
-                        try {
-                            if (!authenticMessageProcess.doProcess(am)) {
-                                throw new RuntimeException(
-                                        StrUtil.format("failed to process auth message for auth id {} for unknown reason", amId)
+                            AuthMsgProcessStateEnum originalState = am.getProcessState();
+                            try {
+                                if (!authenticMessageProcess.doProcess(am)) {
+                                    throw new RuntimeException(
+                                            StrUtil.format("failed to process auth message for auth id {} for unknown reason", amId)
+                                    );
+                                }
+                            } catch (AntChainBridgeRelayerException e) {
+                                throw e;
+                            } catch (Exception e) {
+                                throw new AntChainBridgeRelayerException(
+                                        RelayerErrorCodeEnum.SERVICE_CORE_PROCESS_PROCESS_CCMSG_FAILED,
+                                        e,
+                                        "failed to process auth message for auth id {}",
+                                        amId
                                 );
                             }
-
-                        } catch (AntChainBridgeRelayerException e) {
-                            throw e;
-                        } catch (Exception e) {
-                            throw new AntChainBridgeRelayerException(
-                                    RelayerErrorCodeEnum.SERVICE_CORE_PROCESS_PROCESS_CCMSG_FAILED,
-                                    e,
-                                    "failed to process auth message for auth id {}",
-                                    amId
-                            );
+                            // 状态没有变化说明消息这次没有处理成功，比如发送失败
+                            return am.getProcessState() != originalState;
                         }
-                    }
+                );
+            } catch (RuntimeException e) {
+                if (ExceptionUtil.isCausedBy(e, RelayerBusyException.class)) {
+                    // 对端繁忙是正常的背压，消息本身没有问题，不计入退避
+                    log.debug("remote relayer busy and skip auth message {} this time", amId);
+                    return;
                 }
-        );
+                amPeekCursor.onFailure(domain, amId);
+                throw e;
+            }
+            if (Boolean.TRUE.equals(progressed)) {
+                amPeekCursor.onSuccess(domain, amId);
+            } else {
+                amPeekCursor.onFailure(domain, amId);
+            }
+        };
     }
 
     private Runnable wrapNotReadyAMPorterTask(String domain) {
@@ -164,56 +201,54 @@ public class ProcessService {
                 return;
             }
             try {
-                List<AuthMsgWrapper> authMsgWrappers = crossChainMessageRepository.peekNotReadyAuthMessages(
-                        domain, notReadyPortBatchSize
+                List<AuthMsgWrapper> authMsgWrappers = notReadyPeekCursor.peek(
+                        domain,
+                        notReadyPortBatchSize,
+                        (fromId, excludedIds) -> crossChainMessageRepository.peekNotReadyAuthMessages(
+                                domain, notReadyPortBatchSize, fromId, excludedIds
+                        ),
+                        AuthMsgWrapper::getAuthMsgId
                 );
                 if (ObjectUtil.isEmpty(authMsgWrappers)) {
                     log.debug("no not_ready am to be ported for domain {}", domain);
                     return;
                 }
-                int cnt = authMsgWrappers.stream().filter(
+                // 新状态的计算涉及路由查询等网络请求，放在事务外进行，事务内只做一次批量更新
+                Map<String, AuthMsgProcessStateEnum> newStateMap = new HashMap<>();
+                authMsgWrappers.stream().filter(
                         authMsgWrapper -> authMsgWrapper.getProtocolType() == UpperProtocolTypeBeyondAMEnum.SDP
-                ).map(
+                ).forEach(
                         authMsgWrapper -> {
                             try {
-                                return transactionTemplate.execute(
-                                        status -> {
-                                            try {
-                                                AuthMsgProcessStateEnum newState = getNewStateForNotReadyMsg(authMsgWrapper);
-                                                if (newState == AuthMsgProcessStateEnum.NOT_READY) {
-                                                    return 0;
-                                                }
-                                                if (
-                                                        crossChainMessageRepository.updateAuthMessageState(
-                                                                authMsgWrapper.getUcpId(), newState
-                                                        )
-                                                ) {
-                                                    log.info(
-                                                            "new state {} for auth message {} from domain {}",
-                                                            newState.name(), authMsgWrapper.getAuthMsgId(), authMsgWrapper.getDomain()
-                                                    );
-                                                    return 1;
-                                                } else {
-                                                    log.error("failed to update auth message {} 's state to {}", authMsgWrapper.getAuthMsgId(), newState.name());
-                                                    return 0;
-                                                }
-                                            } catch (Exception e) {
-                                                throw new RuntimeException(
-                                                        StrUtil.format("failed to process NOT_READY am {}: ", authMsgWrapper.getAuthMsgId()),
-                                                        e
-                                                );
-                                            }
-                                        }
-                                );
+                                AuthMsgProcessStateEnum newState = getNewStateForNotReadyMsg(authMsgWrapper);
+                                if (newState != AuthMsgProcessStateEnum.NOT_READY) {
+                                    newStateMap.put(authMsgWrapper.getUcpId(), newState);
+                                    log.info(
+                                            "new state {} for auth message {} from domain {}",
+                                            newState.name(), authMsgWrapper.getAuthMsgId(), authMsgWrapper.getDomain()
+                                    );
+                                }
                             } catch (Exception e) {
-                                log.error("failed to update NOT_READY auth message {} 's state: ", authMsgWrapper.getAuthMsgId(), e);
-                                return 0;
+                                log.error("failed to process NOT_READY auth message {} : ", authMsgWrapper.getAuthMsgId(), e);
+                                notReadyPeekCursor.onFailure(domain, authMsgWrapper.getAuthMsgId());
                             }
                         }
-                ).filter(Objects::nonNull).reduce(Integer::sum).orElse(0);
-                if (cnt > 0) {
+                );
+                if (newStateMap.isEmpty()) {
+                    return;
+                }
+                // 只更新仍处于NOT_READY的消息，避免覆盖计算期间被其他流程修改的状态
+                Integer cnt = transactionTemplate.execute(
+                        status -> crossChainMessageRepository.batchUpdateAuthMessagesState(newStateMap, AuthMsgProcessStateEnum.NOT_READY)
+                );
+                if (ObjectUtil.isNotNull(cnt) && cnt != newStateMap.size()) {
+                    log.warn("only {} of {} NOT_READY auth messages updated for domain {}", cnt, newStateMap.size(), domain);
+                }
+                if (ObjectUtil.isNotNull(cnt) && cnt > 0) {
                     log.info("successful to update {} not_ready auth messages for domain {}", cnt, domain);
                 }
+            } catch (Exception e) {
+                log.error("failed to update NOT_READY auth messages for domain {} : ", domain, e);
             } finally {
                 notReadyMessageLock.unlock();
             }
@@ -245,7 +280,7 @@ public class ProcessService {
         }
         UniformCrosschainPacketContext ucpContext = crossChainMessageRepository.getUniformCrosschainPacket(
                 authMsgWrapper.getUcpId(),
-                true
+                false
         );
         if (ObjectUtil.isNull(ucpContext)) {
             log.error(
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.service.process;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alipay.antchain.bridge.commons.core.am.IAuthMessage;
+import com.alipay.antchain.bridge.relayer.core.types.network.RelayerClient;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerBusyException;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerRequestUnsupportedException;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.PropagateCrossChainMsgsBatchRequest;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.PropagateCrossChainMsgsRespPayload;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将发往同一个relayer的AM消息合并为一个批量请求发送。
+ * <p>
+ * 各处理线程提交自己的消息后等待结果，每个relayer第一个提交消息的线程等待linger时间后发送积累的消息，
+ * 积累的消息达到batch size时由提交线程立即发送。
+ * 批量请求异步发送，发送线程不等待响应；
+ * 对端明确不支持批量请求时，该批消息逐条并发发送，并在一段时间内不再向该relayer发送批量请求；
+ * 其他失败（比如超时）时对端可能已经处理了该批消息，不再重发，交由AM消息的重试流程处理。
+ */
+@Component
+@Slf4j
+public class RemoteAuthMessageBatcher {
+
+    private static final long BATCH_RETRY_INTERVAL = 10 * 60 * 1000;
+
+    @Value("${relayer.service.process.remote_am.batch.enable:false}")
+    private boolean batchEnable;
+
+    @Value("${relayer.service.process.remote_am.batch.size:32}")
+    private int batchSize;
+
+    @Value("${relayer.service.process.remote_am.batch.linger:10}")
+    private long batchLinger;
+
+    @Value("${relayer.service.process.remote_am.batch.wait_timeout:60000}")
+    private long batchWaitTimeout;
+
+    private final Map<String, List<PendingMsg>> pendingMsgsMap = MapUtil.newConcurrentHashMap();
+
+    private final Map<String, Long> batchDisabledUntilMap = MapUtil.newConcurrentHashMap();
+
+    /**
+     * 发送AM消息到远程relayer，直到该消息被对端处理才返回
+     *
+     * @param relayerNodeId 远程relayer的节点ID
+     * @param relayerClient 远程relayer的客户端
+     */
+    public void propagate(
+            String relayerNodeId,
+            RelayerClient relayerClient,
+            String domainName,
+            String ucpId,
+            IAuthMessage authMsg,
+            String udagProof,
+            String ledgerInfo
+    ) {
+        if (!batchEnable || batchDisabledUntilMap.getOrDefault(relayerNodeId, 0L) > System.currentTimeMillis()) {
+            relayerClient.propagateCrossChainMsg(domainName, ucpId, authMsg, udagProof, ledgerInfo);
+            return;
+        }
+
+        PendingMsg pendingMsg = new PendingMsg(
+                new PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem(udagProof, ucpId, authMsg, domainName, ledgerInfo),
+                authMsg,
+                new CompletableFuture<>()
+        );
+        List<PendingMsg> batchToSend = null;
+        boolean leader;
+        List<PendingMsg> pendingMsgs = pendingMsgsMap.computeIfAbsent(relayerNodeId, k -> new ArrayList<>());
+        synchronized (pendingMsgs) {
+            pendingMsgs.add(pendingMsg);
+            leader = pendingMsgs.size() == 1;
+            if (pendingMsgs.size() >= batchSize) {
+                batchToSend = drain(pendingMsgs);
+            }
+        }
+
+        if (ObjectUtil.isNotNull(batchToSend)) {
+            sendBatch(relayerNodeId, relayerClient, batchToSend);
+        } else if (leader) {
+            ThreadUtil.sleep(batchLinger);
+            synchronized (pendingMsgs) {
+                batchToSend = drain(pendingMsgs);
+            }
+            if (!batchToSend.isEmpty()) {
+                sendBatch(relayerNodeId, relayerClient, batchToSend);
+            }
+        }
+
+        try {
+            pendingMsg.getResult().get(batchWaitTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for batch am request", e);
+        } catch (TimeoutException e) {
+            throw new RuntimeException(
+                    StrUtil.format("timeout to wait for batch am request of ucp {} to relayer {}", ucpId, relayerNodeId), e
+            );
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && ObjectUtil.isNotNull(e.getCause().getCause()) ?
+                    e.getCause().getCause() : e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        }
+    }
+
+    private List<PendingMsg> drain(List<PendingMsg> pendingMsgs) {
+        List<PendingMsg> result = new ArrayList<>(pendingMsgs);
+        pendingMsgs.clear();
+        return result;
+    }
+
+    /**
+     * 异步发送批量请求，发送线程不等待响应，结果通过每条消息的future通知等待的处理线程
+     */
+    private void sendBatch(String relayerNodeId, RelayerClient relayerClient, List<PendingMsg> batch) {
+        List<PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem> items = new ArrayList<>(batch.size());
+        batch.forEach(pendingMsg -> items.add(pendingMsg.getItem()));
+
+        CompletableFuture<List<PropagateCrossChainMsgsRespPayload.ItemResult>> future;
+        try {
+            future = relayerClient.propagateCrossChainMsgsAsync(items);
+        } catch (Exception e) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+        }
+        future.whenComplete((results, t) -> {
+            try {
+                handleBatchResult(relayerNodeId, relayerClient, batch, results, t);
+            } catch (Throwable e) {
+                log.error("failed to handle batch am response from relayer {}: ", relayerNodeId, e);
+                batch.forEach(pendingMsg -> pendingMsg.getResult().completeExceptionally(e));
+            }
+        });
+    }
+
+    private void handleBatchResult(
+            String relayerNodeId,
+            RelayerClient relayerClient,
+            List<PendingMsg> batch,
+            List<PropagateCrossChainMsgsRespPayload.ItemResult> results,
+            Throwable t
+    ) {
+        if (ExceptionUtil.isCausedBy(t, RelayerRequestUnsupportedException.class)) {
+            // 对端没有处理这批消息，可以安全地逐条重发
+            log.warn("relayer {} not support batch am request, send {} msgs one by one and disable batch for a while",
+                    relayerNodeId, batch.size());
+            batchDisabledUntilMap.put(relayerNodeId, System.currentTimeMillis() + BATCH_RETRY_INTERVAL);
+            batch.forEach(pendingMsg -> sendSingle(relayerClient, pendingMsg));
+            return;
+        }
+        if (ObjectUtil.isNotNull(t)) {
+            // 对端可能已经处理了这批消息，不重发，由AM消息的重试流程处理
+            if (!ExceptionUtil.isCausedBy(t, RelayerBusyException.class)) {
+                log.warn("batch am request with {} msgs to relayer {} failed: ", batch.size(), relayerNodeId, t);
+            }
+            batch.forEach(pendingMsg -> pendingMsg.getResult().completeExceptionally(t));
+            return;
+        }
+
+        Map<String, PropagateCrossChainMsgsRespPayload.ItemResult> resultMap = new HashMap<>();
+        if (ObjectUtil.isNotNull(results)) {
+            results.stream().filter(ObjectUtil::isNotNull).forEach(result -> resultMap.put(result.getUcpId(), result));
+        }
+        for (PendingMsg pendingMsg : batch) {
+            PropagateCrossChainMsgsRespPayload.ItemResult result = resultMap.get(pendingMsg.getItem().getUcpId());
+            if (ObjectUtil.isNull(result)) {
+                pendingMsg.getResult().completeExceptionally(
+                        new RuntimeException(
+                                StrUtil.format("no result for am request of ucp {} from domain {} in batch response",
+                                        pendingMsg.getItem().getUcpId(), pendingMsg.getItem().getDomainName())
+                        )
+                );
+            } else if (result.isSuccess()) {
+                pendingMsg.getResult().complete(null);
+            } else {
+                pendingMsg.getResult().completeExceptionally(
+                        new RuntimeException(
+                                StrUtil.format("am request from domain {} failed: {}",
+                                        pendingMsg.getItem().getDomainName(), result.getErrorMsg())
+                        )
+                );
+            }
+        }
+        log.debug("send batch am request with {} msgs to relayer {}", batch.size(), relayerNodeId);
+    }
+
+    private void sendSingle(RelayerClient relayerClient, PendingMsg pendingMsg) {
+        try {
+            relayerClient.propagateCrossChainMsgAsync(
+                    pendingMsg.getItem().getDomainName(),
+                    pendingMsg.getItem().getUcpId(),
+                    pendingMsg.getAuthMsg(),
+                    pendingMsg.getItem().getUdagProof(),
+                    pendingMsg.getItem().getLedgerInfo()
+            ).whenComplete((r, ex) -> {
+                if (ObjectUtil.isNotNull(ex)) {
+                    pendingMsg.getResult().completeExceptionally(ex);
+                } else {
+                    pendingMsg.getResult().complete(null);
+                }
+            });
+        } catch (Exception e) {
+            pendingMsg.getResult().completeExceptionally(e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class PendingMsg {
+
+        private final PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem item;
+
+        private final IAuthMessage authMsg;
+
+        private final CompletableFuture<Void> result;
+    }
+}
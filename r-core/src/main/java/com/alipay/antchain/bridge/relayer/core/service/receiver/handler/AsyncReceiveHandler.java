@@ -96,35 +96,29 @@ public class AsyncReceiveHandler {
             return true;
         }
 
-        List<Integer> results = transactionTemplate.execute(
-                status -> crossChainMessageRepository.updateSDPMessageResults(commitResults)
+        Integer rowsNum = transactionTemplate.execute(
+                status -> crossChainMessageRepository.batchUpdateSDPMessageResults(commitResults)
         );
-
-        if (ObjectUtil.isEmpty(results)) {
+        if (ObjectUtil.isNull(rowsNum)) {
             return false;
         }
-
-        for (int i = 0; i < results.size(); i++) {
-            if (0 == results.get(i)) {
-                // sql变更行数为0，表示tx hash在DB不存在，可能有多种原因导致，可以跳过，打个warn
-                log.warn(
-                        "sdp msg to blockchain {} processed failed: ( tx: {}, fail_reason: {} )",
-                        commitResults.get(i).getReceiveBlockchainId(),
-                        commitResults.get(i).getTxHash(),
-                        commitResults.get(i).getFailReason()
-                );
-            } else {
-                log.info(
-                        "sdp msg to blockchain {}-{} processed success: ( tx: {}, committed: {}, confirm: {}, )",
-                        commitResults.get(i).getReceiveProduct(),
-                        commitResults.get(i).getReceiveBlockchainId(),
-                        commitResults.get(i).getTxHash(),
-                        commitResults.get(i).isCommitSuccess(),
-                        commitResults.get(i).isConfirmed()
-                );
-            }
+        if (rowsNum < commitResults.size()) {
+            // sql变更行数少于结果数，表示部分tx hash在DB不存在，可能有多种原因导致，可以跳过，打个warn
+            log.warn("only {} sdp msgs updated for {} commit results", rowsNum, commitResults.size());
         }
 
+        commitResults.forEach(
+                commitResult -> log.info(
+                        "sdp msg to blockchain {}-{} processed: ( tx: {}, committed: {}, confirm: {}, fail_reason: {} )",
+                        commitResult.getReceiveProduct(),
+                        commitResult.getReceiveBlockchainId(),
+                        commitResult.getTxHash(),
+                        commitResult.isCommitSuccess(),
+                        commitResult.isConfirmed(),
+                        commitResult.getFailReason()
+                )
+        );
+
         return true;
     }
 }
@@ -29,6 +29,7 @@ import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelaye
 import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.UniformCrosschainPacketContext;
 import com.alipay.antchain.bridge.relayer.core.manager.blockchain.IBlockchainManager;
+import com.alipay.antchain.bridge.relayer.core.utils.PoolPeekCursor;
 import com.alipay.antchain.bridge.relayer.core.utils.ProcessUtils;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
 import com.alipay.antchain.bridge.relayer.dal.repository.impl.BlockchainIdleDCache;
@@ -64,6 +65,12 @@ public class ValidationService {
     @Value("${relayer.service.validation.ccmsg.batch_size:64}")
     private int ccmsgBatchSize;
 
+    /**
+     * 按domain扫描待验证UCP消息的游标
+     */
+    @Resource(name = "ucpPeekCursor")
+    private PoolPeekCursor ucpPeekCursor;
+
     public void process(String blockchainProduct, String blockchainId) {
         log.debug("validation service run with blockchain {}-{}", blockchainProduct, blockchainId);
 
@@ -74,10 +81,17 @@ public class ValidationService {
         if (this.blockchainIdleDCache.ifUCPProcessIdle(blockchainProduct, blockchainId)) {
             log.debug("validation process : blockchain is idle {}-{}.", blockchainProduct, blockchainId);
         } else if (StrUtil.isNotEmpty(domainName)) {
-            ucpContexts = crossChainMessageRepository.peekUCPMessages(
+            ucpContexts = ucpPeekCursor.peek(
                     domainName,
-                    UniformCrosschainPacketStateEnum.PENDING,
-                    ccmsgBatchSize
+                    ccmsgBatchSize,
+                    (fromId, excludedIds) -> crossChainMessageRepository.peekUCPMessages(
+                            domainName,
+                            UniformCrosschainPacketStateEnum.PENDING,
+                            ccmsgBatchSize,
+                            fromId,
+                            excludedIds
+                    ),
+                    UniformCrosschainPacketContext::getId
             );
         }
 
@@ -94,13 +108,25 @@ public class ValidationService {
                 blockchainId,
                 ucpContexts.stream().map(
                         ucpContext -> validationServiceThreadsPool.submit(
-                                wrapUCPTask(ucpContext.getUcpId())
+                                wrapUCPTask(domainName, ucpContext.getId(), ucpContext.getUcpId())
                         )
                 ).collect(Collectors.toList()),
                 log
         );
     }
 
+    public Runnable wrapUCPTask(String domain, long id, String ucpId) {
+        return () -> {
+            try {
+                wrapUCPTask(ucpId).run();
+                ucpPeekCursor.onSuccess(domain, id);
+            } catch (RuntimeException e) {
+                ucpPeekCursor.onFailure(domain, id);
+                throw e;
+            }
+        };
+    }
+
     public Runnable wrapUCPTask(String ucpId) {
         return () -> transactionTemplate.execute(
                 new TransactionCallbackWithoutResult() {
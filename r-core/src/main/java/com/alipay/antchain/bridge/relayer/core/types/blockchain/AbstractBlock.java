@@ -24,4 +24,11 @@ public abstract class AbstractBlock {
     public abstract byte[] encode();
 
     public abstract void decode(byte[] data);
+
+    /**
+     * 区块内是否没有任何跨链消息
+     */
+    public boolean ifEmpty() {
+        return false;
+    }
 }
@@ -1,5 +1,8 @@
 package com.alipay.antchain.bridge.relayer.core.types.blockchain;
 
+import java.util.List;
+
+import cn.hutool.core.collection.ListUtil;
 import com.alipay.antchain.bridge.commons.bbc.AbstractBBCContext;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
 import com.alipay.antchain.bridge.relayer.commons.model.BlockchainMeta;
@@ -28,6 +31,14 @@ public abstract class AbstractBlockchainClient {
 
     public abstract AbstractBlock getEssentialHeaderByHeight(long height);
 
+    /**
+     * 一次请求获取{@code [startHeight, endHeight]}内的区块，返回从{@code startHeight}开始连续的区块，
+     * 可能少于请求的数量，不支持或失败时返回空列表，由调用方逐个高度查询
+     */
+    public List<AbstractBlock> getEssentialHeadersByHeightRange(long startHeight, long endHeight) {
+        return ListUtil.empty();
+    }
+
     public abstract IAMClientContract getAMClientContract();
 
     public abstract ISDPMsgClientContract getSDPMsgClientContract();
@@ -1,5 +1,6 @@
 package com.alipay.antchain.bridge.relayer.core.types.blockchain;
 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Resource;
@@ -13,13 +14,17 @@ import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum
 import com.alipay.antchain.bridge.relayer.commons.model.BlockchainMeta;
 import com.alipay.antchain.bridge.relayer.core.manager.bbc.IBBCPluginManager;
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.IBBCServiceClient;
+import com.alipay.antchain.bridge.relayer.core.types.pluginserver.MultiPluginServerBBCServiceClient;
 import com.alipay.antchain.bridge.relayer.dal.repository.IBlockchainRepository;
 import lombok.Getter;
 import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 @Getter
+@Slf4j
 public class BlockchainClientPool {
 
     @Resource
@@ -28,6 +33,12 @@ public class BlockchainClientPool {
     @Resource
     private IBBCPluginManager bbcPluginManager;
 
+    /**
+     * 多个插件服务服务同一条链时，连接失败的插件服务在该时间内不再使用
+     */
+    @Value("${relayer.plugin_server_manager.member.unhealthy_cooldown:30000}")
+    private long pluginServerUnhealthyCooldown;
+
     private final Map<String, AbstractBlockchainClient> clients = MapUtil.newConcurrentHashMap();
 
     public AbstractBlockchainClient createClient(String blockchainProduct, String blockchainId) {
@@ -71,11 +82,7 @@ public class BlockchainClientPool {
             );
         }
 
-        IBBCServiceClient bbcClient = bbcPluginManager.createBBCClient(
-                chainMeta.getProperties().getPluginServerId(),
-                chainMeta.getProduct(),
-                domain
-        );
+        IBBCServiceClient bbcClient = createBBCClient(chainMeta, domain);
         HeteroBlockchainClient heteroBcClient = new HeteroBlockchainClient(
                 bbcClient,
                 chainMeta
@@ -93,6 +100,44 @@ public class BlockchainClientPool {
         return heteroBcClient;
     }
 
+    private IBBCServiceClient createBBCClient(BlockchainMeta chainMeta, String domain) {
+        List<String> psIds = chainMeta.getAllPluginServerIds();
+        if (psIds.size() <= 1) {
+            return bbcPluginManager.createBBCClient(
+                    chainMeta.getProperties().getPluginServerId(),
+                    chainMeta.getProduct(),
+                    domain
+            );
+        }
+
+        // 多个插件服务共同服务该链，创建失败的插件服务跳过，至少需要一个
+        LinkedHashMap<String, IBBCServiceClient> bbcClients = new LinkedHashMap<>();
+        for (String psId : psIds) {
+            try {
+                bbcClients.put(psId, bbcPluginManager.createBBCClient(psId, chainMeta.getProduct(), domain));
+            } catch (Exception e) {
+                log.warn("failed to create bbc client on plugin server {} for {} and skip it", psId, chainMeta.getMetaKey(), e);
+            }
+        }
+        if (bbcClients.isEmpty()) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.CORE_BLOCKCHAIN_CLIENT_INIT_ERROR,
+                    "none bbc client created on plugin servers {} for {}",
+                    StrUtil.join(",", psIds), chainMeta.getMetaKey()
+            );
+        }
+        if (bbcClients.size() == 1) {
+            return bbcClients.values().iterator().next();
+        }
+        log.info("blockchain {} served by plugin servers {}", chainMeta.getMetaKey(), StrUtil.join(",", bbcClients.keySet()));
+        return new MultiPluginServerBBCServiceClient(
+                chainMeta.getProduct(),
+                domain,
+                bbcClients,
+                pluginServerUnhealthyCooldown
+        );
+    }
+
     public AbstractBlockchainClient getClient(String product, String blockchainId) {
         String key = BlockchainMeta.createMetaKey(product, blockchainId);
         if (clients.containsKey(key)) {
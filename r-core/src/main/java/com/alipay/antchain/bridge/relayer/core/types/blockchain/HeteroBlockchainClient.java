@@ -1,7 +1,12 @@
 package com.alipay.antchain.bridge.relayer.core.types.blockchain;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
 import com.alipay.antchain.bridge.commons.bbc.AbstractBBCContext;
 import com.alipay.antchain.bridge.commons.bbc.DefaultBBCContext;
@@ -14,17 +19,32 @@ import com.alipay.antchain.bridge.relayer.core.manager.bbc.IAMClientContract;
 import com.alipay.antchain.bridge.relayer.core.manager.bbc.ISDPMsgClientContract;
 import com.alipay.antchain.bridge.relayer.core.manager.bbc.SDPMsgClientHeteroBlockchainImpl;
 import com.alipay.antchain.bridge.relayer.core.types.pluginserver.IBBCServiceClient;
+import com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception.PluginServerUnsupportedRequestException;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class HeteroBlockchainClient extends AbstractBlockchainClient {
 
+    private static final long HEIGHT_RANGE_QUERY_RETRY_INTERVAL = 10 * 60 * 1000;
+
+    private static final long RECEIPTS_QUERY_RETRY_INTERVAL = 10 * 60 * 1000;
+
     private final IBBCServiceClient bbcClient;
 
     private final IAMClientContract amClientContract;
 
     private final ISDPMsgClientContract sdpMsgClient;
 
+    /**
+     * 插件服务不支持范围查询时，在该时间之前都退回到逐个高度查询
+     */
+    private volatile long heightRangeQueryDisabledUntil = 0;
+
+    /**
+     * 插件服务不支持批量查询回执时，在该时间之前都退回到逐笔查询
+     */
+    private volatile long receiptsQueryDisabledUntil = 0;
+
     public HeteroBlockchainClient(IBBCServiceClient bbcClient, BlockchainMeta blockchainMeta) {
         super(blockchainMeta, bbcClient.getDomain());
         this.bbcClient = bbcClient;
@@ -148,6 +168,47 @@ public class HeteroBlockchainClient extends AbstractBlockchainClient {
         );
     }
 
+    @Override
+    public List<AbstractBlock> getEssentialHeadersByHeightRange(long startHeight, long endHeight) {
+        if (System.currentTimeMillis() < heightRangeQueryDisabledUntil) {
+            return ListUtil.empty();
+        }
+
+        Map<Long, List<CrossChainMessage>> messagesByHeight;
+        try {
+            messagesByHeight = this.bbcClient.readCrossChainMessagesByHeightRange(startHeight, endHeight);
+        } catch (PluginServerUnsupportedRequestException e) {
+            log.info(
+                    "range query of blocks not supported by plugin server for ( product: {}, domain: {} ) and fallback to query by height for a while : {}",
+                    getBlockchainMeta().getProduct(), getDomain(), e.getMessage()
+            );
+            heightRangeQueryDisabledUntil = System.currentTimeMillis() + HEIGHT_RANGE_QUERY_RETRY_INTERVAL;
+            return ListUtil.empty();
+        } catch (Exception e) {
+            // 其他错误只影响本次查询，下次仍然使用范围查询
+            log.warn(
+                    "range query of blocks [{}, {}] failed for ( product: {}, domain: {} ) and fallback to query by height : ",
+                    startHeight, endHeight, getBlockchainMeta().getProduct(), getDomain(), e
+            );
+            return ListUtil.empty();
+        }
+
+        // 只取从startHeight开始连续的高度
+        List<AbstractBlock> blocks = new ArrayList<>();
+        for (long height = startHeight; height <= endHeight && messagesByHeight.containsKey(height); ++height) {
+            blocks.add(
+                    new HeterogeneousBlock(
+                            getBlockchainMeta().getProduct(),
+                            getDomain(),
+                            getBlockchainMeta().getBlockchainId(),
+                            height,
+                            messagesByHeight.get(height)
+                    )
+            );
+        }
+        return blocks;
+    }
+
     @Override
     public IAMClientContract getAMClientContract() {
         return this.amClientContract;
@@ -163,6 +224,40 @@ public class HeteroBlockchainClient extends AbstractBlockchainClient {
         return this.bbcClient.readCrossChainMessageReceipt(txhash);
     }
 
+    public CompletableFuture<CrossChainMessageReceipt> queryCommittedTxReceiptAsync(String txhash) {
+        return this.bbcClient.readCrossChainMessageReceiptAsync(txhash);
+    }
+
+    /**
+     * 批量查询交易回执，结果中缺少的交易需要调用方逐笔查询
+     *
+     * @param txhashes 交易哈希
+     * @return txhash到回执的映射
+     */
+    public Map<String, CrossChainMessageReceipt> queryCommittedTxReceipts(List<String> txhashes) {
+        if (System.currentTimeMillis() < receiptsQueryDisabledUntil) {
+            return MapUtil.empty();
+        }
+
+        try {
+            return this.bbcClient.readCrossChainMessageReceipts(txhashes);
+        } catch (PluginServerUnsupportedRequestException e) {
+            log.info(
+                    "batch query of receipts not supported by plugin server for ( product: {}, domain: {} ) and fallback to query one by one for a while : {}",
+                    getBlockchainMeta().getProduct(), getDomain(), e.getMessage()
+            );
+            receiptsQueryDisabledUntil = System.currentTimeMillis() + RECEIPTS_QUERY_RETRY_INTERVAL;
+            return MapUtil.empty();
+        } catch (Exception e) {
+            // 其他错误只影响本次查询，下次仍然使用批量查询
+            log.warn(
+                    "batch query of {} receipts failed for ( product: {}, domain: {} ) and fallback to query one by one : ",
+                    txhashes.size(), getBlockchainMeta().getProduct(), getDomain(), e
+            );
+            return MapUtil.empty();
+        }
+    }
+
     public AbstractBBCContext queryBBCContext() {
         return this.bbcClient.getContext();
     }
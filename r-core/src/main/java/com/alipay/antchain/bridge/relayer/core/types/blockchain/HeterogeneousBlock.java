@@ -1,11 +1,13 @@
 package com.alipay.antchain.bridge.relayer.core.types.blockchain;
 
-import java.util.List;
-import java.util.UUID;
+import java.nio.ByteBuffer;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.HexUtil;
+import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.annotation.JSONField;
@@ -15,7 +17,10 @@ import com.alipay.antchain.bridge.commons.core.am.AuthMessageV2;
 import com.alipay.antchain.bridge.commons.core.am.IAuthMessage;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainDomain;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainMessage;
+import com.alipay.antchain.bridge.commons.core.base.ObjectIdentity;
 import com.alipay.antchain.bridge.commons.core.base.UniformCrosschainPacket;
+import com.alipay.antchain.bridge.commons.utils.codec.tlv.TLVItem;
+import com.alipay.antchain.bridge.commons.utils.codec.tlv.TLVPacket;
 import com.alipay.antchain.bridge.relayer.commons.constant.AuthMsgProcessStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.AuthMsgTrustLevelEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.UniformCrosschainPacketStateEnum;
@@ -32,6 +37,62 @@ import lombok.extern.slf4j.Slf4j;
 @NoArgsConstructor
 public class HeterogeneousBlock extends AbstractBlock {
 
+    /**
+     * 二进制编码的版本号，放在编码结果的第一个字节。
+     * JSON编码的第一个字节为'{'，据此兼容缓存中旧的JSON编码区块。
+     */
+    public static final byte BINARY_CODEC_VERSION = 1;
+
+    private static final byte JSON_CODEC_PREFIX = '{';
+
+    private static final short TLV_TYPE_BLOCK_PRODUCT = 0;
+
+    private static final short TLV_TYPE_BLOCK_BLOCKCHAIN_ID = 1;
+
+    private static final short TLV_TYPE_BLOCK_HEIGHT = 2;
+
+    private static final short TLV_TYPE_BLOCK_DOMAIN = 3;
+
+    private static final short TLV_TYPE_BLOCK_UCP_CONTEXT = 4;
+
+    private static final short TLV_TYPE_UCP_ID = 0;
+
+    private static final short TLV_TYPE_UCP_PRODUCT = 1;
+
+    private static final short TLV_TYPE_UCP_BLOCKCHAIN_ID = 2;
+
+    private static final short TLV_TYPE_UCP_UDAG_PATH = 3;
+
+    private static final short TLV_TYPE_UCP_PROCESS_STATE = 4;
+
+    private static final short TLV_TYPE_UCP_FROM_NETWORK = 5;
+
+    private static final short TLV_TYPE_UCP_RELAYER_ID = 6;
+
+    private static final short TLV_TYPE_UCP_VERSION = 7;
+
+    private static final short TLV_TYPE_UCP_SRC_DOMAIN = 8;
+
+    private static final short TLV_TYPE_UCP_MSG_TYPE = 9;
+
+    private static final short TLV_TYPE_UCP_MSG = 10;
+
+    private static final short TLV_TYPE_UCP_LEDGER_HEIGHT = 11;
+
+    private static final short TLV_TYPE_UCP_LEDGER_TIMESTAMP = 12;
+
+    private static final short TLV_TYPE_UCP_LEDGER_BLOCK_HASH = 13;
+
+    private static final short TLV_TYPE_UCP_LEDGER_DATA = 14;
+
+    private static final short TLV_TYPE_UCP_LEDGER_PROOF = 15;
+
+    private static final short TLV_TYPE_UCP_LEDGER_TX_HASH = 16;
+
+    private static final short TLV_TYPE_UCP_PTC_ID = 17;
+
+    private static final short TLV_TYPE_UCP_TP_PROOF = 18;
+
     @JSONField
     private List<UniformCrosschainPacketContext> uniformCrosschainPacketContexts;
 
@@ -74,12 +135,147 @@ public class HeterogeneousBlock extends AbstractBlock {
 
     @Override
     public byte[] encode() {
-        return JSON.toJSONBytes(this);
+        List<TLVItem> tlvItems = new ArrayList<>();
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_BLOCK_PRODUCT, getProduct()));
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_BLOCK_BLOCKCHAIN_ID, getBlockchainId()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_BLOCK_HEIGHT, longToBytes(getHeight())));
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_BLOCK_DOMAIN, domain));
+        for (UniformCrosschainPacketContext ucpContext : uniformCrosschainPacketContexts) {
+            tlvItems.add(TLVItem.fromBytes(TLV_TYPE_BLOCK_UCP_CONTEXT, encodeUcpContext(ucpContext)));
+        }
+        return ArrayUtil.addAll(
+                new byte[]{BINARY_CODEC_VERSION},
+                new TLVPacket((short) 0, tlvItems).encode()
+        );
     }
 
     @Override
     public void decode(byte[] data) {
-        BeanUtil.copyProperties(JSON.parseObject(data, HeterogeneousBlock.class), this);
+        if (data[0] == JSON_CODEC_PREFIX) {
+            BeanUtil.copyProperties(JSON.parseObject(data, HeterogeneousBlock.class), this);
+            return;
+        }
+        if (data[0] != BINARY_CODEC_VERSION) {
+            throw new RuntimeException(StrUtil.format("unsupported codec version {} for heterogeneous block", data[0]));
+        }
+
+        List<UniformCrosschainPacketContext> ucpContexts = new ArrayList<>();
+        for (TLVItem tlvItem : TLVPacket.decode(Arrays.copyOfRange(data, 1, data.length)).getTlvItems()) {
+            switch (tlvItem.getType()) {
+                case TLV_TYPE_BLOCK_PRODUCT:
+                    setProduct(tlvItem.getUtf8String());
+                    break;
+                case TLV_TYPE_BLOCK_BLOCKCHAIN_ID:
+                    setBlockchainId(tlvItem.getUtf8String());
+                    break;
+                case TLV_TYPE_BLOCK_HEIGHT:
+                    setHeight(bytesToLong(tlvItem.getValue()));
+                    break;
+                case TLV_TYPE_BLOCK_DOMAIN:
+                    this.domain = tlvItem.getUtf8String();
+                    break;
+                case TLV_TYPE_BLOCK_UCP_CONTEXT:
+                    ucpContexts.add(decodeUcpContext(tlvItem.getValue()));
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.uniformCrosschainPacketContexts = ucpContexts;
+    }
+
+    private static byte[] encodeUcpContext(UniformCrosschainPacketContext ucpContext) {
+        UniformCrosschainPacket ucp = ucpContext.getUcp();
+        CrossChainMessage message = ucp.getSrcMessage();
+
+        List<TLVItem> tlvItems = new ArrayList<>();
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_ID, ucpContext.getUcpId()));
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_PRODUCT, ucpContext.getProduct()));
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_BLOCKCHAIN_ID, ucpContext.getBlockchainId()));
+        if (ObjectUtil.isNotNull(ucpContext.getUdagPath())) {
+            tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_UDAG_PATH, ucpContext.getUdagPath()));
+        }
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_PROCESS_STATE, ucpContext.getProcessState().name()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_FROM_NETWORK, new byte[]{(byte) (ucpContext.isFromNetwork() ? 1 : 0)}));
+        if (ObjectUtil.isNotNull(ucpContext.getRelayerId())) {
+            tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_RELAYER_ID, ucpContext.getRelayerId()));
+        }
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_VERSION, ByteBuffer.allocate(4).putInt(ucp.getVersion()).array()));
+        tlvItems.add(TLVItem.fromUTF8String(TLV_TYPE_UCP_SRC_DOMAIN, ucp.getSrcDomain().getDomain()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_MSG_TYPE, new byte[]{(byte) message.getType().ordinal()}));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_MSG, message.getMessage()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_LEDGER_HEIGHT, longToBytes(message.getProvableData().getHeight())));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_LEDGER_TIMESTAMP, longToBytes(message.getProvableData().getTimestamp())));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_LEDGER_BLOCK_HASH, message.getProvableData().getBlockHash()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_LEDGER_DATA, message.getProvableData().getLedgerData()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_LEDGER_PROOF, message.getProvableData().getProof()));
+        tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_LEDGER_TX_HASH, message.getProvableData().getTxHash()));
+        if (ObjectUtil.isNotNull(ucp.getPtcId())) {
+            tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_PTC_ID, ucp.getPtcId().encode()));
+        }
+        if (ObjectUtil.isNotNull(ucp.getTpProof())) {
+            tlvItems.add(TLVItem.fromBytes(TLV_TYPE_UCP_TP_PROOF, ucp.getTpProof()));
+        }
+        return new TLVPacket((short) 0, tlvItems).encode();
+    }
+
+    private static UniformCrosschainPacketContext decodeUcpContext(byte[] data) {
+        Map<Short, TLVItem> tlvItemMap = new HashMap<>();
+        for (TLVItem tlvItem : TLVPacket.decode(data).getTlvItems()) {
+            tlvItemMap.put(tlvItem.getType(), tlvItem);
+        }
+
+        UniformCrosschainPacket ucp = new UniformCrosschainPacket();
+        ucp.setVersion(ByteBuffer.wrap(tlvItemMap.get(TLV_TYPE_UCP_VERSION).getValue()).getInt());
+        ucp.setSrcDomain(new CrossChainDomain(tlvItemMap.get(TLV_TYPE_UCP_SRC_DOMAIN).getUtf8String()));
+        ucp.setSrcMessage(
+                CrossChainMessage.createCrossChainMessage(
+                        CrossChainMessage.CrossChainMessageType.parseFromValue(tlvItemMap.get(TLV_TYPE_UCP_MSG_TYPE).getValue()[0]),
+                        bytesToLong(tlvItemMap.get(TLV_TYPE_UCP_LEDGER_HEIGHT).getValue()),
+                        bytesToLong(tlvItemMap.get(TLV_TYPE_UCP_LEDGER_TIMESTAMP).getValue()),
+                        tlvItemMap.get(TLV_TYPE_UCP_LEDGER_BLOCK_HASH).getValue(),
+                        tlvItemMap.get(TLV_TYPE_UCP_MSG).getValue(),
+                        tlvItemMap.get(TLV_TYPE_UCP_LEDGER_DATA).getValue(),
+                        tlvItemMap.get(TLV_TYPE_UCP_LEDGER_PROOF).getValue(),
+                        tlvItemMap.get(TLV_TYPE_UCP_LEDGER_TX_HASH).getValue()
+                )
+        );
+        if (tlvItemMap.containsKey(TLV_TYPE_UCP_PTC_ID)) {
+            ucp.setPtcId(ObjectIdentity.decode(tlvItemMap.get(TLV_TYPE_UCP_PTC_ID).getValue()));
+        }
+        if (tlvItemMap.containsKey(TLV_TYPE_UCP_TP_PROOF)) {
+            ucp.setTpProof(tlvItemMap.get(TLV_TYPE_UCP_TP_PROOF).getValue());
+        }
+
+        UniformCrosschainPacketContext ucpContext = new UniformCrosschainPacketContext();
+        ucpContext.setUcp(ucp);
+        ucpContext.setUcpId(tlvItemMap.get(TLV_TYPE_UCP_ID).getUtf8String());
+        ucpContext.setProduct(tlvItemMap.get(TLV_TYPE_UCP_PRODUCT).getUtf8String());
+        ucpContext.setBlockchainId(tlvItemMap.get(TLV_TYPE_UCP_BLOCKCHAIN_ID).getUtf8String());
+        if (tlvItemMap.containsKey(TLV_TYPE_UCP_UDAG_PATH)) {
+            ucpContext.setUdagPath(tlvItemMap.get(TLV_TYPE_UCP_UDAG_PATH).getUtf8String());
+        }
+        ucpContext.setProcessState(
+                UniformCrosschainPacketStateEnum.valueOf(tlvItemMap.get(TLV_TYPE_UCP_PROCESS_STATE).getUtf8String())
+        );
+        ucpContext.setFromNetwork(tlvItemMap.get(TLV_TYPE_UCP_FROM_NETWORK).getValue()[0] == 1);
+        if (tlvItemMap.containsKey(TLV_TYPE_UCP_RELAYER_ID)) {
+            ucpContext.setRelayerId(tlvItemMap.get(TLV_TYPE_UCP_RELAYER_ID).getUtf8String());
+        }
+        return ucpContext;
+    }
+
+    private static byte[] longToBytes(long value) {
+        return ByteBuffer.allocate(8).putLong(value).array();
+    }
+
+    private static long bytesToLong(byte[] raw) {
+        return ByteBuffer.wrap(raw).getLong();
+    }
+
+    @Override
+    public boolean ifEmpty() {
+        return ObjectUtil.isEmpty(uniformCrosschainPacketContexts);
     }
 
     public List<AuthMsgWrapper> toAuthMsgWrappers() {
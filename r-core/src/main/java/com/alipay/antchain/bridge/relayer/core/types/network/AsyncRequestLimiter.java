@@ -0,0 +1,134 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import lombok.Getter;
+
+/**
+ * 限制发往同一个relayer的并发请求数，超过上限的请求排队，等前面的请求完成后再发出，
+ * 排队期间不占用调用线程；排队的请求数也有上限，超过时直接拒绝
+ */
+public class AsyncRequestLimiter {
+
+    @Getter
+    private final int maxInFlight;
+
+    @Getter
+    private final int maxWaiting;
+
+    private final Queue<Runnable> waitingTasks = new ArrayDeque<>();
+
+    /**
+     * 标记当前线程正在执行排队的请求，请求同步完成时不再递归调度，由外层循环继续
+     */
+    private final ThreadLocal<Boolean> draining = ThreadLocal.withInitial(() -> false);
+
+    private int inFlight = 0;
+
+    public AsyncRequestLimiter(int maxInFlight) {
+        this(maxInFlight, maxInFlight * 16);
+    }
+
+    public AsyncRequestLimiter(int maxInFlight, int maxWaiting) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxWaiting = Math.max(0, maxWaiting);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable runner = () -> {
+            CompletableFuture<T> future;
+            try {
+                future = task.get();
+            } catch (Throwable t) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(t);
+            }
+            future.whenComplete((r, t) -> {
+                release();
+                if (t != null) {
+                    result.completeExceptionally(t);
+                } else {
+                    result.complete(r);
+                }
+            });
+        };
+
+        boolean runNow;
+        synchronized (this) {
+            runNow = inFlight < maxInFlight;
+            if (runNow) {
+                inFlight++;
+            } else if (waitingTasks.size() < maxWaiting) {
+                waitingTasks.add(runner);
+            } else {
+                result.completeExceptionally(
+                        new RejectedExecutionException("too many requests waiting: " + waitingTasks.size())
+                );
+                return result;
+            }
+        }
+        if (runNow) {
+            runner.run();
+        }
+        return result;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getWaiting() {
+        return waitingTasks.size();
+    }
+
+    private void release() {
+        synchronized (this) {
+            inFlight--;
+        }
+        drain();
+    }
+
+    private void drain() {
+        if (draining.get()) {
+            return;
+        }
+        draining.set(true);
+        try {
+            // 循环调度排队的请求，同步完成的请求只归还名额，不会加深调用栈
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    if (inFlight >= maxInFlight || waitingTasks.isEmpty()) {
+                        return;
+                    }
+                    next = waitingTasks.poll();
+                    inFlight++;
+                }
+                next.run();
+            }
+        } finally {
+            draining.remove();
+        }
+    }
+}
@@ -16,10 +16,14 @@
 
 package com.alipay.antchain.bridge.relayer.core.types.network;
 
+import java.security.KeyPair;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import cn.hutool.core.codec.Base64;
+import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.commons.bcdns.AbstractCrossChainCertificate;
@@ -28,6 +32,8 @@ import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerBlockchainContent;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerNodeInfo;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerCredentialManager;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerBusyException;
+import com.alipay.antchain.bridge.relayer.core.types.network.exception.RelayerRequestUnsupportedException;
 import com.alipay.antchain.bridge.relayer.core.types.network.request.*;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.*;
 import lombok.Getter;
@@ -39,12 +45,54 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public abstract class BaseRelayerClient implements RelayerClient {
 
+    /**
+     * 会话到期前提前重新协商的时间
+     */
+    private static final long SESSION_REKEY_AHEAD = 30_000;
+
+    /**
+     * 对端不支持会话时，间隔一段时间后再尝试
+     */
+    private static final long SESSION_RETRY_INTERVAL = 600_000;
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 64;
+
+    private static final long DEFAULT_RETRY_AFTER = 1000;
+
     private RelayerNodeInfo remoteNodeInfo;
 
     private IRelayerCredentialManager relayerCredentialManager;
 
     private String defaultNetworkId;
 
+    private volatile RelayerSession session;
+
+    private AsyncRequestLimiter requestLimiter = new AsyncRequestLimiter(DEFAULT_MAX_IN_FLIGHT);
+
+    private final long createTime = System.currentTimeMillis();
+
+    /**
+     * 对端要求退避到该时间之后再发送请求，按请求类型分别记录，
+     * 查询被限流时不影响跨链消息等高优先级请求
+     */
+    private final Map<RelayerRequestType, Long> backoffUntilMap = MapUtil.newConcurrentHashMap();
+
+    private volatile long lastActiveTime = System.currentTimeMillis();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+
+    /**
+     * 启动时从第几个endpoint开始尝试
+     */
+    private int endpointStartIndex = 0;
+
+    /**
+     * 当前连接的endpoint
+     */
+    private volatile int currentEndpointIndex = 0;
+
+    private volatile long sessionDisabledUntil = 0;
+
     public BaseRelayerClient(
             RelayerNodeInfo remoteNodeInfo,
             IRelayerCredentialManager relayerCredentialManager,
@@ -63,6 +111,14 @@ public abstract class BaseRelayerClient implements RelayerClient {
      */
     public abstract RelayerResponse sendRequest(RelayerRequest relayerRequest);
 
+    /**
+     * 异步发送请求，不阻塞调用线程
+     *
+     * @param relayerRequest
+     * @return
+     */
+    public abstract CompletableFuture<RelayerResponse> sendRequestAsync(RelayerRequest relayerRequest);
+
     public abstract void startup();
 
     public abstract boolean shutdown();
@@ -70,9 +126,7 @@ public abstract class BaseRelayerClient implements RelayerClient {
     @Override
     public RelayerNodeInfo getRelayerNodeInfo() {
         RelayerRequest request = new GetRelayerNodeInfoRelayerRequest();
-        relayerCredentialManager.signRelayerRequest(request);
-
-        RelayerResponse response = validateRelayerResponse(sendRequest(request));
+        RelayerResponse response = sendAuthenticatedRequest(request);
         if (ObjectUtil.isNull(response) || !response.isSuccess()) {
             throw new RuntimeException(
                     StrUtil.format(
@@ -88,9 +142,7 @@ public abstract class BaseRelayerClient implements RelayerClient {
     @Override
     public RelayerBlockchainContent getRelayerBlockchainInfo(String domainToQuery) {
         RelayerRequest request = new GetRelayerBlockchainInfoRelayerRequest(domainToQuery);
-        relayerCredentialManager.signRelayerRequest(request);
-
-        RelayerResponse response = validateRelayerResponse(sendRequest(request));
+        RelayerResponse response = sendAuthenticatedRequest(request);
         if (ObjectUtil.isNull(response) || !response.isSuccess()) {
             throw new RuntimeException(
                     StrUtil.format(
@@ -108,9 +160,7 @@ public abstract class BaseRelayerClient implements RelayerClient {
     @Override
     public RelayerBlockchainContent getRelayerBlockchainContent() {
         RelayerRequest request = new GetRelayerBlockchainContentRelayerRequest();
-        relayerCredentialManager.signRelayerRequest(request);
-
-        RelayerResponse response = validateRelayerResponse(sendRequest(request));
+        RelayerResponse response = sendAuthenticatedRequest(request);
         if (ObjectUtil.isNull(response) || !response.isSuccess()) {
             throw new RuntimeException(
                     StrUtil.format(
@@ -134,9 +184,60 @@ public abstract class BaseRelayerClient implements RelayerClient {
                 domainName,
                 ledgerInfo
         );
-        relayerCredentialManager.signRelayerRequest(request);
+        checkPropagateCrossChainMsgResponse(domainName, sendAuthenticatedRequest(request));
+    }
+
+    @Override
+    public CompletableFuture<Void> propagateCrossChainMsgAsync(String domainName, String ucpId, IAuthMessage authMsg, String udagProof, String ledgerInfo) {
+        RelayerRequest request = new PropagateCrossChainMsgRequest(
+                udagProof,
+                ucpId,
+                authMsg,
+                domainName,
+                ledgerInfo
+        );
+        return sendAuthenticatedRequestAsync(request)
+                .thenAccept(response -> checkPropagateCrossChainMsgResponse(domainName, response));
+    }
+
+    @Override
+    public List<PropagateCrossChainMsgsRespPayload.ItemResult> propagateCrossChainMsgs(List<PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem> items) {
+        RelayerRequest request = new PropagateCrossChainMsgsBatchRequest(items);
+        return parsePropagateCrossChainMsgsResponse(items, sendAuthenticatedRequest(request));
+    }
+
+    @Override
+    public CompletableFuture<List<PropagateCrossChainMsgsRespPayload.ItemResult>> propagateCrossChainMsgsAsync(List<PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem> items) {
+        RelayerRequest request = new PropagateCrossChainMsgsBatchRequest(items);
+        return sendAuthenticatedRequestAsync(request)
+                .thenApply(response -> parsePropagateCrossChainMsgsResponse(items, response));
+    }
+
+    @Override
+    public Map<String, CrossChainMessageReceipt> queryCrossChainMessageReceipts(List<String> ucpIds) {
+        RelayerRequest request = new QueryCrossChainMsgReceiptRequest(ucpIds);
+        return parseCrossChainMsgReceiptsResponse(ucpIds, sendAuthenticatedRequest(request));
+    }
 
-        RelayerResponse response = validateRelayerResponse(sendRequest(request));
+    @Override
+    public CompletableFuture<Map<String, CrossChainMessageReceipt>> queryCrossChainMessageReceiptsAsync(List<String> ucpIds) {
+        RelayerRequest request = new QueryCrossChainMsgReceiptRequest(ucpIds);
+        return sendAuthenticatedRequestAsync(request)
+                .thenApply(response -> parseCrossChainMsgReceiptsResponse(ucpIds, response));
+    }
+
+    @Override
+    public CompletableFuture<QueryCrossChainMsgReceiptsRespPayload> queryCrossChainMessageReceiptsSinceAsync(
+            List<String> ucpIds,
+            List<String> subscribedUcpIds,
+            long cursor
+    ) {
+        RelayerRequest request = new QueryCrossChainMsgReceiptRequest(ucpIds, subscribedUcpIds, cursor);
+        return sendAuthenticatedRequestAsync(request)
+                .thenApply(response -> parseCrossChainMsgReceiptsPayload(ucpIds, response));
+    }
+
+    private void checkPropagateCrossChainMsgResponse(String domainName, RelayerResponse response) {
         if (ObjectUtil.isNull(response)) {
             throw new RuntimeException(
                     StrUtil.format(
@@ -153,12 +254,45 @@ public abstract class BaseRelayerClient implements RelayerClient {
         }
     }
 
-    @Override
-    public Map<String, CrossChainMessageReceipt> queryCrossChainMessageReceipts(List<String> ucpIds) {
-        RelayerRequest request = new QueryCrossChainMsgReceiptRequest(ucpIds);
-        relayerCredentialManager.signRelayerRequest(request);
+    private List<PropagateCrossChainMsgsRespPayload.ItemResult> parsePropagateCrossChainMsgsResponse(
+            List<PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem> items,
+            RelayerResponse response
+    ) {
+        if (ObjectUtil.isNull(response)) {
+            throw new RuntimeException(
+                    StrUtil.format(
+                            "batch am request with {} msgs to relayer {} failed: empty response found",
+                            items.size(), remoteNodeInfo.getNodeId()
+                    )
+            );
+        } else if (!response.isSuccess()) {
+            if (StrUtil.startWith(response.getResponseMessage(), RelayerResponse.REQUEST_TYPE_NOT_SUPPORTED_MSG)) {
+                throw new RelayerRequestUnsupportedException(
+                        remoteNodeInfo.getNodeId(),
+                        RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGES_BATCH
+                );
+            }
+            throw new RuntimeException(
+                    StrUtil.format("batch am request with {} msgs to relayer {} failed: (code: {}, msg: {})",
+                            items.size(), remoteNodeInfo.getNodeId(), response.getResponseCode(), response.getResponseMessage()
+                    )
+            );
+        }
+        PropagateCrossChainMsgsRespPayload respPayload = PropagateCrossChainMsgsRespPayload.decodeFromJson(response.getResponsePayload());
+        // 结果按ucpId与请求中的消息对应，缺失结果的消息由调用方按失败处理
+        if (ObjectUtil.isNull(respPayload) || ObjectUtil.isNull(respPayload.getResults())) {
+            throw new RuntimeException(
+                    StrUtil.format("batch am request with {} msgs to relayer {} get invalid results", items.size(), remoteNodeInfo.getNodeId())
+            );
+        }
+        return respPayload.getResults();
+    }
 
-        RelayerResponse response = sendRequest(request);
+    private Map<String, CrossChainMessageReceipt> parseCrossChainMsgReceiptsResponse(List<String> ucpIds, RelayerResponse response) {
+        return parseCrossChainMsgReceiptsPayload(ucpIds, response).getReceipts();
+    }
+
+    private QueryCrossChainMsgReceiptsRespPayload parseCrossChainMsgReceiptsPayload(List<String> ucpIds, RelayerResponse response) {
         if (ObjectUtil.isNull(response)) {
             throw new RuntimeException(
                     "query cc msg receipts but get null response"
@@ -175,12 +309,12 @@ public abstract class BaseRelayerClient implements RelayerClient {
         if (ObjectUtil.isNull(respPayload)) {
             throw new RuntimeException("payload is null for query cc msg receipt response");
         }
-        return respPayload.getReceipts();
+        return respPayload;
     }
 
     @Override
     public HelloStartRespPayload helloStart(byte[] rand, String relayerNodeId) {
-        RelayerResponse response = sendRequest(new HelloStartRequest(rand, relayerNodeId));
+        RelayerResponse response = doSend(new HelloStartRequest(rand, relayerNodeId));
         if (ObjectUtil.isNull(response)) {
             throw new RuntimeException(
                     "say hello that ask remote relayer to sign the rand bytes with null response"
@@ -201,7 +335,7 @@ public abstract class BaseRelayerClient implements RelayerClient {
 
     @Override
     public void helloComplete(RelayerNodeInfo localRelayerNodeInfo, Map<String, AbstractCrossChainCertificate> domainSpaceCertPath, byte[] remoteRand) {
-        RelayerResponse response = sendRequest(
+        RelayerResponse response = doSend(
                 new HelloCompleteRequest(
                         localRelayerNodeInfo,
                         domainSpaceCertPath,
@@ -224,8 +358,7 @@ public abstract class BaseRelayerClient implements RelayerClient {
     @Override
     public RelayerBlockchainContent channelStart(String destDomain) {
         RelayerRequest request = new ChannelStartRequest(destDomain);
-        relayerCredentialManager.signRelayerRequest(request);
-        RelayerResponse response = validateRelayerResponse(sendRequest(request));
+        RelayerResponse response = sendAuthenticatedRequest(request);
         if (ObjectUtil.isNull(response)) {
             throw new RuntimeException(
                     "sending channel start request to remote relayer but get null response"
@@ -247,8 +380,7 @@ public abstract class BaseRelayerClient implements RelayerClient {
     @Override
     public void channelComplete(String senderDomain, String receiverDomain, RelayerBlockchainContent contentWithSenderBlockchain) {
         RelayerRequest request = new ChannelCompleteRequest(senderDomain, receiverDomain, contentWithSenderBlockchain);
-        relayerCredentialManager.signRelayerRequest(request);
-        RelayerResponse response = validateRelayerResponse(sendRequest(request));
+        RelayerResponse response = sendAuthenticatedRequest(request);
         if (ObjectUtil.isNull(response)) {
             throw new RuntimeException(
                     "sending channel complete request to remote relayer but get null response"
@@ -262,6 +394,220 @@ public abstract class BaseRelayerClient implements RelayerClient {
         }
     }
 
+    /**
+     * 有可用会话时使用会话MAC认证请求，否则使用证书签名；
+     * 对端不认识会话（过期或者重启后丢失）时丢弃会话并用签名重发一次
+     */
+    private RelayerResponse sendAuthenticatedRequest(RelayerRequest request) {
+        checkBackoff(request.getRequestType());
+        RelayerSession currSession = getOrStartSession();
+        if (ObjectUtil.isNull(currSession)) {
+            relayerCredentialManager.signRelayerRequest(request);
+            return checkBusy(request.getRequestType(), validateRelayerResponse(doSend(request)));
+        }
+
+        relayerCredentialManager.signRelayerRequest(request, currSession);
+        RelayerResponse response = doSend(request);
+        if (isSessionRejected(response, currSession)) {
+            relayerCredentialManager.signRelayerRequest(request);
+            return checkBusy(request.getRequestType(), validateRelayerResponse(doSend(request)));
+        }
+        return checkBusy(request.getRequestType(), validateSessionResponse(response, currSession));
+    }
+
+    /**
+     * {@link #sendAuthenticatedRequest(RelayerRequest)}的异步版本，并发请求数受{@link #requestLimiter}限制
+     */
+    private CompletableFuture<RelayerResponse> sendAuthenticatedRequestAsync(RelayerRequest request) {
+        try {
+            checkBackoff(request.getRequestType());
+        } catch (RelayerBusyException e) {
+            CompletableFuture<RelayerResponse> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+        RelayerSession currSession = getOrStartSession();
+        if (ObjectUtil.isNull(currSession)) {
+            relayerCredentialManager.signRelayerRequest(request);
+            return requestLimiter.submit(() -> doSendAsync(request))
+                    .thenApply(response -> checkBusy(request.getRequestType(), validateRelayerResponse(response)));
+        }
+
+        relayerCredentialManager.signRelayerRequest(request, currSession);
+        return requestLimiter.submit(() -> doSendAsync(request))
+                .thenCompose(response -> {
+                    if (isSessionRejected(response, currSession)) {
+                        relayerCredentialManager.signRelayerRequest(request);
+                        return requestLimiter.submit(() -> doSendAsync(request))
+                                .thenApply(resp -> checkBusy(request.getRequestType(), validateRelayerResponse(resp)));
+                    }
+                    return CompletableFuture.completedFuture(checkBusy(request.getRequestType(), validateSessionResponse(response, currSession)));
+                });
+    }
+
+    /**
+     * 对端返回繁忙时，在其建议的时间内不再发送请求，直接抛出{@link RelayerBusyException}
+     */
+    private void checkBackoff(RelayerRequestType requestType) {
+        long now = System.currentTimeMillis();
+        long backoffUntil = backoffUntilMap.getOrDefault(requestType, 0L);
+        if (now < backoffUntil) {
+            throw new RelayerBusyException(remoteNodeInfo.getNodeId(), backoffUntil - now);
+        }
+    }
+
+    private RelayerResponse checkBusy(RelayerRequestType requestType, RelayerResponse response) {
+        if (ObjectUtil.isNull(response) || !response.isBusy()) {
+            return response;
+        }
+        BusyRespPayload busyRespPayload = BusyRespPayload.decodeFromJson(response.getResponsePayload());
+        long retryAfter = ObjectUtil.isNull(busyRespPayload) ? DEFAULT_RETRY_AFTER : busyRespPayload.getRetryAfter();
+        backoffUntilMap.put(requestType, System.currentTimeMillis() + retryAfter);
+        log.info("relayer {} is busy for {} request and back off for {} ms", remoteNodeInfo.getNodeId(), requestType.getCode(), retryAfter);
+        throw new RelayerBusyException(remoteNodeInfo.getNodeId(), retryAfter);
+    }
+
+    private boolean isSessionRejected(RelayerResponse response, RelayerSession currSession) {
+        if (ObjectUtil.isNotNull(response) && !response.isSuccess()
+                && StrUtil.equals(RelayerSession.SESSION_INVALID_MSG, response.getResponseMessage())) {
+            // 先确认拒绝响应确实来自对端，避免被伪造的响应降级为签名模式
+            if (!relayerCredentialManager.validateRelayerResponse(response, currSession)) {
+                log.warn("invalid session rejection from relayer {} for session {}", remoteNodeInfo.getNodeId(), currSession.getSessionId());
+                return false;
+            }
+            log.info("relayer session {} rejected by relayer {} and fallback to signature", currSession.getSessionId(), remoteNodeInfo.getNodeId());
+            this.session = null;
+            return true;
+        }
+        return false;
+    }
+
+    private RelayerResponse validateSessionResponse(RelayerResponse response, RelayerSession currSession) {
+        if (!relayerCredentialManager.validateRelayerResponse(response, currSession)) {
+            throw new RuntimeException(
+                    StrUtil.format(
+                            "response from relayer {} in session {} is invalid",
+                            remoteNodeInfo.getNodeId(), currSession.getSessionId()
+                    )
+            );
+        }
+        return response;
+    }
+
+    private RelayerSession getOrStartSession() {
+        if (!relayerCredentialManager.isSessionEnable() || System.currentTimeMillis() < sessionDisabledUntil) {
+            return null;
+        }
+        RelayerSession currSession = this.session;
+        if (ObjectUtil.isNotNull(currSession) && !currSession.needRekey(SESSION_REKEY_AHEAD)) {
+            return currSession;
+        }
+        synchronized (this) {
+            if (ObjectUtil.isNotNull(this.session) && !this.session.needRekey(SESSION_REKEY_AHEAD)) {
+                return this.session;
+            }
+            try {
+                this.session = startSession();
+            } catch (Exception e) {
+                log.warn("failed to start session with relayer {} and use signature for next {} ms",
+                        remoteNodeInfo.getNodeId(), SESSION_RETRY_INTERVAL, e);
+                this.session = null;
+                this.sessionDisabledUntil = System.currentTimeMillis() + SESSION_RETRY_INTERVAL;
+            }
+            return this.session;
+        }
+    }
+
+    private RelayerSession startSession() {
+        long startTime = System.currentTimeMillis();
+        KeyPair ephemeralKeyPair = RelayerSession.generateEphemeralKeyPair();
+        byte[] myPublicKey = ephemeralKeyPair.getPublic().getEncoded();
+
+        RelayerRequest request = new SessionStartRequest(myPublicKey);
+        relayerCredentialManager.signRelayerRequest(request);
+        RelayerResponse response = validateRelayerResponse(doSend(request));
+        if (!response.isSuccess()) {
+            throw new RuntimeException(
+                    StrUtil.format("failed to start session: (code: {}, msg: {})",
+                            response.getResponseCode(), response.getResponseMessage())
+            );
+        }
+        SessionStartRespPayload respPayload = SessionStartRespPayload.decodeFromJson(response.getResponsePayload());
+        if (ObjectUtil.isNull(respPayload) || StrUtil.isEmpty(respPayload.getSessionId())) {
+            throw new RuntimeException("payload is null for session start response");
+        }
+
+        RelayerSession newSession = new RelayerSession(
+                respPayload.getSessionId(),
+                remoteNodeInfo.getNodeId(),
+                RelayerSession.deriveSessionKey(
+                        ephemeralKeyPair.getPrivate(),
+                        respPayload.getEphemeralPublicKey(),
+                        myPublicKey,
+                        respPayload.getEphemeralPublicKey()
+                ),
+                startTime + respPayload.getTtl(),
+                response.getRemoteRelayerCertificate()
+        );
+        log.info("start session {} with relayer {}", newSession.getSessionId(), remoteNodeInfo.getNodeId());
+        return newSession;
+    }
+
+    /**
+     * 发送请求并记录客户端的健康状态，连接池据此淘汰不健康的客户端
+     */
+    private RelayerResponse doSend(RelayerRequest request) {
+        try {
+            RelayerResponse response = sendRequest(request);
+            recordSuccess();
+            return response;
+        } catch (RuntimeException e) {
+            recordFailure();
+            throw e;
+        }
+    }
+
+    private CompletableFuture<RelayerResponse> doSendAsync(RelayerRequest request) {
+        CompletableFuture<RelayerResponse> future;
+        try {
+            future = sendRequestAsync(request);
+        } catch (RuntimeException e) {
+            recordFailure();
+            throw e;
+        }
+        return future.whenComplete((response, t) -> {
+            if (ObjectUtil.isNull(t)) {
+                recordSuccess();
+            } else {
+                recordFailure();
+            }
+        });
+    }
+
+    /**
+     * 从客户端池取出时刷新活跃时间，避免刚取出的客户端被当作空闲淘汰
+     */
+    void markActive() {
+        lastActiveTime = System.currentTimeMillis();
+    }
+
+    private void recordSuccess() {
+        lastActiveTime = System.currentTimeMillis();
+        consecutiveFailures.set(0);
+    }
+
+    private void recordFailure() {
+        lastActiveTime = System.currentTimeMillis();
+        consecutiveFailures.incrementAndGet();
+    }
+
+    /**
+     * 从指定位置开始轮询endpoints，用于故障转移后从上次失败的endpoint的下一个开始尝试
+     */
+    protected int endpointIndexAt(int i, int size) {
+        return (endpointStartIndex + i) % size;
+    }
+
     private RelayerResponse validateRelayerResponse(RelayerResponse relayerResponse) {
         if (!relayerCredentialManager.validateRelayerResponse(relayerResponse)) {
             throw new RuntimeException(
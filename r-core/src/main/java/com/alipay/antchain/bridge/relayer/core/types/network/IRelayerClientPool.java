@@ -27,5 +27,5 @@ public interface IRelayerClientPool {
 
     RelayerClient createRelayerClient(Relayer destRelayer);
 
-    void addRelayerClient(String nodeId, RelayerClient relayerClient);
+    void addRelayerClient(String nodeId, BaseRelayerClient relayerClient);
 }
@@ -2,13 +2,17 @@ package com.alipay.antchain.bridge.relayer.core.types.network;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.alipay.antchain.bridge.commons.bcdns.AbstractCrossChainCertificate;
 import com.alipay.antchain.bridge.commons.core.am.IAuthMessage;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerBlockchainContent;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerNodeInfo;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.PropagateCrossChainMsgsBatchRequest;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.HelloStartRespPayload;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.PropagateCrossChainMsgsRespPayload;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.QueryCrossChainMsgReceiptsRespPayload;
 
 public interface RelayerClient {
 
@@ -42,8 +46,39 @@ public interface RelayerClient {
      */
     void propagateCrossChainMsg(String domainName, String ucpId, IAuthMessage authMsg, String udagProof, String ledgerInfo);
 
+    /**
+     * 异步发送AM请求，对端处理成功后future完成
+     */
+    CompletableFuture<Void> propagateCrossChainMsgAsync(String domainName, String ucpId, IAuthMessage authMsg, String udagProof, String ledgerInfo);
+
+    /**
+     * 在一个请求中发送多条AM消息，返回每条消息的处理结果
+     *
+     * @param items
+     * @return 与items一一对应的处理结果
+     */
+    List<PropagateCrossChainMsgsRespPayload.ItemResult> propagateCrossChainMsgs(List<PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem> items);
+
+    CompletableFuture<List<PropagateCrossChainMsgsRespPayload.ItemResult>> propagateCrossChainMsgsAsync(List<PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem> items);
+
     Map<String, CrossChainMessageReceipt> queryCrossChainMessageReceipts(List<String> ucpIds);
 
+    CompletableFuture<Map<String, CrossChainMessageReceipt>> queryCrossChainMessageReceiptsAsync(List<String> ucpIds);
+
+    /**
+     * 增量查询回执，ucpIds返回全部回执，subscribedUcpIds只返回在cursor之后有变化的回执
+     *
+     * @param ucpIds           首次查询的ucp
+     * @param subscribedUcpIds 之前查询过的ucp
+     * @param cursor           上次响应返回的cursor
+     * @return 回执以及下次查询的cursor，对端不支持增量查询时cursor为空
+     */
+    CompletableFuture<QueryCrossChainMsgReceiptsRespPayload> queryCrossChainMessageReceiptsSinceAsync(
+            List<String> ucpIds,
+            List<String> subscribedUcpIds,
+            long cursor
+    );
+
     HelloStartRespPayload helloStart(byte[] rand, String relayerNodeId);
 
     void helloComplete(
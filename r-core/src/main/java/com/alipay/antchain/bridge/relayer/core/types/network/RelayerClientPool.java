@@ -1,24 +1,36 @@
 package com.alipay.antchain.bridge.relayer.core.types.network;
 
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import javax.annotation.Resource;
 
+import cn.hutool.core.lang.Pair;
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.bcdns.types.base.Relayer;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerNodeInfo;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerCredentialManager;
+import com.alipay.antchain.bridge.relayer.core.types.network.grpc.GRpcRelayerClient;
 import com.alipay.antchain.bridge.relayer.core.types.network.ws.WsSslFactory;
 import com.alipay.antchain.bridge.relayer.core.types.network.ws.client.WSRelayerClient;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * 远程relayer客户端池，每个relayer节点复用一个客户端。
+ * <p>
+ * 域名只是到节点ID的索引；客户端连续失败超过阈值或者长时间空闲会被淘汰，
+ * 不健康的客户端重建时从上次使用的endpoint的下一个开始尝试，实现endpoint之间的故障转移。
+ * </p>
+ */
 @Component
+@Slf4j
 public class RelayerClientPool implements IRelayerClientPool {
 
-    private static final String DOMAIN_CACHE_KEY_PREFIX = "DOMAIN^";
-
     @Resource
     private IRelayerCredentialManager relayerCredentialManager;
 
@@ -31,58 +43,91 @@ public class RelayerClientPool implements IRelayerClientPool {
     @Resource
     private WsSslFactory wsSslFactory;
 
-    private final Map<String, RelayerClient> clientMap = MapUtil.newConcurrentHashMap();
+    @Value("${relayer.network.node.grpc_client.enable:true}")
+    private boolean grpcClientEnable;
+
+    @Value("${relayer.network.node.grpc_client.request_timeout:30000}")
+    private long grpcRequestTimeout;
+
+    @Value("${relayer.network.node.client.max_in_flight:64}")
+    private int maxInFlightPerRelayer;
+
+    @Value("${relayer.network.node.client.max_waiting:1024}")
+    private int maxWaitingPerRelayer;
+
+    @Value("${relayer.network.node.client.max_consecutive_failures:3}")
+    private int maxConsecutiveFailures;
+
+    @Value("${relayer.network.node.client.min_rebuild_interval:10000}")
+    private long minRebuildInterval;
+
+    @Value("${relayer.network.node.client.idle_timeout:1800000}")
+    private long idleTimeout;
+
+    private final Map<String, BaseRelayerClient> clientMap = MapUtil.newConcurrentHashMap();
+
+    private final Map<String, String> domainToNodeIdMap = MapUtil.newConcurrentHashMap();
+
+    /**
+     * 被替换或淘汰的客户端，其他线程可能刚刚取到，等待一段时间后再关闭
+     */
+    private final Queue<Pair<Long, BaseRelayerClient>> retiredClients = new ConcurrentLinkedQueue<>();
 
+    private volatile long lastIdleCheckTime = System.currentTimeMillis();
+
+    @Override
     public RelayerClient getRelayerClient(RelayerNodeInfo remoteRelayerNodeInfo, String domain) {
+        evictIdleClientsIfNeeded();
 
-        try {
-            if (StrUtil.isNotEmpty(domain) && clientMap.containsKey(DOMAIN_CACHE_KEY_PREFIX + domain)) {
-                clientMap.get(DOMAIN_CACHE_KEY_PREFIX + domain);
-            }
-            if (!clientMap.containsKey(remoteRelayerNodeInfo.getNodeId())) {
-                WSRelayerClient client = new WSRelayerClient(
-                        remoteRelayerNodeInfo,
-                        relayerCredentialManager,
-                        defaultNetworkId,
-                        wsRelayerClientThreadsPool,
-                        wsSslFactory.getSslContext().getSocketFactory()
+        String nodeId = remoteRelayerNodeInfo.getNodeId();
+        BaseRelayerClient client = getHealthyClient(nodeId);
+        if (ObjectUtil.isNull(client)) {
+            try {
+                client = installClient(nodeId, remoteRelayerNodeInfo);
+            } catch (Exception e) {
+                throw new RuntimeException(
+                        StrUtil.format("failed to create relayer client for {}: ", nodeId),
+                        e
                 );
-                client.startup();
-                clientMap.put(remoteRelayerNodeInfo.getNodeId(), client);
-                if (StrUtil.isNotEmpty(domain)) {
-                    clientMap.put(DOMAIN_CACHE_KEY_PREFIX + domain, client);
-                }
             }
-        } catch (Exception e) {
-            throw new RuntimeException(
-                    StrUtil.format("failed to create relayer client for {}: ", remoteRelayerNodeInfo.getNodeId()),
-                    e
-            );
         }
-
-        return clientMap.get(remoteRelayerNodeInfo.getNodeId());
+        if (StrUtil.isNotEmpty(domain)) {
+            domainToNodeIdMap.put(domain, nodeId);
+        }
+        return client;
     }
 
+    @Override
     public RelayerClient getRelayerClientByDomain(String domain) {
-        return clientMap.get(DOMAIN_CACHE_KEY_PREFIX + domain);
+        String nodeId = domainToNodeIdMap.get(domain);
+        if (StrUtil.isEmpty(nodeId)) {
+            return null;
+        }
+        BaseRelayerClient client = getHealthyClient(nodeId);
+        if (ObjectUtil.isNull(client)) {
+            // 节点的客户端已经被淘汰，索引也一并清理
+            domainToNodeIdMap.remove(domain, nodeId);
+        }
+        return client;
     }
 
+    /**
+     * 域名路由发现时使用，该relayer已经有客户端时直接复用，新建的客户端也会放入池中，
+     * 避免之后发送消息时再次建立连接
+     */
     @Override
     public RelayerClient createRelayerClient(Relayer destRelayer) {
         RelayerNodeInfo tempNodeInfo = new RelayerNodeInfo();
         tempNodeInfo.setEndpoints(destRelayer.getNetAddressList());
         tempNodeInfo.setNodeId(RelayerNodeInfo.calculateNodeId(destRelayer.getRelayerCert()));
 
-        try {
-            WSRelayerClient client = new WSRelayerClient(
-                    tempNodeInfo,
-                    relayerCredentialManager,
-                    defaultNetworkId,
-                    wsRelayerClientThreadsPool,
-                    wsSslFactory.getSslContext().getSocketFactory()
-            );
-            client.startup();
+        BaseRelayerClient client = getHealthyClient(tempNodeInfo.getNodeId());
+        if (ObjectUtil.isNotNull(client)) {
+            log.debug("reuse relayer client for relayer {}", tempNodeInfo.getNodeId());
             return client;
+        }
+        try {
+            return installClient(tempNodeInfo.getNodeId(), tempNodeInfo);
         } catch (Exception e) {
             throw new RuntimeException(
                     StrUtil.format("failed to create new relayer client for {}: ", StrUtil.join(",", tempNodeInfo.getEndpoints())),
@@ -91,7 +136,130 @@ public class RelayerClientPool implements IRelayerClientPool {
         }
     }
 
-    public void addRelayerClient(String nodeId, RelayerClient client) {
-        clientMap.put(nodeId, client);
+    @Override
+    public void addRelayerClient(String nodeId, BaseRelayerClient client) {
+        BaseRelayerClient old = clientMap.put(nodeId, client);
+        if (ObjectUtil.isNotNull(old) && old != client) {
+            retire(old);
+        }
+    }
+
+    /**
+     * 在map之外建立连接，再用putIfAbsent放入池中，并发创建时关闭落选的客户端
+     */
+    private BaseRelayerClient installClient(String nodeId, RelayerNodeInfo remoteRelayerNodeInfo) {
+        BaseRelayerClient newClient = createAndStartClient(remoteRelayerNodeInfo, 0);
+        BaseRelayerClient curr = clientMap.putIfAbsent(nodeId, newClient);
+        if (ObjectUtil.isNull(curr)) {
+            return newClient;
+        }
+        log.debug("relayer client for {} created concurrently and drop the new one", nodeId);
+        newClient.shutdown();
+        curr.markActive();
+        return curr;
+    }
+
+    /**
+     * 获取节点的客户端，客户端连续失败超过阈值时淘汰，下次获取时从下一个endpoint重建
+     */
+    private BaseRelayerClient getHealthyClient(String nodeId) {
+        BaseRelayerClient client = clientMap.get(nodeId);
+        if (ObjectUtil.isNull(client)) {
+            return null;
+        }
+        if (client.getConsecutiveFailures().get() < maxConsecutiveFailures
+                || System.currentTimeMillis() - client.getCreateTime() < minRebuildInterval) {
+            client.markActive();
+            return client;
+        }
+
+        int nextEndpointIndex = client.getCurrentEndpointIndex() + 1;
+        log.warn("relayer client for {} failed {} times in a row and rebuild it from endpoint index {}",
+                nodeId, client.getConsecutiveFailures().get(), nextEndpointIndex);
+        BaseRelayerClient newClient;
+        try {
+            newClient = createAndStartClient(client.getRemoteNodeInfo(), nextEndpointIndex);
+        } catch (Exception e) {
+            // 重建失败时继续使用原来的客户端，等待下一次重建
+            log.error("failed to rebuild relayer client for {}", nodeId, e);
+            return client;
+        }
+        if (clientMap.replace(nodeId, client, newClient)) {
+            retire(client);
+            return newClient;
+        }
+        // 其他线程已经替换了客户端
+        newClient.shutdown();
+        BaseRelayerClient curr = clientMap.get(nodeId);
+        if (ObjectUtil.isNotNull(curr)) {
+            curr.markActive();
+        }
+        return curr;
+    }
+
+    private void evictIdleClientsIfNeeded() {
+        long now = System.currentTimeMillis();
+        long checkInterval = Math.min(idleTimeout, 60_000);
+        if (now - lastIdleCheckTime < checkInterval) {
+            return;
+        }
+        lastIdleCheckTime = now;
+        clientMap.forEach((nodeId, client) -> {
+            if (now - client.getLastActiveTime() >= idleTimeout && clientMap.remove(nodeId, client)) {
+                log.info("evict idle relayer client for {}", nodeId);
+                domainToNodeIdMap.values().removeIf(nodeId::equals);
+                retire(client);
+            }
+        });
+
+        // 退役超过一个检查周期的客户端不会再被使用，可以关闭
+        Pair<Long, BaseRelayerClient> retired;
+        while ((retired = retiredClients.peek()) != null && now - retired.getKey() >= checkInterval) {
+            if (retiredClients.remove(retired)) {
+                retired.getValue().shutdown();
+            }
+        }
+    }
+
+    private void retire(BaseRelayerClient client) {
+        retiredClients.add(new Pair<>(System.currentTimeMillis(), client));
+    }
+
+    private BaseRelayerClient createAndStartClient(RelayerNodeInfo remoteRelayerNodeInfo, int endpointStartIndex) {
+        BaseRelayerClient client = buildRelayerClient(remoteRelayerNodeInfo);
+        client.setEndpointStartIndex(endpointStartIndex);
+        client.startup();
+        return client;
+    }
+
+    /**
+     * 对端公布了gRPC endpoint时优先使用gRPC通道，否则使用webservice
+     */
+    private BaseRelayerClient buildRelayerClient(RelayerNodeInfo remoteRelayerNodeInfo) {
+        BaseRelayerClient client;
+        if (grpcClientEnable && ObjectUtil.isNotEmpty(GRpcRelayerClient.filterGRpcEndpoints(remoteRelayerNodeInfo.getEndpoints()))) {
+            client = new GRpcRelayerClient(
+                    remoteRelayerNodeInfo,
+                    relayerCredentialManager,
+                    defaultNetworkId,
+                    wsRelayerClientThreadsPool,
+                    wsSslFactory,
+                    grpcRequestTimeout
+            );
+        } else {
+            try {
+                client = new WSRelayerClient(
+                        remoteRelayerNodeInfo,
+                        relayerCredentialManager,
+                        defaultNetworkId,
+                        wsRelayerClientThreadsPool,
+                        wsSslFactory.getSslContext().getSocketFactory()
+                );
+            } catch (Exception e) {
+                throw new RuntimeException("failed to get ssl context for relayer client", e);
+            }
+        }
+        client.setRequestLimiter(new AsyncRequestLimiter(maxInFlightPerRelayer, maxWaitingPerRelayer));
+        return client;
     }
 }
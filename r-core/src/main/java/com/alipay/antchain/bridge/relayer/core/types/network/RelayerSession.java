@@ -0,0 +1,152 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network;
+
+import java.security.*;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.X509EncodedKeySpec;
+import javax.crypto.KeyAgreement;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import cn.hutool.core.util.ObjectUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
+import com.alipay.antchain.bridge.commons.bcdns.AbstractCrossChainCertificate;
+import com.alipay.antchain.bridge.commons.bcdns.CrossChainCertificateFactory;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * relayer之间的认证会话。
+ * <p>
+ * 会话通过一次证书签名的SESSION_START交换双方的临时ECDH公钥，协商出对称密钥，
+ * 会话期间的请求和响应使用HMAC认证，不再携带证书和做非对称签名。
+ * </p>
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class RelayerSession {
+
+    public static final String MAC_ALGO = "HmacSHA256";
+
+    public static final String SESSION_INVALID_MSG = "relayer session not found or expired";
+
+    private static final String ECDH_CURVE = "secp256r1";
+
+    public static KeyPair generateEphemeralKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(ECDH_CURVE));
+            return generator.generateKeyPair();
+        } catch (Exception e) {
+            throw new RuntimeException("failed to generate ephemeral key pair for relayer session", e);
+        }
+    }
+
+    /**
+     * 根据本方临时私钥和对方临时公钥计算会话密钥，双方公钥按请求方、响应方的顺序参与摘要
+     */
+    public static byte[] deriveSessionKey(PrivateKey myPrivateKey, byte[] peerPublicKey, byte[] requesterPublicKey, byte[] responderPublicKey) {
+        try {
+            KeyAgreement keyAgreement = KeyAgreement.getInstance("ECDH");
+            keyAgreement.init(myPrivateKey);
+            keyAgreement.doPhase(
+                    KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(peerPublicKey)),
+                    true
+            );
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(keyAgreement.generateSecret());
+            digest.update(requesterPublicKey);
+            digest.update(responderPublicKey);
+            return digest.digest();
+        } catch (Exception e) {
+            throw new RuntimeException("failed to derive relayer session key", e);
+        }
+    }
+
+    public static RelayerSession decode(String json) {
+        return JSON.parseObject(json, RelayerSession.class);
+    }
+
+    public RelayerSession(String sessionId, String remoteNodeId, byte[] sessionKey, long expireTime, AbstractCrossChainCertificate remoteRelayerCertificate) {
+        this.sessionId = sessionId;
+        this.remoteNodeId = remoteNodeId;
+        this.sessionKey = sessionKey;
+        this.expireTime = expireTime;
+        this.rawRemoteRelayerCert = ObjectUtil.isNull(remoteRelayerCertificate) ? null : remoteRelayerCertificate.encode();
+        this.remoteRelayerCertificate = remoteRelayerCertificate;
+    }
+
+    @JSONField
+    private String sessionId;
+
+    @JSONField
+    private String remoteNodeId;
+
+    @JSONField
+    private byte[] sessionKey;
+
+    @JSONField
+    private long expireTime;
+
+    @JSONField
+    private byte[] rawRemoteRelayerCert;
+
+    @JSONField(serialize = false, deserialize = false)
+    private AbstractCrossChainCertificate remoteRelayerCertificate;
+
+    public AbstractCrossChainCertificate getRemoteRelayerCertificate() {
+        if (ObjectUtil.isNull(remoteRelayerCertificate) && ObjectUtil.isNotEmpty(rawRemoteRelayerCert)) {
+            remoteRelayerCertificate = CrossChainCertificateFactory.createCrossChainCertificate(rawRemoteRelayerCert);
+        }
+        return remoteRelayerCertificate;
+    }
+
+    public byte[] mac(byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGO);
+            mac.init(new SecretKeySpec(sessionKey, MAC_ALGO));
+            return mac.doFinal(data);
+        } catch (Exception e) {
+            throw new RuntimeException("failed to calculate mac for relayer session " + sessionId, e);
+        }
+    }
+
+    public boolean verifyMac(byte[] data, byte[] expectedMac) {
+        return ObjectUtil.isNotEmpty(expectedMac) && MessageDigest.isEqual(mac(data), expectedMac);
+    }
+
+    @JSONField(serialize = false)
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= expireTime;
+    }
+
+    /**
+     * 到期前预留一段时间重新协商，避免请求到达对端时会话已过期
+     */
+    public boolean needRekey(long rekeyAhead) {
+        return System.currentTimeMillis() >= expireTime - rekeyAhead;
+    }
+
+    public String encode() {
+        return JSON.toJSONString(this);
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.exception;
+
+import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
+import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum;
+import lombok.Getter;
+
+/**
+ * 远程relayer繁忙拒绝了请求，应在retryAfter毫秒之后再重试，不应视为消息处理失败
+ */
+@Getter
+public class RelayerBusyException extends AntChainBridgeRelayerException {
+
+    private final String relayerNodeId;
+
+    private final long retryAfter;
+
+    public RelayerBusyException(String relayerNodeId, long retryAfter) {
+        super(
+                RelayerErrorCodeEnum.SERVER_RELAYER_BUSY,
+                "relayer {} is busy and retry after {} ms", relayerNodeId, retryAfter
+        );
+        this.relayerNodeId = relayerNodeId;
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.exception;
+
+import com.alipay.antchain.bridge.relayer.commons.exception.AntChainBridgeRelayerException;
+import com.alipay.antchain.bridge.relayer.commons.exception.RelayerErrorCodeEnum;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequestType;
+import lombok.Getter;
+
+/**
+ * 远程relayer明确表示不支持该请求类型，请求没有被处理，可以换用其他请求重新发送
+ */
+@Getter
+public class RelayerRequestUnsupportedException extends AntChainBridgeRelayerException {
+
+    private final String relayerNodeId;
+
+    private final RelayerRequestType requestType;
+
+    public RelayerRequestUnsupportedException(String relayerNodeId, RelayerRequestType requestType) {
+        super(
+                RelayerErrorCodeEnum.SERVER_REQUEST_TYPE_UNSUPPORTED,
+                "relayer {} not support request type {}", relayerNodeId, requestType.getCode()
+        );
+        this.relayerNodeId = relayerNodeId;
+        this.requestType = requestType;
+    }
+}
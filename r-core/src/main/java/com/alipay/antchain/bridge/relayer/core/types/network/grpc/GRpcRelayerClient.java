@@ -0,0 +1,234 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.grpc;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alipay.antchain.bridge.relayer.commons.model.RelayerNodeInfo;
+import com.alipay.antchain.bridge.relayer.core.grpc.network.RelayerNetworkServiceGrpc;
+import com.alipay.antchain.bridge.relayer.core.grpc.network.RelayerRawMessage;
+import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerCredentialManager;
+import com.alipay.antchain.bridge.relayer.core.types.network.BaseRelayerClient;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequest;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.RelayerResponse;
+import com.alipay.antchain.bridge.relayer.core.types.network.ws.WsSslFactory;
+import com.google.protobuf.ByteString;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.TlsChannelCredentials;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 通过gRPC与远程relayer通信，请求和响应直接以TLV编码的二进制传输，
+ * 同一个远程relayer的所有请求复用一个HTTP/2连接
+ */
+@Slf4j
+public class GRpcRelayerClient extends BaseRelayerClient {
+
+    public static final String GRPC_SCHEMA = "grpc";
+
+    public static final String GRPC_TLS_SCHEMA = "grpcs";
+
+    /**
+     * 判断endpoint是否为gRPC endpoint，例如 grpcs://127.0.0.1:8083
+     */
+    public static boolean isGRpcEndpoint(String endpoint) {
+        return StrUtil.startWithAny(endpoint, GRPC_SCHEMA + "://", GRPC_TLS_SCHEMA + "://");
+    }
+
+    public static List<String> filterGRpcEndpoints(List<String> endpoints) {
+        return ObjectUtil.isEmpty(endpoints) ? endpoints : endpoints.stream()
+                .filter(GRpcRelayerClient::isGRpcEndpoint)
+                .collect(Collectors.toList());
+    }
+
+    private final ExecutorService workers;
+
+    private final WsSslFactory wsSslFactory;
+
+    private final long requestTimeout;
+
+    private ManagedChannel channel;
+
+    private RelayerNetworkServiceGrpc.RelayerNetworkServiceBlockingStub blockingStub;
+
+    private RelayerNetworkServiceGrpc.RelayerNetworkServiceStub asyncStub;
+
+    public GRpcRelayerClient(
+            RelayerNodeInfo remoteNodeInfo,
+            IRelayerCredentialManager relayerCredentialManager,
+            String defaultNetworkId,
+            ExecutorService workers,
+            WsSslFactory wsSslFactory,
+            long requestTimeout
+    ) {
+        super(remoteNodeInfo, relayerCredentialManager, defaultNetworkId);
+        this.workers = workers;
+        this.wsSslFactory = wsSslFactory;
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public void startup() {
+        List<String> endpoints = filterGRpcEndpoints(getRemoteNodeInfo().getEndpoints());
+        if (ObjectUtil.isEmpty(endpoints)) {
+            throw new RuntimeException(
+                    String.format(
+                            "failed to start GRpcRelayerClient: zero size grpc endpoints for relayer (node_id: %s)",
+                            getRemoteNodeInfo().getNodeId()
+                    )
+            );
+        }
+
+        for (int i = 0; i < endpoints.size(); ++i) {
+            int idx = endpointIndexAt(i, endpoints.size());
+            ManagedChannel newChannel = null;
+            try {
+                URI uri = URI.create(endpoints.get(idx));
+                NettyChannelBuilder channelBuilder;
+                if (StrUtil.equals(GRPC_TLS_SCHEMA, uri.getScheme())) {
+                    // 不校验服务端证书，与webservice客户端一致，见WsSslFactory#getTrustManagers
+                    channelBuilder = NettyChannelBuilder.forAddress(
+                            uri.getHost(),
+                            uri.getPort(),
+                            TlsChannelCredentials.newBuilder()
+                                    .keyManager(wsSslFactory.getKeyManagers())
+                                    .trustManager(wsSslFactory.getTrustManagers())
+                                    .build()
+                    );
+                } else {
+                    channelBuilder = NettyChannelBuilder.forAddress(uri.getHost(), uri.getPort()).usePlaintext();
+                }
+                newChannel = channelBuilder.executor(workers).build();
+                // channel是懒连接的，建连成功才使用这个endpoint，否则尝试下一个
+                if (!waitForReady(newChannel, requestTimeout)) {
+                    throw new RuntimeException(
+                            StrUtil.format("connect to {} failed with state {} in {}ms",
+                                    endpoints.get(idx), newChannel.getState(false), requestTimeout)
+                    );
+                }
+                channel = newChannel;
+                blockingStub = RelayerNetworkServiceGrpc.newBlockingStub(channel);
+                asyncStub = RelayerNetworkServiceGrpc.newStub(channel);
+                setCurrentEndpointIndex(idx);
+                log.info("grpc relayer client for relayer {} connect to {}", getRemoteNodeInfo().getNodeId(), endpoints.get(idx));
+                return;
+            } catch (Exception e) {
+                if (ObjectUtil.isNotNull(newChannel)) {
+                    newChannel.shutdownNow();
+                }
+                log.warn("grpc relayer client for relayer {} failed to connect to {}",
+                        getRemoteNodeInfo().getNodeId(), endpoints.get(idx), e);
+                if (i == endpoints.size() - 1) {
+                    throw new RuntimeException("failed to start GRpcRelayerClient. ", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * 触发建连并等待channel进入READY状态，建连失败或者超时返回false
+     */
+    private static boolean waitForReady(ManagedChannel channel, long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        ConnectivityState state = channel.getState(true);
+        while (state != ConnectivityState.READY) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (state == ConnectivityState.TRANSIENT_FAILURE || state == ConnectivityState.SHUTDOWN || remaining <= 0) {
+                return false;
+            }
+            CountDownLatch latch = new CountDownLatch(1);
+            channel.notifyWhenStateChanged(state, latch::countDown);
+            if (!latch.await(remaining, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+            state = channel.getState(false);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean shutdown() {
+        if (ObjectUtil.isNull(channel)) {
+            return true;
+        }
+        try {
+            return channel.shutdown().awaitTermination(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public RelayerResponse sendRequest(RelayerRequest relayerRequest) {
+        RelayerRawMessage response = blockingStub.withDeadlineAfter(requestTimeout, TimeUnit.MILLISECONDS)
+                .request(
+                        RelayerRawMessage.newBuilder()
+                                .setPayload(ByteString.copyFrom(relayerRequest.encode()))
+                                .build()
+                );
+        return RelayerResponse.decode(response.getPayload().toByteArray());
+    }
+
+    /**
+     * 请求在同一个HTTP/2连接上多路复用，等待响应期间不占用线程
+     */
+    @Override
+    public CompletableFuture<RelayerResponse> sendRequestAsync(RelayerRequest relayerRequest) {
+        CompletableFuture<RelayerResponse> future = new CompletableFuture<>();
+        asyncStub.withDeadlineAfter(requestTimeout, TimeUnit.MILLISECONDS)
+                .request(
+                        RelayerRawMessage.newBuilder()
+                                .setPayload(ByteString.copyFrom(relayerRequest.encode()))
+                                .build(),
+                        new StreamObserver<RelayerRawMessage>() {
+                            @Override
+                            public void onNext(RelayerRawMessage response) {
+                                try {
+                                    future.complete(RelayerResponse.decode(response.getPayload().toByteArray()));
+                                } catch (Exception e) {
+                                    future.completeExceptionally(e);
+                                }
+                            }
+
+                            @Override
+                            public void onError(Throwable t) {
+                                future.completeExceptionally(t);
+                            }
+
+                            @Override
+                            public void onCompleted() {
+                                if (!future.isDone()) {
+                                    future.completeExceptionally(new RuntimeException("grpc request completed without response"));
+                                }
+                            }
+                        }
+                );
+        return future;
+    }
+}
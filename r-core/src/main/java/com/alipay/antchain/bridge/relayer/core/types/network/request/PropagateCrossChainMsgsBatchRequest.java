@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.request;
+
+import java.util.List;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.codec.Base64;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
+import com.alipay.antchain.bridge.commons.core.am.IAuthMessage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 一次请求中向同一个relayer发送多条AM消息，整个请求只签名一次
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class PropagateCrossChainMsgsBatchRequest extends RelayerRequest {
+
+    public static PropagateCrossChainMsgsBatchRequest createFrom(RelayerRequest relayerRequest) {
+        PropagateCrossChainMsgsBatchRequest request = JSON.parseObject(relayerRequest.getRequestPayload(), PropagateCrossChainMsgsBatchRequest.class);
+        BeanUtil.copyProperties(relayerRequest, request);
+        return request;
+    }
+
+    @JSONField
+    private List<CrossChainMsgItem> items;
+
+    public PropagateCrossChainMsgsBatchRequest(List<CrossChainMsgItem> items) {
+        super(
+                RelayerRequestType.PROPAGATE_CROSSCHAIN_MESSAGES_BATCH
+        );
+        this.items = items;
+
+        setRequestPayload(
+                JSON.toJSONBytes(this)
+        );
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CrossChainMsgItem {
+
+        public CrossChainMsgItem(
+                String udagProof,
+                String ucpId,
+                IAuthMessage authMsg,
+                String domainName,
+                String ledgerInfo
+        ) {
+            this(udagProof, ucpId, Base64.encode(authMsg.encode()), domainName, ledgerInfo);
+        }
+
+        @JSONField
+        private String udagProof;
+
+        @JSONField
+        private String ucpId;
+
+        @JSONField
+        private String authMsg;
+
+        @JSONField
+        private String domainName;
+
+        @JSONField
+        private String ledgerInfo;
+    }
+}
@@ -39,11 +39,29 @@ public class QueryCrossChainMsgReceiptRequest extends RelayerRequest {
     @JSONField
     private List<String> ucpIds;
 
+    /**
+     * 已经查询过的ucp，对端只返回在cursor之后有变化的回执
+     */
+    @JSONField
+    private List<String> subscribedUcpIds;
+
+    /**
+     * 上次响应中返回的cursor，0表示全量查询
+     */
+    @JSONField
+    private long cursor;
+
     public QueryCrossChainMsgReceiptRequest(List<String> ucpIds) {
+        this(ucpIds, null, 0);
+    }
+
+    public QueryCrossChainMsgReceiptRequest(List<String> ucpIds, List<String> subscribedUcpIds, long cursor) {
         super(
                 RelayerRequestType.QUERY_CROSSCHAIN_MSG_RECEIPT
         );
         this.ucpIds = ucpIds;
+        this.subscribedUcpIds = subscribedUcpIds;
+        this.cursor = cursor;
         setRequestPayload(
                 JSON.toJSONBytes(this)
         );
@@ -18,6 +18,7 @@ package com.alipay.antchain.bridge.relayer.core.types.network.request;
 
 import java.security.Signature;
 
+import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson.annotation.JSONField;
 import com.alipay.antchain.bridge.commons.bcdns.AbstractCrossChainCertificate;
 import com.alipay.antchain.bridge.commons.bcdns.utils.CrossChainCertificateUtil;
@@ -51,6 +52,8 @@ public class RelayerRequest {
 
     public static final short TLV_TYPE_RELAYER_REQUEST_SIGNATURE = 5;
 
+    public static final short TLV_TYPE_RELAYER_REQUEST_SESSION_ID = 6;
+
     public static RelayerRequest decode(byte[] rawData, Class<? extends RelayerRequest> requestClass) {
         return TLVUtils.decode(rawData, requestClass);
     }
@@ -89,6 +92,13 @@ public class RelayerRequest {
     @JSONField(serialize = false)
     private byte[] signature;
 
+    /**
+     * 会话ID，不为空时请求使用会话密钥的MAC认证，不携带证书
+     */
+    @TLVField(tag = TLV_TYPE_RELAYER_REQUEST_SESSION_ID, type = TLVTypeEnum.STRING, order = TLV_TYPE_RELAYER_REQUEST_SESSION_ID)
+    @JSONField(serialize = false)
+    private String sessionId;
+
     public byte[] rawEncode() {
         return TLVUtils.encode(this, TLV_TYPE_RELAYER_REQUEST_SIG_ALGO);
     }
@@ -117,6 +127,11 @@ public class RelayerRequest {
         }
     }
 
+    @JSONField(serialize = false)
+    public boolean isSessionAuthenticated() {
+        return StrUtil.isNotEmpty(sessionId);
+    }
+
     public String calcRelayerNodeId() {
         return RelayerNodeInfo.calculateNodeId(senderRelayerCertificate);
     }
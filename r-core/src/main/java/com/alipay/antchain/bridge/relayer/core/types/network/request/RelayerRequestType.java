@@ -45,7 +45,11 @@ public enum RelayerRequestType {
 
     CROSSCHAIN_CHANNEL_START("crosschainChannelStart"),
 
-    CROSSCHAIN_CHANNEL_COMPLETE("crosschainChannelComplete");
+    CROSSCHAIN_CHANNEL_COMPLETE("crosschainChannelComplete"),
+
+    PROPAGATE_CROSSCHAIN_MESSAGES_BATCH("propagateCrossChainMsgsBatch"),
+
+    SESSION_START("sessionStart");
 
     private final String code;
 
@@ -68,6 +72,10 @@ public enum RelayerRequestType {
             return CROSSCHAIN_CHANNEL_COMPLETE;
         } else if (StrUtil.equals(value, QUERY_CROSSCHAIN_MSG_RECEIPT.code)) {
             return QUERY_CROSSCHAIN_MSG_RECEIPT;
+        } else if (StrUtil.equals(value, PROPAGATE_CROSSCHAIN_MESSAGES_BATCH.code)) {
+            return PROPAGATE_CROSSCHAIN_MESSAGES_BATCH;
+        } else if (StrUtil.equals(value, SESSION_START.code)) {
+            return SESSION_START;
         }
         throw new AntChainBridgeRelayerException(
                 RelayerErrorCodeEnum.UNKNOWN_INTERNAL_ERROR,
@@ -95,6 +103,10 @@ public enum RelayerRequestType {
                 return CROSSCHAIN_CHANNEL_START;
             case 8:
                 return CROSSCHAIN_CHANNEL_COMPLETE;
+            case 9:
+                return PROPAGATE_CROSSCHAIN_MESSAGES_BATCH;
+            case 10:
+                return SESSION_START;
             default:
                 return null;
         }
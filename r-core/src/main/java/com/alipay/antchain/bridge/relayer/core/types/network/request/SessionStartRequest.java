@@ -0,0 +1,54 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.request;
+
+import cn.hutool.core.bean.BeanUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 建立会话请求，携带请求方的临时ECDH公钥，请求本身使用证书签名
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class SessionStartRequest extends RelayerRequest {
+
+    public static SessionStartRequest createFrom(RelayerRequest relayerRequest) {
+        SessionStartRequest request = JSON.parseObject(relayerRequest.getRequestPayload(), SessionStartRequest.class);
+        BeanUtil.copyProperties(relayerRequest, request);
+        return request;
+    }
+
+    @JSONField
+    private byte[] ephemeralPublicKey;
+
+    public SessionStartRequest(
+            byte[] ephemeralPublicKey
+    ) {
+        super(
+                RelayerRequestType.SESSION_START
+        );
+        this.ephemeralPublicKey = ephemeralPublicKey;
+        setRequestPayload(
+                JSON.toJSONBytes(this)
+        );
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.response;
+
+import java.util.List;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 批量发送AM消息的处理结果，按ucpId与请求中的消息对应
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class PropagateCrossChainMsgsRespPayload implements IResponsePayload {
+
+    public static PropagateCrossChainMsgsRespPayload decodeFromJson(String json) {
+        return JSON.parseObject(json, PropagateCrossChainMsgsRespPayload.class);
+    }
+
+    @JSONField(name = "results")
+    private List<ItemResult> results;
+
+    @Override
+    public String encode() {
+        return JSON.toJSONString(this);
+    }
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class ItemResult {
+
+        @JSONField(name = "ucp_id")
+        private String ucpId;
+
+        @JSONField(name = "success")
+        private boolean success;
+
+        @JSONField(name = "error_msg")
+        private String errorMsg;
+    }
+}
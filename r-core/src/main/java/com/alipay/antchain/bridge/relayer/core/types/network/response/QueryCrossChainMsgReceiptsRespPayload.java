@@ -38,6 +38,16 @@ public class QueryCrossChainMsgReceiptsRespPayload implements IResponsePayload {
     @JSONField(name = "receipts")
     private Map<String, CrossChainMessageReceipt> receipts;
 
+    /**
+     * 下次增量查询时带上的cursor，旧版本的relayer不会返回
+     */
+    @JSONField(name = "cursor")
+    private Long cursor;
+
+    public QueryCrossChainMsgReceiptsRespPayload(Map<String, CrossChainMessageReceipt> receipts) {
+        this.receipts = receipts;
+    }
+
     @Override
     public String encode() {
         return JSON.toJSONString(this);
@@ -48,6 +48,16 @@ public class RelayerResponse {
 
     public static final int FAILED = -1;
 
+    /**
+     * 服务端繁忙，payload中携带建议的重试等待时间
+     */
+    public static final int BUSY = 1;
+
+    /**
+     * 服务端不支持该请求类型时的错误信息前缀
+     */
+    public static final String REQUEST_TYPE_NOT_SUPPORTED_MSG = "request type not supported";
+
     public static final short TLV_TYPE_RELAYER_RESPONSE_CODE = 0;
 
     public static final short TLV_TYPE_RELAYER_RESPONSE_MSG = 1;
@@ -97,6 +107,18 @@ public class RelayerResponse {
         );
     }
 
+    public static RelayerResponse createBusyResponse(
+            long retryAfter,
+            IRelayerCredentialManager relayerCredentialManager
+    ) {
+        return createResponse(
+                BUSY,
+                "relayer busy, retry later",
+                new BusyRespPayload(retryAfter),
+                relayerCredentialManager
+        );
+    }
+
     public static RelayerResponse createResponse(
             int errorCode,
             String message,
@@ -187,6 +209,10 @@ public class RelayerResponse {
         return responseCode == SUCCESS;
     }
 
+    public boolean isBusy() {
+        return responseCode == BUSY;
+    }
+
     public String calcRelayerNodeId() {
         return RelayerNodeInfo.calculateNodeId(remoteRelayerCertificate);
     }
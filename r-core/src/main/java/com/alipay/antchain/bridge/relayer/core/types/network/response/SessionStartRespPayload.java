@@ -0,0 +1,52 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.network.response;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.annotation.JSONField;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionStartRespPayload implements IResponsePayload {
+
+    public static SessionStartRespPayload decodeFromJson(String json) {
+        return JSON.parseObject(json, SessionStartRespPayload.class);
+    }
+
+    @JSONField
+    private String sessionId;
+
+    @JSONField
+    private byte[] ephemeralPublicKey;
+
+    /**
+     * 会话有效期，单位毫秒
+     */
+    @JSONField
+    private long ttl;
+
+    @Override
+    public String encode() {
+        return JSON.toJSONString(this);
+    }
+}
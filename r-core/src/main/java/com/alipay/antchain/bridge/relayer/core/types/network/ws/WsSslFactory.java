@@ -16,6 +16,7 @@
 
 package com.alipay.antchain.bridge.relayer.core.types.network.ws;
 
+import java.net.Socket;
 import java.security.KeyStore;
 import java.security.PrivateKey;
 import java.security.cert.Certificate;
@@ -43,6 +44,17 @@ public class WsSslFactory {
 //    private Certificate randomTLSCert;
 
     public SSLContext getSslContext() throws Exception {
+        return SSLUtil.createSSLContext(
+                "TLSv1.2",
+                getKeyManagers(),
+                getTrustManagers()
+        );
+    }
+
+    /**
+     * 本地relayer节点TLS的私钥和证书，WebService和gRPC共用
+     */
+    public KeyManager[] getKeyManagers() throws Exception {
         PrivateKey privateKey = PemUtil.readPemPrivateKey(privateKeyPath.getInputStream());
         Certificate[] trustCertificates = CertificateUtils.getX509Certificates(trustCaPath.getInputStream());
 //        if (ObjectUtil.isNull(randomTLSPrivateKey)) {
@@ -71,30 +83,41 @@ public class WsSslFactory {
         }
         keyStore.setKeyEntry("key", privateKey, keyStorePassword, trustCertificates);
 
-        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(
-                TrustManagerFactory.getDefaultAlgorithm()
-        );
         KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(
                 KeyManagerFactory.getDefaultAlgorithm()
         );
-
-        trustManagerFactory.init(keyStore);
         keyManagerFactory.init(keyStore, keyStorePassword);
 
-        return SSLUtil.createSSLContext(
-                "TLSv1.2",
-                keyManagerFactory.getKeyManagers(),
-                new TrustManager[] {
-                        new X509TrustManager() {
-                            public X509Certificate[] getAcceptedIssuers() {
-                                return null;
-                            }
+        return keyManagerFactory.getKeyManagers();
+    }
+
+    /**
+     * 信任所有对端证书，WebService和gRPC的客户端和服务端共用。
+     * <p>
+     * relayer的TLS证书一般是自签名的，{@code trust_ca_path}只是本地证书，没有可以用来校验对端的CA，
+     * 所以TLS只用于加密，{@code https_client_auth}模式下也只要求对端出示证书，并不校验。
+     * relayer的身份由请求中的跨链证书和签名保证，服务端在处理请求之前完成校验。
+     * </p>
+     */
+    public TrustManager[] getTrustManagers() {
+        return new TrustManager[] {
+                new X509ExtendedTrustManager() {
+                    public X509Certificate[] getAcceptedIssuers() {
+                        return new X509Certificate[0];
+                    }
+
+                    public void checkClientTrusted(X509Certificate[] certs, String authType) {}
 
-                            public void checkClientTrusted(X509Certificate[] certs, String authType) {}
+                    public void checkServerTrusted(X509Certificate[] certs, String authType) {}
 
-                            public void checkServerTrusted(X509Certificate[] certs, String authType) {}
-                        }
+                    public void checkClientTrusted(X509Certificate[] certs, String authType, Socket socket) {}
+
+                    public void checkServerTrusted(X509Certificate[] certs, String authType, Socket socket) {}
+
+                    public void checkClientTrusted(X509Certificate[] certs, String authType, SSLEngine engine) {}
+
+                    public void checkServerTrusted(X509Certificate[] certs, String authType, SSLEngine engine) {}
                 }
-        );
+        };
     }
 }
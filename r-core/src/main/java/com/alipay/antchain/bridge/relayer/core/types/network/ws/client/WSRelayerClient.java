@@ -16,6 +16,7 @@
 
 package com.alipay.antchain.bridge.relayer.core.types.network.ws.client;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
@@ -27,6 +28,7 @@ import cn.hutool.core.util.ObjectUtil;
 import com.alipay.antchain.bridge.relayer.commons.model.RelayerNodeInfo;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerCredentialManager;
 import com.alipay.antchain.bridge.relayer.core.types.network.BaseRelayerClient;
+import com.alipay.antchain.bridge.relayer.core.types.network.grpc.GRpcRelayerClient;
 import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequest;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.RelayerResponse;
 import com.alipay.antchain.bridge.relayer.core.types.network.ws.client.generated.WSRelayerServerAPImpl;
@@ -74,17 +76,24 @@ public class WSRelayerClient extends BaseRelayerClient {
 
         boolean isRunningOnTLS = false;
         WSRelayerServerAPImplServiceWithHost serverService = null;
-        for (int idx = 0; idx < getRemoteNodeInfo().getEndpoints().size(); ++idx) {
+        int size = getRemoteNodeInfo().getEndpoints().size();
+        for (int i = 0; i < size; ++i) {
+            int idx = endpointIndexAt(i, size);
+            String url = getRemoteNodeInfo().getEndpoints().get(idx);
+            if (GRpcRelayerClient.isGRpcEndpoint(url)) {
+                // gRPC endpoint由GRpcRelayerClient使用
+                continue;
+            }
             try {
-                String url = getRemoteNodeInfo().getEndpoints().get(idx);
                 if (!url.startsWith("http")) {
-                    url += "https://";
+                    url = "https://" + url;
                 }
                 serverService = new WSRelayerServerAPImplServiceWithHost(url);
                 isRunningOnTLS = url.startsWith("https");
+                setCurrentEndpointIndex(idx);
                 break;
             } catch (Exception e) {
-                if (idx == getRemoteNodeInfo().getEndpoints().size() - 1) {
+                if (i == size - 1) {
                     throw new RuntimeException("failed to start WSRelayerServerAPImplService. ", e);
                 }
             }
@@ -123,4 +132,12 @@ public class WSRelayerClient extends BaseRelayerClient {
                 )
         );
     }
+
+    /**
+     * webservice调用本身是阻塞的，放到客户端线程池中执行
+     */
+    @Override
+    public CompletableFuture<RelayerResponse> sendRequestAsync(RelayerRequest relayerRequest) {
+        return CompletableFuture.supplyAsync(() -> sendRequest(relayerRequest), workers);
+    }
 }
@@ -1,6 +1,11 @@
 package com.alipay.antchain.bridge.relayer.core.types.pluginserver;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import com.alibaba.fastjson.JSON;
@@ -9,6 +14,7 @@ import com.alipay.antchain.bridge.commons.bbc.DefaultBBCContext;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainMessage;
 import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
 import com.alipay.antchain.bridge.pluginserver.service.*;
+import com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception.PluginServerUnsupportedRequestException;
 import com.alipay.antchain.bridge.relayer.core.utils.PluginServerUtils;
 import com.google.protobuf.ByteString;
 
@@ -20,15 +26,15 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     private final String domain;
 
-    private CrossChainServiceGrpc.CrossChainServiceBlockingStub blockingStub;
+    private final PluginServerChannelPool channelPool;
 
     private AbstractBBCContext bbcContext;
 
-    public GRpcBBCServiceClient(String psId, String product, String domain, CrossChainServiceGrpc.CrossChainServiceBlockingStub blockingStub) {
+    public GRpcBBCServiceClient(String psId, String product, String domain, PluginServerChannelPool channelPool) {
         this.psId = psId;
         this.product = product;
         this.domain = domain;
-        this.blockingStub = blockingStub;
+        this.channelPool = channelPool;
     }
 
     @Override
@@ -43,7 +49,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void startup(AbstractBBCContext abstractBBCContext) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -62,7 +68,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void shutdown() {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -77,7 +83,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public AbstractBBCContext getContext() {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcReadCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -97,28 +103,63 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public CrossChainMessageReceipt readCrossChainMessageReceipt(String txhash) {
-        Response response = this.blockingStub.bbcCall(
+        return waitResult(readCrossChainMessageReceiptAsync(txhash));
+    }
+
+    @Override
+    public CompletableFuture<CrossChainMessageReceipt> readCrossChainMessageReceiptAsync(String txhash) {
+        return this.channelPool.bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
                         .setReadCrossChainMessageReceiptReq(
                                 ReadCrossChainMessageReceiptRequest.newBuilder().setTxhash(txhash)
-                        ).build()
+                        ).build(),
+                true
+        ).thenApply(
+                response -> {
+                    if (response.getCode() != 0) {
+                        throw new RuntimeException(
+                                String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] isCrossChainMessageConfirmed request failed for plugin server %s: %s",
+                                        this.domain, this.product, this.psId, response.getErrorMsg())
+                        );
+                    }
+                    return PluginServerUtils.convertFromGRpcCrossChainMessageReceipt(
+                            response.getBbcResp().getReadCrossChainMessageReceiptResp().getReceipt()
+                    );
+                }
         );
-        if (response.getCode() != 0) {
-            throw new RuntimeException(
-                    String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] isCrossChainMessageConfirmed request failed for plugin server %s: %s",
-                            this.domain, this.product, this.psId, response.getErrorMsg())
+    }
+
+    @Override
+    public Map<String, CrossChainMessageReceipt> readCrossChainMessageReceipts(List<String> txhashes) {
+        Response response = bbcReadCallWithRestart(
+                CallBBCRequest.newBuilder()
+                        .setProduct(this.getProduct())
+                        .setDomain(this.getDomain())
+                        .setReadCrossChainMessageReceiptsReq(
+                                ReadCrossChainMessageReceiptsRequest.newBuilder().addAllTxhashes(txhashes)
+                        ).build(),
+                "readCrossChainMessageReceipts"
+        );
+        if (!response.getBbcResp().hasReadCrossChainMessageReceiptsResp()) {
+            // plugin server of old version would ignore the unknown request
+            throw new PluginServerUnsupportedRequestException(
+                    String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] readCrossChainMessageReceipts not supported by plugin server %s",
+                            this.domain, this.product, this.psId)
             );
         }
-        return PluginServerUtils.convertFromGRpcCrossChainMessageReceipt(
-                response.getBbcResp().getReadCrossChainMessageReceiptResp().getReceipt()
+
+        Map<String, CrossChainMessageReceipt> result = new HashMap<>();
+        response.getBbcResp().getReadCrossChainMessageReceiptsResp().getReceiptsMap().forEach(
+                (txhash, receipt) -> result.put(txhash, PluginServerUtils.convertFromGRpcCrossChainMessageReceipt(receipt))
         );
+        return result;
     }
 
     @Override
     public List<CrossChainMessage> readCrossChainMessagesByHeight(long height) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcReadCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -142,9 +183,42 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Long, List<CrossChainMessage>> readCrossChainMessagesByHeightRange(long startHeight, long endHeight) {
+        Response response = bbcReadCallWithRestart(
+                CallBBCRequest.newBuilder()
+                        .setProduct(this.getProduct())
+                        .setDomain(this.getDomain())
+                        .setReadCrossChainMessagesByHeightRangeReq(
+                                ReadCrossChainMessagesByHeightRangeRequest.newBuilder()
+                                        .setStartHeight(startHeight)
+                                        .setEndHeight(endHeight)
+                        ).build(),
+                "readCrossChainMessagesByHeightRange"
+        );
+        if (!response.getBbcResp().hasReadCrossChainMessagesByHeightRangeResp()) {
+            // plugin server of old version would ignore the unknown request
+            throw new PluginServerUnsupportedRequestException(
+                    String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] readCrossChainMessagesByHeightRange not supported by plugin server %s",
+                            this.domain, this.product, this.psId)
+            );
+        }
+
+        Map<Long, List<CrossChainMessage>> result = new LinkedHashMap<>();
+        for (CrossChainMessagesOfHeight block : response.getBbcResp().getReadCrossChainMessagesByHeightRangeResp().getBlocksList()) {
+            result.put(
+                    block.getHeight(),
+                    block.getMessageListList().stream()
+                            .map(PluginServerUtils::convertFromGRpcCrossChainMessage)
+                            .collect(Collectors.toList())
+            );
+        }
+        return result;
+    }
+
     @Override
     public long querySDPMessageSeq(String senderDomain, String fromAddress, String receiverDomain, String toAddress) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcReadCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -167,7 +241,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void setupAuthMessageContract() {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -184,7 +258,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void setupSDPMessageContract() {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -201,7 +275,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void setProtocol(String protocolAddress, String protocolType) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -221,7 +295,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public CrossChainMessageReceipt relayAuthMessage(byte[] rawMessage) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -242,7 +316,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void setAmContract(String contractAddress) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -259,7 +333,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public void setLocalDomain(String domain) {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -276,7 +350,7 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
 
     @Override
     public Long queryLatestHeight() {
-        Response response = this.blockingStub.bbcCall(
+        Response response = bbcReadCall(
                 CallBBCRequest.newBuilder()
                         .setProduct(this.getProduct())
                         .setDomain(this.getDomain())
@@ -297,9 +371,68 @@ public class GRpcBBCServiceClient implements IBBCServiceClient {
         return response.getBbcResp().getQueryLatestHeightResponse().getHeight();
     }
 
+    /**
+     * 非幂等请求，不会对冲
+     */
+    private Response bbcCall(CallBBCRequest request) {
+        return waitResult(this.channelPool.bbcCall(request, false));
+    }
+
+    /**
+     * 幂等的读请求，响应慢的时候会在另一个连接上对冲
+     */
+    private Response bbcReadCall(CallBBCRequest request) {
+        return waitResult(this.channelPool.bbcCall(request, true));
+    }
+
+    /**
+     * 幂等的读请求，插件服务返回217并重启BBC上下文之后，重新发送一次请求，
+     * 返回的响应code一定为0
+     */
+    private Response bbcReadCallWithRestart(CallBBCRequest request, String method) {
+        Response response = bbcReadCall(request);
+        if (response.getCode() == 0) {
+            return response;
+        }
+        try {
+            handleErrorCode(response);
+        } catch (Exception e) {
+            throw new RuntimeException(
+                    String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] %s request failed :",
+                            this.domain, this.product, method), e
+            );
+        }
+
+        response = bbcReadCall(request);
+        if (response.getCode() != 0) {
+            throw new RuntimeException(
+                    String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] %s request failed after restart for plugin server %s: (code: %d, msg: %s)",
+                            this.domain, this.product, method, this.psId, response.getCode(), response.getErrorMsg())
+            );
+        }
+        return response;
+    }
+
+    private <T> T waitResult(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(
+                    String.format("[GRpcBBCServiceClient (domain: %s, product: %s)] interrupted when waiting for plugin server %s",
+                            this.domain, this.product, this.psId), e
+            );
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
     private void handleErrorCode(Response response) {
         if (response.getCode() == 217) {
-            response = this.blockingStub.bbcCall(
+            response = bbcCall(
                     CallBBCRequest.newBuilder()
                             .setProduct(this.getProduct())
                             .setDomain(this.getDomain())
@@ -2,6 +2,7 @@ package com.alipay.antchain.bridge.relayer.core.types.pluginserver;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import cn.hutool.core.util.ObjectUtil;
@@ -19,20 +20,24 @@ public class GRpcPluginServerClient implements IPluginServerClient {
 
     private final int errorLimitForHeartbeat;
 
+    private final long callTimeout;
+
     public GRpcPluginServerClient(
             String psId,
             CrossChainServiceGrpc.CrossChainServiceBlockingStub serviceStub,
-            int errorLimitForHeartbeat
+            int errorLimitForHeartbeat,
+            long callTimeout
     ) {
         this.psId = psId;
         this.serviceStub = serviceStub;
         this.errorLimitForHeartbeat = errorLimitForHeartbeat;
+        this.callTimeout = callTimeout;
     }
 
     @Override
     @Synchronized
     public PluginServerInfo heartbeat() {
-        Response response = this.serviceStub.heartbeat(Empty.getDefaultInstance());
+        Response response = getStub().heartbeat(Empty.getDefaultInstance());
         if (
                 (ObjectUtil.isNull(response) || response.getCode() != 0)
                         && this.errorCount.getAndAdd(1) > this.errorLimitForHeartbeat
@@ -53,7 +58,7 @@ public class GRpcPluginServerClient implements IPluginServerClient {
 
     @Override
     public Map<String, Boolean> ifProductSupport(List<String> products) {
-        Response response = this.serviceStub.ifProductSupport(
+        Response response = getStub().ifProductSupport(
                 IfProductSupportRequest.newBuilder()
                         .addAllProducts(products)
                         .build()
@@ -67,7 +72,7 @@ public class GRpcPluginServerClient implements IPluginServerClient {
 
     @Override
     public Map<String, Boolean> ifDomainAlive(List<String> domains) {
-        Response response = this.serviceStub.ifDomainAlive(
+        Response response = getStub().ifDomainAlive(
                 IfDomainAliveRequest.newBuilder()
                         .addAllDomains(domains)
                         .build()
@@ -78,4 +83,8 @@ public class GRpcPluginServerClient implements IPluginServerClient {
         }
         return response.getIfDomainAliveResp().getResultsMap();
     }
+
+    private CrossChainServiceGrpc.CrossChainServiceBlockingStub getStub() {
+        return this.serviceStub.withDeadlineAfter(this.callTimeout, TimeUnit.MILLISECONDS);
+    }
 }
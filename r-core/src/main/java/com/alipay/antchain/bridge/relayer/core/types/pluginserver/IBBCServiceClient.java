@@ -16,6 +16,12 @@
 
 package com.alipay.antchain.bridge.relayer.core.types.pluginserver;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessage;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
 import com.alipay.antchain.bridge.plugins.spi.bbc.IBBCService;
 
 public interface IBBCServiceClient extends IBBCService {
@@ -23,4 +29,34 @@ public interface IBBCServiceClient extends IBBCService {
     String getProduct();
 
     String getDomain();
+
+    /**
+     * Read cross-chain messages of blocks from {@code startHeight} to {@code endHeight} in one request.
+     *
+     * @param startHeight first height, inclusive
+     * @param endHeight   last height, inclusive
+     * @return messages for each height from {@code startHeight} in ascending order,
+     * may contain less heights than requested
+     * @throws com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception.PluginServerUnsupportedRequestException
+     *         if the plugin server is too old to support this request
+     */
+    Map<Long, List<CrossChainMessage>> readCrossChainMessagesByHeightRange(long startHeight, long endHeight);
+
+    /**
+     * Read receipts of multiple transactions in one request.
+     *
+     * @param txhashes hashes of transactions to query
+     * @return receipts keyed by txhash, may contain less transactions than requested
+     * @throws com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception.PluginServerUnsupportedRequestException
+     *         if the plugin server is too old to support this request
+     */
+    Map<String, CrossChainMessageReceipt> readCrossChainMessageReceipts(List<String> txhashes);
+
+    /**
+     * Read receipt of the transaction without blocking the calling thread.
+     *
+     * @param txhash hash of transaction to query
+     * @return future completed with the receipt or the failure of the request
+     */
+    CompletableFuture<CrossChainMessageReceipt> readCrossChainMessageReceiptAsync(String txhash);
 }
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.pluginserver;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.RandomUtil;
+import com.alipay.antchain.bridge.commons.bbc.AbstractBBCContext;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessage;
+import com.alipay.antchain.bridge.commons.core.base.CrossChainMessageReceipt;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 由多个插件服务共同服务一条链的BBC客户端。
+ * <p>
+ * 读请求在健康的插件服务之间按延迟分摊：随机选两个，使用平均延迟更低的那个，连接失败时换一个重试一次；
+ * 写请求固定发往第一个健康的插件服务（优先主插件服务），连接失败的插件服务在冷却时间内不再使用。
+ * 修改合约上下文的请求完成后，把最新的上下文同步给其他插件服务，
+ * 同步失败的插件服务在冷却时间过后再次尝试同步，同步成功后重新参与路由。
+ * </p>
+ */
+@Slf4j
+public class MultiPluginServerBBCServiceClient implements IBBCServiceClient {
+
+    private static final double LATENCY_EWMA_ALPHA = 0.3;
+
+    private final String product;
+
+    private final String domain;
+
+    private final List<Member> members;
+
+    private final long unhealthyCooldown;
+
+    /**
+     * 最近一次启动或者写请求之后的合约上下文，用于给同步失败的插件服务补同步
+     */
+    private volatile AbstractBBCContext latestContext;
+
+    /**
+     * @param product           链的产品类型
+     * @param domain            链的domain
+     * @param clients           插件服务id到客户端的映射，第一个为主插件服务
+     * @param unhealthyCooldown 插件服务连接失败后不再使用的时间，单位毫秒
+     */
+    public MultiPluginServerBBCServiceClient(
+            String product,
+            String domain,
+            LinkedHashMap<String, IBBCServiceClient> clients,
+            long unhealthyCooldown
+    ) {
+        this.product = product;
+        this.domain = domain;
+        this.members = clients.entrySet().stream()
+                .map(entry -> new Member(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+        this.unhealthyCooldown = unhealthyCooldown;
+    }
+
+    @Override
+    public String getProduct() {
+        return this.product;
+    }
+
+    @Override
+    public String getDomain() {
+        return this.domain;
+    }
+
+    @Override
+    public void startup(AbstractBBCContext abstractBBCContext) {
+        latestContext = abstractBBCContext;
+        RuntimeException lastException = null;
+        for (Member member : members) {
+            try {
+                member.client.startup(abstractBBCContext);
+                member.contextSynced = true;
+            } catch (RuntimeException e) {
+                log.error("failed to startup bbc client (product: {}, domain: {}) on plugin server {}", product, domain, member.psId, e);
+                member.onSyncFailure(e);
+                lastException = e;
+            }
+        }
+        if (members.stream().noneMatch(member -> member.contextSynced)) {
+            throw ObjectUtil.defaultIfNull(
+                    lastException,
+                    new RuntimeException(String.format("none plugin server to startup for (product: %s, domain: %s)", product, domain))
+            );
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        RuntimeException lastException = null;
+        for (Member member : members) {
+            try {
+                member.client.shutdown();
+            } catch (RuntimeException e) {
+                log.error("failed to shutdown bbc client (product: {}, domain: {}) on plugin server {}", product, domain, member.psId, e);
+                lastException = e;
+            }
+        }
+        if (ObjectUtil.isNotNull(lastException)) {
+            throw lastException;
+        }
+    }
+
+    @Override
+    public AbstractBBCContext getContext() {
+        return write(IBBCServiceClient::getContext);
+    }
+
+    @Override
+    public CrossChainMessageReceipt readCrossChainMessageReceipt(String txhash) {
+        return read(client -> client.readCrossChainMessageReceipt(txhash));
+    }
+
+    @Override
+    public Map<String, CrossChainMessageReceipt> readCrossChainMessageReceipts(List<String> txhashes) {
+        return read(client -> client.readCrossChainMessageReceipts(txhashes));
+    }
+
+    @Override
+    public CompletableFuture<CrossChainMessageReceipt> readCrossChainMessageReceiptAsync(String txhash) {
+        Member member = pickReader(null);
+        long startTime = System.currentTimeMillis();
+        return member.client.readCrossChainMessageReceiptAsync(txhash).whenComplete(
+                (receipt, throwable) -> {
+                    if (ObjectUtil.isNull(throwable)) {
+                        member.onSuccess(System.currentTimeMillis() - startTime);
+                    } else {
+                        member.onFailure(throwable);
+                    }
+                }
+        );
+    }
+
+    @Override
+    public List<CrossChainMessage> readCrossChainMessagesByHeight(long height) {
+        return read(client -> client.readCrossChainMessagesByHeight(height));
+    }
+
+    @Override
+    public Map<Long, List<CrossChainMessage>> readCrossChainMessagesByHeightRange(long startHeight, long endHeight) {
+        return read(client -> client.readCrossChainMessagesByHeightRange(startHeight, endHeight));
+    }
+
+    @Override
+    public long querySDPMessageSeq(String senderDomain, String fromAddress, String receiverDomain, String toAddress) {
+        return read(client -> client.querySDPMessageSeq(senderDomain, fromAddress, receiverDomain, toAddress));
+    }
+
+    @Override
+    public Long queryLatestHeight() {
+        return read(IBBCServiceClient::queryLatestHeight);
+    }
+
+    @Override
+    public void setupAuthMessageContract() {
+        writeAndSyncContext(IBBCServiceClient::setupAuthMessageContract);
+    }
+
+    @Override
+    public void setupSDPMessageContract() {
+        writeAndSyncContext(IBBCServiceClient::setupSDPMessageContract);
+    }
+
+    @Override
+    public void setProtocol(String protocolAddress, String protocolType) {
+        writeAndSyncContext(client -> client.setProtocol(protocolAddress, protocolType));
+    }
+
+    @Override
+    public CrossChainMessageReceipt relayAuthMessage(byte[] rawMessage) {
+        return write(client -> client.relayAuthMessage(rawMessage));
+    }
+
+    @Override
+    public void setAmContract(String contractAddress) {
+        writeAndSyncContext(client -> client.setAmContract(contractAddress));
+    }
+
+    @Override
+    public void setLocalDomain(String domain) {
+        writeAndSyncContext(client -> client.setLocalDomain(domain));
+    }
+
+    private <T> T read(Function<IBBCServiceClient, T> call) {
+        Member member = pickReader(null);
+        try {
+            return call(member, call);
+        } catch (RuntimeException e) {
+            if (!isConnectionFailure(e)) {
+                throw e;
+            }
+            Member another = pickReader(member);
+            if (ObjectUtil.isNull(another)) {
+                throw e;
+            }
+            log.warn("read request for (product: {}, domain: {}) failed on plugin server {} and retry on plugin server {}",
+                    product, domain, member.psId, another.psId);
+            return call(another, call);
+        }
+    }
+
+    private <T> T write(Function<IBBCServiceClient, T> call) {
+        return call(pickWriter(), call);
+    }
+
+    private void writeAndSyncContext(Consumer<IBBCServiceClient> call) {
+        Member writer = pickWriter();
+        call(
+                writer,
+                client -> {
+                    call.accept(client);
+                    return null;
+                }
+        );
+        if (members.size() == 1) {
+            return;
+        }
+
+        AbstractBBCContext context = writer.client.getContext();
+        latestContext = context;
+        members.stream()
+                .filter(member -> member != writer)
+                .forEach(member -> syncContext(member, context));
+    }
+
+    private void syncContext(Member member, AbstractBBCContext context) {
+        try {
+            member.client.startup(context);
+            member.contextSynced = true;
+        } catch (RuntimeException e) {
+            // 上下文没有同步的插件服务不处理请求，冷却时间过后再次尝试同步
+            log.error("failed to sync bbc context of (product: {}, domain: {}) to plugin server {}",
+                    product, domain, member.psId, e);
+            member.onSyncFailure(e);
+        }
+    }
+
+    /**
+     * 给冷却时间已过、上下文还没有同步的插件服务补同步，同一时间每个插件服务只有一个线程在同步
+     */
+    private void resyncContextIfNeeded() {
+        AbstractBBCContext context = latestContext;
+        if (ObjectUtil.isNull(context)) {
+            return;
+        }
+        for (Member member : members) {
+            if (member.contextSynced || System.currentTimeMillis() < member.unhealthyUntil
+                    || !member.syncing.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                if (!member.contextSynced) {
+                    log.info("retry to sync bbc context of (product: {}, domain: {}) to plugin server {}", product, domain, member.psId);
+                    syncContext(member, context);
+                }
+            } finally {
+                member.syncing.set(false);
+            }
+        }
+    }
+
+    private <T> T call(Member member, Function<IBBCServiceClient, T> call) {
+        long startTime = System.currentTimeMillis();
+        try {
+            T result = call.apply(member.client);
+            member.onSuccess(System.currentTimeMillis() - startTime);
+            return result;
+        } catch (RuntimeException e) {
+            member.onFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 写请求使用第一个可用的插件服务，主插件服务恢复后切回
+     */
+    private Member pickWriter() {
+        resyncContextIfNeeded();
+        return members.stream()
+                .filter(Member::isAvailable)
+                .findFirst()
+                .orElse(members.get(0));
+    }
+
+    /**
+     * 随机选两个可用的插件服务，使用平均延迟更低的那个
+     *
+     * @param excluded 需要排除的插件服务
+     * @return 没有可用的插件服务时，排除为空就返回写请求使用的插件服务，否则返回null
+     */
+    private Member pickReader(Member excluded) {
+        resyncContextIfNeeded();
+        List<Member> candidates = members.stream()
+                .filter(member -> member != excluded && member.isAvailable())
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return ObjectUtil.isNull(excluded) ? pickWriter() : null;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        List<Member> picked = RandomUtil.randomEleList(candidates, 2);
+        return picked.get(0).latencyEwma <= picked.get(1).latencyEwma ? picked.get(0) : picked.get(1);
+    }
+
+    private static boolean isConnectionFailure(Throwable t) {
+        return ExceptionUtil.isCausedBy(t, StatusRuntimeException.class);
+    }
+
+    private class Member {
+
+        private final String psId;
+
+        private final IBBCServiceClient client;
+
+        private volatile double latencyEwma = 0;
+
+        private volatile long unhealthyUntil = 0;
+
+        private volatile boolean contextSynced = true;
+
+        private final AtomicBoolean syncing = new AtomicBoolean(false);
+
+        private Member(String psId, IBBCServiceClient client) {
+            this.psId = psId;
+            this.client = client;
+        }
+
+        private boolean isAvailable() {
+            return contextSynced && System.currentTimeMillis() >= unhealthyUntil;
+        }
+
+        private void onSuccess(long latency) {
+            latencyEwma = latencyEwma == 0 ? latency : LATENCY_EWMA_ALPHA * latency + (1 - LATENCY_EWMA_ALPHA) * latencyEwma;
+        }
+
+        private void onFailure(Throwable t) {
+            // 只有连接失败或者超时才认为插件服务不健康，业务错误不影响路由
+            if (isConnectionFailure(t)) {
+                unhealthyUntil = System.currentTimeMillis() + unhealthyCooldown;
+                log.warn("plugin server {} for (product: {}, domain: {}) is unhealthy until {}", psId, product, domain, unhealthyUntil);
+            }
+        }
+
+        private void onSyncFailure(Throwable t) {
+            contextSynced = false;
+            // 不管失败原因，都等冷却时间过后再重新同步
+            unhealthyUntil = System.currentTimeMillis() + unhealthyCooldown;
+            onFailure(t);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.types.pluginserver;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alipay.antchain.bridge.pluginserver.service.CallBBCRequest;
+import com.alipay.antchain.bridge.pluginserver.service.CrossChainServiceGrpc;
+import com.alipay.antchain.bridge.pluginserver.service.Response;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ManagedChannel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 一个插件服务的gRPC连接池，BBC调用轮询使用池中的连接，并且每次调用都带有超时时间。
+ * <p>
+ * 幂等的读请求支持对冲（hedging）：请求在对冲延迟之后还没有返回，
+ * 或者第一次请求失败时，在另一个连接上再发送一次，使用先返回的成功结果。
+ * 对冲延迟根据最近的调用耗时估计（平滑耗时加四倍耗时偏差），不低于{@code hedgeDelay}；
+ * 按高度区间读消息、批量读回执这类重请求不对冲，避免给插件服务加倍负载。
+ * </p>
+ */
+@Slf4j
+public class PluginServerChannelPool {
+
+    @Getter
+    private final String psId;
+
+    private final List<ManagedChannel> channels;
+
+    private final AtomicInteger nextIndex = new AtomicInteger(0);
+
+    private final ScheduledExecutorService hedgeScheduler;
+
+    private final long callTimeout;
+
+    private final long writeCallTimeout;
+
+    /**
+     * 最小对冲延迟，小于等于0时不对冲
+     */
+    private final long hedgeDelay;
+
+    /**
+     * 平滑后的调用耗时和耗时偏差，小于0表示还没有样本
+     */
+    private double smoothedLatency = -1;
+
+    private double latencyVariance = 0;
+
+    public PluginServerChannelPool(
+            String psId,
+            List<ManagedChannel> channels,
+            ScheduledExecutorService hedgeScheduler,
+            long callTimeout,
+            long writeCallTimeout,
+            long hedgeDelay
+    ) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("no channel for plugin server " + psId);
+        }
+        this.psId = psId;
+        this.channels = channels;
+        this.hedgeScheduler = hedgeScheduler;
+        this.callTimeout = callTimeout;
+        this.writeCallTimeout = writeCallTimeout;
+        this.hedgeDelay = hedgeDelay;
+    }
+
+    /**
+     * 心跳等管理请求使用第一个连接
+     */
+    public CrossChainServiceGrpc.CrossChainServiceBlockingStub getBlockingStub() {
+        return CrossChainServiceGrpc.newBlockingStub(channels.get(0));
+    }
+
+    /**
+     * 发送BBC请求
+     *
+     * @param request    请求
+     * @param idempotent 是否为幂等的读请求，只有幂等请求才会对冲
+     * @return 响应，超时或者连接失败时异常结束
+     */
+    public CompletableFuture<Response> bbcCall(CallBBCRequest request, boolean idempotent) {
+        CompletableFuture<Response> result = new CompletableFuture<>();
+        if (!idempotent || !isHedgeable(request) || hedgeDelay <= 0 || channels.size() < 2) {
+            sendOnce(request, idempotent ? callTimeout : writeCallTimeout, result, new AtomicInteger(1), null);
+            return result;
+        }
+
+        long startTime = System.currentTimeMillis();
+        result.whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                recordLatency(System.currentTimeMillis() - startTime);
+            }
+        });
+
+        AtomicInteger attemptsLeft = new AtomicInteger(2);
+        AtomicBoolean hedged = new AtomicBoolean(false);
+        Runnable hedge = () -> {
+            if (!result.isDone() && hedged.compareAndSet(false, true)) {
+                log.debug("hedge bbc call {} to plugin server {}", request.getRequestCase(), psId);
+                sendOnce(request, callTimeout, result, attemptsLeft, null);
+            }
+        };
+        sendOnce(request, callTimeout, result, attemptsLeft, hedge);
+
+        ScheduledFuture<?> hedgeTimer = hedgeScheduler.schedule(hedge, getCurrentHedgeDelay(), TimeUnit.MILLISECONDS);
+        result.whenComplete((response, throwable) -> hedgeTimer.cancel(false));
+        return result;
+    }
+
+    private static boolean isHedgeable(CallBBCRequest request) {
+        switch (request.getRequestCase()) {
+            case READCROSSCHAINMESSAGESBYHEIGHTRANGEREQ:
+            case READCROSSCHAINMESSAGERECEIPTSREQ:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 参考TCP重传超时的估计方法，用平滑耗时加四倍偏差作为对冲延迟
+     */
+    synchronized long getCurrentHedgeDelay() {
+        if (smoothedLatency < 0) {
+            return Math.max(hedgeDelay, callTimeout / 2);
+        }
+        return Math.max(hedgeDelay, (long) (smoothedLatency + 4 * latencyVariance));
+    }
+
+    private synchronized void recordLatency(long latency) {
+        if (smoothedLatency < 0) {
+            smoothedLatency = latency;
+            latencyVariance = latency / 2.0;
+            return;
+        }
+        latencyVariance = 0.75 * latencyVariance + 0.25 * Math.abs(smoothedLatency - latency);
+        smoothedLatency = 0.875 * smoothedLatency + 0.125 * latency;
+    }
+
+    private void sendOnce(
+            CallBBCRequest request,
+            long timeout,
+            CompletableFuture<Response> result,
+            AtomicInteger attemptsLeft,
+            Runnable onFailure
+    ) {
+        ListenableFuture<Response> future;
+        try {
+            future = nextFutureStub()
+                    .withDeadlineAfter(timeout, TimeUnit.MILLISECONDS)
+                    .bbcCall(request);
+        } catch (Exception e) {
+            completeFailure(e, result, attemptsLeft, onFailure);
+            return;
+        }
+        // 已经拿到结果后取消另一个请求
+        result.whenComplete((response, throwable) -> future.cancel(true));
+
+        Futures.addCallback(
+                future,
+                new FutureCallback<Response>() {
+                    @Override
+                    public void onSuccess(Response response) {
+                        result.complete(response);
+                    }
+
+                    @Override
+                    public void onFailure(Throwable t) {
+                        completeFailure(t, result, attemptsLeft, onFailure);
+                    }
+                },
+                MoreExecutors.directExecutor()
+        );
+    }
+
+    private void completeFailure(Throwable t, CompletableFuture<Response> result, AtomicInteger attemptsLeft, Runnable onFailure) {
+        if (attemptsLeft.decrementAndGet() <= 0) {
+            result.completeExceptionally(t);
+        } else if (onFailure != null) {
+            onFailure.run();
+        }
+    }
+
+    private CrossChainServiceGrpc.CrossChainServiceFutureStub nextFutureStub() {
+        return CrossChainServiceGrpc.newFutureStub(
+                channels.get(Math.floorMod(nextIndex.getAndIncrement(), channels.size()))
+        );
+    }
+
+    public void shutdown() {
+        channels.forEach(
+                channel -> {
+                    try {
+                        channel.shutdown();
+                    } catch (Exception e) {
+                        log.warn("failed to shutdown channel of plugin server {}", psId, e);
+                    }
+                }
+        );
+    }
+}
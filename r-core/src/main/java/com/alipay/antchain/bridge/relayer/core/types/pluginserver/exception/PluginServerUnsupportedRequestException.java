@@ -0,0 +1,10 @@
+package com.alipay.antchain.bridge.relayer.core.types.pluginserver.exception;
+
+/**
+ * 插件服务版本较低，不支持该请求
+ */
+public class PluginServerUnsupportedRequestException extends PluginServerManagerException {
+    public PluginServerUnsupportedRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.core.utils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.ObjectUtil;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 消息池的扫描游标，按id递增分页（id > lastSeenId）捞取消息，扫描到末尾后从头开始，
+ * 避免每次都从索引头部重复读取、锁定同一批卡住的消息。
+ * <p>
+ * 连续处理失败的消息id会进入退避集合，退避期内不再被捞取，退避时间随失败次数指数增长。
+ * 游标只保存在本节点内存中，由负责该链任务的节点持有，任务切换到其他节点后从头开始扫描即可。
+ * </p>
+ */
+@Slf4j
+public class PoolPeekCursor {
+
+    private final boolean enabled;
+
+    private final long backoffBaseInterval;
+
+    private final long backoffMaxInterval;
+
+    private final int backoffMaxSize;
+
+    private final Map<String, CursorState> stateMap = new ConcurrentHashMap<>();
+
+    public PoolPeekCursor(boolean enabled, long backoffBaseInterval, long backoffMaxInterval, int backoffMaxSize) {
+        this.enabled = enabled;
+        this.backoffBaseInterval = backoffBaseInterval;
+        this.backoffMaxInterval = backoffMaxInterval;
+        this.backoffMaxSize = backoffMaxSize;
+    }
+
+    /**
+     * 从游标位置开始捞取消息，如果从游标位置没有捞到消息，就从头再捞一次
+     *
+     * @param key      游标的key，比如链的domain
+     * @param limit    单次捞取的数量
+     * @param peeker   输入起始id（不包含）和需要排除的id，返回按id升序排列的消息
+     * @param idGetter 获取消息id
+     * @return 捞取到的消息
+     */
+    public <T> List<T> peek(String key, int limit, BiFunction<Long, Set<Long>, List<T>> peeker, Function<T, Long> idGetter) {
+        if (!enabled) {
+            return peeker.apply(0L, new HashSet<>());
+        }
+
+        CursorState state = stateMap.computeIfAbsent(key, k -> new CursorState());
+        synchronized (state) {
+            Set<Long> excludedIds = state.getBackoffIds(backoffMaxInterval);
+            long fromId = state.lastSeenId;
+
+            List<T> result = peeker.apply(fromId, excludedIds);
+            if (ObjectUtil.isEmpty(result) && fromId > 0) {
+                // 已经扫描到末尾，从头开始
+                result = peeker.apply(0L, excludedIds);
+            }
+            if (ObjectUtil.isEmpty(result)) {
+                state.lastSeenId = 0;
+                return ListUtil.empty();
+            }
+
+            // 不满一页说明已经到末尾，下次从头开始
+            state.lastSeenId = result.size() < limit ? 0 : result.stream().map(idGetter).max(Long::compare).orElse(0L);
+            return result;
+        }
+    }
+
+    /**
+     * 消息处理失败，进入退避集合
+     */
+    public void onFailure(String key, long id) {
+        if (!enabled) {
+            return;
+        }
+        CursorState state = stateMap.computeIfAbsent(key, k -> new CursorState());
+        synchronized (state) {
+            Backoff backoff = state.backoffMap.get(id);
+            if (ObjectUtil.isNull(backoff)) {
+                if (state.backoffMap.size() >= backoffMaxSize) {
+                    // 退避集合已满的时候不再加入，避免排除条件过长，这些消息仍然按照正常节奏重试
+                    log.debug("backoff set of cursor {} is full, skip message {}", key, id);
+                    return;
+                }
+                backoff = new Backoff(0, 0);
+                state.backoffMap.put(id, backoff);
+            }
+            backoff.failCount++;
+            backoff.nextRetryTime = System.currentTimeMillis()
+                    + Math.min(backoffMaxInterval, backoffBaseInterval << Math.min(backoff.failCount - 1, 20));
+            log.debug("message {} of cursor {} backoff to {} after {} failures", id, key, backoff.nextRetryTime, backoff.failCount);
+        }
+    }
+
+    /**
+     * 消息处理成功，移出退避集合
+     */
+    public void onSuccess(String key, long id) {
+        if (!enabled) {
+            return;
+        }
+        CursorState state = stateMap.get(key);
+        if (ObjectUtil.isNull(state)) {
+            return;
+        }
+        synchronized (state) {
+            state.backoffMap.remove(id);
+        }
+    }
+
+    private static class CursorState {
+
+        private long lastSeenId = 0;
+
+        private final Map<Long, Backoff> backoffMap = new HashMap<>();
+
+        /**
+         * 返回仍在退避期内的id，退避期已过的id保留失败次数，下次失败时继续增加退避时间；
+         * 退避期过后超过staleInterval没有再失败的id被清理掉
+         */
+        private Set<Long> getBackoffIds(long staleInterval) {
+            long now = System.currentTimeMillis();
+            Set<Long> ids = new HashSet<>();
+            Iterator<Map.Entry<Long, Backoff>> iterator = backoffMap.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, Backoff> entry = iterator.next();
+                if (entry.getValue().nextRetryTime > now) {
+                    ids.add(entry.getKey());
+                } else if (now - entry.getValue().nextRetryTime > staleInterval) {
+                    iterator.remove();
+                }
+            }
+            return ids;
+        }
+    }
+
+    @AllArgsConstructor
+    private static class Backoff {
+
+        private int failCount;
+
+        private long nextRetryTime;
+    }
+}
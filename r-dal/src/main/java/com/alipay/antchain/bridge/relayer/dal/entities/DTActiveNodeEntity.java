@@ -41,6 +41,12 @@ public class DTActiveNodeEntity extends BaseEntity {
     @TableField("state")
     private DTActiveNodeStateEnum state;
 
+    @TableField("queued_task_count")
+    private Integer queuedTaskCount;
+
+    @TableField("cpu_load")
+    private Double cpuLoad;
+
     @TableField(value = "last_active_time", update = "now()", updateStrategy = FieldStrategy.ALWAYS)
     private Date lastActiveTime;
 }
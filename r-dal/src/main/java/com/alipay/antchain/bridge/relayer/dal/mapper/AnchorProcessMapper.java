@@ -16,8 +16,16 @@
 
 package com.alipay.antchain.bridge.relayer.dal.mapper;
 
+import java.util.List;
+
 import com.alipay.antchain.bridge.relayer.dal.entities.AnchorProcessEntity;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 
 public interface AnchorProcessMapper extends BaseMapper<AnchorProcessEntity> {
+
+    /**
+     * 一条语句插入或更新一条链的多个高度
+     */
+    int saveHeights(@Param("entities") List<AnchorProcessEntity> entities);
 }
@@ -17,7 +17,9 @@
 package com.alipay.antchain.bridge.relayer.dal.mapper;
 
 import java.util.List;
+import java.util.Map;
 
+import com.alipay.antchain.bridge.relayer.commons.constant.AuthMsgProcessStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.AuthMsgWrapper;
 import com.alipay.antchain.bridge.relayer.dal.entities.AuthMsgPoolEntity;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
@@ -30,4 +32,20 @@ public interface AuthMsgPoolMapper extends BaseMapper<AuthMsgPoolEntity> {
     long lastInsertId();
 
     int archiveAuthMessages(@Param("idList") List<Long> idList);
+
+    int archiveAuthMessagesBySDPRange(
+            @Param("product") String product,
+            @Param("blockchainId") String blockchainId,
+            @Param("startId") long startId,
+            @Param("endId") long endId
+    );
+
+    int deleteArchivedAuthMessagesBySDPRange(
+            @Param("product") String product,
+            @Param("blockchainId") String blockchainId,
+            @Param("startId") long startId,
+            @Param("endId") long endId
+    );
+
+    int updateAuthMessagesState(@Param("stateMap") Map<String, AuthMsgProcessStateEnum> stateMap, @Param("fromState") AuthMsgProcessStateEnum fromState);
 }
@@ -18,6 +18,7 @@ package com.alipay.antchain.bridge.relayer.dal.mapper;
 
 import java.util.List;
 
+import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgCommitResult;
 import com.alipay.antchain.bridge.relayer.commons.model.SDPMsgWrapper;
 import com.alipay.antchain.bridge.relayer.dal.entities.SDPMsgPoolEntity;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
@@ -28,4 +29,30 @@ public interface SDPMsgPoolMapper extends BaseMapper<SDPMsgPoolEntity> {
     void saveSDPMessages(List<SDPMsgWrapper> sdpMsgWrappers);
 
     int archiveSDPMessages(@Param("idList") List<Long> idList);
+
+    int archiveSDPMessagesByRange(
+            @Param("product") String product,
+            @Param("blockchainId") String blockchainId,
+            @Param("startId") long startId,
+            @Param("endId") long endId,
+            @Param("states") List<String> states
+    );
+
+    int deleteArchivedSDPMessagesByRange(
+            @Param("product") String product,
+            @Param("blockchainId") String blockchainId,
+            @Param("startId") long startId,
+            @Param("endId") long endId
+    );
+
+    Long getMinIdOfFinishedSDPMessages(
+            @Param("product") String product,
+            @Param("blockchainId") String blockchainId,
+            @Param("fromId") long fromId,
+            @Param("states") List<String> states
+    );
+
+    int updateSDPMessageResultsById(List<SDPMsgCommitResult> results);
+
+    int updateSDPMessageResultsByTxHash(List<SDPMsgCommitResult> results);
 }
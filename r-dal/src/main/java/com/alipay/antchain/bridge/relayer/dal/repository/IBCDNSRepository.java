@@ -46,6 +46,13 @@ public interface IBCDNSRepository {
 
     void deleteBCDNSServiceDO(String domainSpace);
 
+    /**
+     * 通知所有节点信任根证书发生了变化
+     */
+    void publishTrustRootChanged(String domainSpace);
+
+    void addTrustRootChangedListener(Runnable listener);
+
     List<String> getAllBCDNSDomainSpace();
 
     void saveBCDNSServiceDO(BCDNSServiceDO bcdnsServiceDO);
@@ -17,6 +17,7 @@
 package com.alipay.antchain.bridge.relayer.dal.repository;
 
 import java.util.List;
+import java.util.Map;
 
 import com.alipay.antchain.bridge.relayer.commons.constant.BlockchainStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.model.AnchorProcessHeights;
@@ -31,6 +32,15 @@ public interface IBlockchainRepository {
 
     void setAnchorProcessHeight(String product, String blockchainId, String heightType, Long height);
 
+    /**
+     * Save all heights of one blockchain into DB with one statement and refresh the cache.
+     *
+     * @param product      product of blockchain
+     * @param blockchainId id of blockchain
+     * @param heights      map from height type to height
+     */
+    void setAnchorProcessHeights(String product, String blockchainId, Map<String, Long> heights);
+
     void saveBlockchainMeta(BlockchainMeta blockchainMeta);
 
     boolean updateBlockchainMeta(BlockchainMeta blockchainMeta);
@@ -16,7 +16,9 @@
 
 package com.alipay.antchain.bridge.relayer.dal.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 
 import com.alipay.antchain.bridge.relayer.commons.constant.AuthMsgProcessStateEnum;
@@ -47,16 +49,45 @@ public interface ICrossChainMessageRepository {
 
     boolean updateAuthMessageState(String ucpId, AuthMsgProcessStateEnum state);
 
+    /**
+     * 一条语句更新多条AM消息的状态，只更新当前仍处于fromState的消息
+     *
+     * @param ucpIdToState ucpId到新状态的映射
+     * @param fromState    消息当前应处的状态
+     * @return 更新的行数
+     */
+    int batchUpdateAuthMessagesState(Map<String, AuthMsgProcessStateEnum> ucpIdToState, AuthMsgProcessStateEnum fromState);
+
     AuthMsgProcessStateEnum getAuthMessageState(String ucpId);
 
     boolean updateSDPMessage(SDPMsgWrapper sdpMsgWrapper);
 
+    boolean updateSDPMessagesState(List<Long> ids, SDPMsgProcessStateEnum processState);
+
+    boolean updateSDPMessagesTxResult(List<Long> ids, SDPMsgProcessStateEnum processState, String txHash, boolean txSuccess, String txFailReason);
+
     List<Integer> updateSDPMessageResults(List<SDPMsgCommitResult> results);
 
+    /**
+     * 以多行update的方式批量保存SDP消息的交易结果，有sdpMsgId的按id更新，否则按txhash更新
+     *
+     * @param results 交易结果
+     * @return 更新的行数
+     */
+    int batchUpdateSDPMessageResults(List<SDPMsgCommitResult> results);
+
     AuthMsgWrapper getAuthMessage(long authMsgId);
 
     String getUcpId(long authMsgId);
 
+    /**
+     * 一次查询获取多条AM消息的ucp id
+     *
+     * @param authMsgIds AM消息id
+     * @return authMsgId到ucpId的映射，不存在的id不在结果中
+     */
+    Map<Long, String> getUcpIds(List<Long> authMsgIds);
+
     AuthMsgWrapper getAuthMessage(long authMsgId, boolean lock);
 
     SDPMsgWrapper getSDPMessage(long id, boolean lock);
@@ -65,16 +96,45 @@ public interface ICrossChainMessageRepository {
 
     List<UniformCrosschainPacketContext> peekUCPMessages(String domain, UniformCrosschainPacketStateEnum processState, int limit);
 
+    /**
+     * 从指定id之后按id升序捞取UCP消息
+     *
+     * @param fromId      只返回id大于该值的消息
+     * @param excludedIds 需要排除的消息id，比如处于退避期的消息
+     */
+    List<UniformCrosschainPacketContext> peekUCPMessages(String domain, UniformCrosschainPacketStateEnum processState, int limit, long fromId, Collection<Long> excludedIds);
+
     List<AuthMsgWrapper> peekAuthMessages(String domain, int limit, int failLimit);
 
+    /**
+     * 从指定id之后按id升序捞取待处理的AM消息
+     *
+     * @param fromId      只返回id大于该值的消息
+     * @param excludedIds 需要排除的消息id，比如处于退避期的消息
+     */
+    List<AuthMsgWrapper> peekAuthMessages(String domain, int limit, int failLimit, long fromId, Collection<Long> excludedIds);
+
     List<AuthMsgWrapper> peekNotReadyAuthMessages(String domain, int limit);
 
+    List<AuthMsgWrapper> peekNotReadyAuthMessages(String domain, int limit, long fromId, Collection<Long> excludedIds);
+
     boolean hasNotReadyAuthMessages(String domain);
 
     SDPMsgWrapper querySDPMessage(String ucpId);
 
+    /**
+     * 按ucp id批量查询SDP消息的状态和交易结果，包括已归档的消息
+     *
+     * @param ucpIds        ucp id
+     * @param changedSince  大于0时只返回在该时间（毫秒）之后有更新的消息
+     * @return ucpId到SDP消息的映射，不存在或者没有更新的消息不在结果中
+     */
+    Map<String, SDPMsgWrapper> querySDPMessages(List<String> ucpIds, long changedSince);
+
     List<SDPMsgWrapper> peekSDPMessages(String receiverBlockchainProduct, String receiverBlockchainId, SDPMsgProcessStateEnum processState, int limit);
 
+    List<SDPMsgWrapper> peekSDPMessages(String receiverBlockchainProduct, String receiverBlockchainId, SDPMsgProcessStateEnum processState, int limit, long fromId);
+
     List<SDPMsgWrapper> peekSDPMessagesSent(String senderBlockchainProduct, String senderBlockchainId, SDPMsgProcessStateEnum processState, int limit);
 
     List<SDPMsgWrapper> peekTxFinishedSDPMessageIds(String receiverBlockchainProduct, String receiverBlockchainId, int limit);
@@ -89,5 +149,19 @@ public interface ICrossChainMessageRepository {
 
     int deleteSDPMessages(List<Long> ids);
 
+    /**
+     * 获取发往指定链的、交易已结束的SDP消息中不小于fromId的最小id
+     *
+     * @return 没有待归档消息时返回null
+     */
+    Long getMinIdOfTxFinishedSDPMessages(String receiverBlockchainProduct, String receiverBlockchainId, long fromId);
+
+    /**
+     * 把发往指定链、id在[startId, endId]内且交易已结束的SDP消息以及对应的AM消息搬到归档表
+     *
+     * @return 归档的SDP消息数量
+     */
+    int archiveMessagesByIdRange(String receiverBlockchainProduct, String receiverBlockchainId, long startId, long endId);
+
     Lock getSessionLock(String session);
 }
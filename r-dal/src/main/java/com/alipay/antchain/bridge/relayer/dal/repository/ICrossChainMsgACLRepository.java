@@ -33,4 +33,13 @@ public interface ICrossChainMsgACLRepository {
     boolean checkItem(CrossChainMsgACLItem item);
 
     List<CrossChainMsgACLItem> getMatchedItems(CrossChainMsgACLItem item);
+
+    List<CrossChainMsgACLItem> getAllValidItems();
+
+    /**
+     * 通知所有节点ACL规则发生了变化
+     */
+    void publishItemsChanged();
+
+    void addItemsChangedListener(Runnable listener);
 }
@@ -17,6 +17,7 @@
 package com.alipay.antchain.bridge.relayer.dal.repository;
 
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 
 import com.alipay.antchain.bridge.relayer.commons.constant.PluginServerStateEnum;
@@ -35,6 +36,13 @@ public interface IPluginServerRepository {
 
     void updatePluginServerState(String psId, PluginServerStateEnum stateEnum);
 
+    /**
+     * 批量更新插件服务状态，相同状态的插件服务合并为一次写入
+     *
+     * @param states psId到新状态的映射
+     */
+    void batchUpdatePluginServerStates(Map<String, PluginServerStateEnum> states);
+
     PluginServerStateEnum getPluginServerStateEnum(String psId);
 
     List<String> getProductsSupportedOfPluginServer(String psId);
@@ -43,5 +51,7 @@ public interface IPluginServerRepository {
 
     PluginServerInfo getPluginServerInfo(String psId);
 
+    List<PluginServerDO> getAllPluginServers(PluginServerStateEnum... states);
+
     Lock getHeartbeatLock(String psId);
 }
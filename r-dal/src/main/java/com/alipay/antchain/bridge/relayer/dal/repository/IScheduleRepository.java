@@ -16,8 +16,11 @@
 
 package com.alipay.antchain.bridge.relayer.dal.repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 
 import com.alipay.antchain.bridge.relayer.commons.constant.MarkDTTaskStateEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.MarkDTTaskTypeEnum;
@@ -32,7 +35,15 @@ public interface IScheduleRepository {
 
     Lock getMarkLock();
 
-    void activate(String nodeId, String nodeIp);
+    /**
+     * Heartbeat of the relayer node together with its observed load.
+     *
+     * @param nodeId          id of the node
+     * @param nodeIp          ip of the node
+     * @param queuedTaskCount count of duty tasks queued or running on the node
+     * @param cpuLoad         cpu load normalized by count of processors
+     */
+    void activate(String nodeId, String nodeIp, int queuedTaskCount, double cpuLoad);
 
     List<BlockchainDistributedTask> getAllBlockchainDistributedTasks();
 
@@ -54,6 +65,20 @@ public interface IScheduleRepository {
 
     void batchUpdateBizDTTasks(List<BizDistributedTask> tasks);
 
+    /**
+     * Notify all relayer nodes that the tasks of nodes in {@code nodeIds} are reassigned.
+     *
+     * @param nodeIds nodes which have new time slices
+     */
+    void publishDTTaskAssignment(Collection<String> nodeIds);
+
+    /**
+     * Listen to the task assignments published by the dispatcher.
+     *
+     * @param listener consumer of the node ids which have new time slices
+     */
+    void addDTTaskAssignmentListener(Consumer<Set<String>> listener);
+
     void insertMarkDTTask(MarkDTTask markDTTask);
 
     void markForDomainRouterQuery(String senderDomain, String receiverDomain);
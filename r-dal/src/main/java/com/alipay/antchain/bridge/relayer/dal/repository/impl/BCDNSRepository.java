@@ -46,12 +46,20 @@ import com.alipay.antchain.bridge.relayer.dal.mapper.DomainSpaceCertMapper;
 import com.alipay.antchain.bridge.relayer.dal.repository.IBCDNSRepository;
 import com.alipay.antchain.bridge.relayer.dal.utils.ConvertUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
 @Component
+@Slf4j
 public class BCDNSRepository implements IBCDNSRepository {
 
+    private static final String BCDNS_TRUST_ROOT_CHANGED_TOPIC = "RELAYER_BCDNS_TRUST_ROOT_CHANGED";
+
+    @Resource
+    private RedissonClient redisson;
+
     @Resource
     private DomainSpaceCertMapper domainSpaceCertMapper;
 
@@ -237,6 +245,32 @@ public class BCDNSRepository implements IBCDNSRepository {
         }
     }
 
+    @Override
+    public void publishTrustRootChanged(String domainSpace) {
+        try {
+            redisson.getTopic(BCDNS_TRUST_ROOT_CHANGED_TOPIC).publish(domainSpace);
+        } catch (Exception e) {
+            // entries in verified cert cache would expire anyway
+            log.warn("failed to publish trust root changed for space [{}]", domainSpace, e);
+        }
+    }
+
+    @Override
+    public void addTrustRootChangedListener(Runnable listener) {
+        try {
+            redisson.getTopic(BCDNS_TRUST_ROOT_CHANGED_TOPIC).addListener(
+                    String.class,
+                    (channel, msg) -> listener.run()
+            );
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_BCDNS_ERROR,
+                    e,
+                    "failed to listen trust root changed"
+            );
+        }
+    }
+
     @Override
     public List<String> getAllBCDNSDomainSpace() {
         try {
@@ -34,6 +34,11 @@ import org.springframework.stereotype.Component;
  *     由于并发任务有乱序问题，且避免加悲观锁，使用无锁方案，设定一个乐观的脏读区间，可以设置为3S
  *
  *     即，AM Process停止轮询pool表时，条件为 lastEmptyAMPoolTime - lastAMReceiveTime > 3S
+ *
+ *     开启本地缓存（relayer.blockchain.idle.near_cache.enable）后，各时间戳先记录在本地内存：
+ *     写入时只有时间戳相对上次发布到redis的值前进超过publish_threshold才写redis，
+ *     读取时只有本地没有记录或者超过ttl没有从redis刷新过才读redis，并与本地值取最大值。
+ *     publish_threshold应远小于time_limit，这样其他节点读到的时间戳误差不会影响空闲判断。
  * </pre>
  */
 @Component
@@ -76,6 +81,23 @@ public class BlockchainIdleDCache {
     @Value("${relayer.blockchain.idle.time_limit:10000}")
     private long idleTime;
 
+    @Value("${relayer.blockchain.idle.near_cache.enable:false}")
+    private boolean nearCacheEnable;
+
+    /**
+     * 本地时间戳多久没有从redis刷新后需要重新读取
+     */
+    @Value("${relayer.blockchain.idle.near_cache.ttl:1000}")
+    private long nearCacheTTL;
+
+    /**
+     * 本地时间戳相对上次发布的值前进超过该值时才写入redis
+     */
+    @Value("${relayer.blockchain.idle.near_cache.publish_threshold:1000}")
+    private long nearCachePublishThreshold;
+
+    private final Map<String, LocalIdleState> localIdleStates = MapUtil.newConcurrentHashMap();
+
     @Resource
     private RedissonClient redisson;
 
@@ -207,8 +229,44 @@ public class BlockchainIdleDCache {
     }
 
     private long getIdleState(String product, String blockchainId, String type) {
+        String key = genKey(product, blockchainId, type);
+        if (!nearCacheEnable) {
+            return getIdleStateFromRedis(key);
+        }
+
+        LocalIdleState state = localIdleStates.computeIfAbsent(key, k -> new LocalIdleState());
+        synchronized (state) {
+            long now = System.currentTimeMillis();
+            if (now - state.lastLoadTime > nearCacheTTL) {
+                long remoteTime = getIdleStateFromRedis(key);
+                state.time = Math.max(state.time, remoteTime);
+                state.publishedTime = Math.max(state.publishedTime, remoteTime);
+                state.lastLoadTime = now;
+            }
+            return state.time;
+        }
+    }
 
-        RBucket<String> bucket = redisson.getBucket(genKey(product, blockchainId, type), StringCodec.INSTANCE);
+    private void setIdleState(String product, String blockchainId, String type, long time) {
+        String key = genKey(product, blockchainId, type);
+        if (!nearCacheEnable) {
+            setIdleStateToRedis(key, time);
+            return;
+        }
+
+        LocalIdleState state = localIdleStates.computeIfAbsent(key, k -> new LocalIdleState());
+        synchronized (state) {
+            state.time = Math.max(state.time, time);
+            if (state.time - state.publishedTime <= nearCachePublishThreshold) {
+                return;
+            }
+            setIdleStateToRedis(key, state.time);
+            state.publishedTime = state.time;
+        }
+    }
+
+    private long getIdleStateFromRedis(String key) {
+        RBucket<String> bucket = redisson.getBucket(key, StringCodec.INSTANCE);
         String rawTime = bucket.get();
         if (StrUtil.isEmpty(rawTime)) {
             return 0;
@@ -216,9 +274,9 @@ public class BlockchainIdleDCache {
         return Long.parseLong(rawTime);
     }
 
-    private void setIdleState(String product, String blockchainId, String type, long time) {
-        log.debug("set idle state : {}-{}-{}-{} ", product, blockchainId, type, time);
-        redisson.getBucket(genKey(product, blockchainId, type), StringCodec.INSTANCE)
+    private void setIdleStateToRedis(String key, long time) {
+        log.debug("set idle state : {}-{} ", key, time);
+        redisson.getBucket(key, StringCodec.INSTANCE)
                 .set(Long.valueOf(time).toString());
     }
 
@@ -226,4 +284,15 @@ public class BlockchainIdleDCache {
         return product + "^" + blockchainId + "^" + type;
     }
 
+    /**
+     * 本地记录的时间戳，以及上次发布到redis的值和上次从redis读取的时间
+     */
+    private static class LocalIdleState {
+
+        private long time = 0;
+
+        private long publishedTime = 0;
+
+        private long lastLoadTime = 0;
+    }
 }
@@ -185,6 +185,36 @@ public class BlockchainRepository implements IBlockchainRepository {
         }
     }
 
+    @Override
+    public void setAnchorProcessHeights(String product, String blockchainId, Map<String, Long> heights) {
+        if (ObjectUtil.isEmpty(heights)) {
+            return;
+        }
+        try {
+            // 传入的可能只是部分任务的高度，要合并进缓存里已有的高度，不能直接覆盖
+            AnchorProcessHeights cachedHeights = getAnchorProcessHeightsFromCache(product, blockchainId);
+            AnchorProcessHeights anchorProcessHeights = ObjectUtil.isNull(cachedHeights) ?
+                    new AnchorProcessHeights(product, blockchainId) : cachedHeights;
+            anchorProcessHeights.getProcessHeights().putAll(heights);
+            anchorProcessHeights.setLastUpdateTime(System.currentTimeMillis());
+
+            flushAnchorProcessHeights(anchorProcessHeights);
+            if (ObjectUtil.isNull(cachedHeights)) {
+                // 缓存中没有时不写入部分高度，下次读取时从DB加载完整的高度
+                deleteAnchorProcessHeightsFromCache(product, blockchainId);
+            } else {
+                setAnchorProcessHeightsToCache(anchorProcessHeights);
+            }
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_ANCHOR_HEIGHTS_ERROR,
+                    e,
+                    "failed to save heights {} for ( product: {}, blockchain id: {} )",
+                    heights, product, blockchainId
+            );
+        }
+    }
+
     @Override
     public void saveBlockchainMeta(BlockchainMeta blockchainMeta) {
         try {
@@ -532,9 +562,10 @@ public class BlockchainRepository implements IBlockchainRepository {
     }
 
     private void flushAnchorProcessHeights(AnchorProcessHeights heights) {
-        for (Map.Entry<String, Long> entry : heights.getProcessHeights().entrySet()) {
-            flushHeight(heights.getProduct(), heights.getBlockchainId(), entry.getKey(), entry.getValue());
+        if (heights.getProcessHeights().isEmpty()) {
+            return;
         }
+        anchorProcessMapper.saveHeights(ConvertUtil.convertFromAnchorProcessHeights(heights));
     }
 
     private void flushHeight(String product, String blockchainId, String heightType, Long height) {
@@ -622,6 +653,10 @@ public class BlockchainRepository implements IBlockchainRepository {
                 .set(heights.encode(), Duration.of(ttlForHeightsCache, ChronoUnit.MILLIS));
     }
 
+    private void deleteAnchorProcessHeightsFromCache(String product, String blockchainId) {
+        redisson.getBucket(AnchorProcessHeights.getKey(product, blockchainId), ByteArrayCodec.INSTANCE).delete();
+    }
+
     private String getDomainBlockchainMetaCacheKey(String domain) {
         return "%domain%" + domain;
     }
@@ -16,13 +16,14 @@
 
 package com.alipay.antchain.bridge.relayer.dal.repository.impl;
 
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 import javax.annotation.Resource;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
@@ -51,6 +52,13 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
 
     private static final String CCMSG_SESSION_LOCK = "CCMSG_SESSION_LOCK:";
 
+    private static final int BATCH_UPDATE_SIZE = 256;
+
+    private static final List<String> TX_FINISHED_STATES = ListUtil.toList(
+            SDPMsgProcessStateEnum.TX_SUCCESS.getCode(),
+            SDPMsgProcessStateEnum.TX_FAILED.getCode()
+    );
+
     @Resource
     private UCPPoolMapper ucpPoolMapper;
 
@@ -119,6 +127,11 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
     }
 
     public List<AuthMsgWrapper> peekAuthMessages(String domain, int limit, int failLimit) {
+        return peekAuthMessages(domain, limit, failLimit, 0, ListUtil.empty());
+    }
+
+    @Override
+    public List<AuthMsgWrapper> peekAuthMessages(String domain, int limit, int failLimit, long fromId, Collection<Long> excludedIds) {
         try {
             List<AuthMsgPoolEntity> entities = authMsgPoolMapper.selectList(
                     new LambdaQueryWrapper<AuthMsgPoolEntity>()
@@ -134,6 +147,9 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
                                                             .eq(AuthMsgPoolEntity::getProcessState, AuthMsgProcessStateEnum.PROVED)
                                             )
                             ).lt(AuthMsgPoolEntity::getFailCount, failLimit)
+                            .gt(fromId > 0, BaseEntity::getId, fromId)
+                            .notIn(ObjectUtil.isNotEmpty(excludedIds), BaseEntity::getId, excludedIds)
+                            .orderByAsc(BaseEntity::getId)
                             .last("limit " + limit)
             );
             if (ObjectUtil.isEmpty(entities)) {
@@ -155,11 +171,19 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
 
     @Override
     public List<AuthMsgWrapper> peekNotReadyAuthMessages(String domain, int limit) {
+        return peekNotReadyAuthMessages(domain, limit, 0, ListUtil.empty());
+    }
+
+    @Override
+    public List<AuthMsgWrapper> peekNotReadyAuthMessages(String domain, int limit, long fromId, Collection<Long> excludedIds) {
         try {
             List<AuthMsgPoolEntity> entities = authMsgPoolMapper.selectList(
                     new LambdaQueryWrapper<AuthMsgPoolEntity>()
                             .eq(AuthMsgPoolEntity::getDomain, domain)
                             .eq(AuthMsgPoolEntity::getProcessState, AuthMsgProcessStateEnum.NOT_READY)
+                            .gt(fromId > 0, BaseEntity::getId, fromId)
+                            .notIn(ObjectUtil.isNotEmpty(excludedIds), BaseEntity::getId, excludedIds)
+                            .orderByAsc(BaseEntity::getId)
                             .last("limit " + limit)
             );
             if (ObjectUtil.isEmpty(entities)) {
@@ -295,6 +319,23 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
         }
     }
 
+    @Override
+    public int batchUpdateAuthMessagesState(Map<String, AuthMsgProcessStateEnum> ucpIdToState, AuthMsgProcessStateEnum fromState) {
+        if (ObjectUtil.isEmpty(ucpIdToState)) {
+            return 0;
+        }
+        try {
+            return authMsgPoolMapper.updateAuthMessagesState(ucpIdToState, fromState);
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    e,
+                    "failed to update state of {} auth messages",
+                    ucpIdToState.size()
+            );
+        }
+    }
+
     @Override
     public AuthMsgProcessStateEnum getAuthMessageState(String ucpId) {
         try {
@@ -331,6 +372,55 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
         }
     }
 
+    @Override
+    public boolean updateSDPMessagesState(List<Long> ids, SDPMsgProcessStateEnum processState) {
+        if (ObjectUtil.isEmpty(ids)) {
+            return true;
+        }
+        try {
+            SDPMsgPoolEntity entity = new SDPMsgPoolEntity();
+            entity.setProcessState(processState);
+            return sdpMsgPoolMapper.update(
+                    entity,
+                    new LambdaUpdateWrapper<SDPMsgPoolEntity>()
+                            .in(BaseEntity::getId, ids)
+            ) == ids.size();
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    e,
+                    "failed to update state of sdp messages {} to {}",
+                    ids, processState.getCode()
+            );
+        }
+    }
+
+    @Override
+    public boolean updateSDPMessagesTxResult(List<Long> ids, SDPMsgProcessStateEnum processState, String txHash, boolean txSuccess, String txFailReason) {
+        if (ObjectUtil.isEmpty(ids)) {
+            return true;
+        }
+        try {
+            SDPMsgPoolEntity entity = new SDPMsgPoolEntity();
+            entity.setProcessState(processState);
+            entity.setTxHash(txHash);
+            entity.setTxSuccess(txSuccess);
+            entity.setTxFailReason(txFailReason);
+            return sdpMsgPoolMapper.update(
+                    entity,
+                    new LambdaUpdateWrapper<SDPMsgPoolEntity>()
+                            .in(BaseEntity::getId, ids)
+            ) == ids.size();
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    e,
+                    "failed to update tx result (tx_hash: {}) of sdp messages {}",
+                    txHash, ids
+            );
+        }
+    }
+
     @Override
     public List<Integer> updateSDPMessageResults(List<SDPMsgCommitResult> results) {
         try {
@@ -374,6 +464,30 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
         }
     }
 
+    @Override
+    public int batchUpdateSDPMessageResults(List<SDPMsgCommitResult> results) {
+        if (ObjectUtil.isEmpty(results)) {
+            return 0;
+        }
+        try {
+            Map<Boolean, List<SDPMsgCommitResult>> resultsById = results.stream()
+                    .collect(Collectors.partitioningBy(result -> ObjectUtil.isNotNull(result.getSdpMsgId())));
+            int cnt = 0;
+            for (List<SDPMsgCommitResult> part : ListUtil.partition(resultsById.get(true), BATCH_UPDATE_SIZE)) {
+                cnt += sdpMsgPoolMapper.updateSDPMessageResultsById(part);
+            }
+            for (List<SDPMsgCommitResult> part : ListUtil.partition(resultsById.get(false), BATCH_UPDATE_SIZE)) {
+                cnt += sdpMsgPoolMapper.updateSDPMessageResultsByTxHash(part);
+            }
+            return cnt;
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    "failed to save sdp message commit results", e
+            );
+        }
+    }
+
     @Override
     public AuthMsgWrapper getAuthMessage(long authMsgId) {
         return getAuthMessage(authMsgId, false);
@@ -401,6 +515,26 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
         }
     }
 
+    @Override
+    public Map<Long, String> getUcpIds(List<Long> authMsgIds) {
+        if (ObjectUtil.isEmpty(authMsgIds)) {
+            return new HashMap<>();
+        }
+        try {
+            return this.authMsgPoolMapper.selectList(
+                    new LambdaQueryWrapper<AuthMsgPoolEntity>()
+                            .select(ListUtil.toList(AuthMsgPoolEntity::getId, AuthMsgPoolEntity::getUcpId))
+                            .in(BaseEntity::getId, authMsgIds)
+            ).stream().collect(Collectors.toMap(BaseEntity::getId, AuthMsgPoolEntity::getUcpId));
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    StrUtil.format("failed to get ucp ids for {} auth messages", authMsgIds.size()),
+                    e
+            );
+        }
+    }
+
     @Override
     public AuthMsgWrapper getAuthMessage(long authMsgId, boolean lock) {
         try {
@@ -469,11 +603,19 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
 
     @Override
     public List<UniformCrosschainPacketContext> peekUCPMessages(String domain, UniformCrosschainPacketStateEnum processState, int limit) {
+        return peekUCPMessages(domain, processState, limit, 0, ListUtil.empty());
+    }
+
+    @Override
+    public List<UniformCrosschainPacketContext> peekUCPMessages(String domain, UniformCrosschainPacketStateEnum processState, int limit, long fromId, Collection<Long> excludedIds) {
         try {
             List<UCPPoolEntity> entities = ucpPoolMapper.selectList(
                     new LambdaQueryWrapper<UCPPoolEntity>()
                             .eq(UCPPoolEntity::getSrcDomain, domain)
                             .eq(UCPPoolEntity::getProcessState, processState)
+                            .gt(fromId > 0, BaseEntity::getId, fromId)
+                            .notIn(ObjectUtil.isNotEmpty(excludedIds), BaseEntity::getId, excludedIds)
+                            .orderByAsc(BaseEntity::getId)
                             .last("limit " + limit)
             );
             if (ObjectUtil.isEmpty(entities)) {
@@ -513,6 +655,96 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
         }
     }
 
+    @Override
+    public Map<String, SDPMsgWrapper> querySDPMessages(List<String> ucpIds, long changedSince) {
+        if (ObjectUtil.isEmpty(ucpIds)) {
+            return new HashMap<>();
+        }
+        try {
+            Map<Long, String> amIdToUcpId = getAuthMsgIds(ucpIds);
+            if (amIdToUcpId.isEmpty()) {
+                return new HashMap<>();
+            }
+
+            Map<String, SDPMsgWrapper> result = new HashMap<>();
+            Date since = changedSince > 0 ? new Date(changedSince) : null;
+            sdpMsgPoolMapper.selectList(
+                    new LambdaQueryWrapper<SDPMsgPoolEntity>()
+                            .select(ListUtil.toList(
+                                    SDPMsgPoolEntity::getAuthMsgId,
+                                    SDPMsgPoolEntity::getTxHash,
+                                    SDPMsgPoolEntity::getProcessState,
+                                    SDPMsgPoolEntity::getTxSuccess,
+                                    SDPMsgPoolEntity::getTxFailReason
+                            )).in(SDPMsgPoolEntity::getAuthMsgId, amIdToUcpId.keySet())
+                            .ge(ObjectUtil.isNotNull(since), BaseEntity::getGmtModified, since)
+            ).forEach(
+                    entity -> result.put(
+                            amIdToUcpId.remove(entity.getAuthMsgId()),
+                            buildSDPMsgResult(entity.getTxHash(), entity.getProcessState(), entity.getTxSuccess(), entity.getTxFailReason())
+                    )
+            );
+            if (amIdToUcpId.isEmpty()) {
+                return result;
+            }
+
+            // 池中没有的再从归档表查
+            sdpMsgArchiveMapper.selectList(
+                    new LambdaQueryWrapper<SDPMsgArchiveEntity>()
+                            .select(ListUtil.toList(
+                                    SDPMsgArchiveEntity::getAuthMsgId,
+                                    SDPMsgArchiveEntity::getTxHash,
+                                    SDPMsgArchiveEntity::getProcessState,
+                                    SDPMsgArchiveEntity::getTxSuccess,
+                                    SDPMsgArchiveEntity::getTxFailReason
+                            )).in(SDPMsgArchiveEntity::getAuthMsgId, amIdToUcpId.keySet())
+                            .ge(ObjectUtil.isNotNull(since), BaseEntity::getGmtModified, since)
+            ).forEach(
+                    entity -> result.put(
+                            amIdToUcpId.get(entity.getAuthMsgId()),
+                            buildSDPMsgResult(entity.getTxHash(), entity.getProcessState(), entity.getTxSuccess(), entity.getTxFailReason())
+                    )
+            );
+            return result;
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    e,
+                    "failed to get sdp messages for {} ucp ids",
+                    ucpIds.size()
+            );
+        }
+    }
+
+    private Map<Long, String> getAuthMsgIds(List<String> ucpIds) {
+        Map<Long, String> result = authMsgPoolMapper.selectList(
+                new LambdaQueryWrapper<AuthMsgPoolEntity>()
+                        .select(ListUtil.toList(AuthMsgPoolEntity::getId, AuthMsgPoolEntity::getUcpId))
+                        .in(AuthMsgPoolEntity::getUcpId, ucpIds)
+        ).stream().collect(Collectors.toMap(BaseEntity::getId, AuthMsgPoolEntity::getUcpId));
+        if (result.size() == ucpIds.size()) {
+            return result;
+        }
+
+        Set<String> found = new HashSet<>(result.values());
+        List<String> notFound = ucpIds.stream().filter(ucpId -> !found.contains(ucpId)).collect(Collectors.toList());
+        authMsgArchiveMapper.selectList(
+                new LambdaQueryWrapper<AuthMsgArchiveEntity>()
+                        .select(ListUtil.toList(AuthMsgArchiveEntity::getId, AuthMsgArchiveEntity::getUcpId))
+                        .in(AuthMsgArchiveEntity::getUcpId, notFound)
+        ).forEach(entity -> result.put(entity.getId(), entity.getUcpId()));
+        return result;
+    }
+
+    private SDPMsgWrapper buildSDPMsgResult(String txHash, SDPMsgProcessStateEnum processState, Boolean txSuccess, String txFailReason) {
+        SDPMsgWrapper sdpMsgWrapper = new SDPMsgWrapper();
+        sdpMsgWrapper.setTxHash(txHash);
+        sdpMsgWrapper.setProcessState(processState);
+        sdpMsgWrapper.setTxSuccess(BooleanUtil.isTrue(txSuccess));
+        sdpMsgWrapper.setTxFailReason(txFailReason);
+        return sdpMsgWrapper;
+    }
+
     private Long getAuthMsgId(String ucpId) {
         AuthMsgPoolEntity entity = authMsgPoolMapper.selectOne(
                 new LambdaQueryWrapper<AuthMsgPoolEntity>()
@@ -571,12 +803,19 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
 
     @Override
     public List<SDPMsgWrapper> peekSDPMessages(String receiverBlockchainProduct, String receiverBlockchainId, SDPMsgProcessStateEnum processState, int limit) {
+        return peekSDPMessages(receiverBlockchainProduct, receiverBlockchainId, processState, limit, 0);
+    }
+
+    @Override
+    public List<SDPMsgWrapper> peekSDPMessages(String receiverBlockchainProduct, String receiverBlockchainId, SDPMsgProcessStateEnum processState, int limit, long fromId) {
         try {
             List<SDPMsgPoolEntity> entities = sdpMsgPoolMapper.selectList(
                     new LambdaQueryWrapper<SDPMsgPoolEntity>()
                             .eq(SDPMsgPoolEntity::getReceiverBlockchainProduct, receiverBlockchainProduct)
                             .eq(SDPMsgPoolEntity::getReceiverBlockchainId, receiverBlockchainId)
                             .eq(SDPMsgPoolEntity::getProcessState, processState)
+                            .gt(fromId > 0, BaseEntity::getId, fromId)
+                            .orderByAsc(BaseEntity::getId)
                             .last("limit " + limit)
             );
             if (ObjectUtil.isEmpty(entities)) {
@@ -744,6 +983,56 @@ public class CrossChainMessageRepository implements ICrossChainMessageRepository
         }
     }
 
+    @Override
+    public Long getMinIdOfTxFinishedSDPMessages(String receiverBlockchainProduct, String receiverBlockchainId, long fromId) {
+        try {
+            return sdpMsgPoolMapper.getMinIdOfFinishedSDPMessages(
+                    receiverBlockchainProduct, receiverBlockchainId, fromId, TX_FINISHED_STATES
+            );
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    e,
+                    "failed to get min id of tx finished sdp messages for chain (product: {}, blockchain_id: {})",
+                    receiverBlockchainProduct, receiverBlockchainId
+            );
+        }
+    }
+
+    @Override
+    public int archiveMessagesByIdRange(String receiverBlockchainProduct, String receiverBlockchainId, long startId, long endId) {
+        try {
+            int sdpCount = sdpMsgPoolMapper.archiveSDPMessagesByRange(
+                    receiverBlockchainProduct, receiverBlockchainId, startId, endId, TX_FINISHED_STATES
+            );
+            if (sdpCount == 0) {
+                return 0;
+            }
+            authMsgPoolMapper.archiveAuthMessagesBySDPRange(
+                    receiverBlockchainProduct, receiverBlockchainId, startId, endId
+            );
+            authMsgPoolMapper.deleteArchivedAuthMessagesBySDPRange(
+                    receiverBlockchainProduct, receiverBlockchainId, startId, endId
+            );
+            int sdpDeleted = sdpMsgPoolMapper.deleteArchivedSDPMessagesByRange(
+                    receiverBlockchainProduct, receiverBlockchainId, startId, endId
+            );
+            if (sdpDeleted < sdpCount) {
+                throw new RuntimeException(
+                        StrUtil.format("only {} of {} archived sdp messages deleted from pool", sdpDeleted, sdpCount)
+                );
+            }
+            return sdpCount;
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ERROR,
+                    e,
+                    "failed to archive messages with id range [{}, {}] for chain (product: {}, blockchain_id: {})",
+                    startId, endId, receiverBlockchainProduct, receiverBlockchainId
+            );
+        }
+    }
+
     @Override
     public Lock getSessionLock(String session) {
         return redisson.getLock(getCCMsgSessionLock(session));
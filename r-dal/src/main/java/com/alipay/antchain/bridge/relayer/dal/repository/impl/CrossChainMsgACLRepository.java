@@ -32,14 +32,22 @@ import com.alipay.antchain.bridge.relayer.dal.mapper.CrossChainMsgACLMapper;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMsgACLRepository;
 import com.alipay.antchain.bridge.relayer.dal.utils.ConvertUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RedissonClient;
 import org.springframework.stereotype.Component;
 
 @Component
+@Slf4j
 public class CrossChainMsgACLRepository implements ICrossChainMsgACLRepository {
 
+    private static final String CROSSCHAIN_MSG_ACL_CHANGED_TOPIC = "RELAYER_CROSSCHAIN_MSG_ACL_CHANGED";
+
     @Resource
     private CrossChainMsgACLMapper crossChainMsgACLMapper;
 
+    @Resource
+    private RedissonClient redisson;
+
     @Override
     public void saveItem(CrossChainMsgACLItem item) {
         try {
@@ -220,4 +228,50 @@ public class CrossChainMsgACLRepository implements ICrossChainMsgACLRepository {
             );
         }
     }
+
+    @Override
+    public List<CrossChainMsgACLItem> getAllValidItems() {
+        try {
+            List<CrossChainMsgACLEntity> entityList = crossChainMsgACLMapper.selectList(
+                    new LambdaQueryWrapper<CrossChainMsgACLEntity>()
+                            .eq(CrossChainMsgACLEntity::getIsDeleted, false)
+            );
+            if (ObjectUtil.isEmpty(entityList)) {
+                return new ArrayList<>();
+            }
+            return entityList.stream().map(ConvertUtil::convertFromCrossChainMsgACLEntity).collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ACL_ERROR,
+                    "failed to get all valid acl items",
+                    e
+            );
+        }
+    }
+
+    @Override
+    public void publishItemsChanged() {
+        try {
+            redisson.getTopic(CROSSCHAIN_MSG_ACL_CHANGED_TOPIC).publish(System.currentTimeMillis());
+        } catch (Exception e) {
+            // nodes would still reload acl items when refresh interval expired
+            log.warn("failed to publish acl items changed", e);
+        }
+    }
+
+    @Override
+    public void addItemsChangedListener(Runnable listener) {
+        try {
+            redisson.getTopic(CROSSCHAIN_MSG_ACL_CHANGED_TOPIC).addListener(
+                    Long.class,
+                    (channel, msg) -> listener.run()
+            );
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_CROSSCHAIN_MSG_ACL_ERROR,
+                    "failed to listen acl items changed",
+                    e
+            );
+        }
+    }
 }
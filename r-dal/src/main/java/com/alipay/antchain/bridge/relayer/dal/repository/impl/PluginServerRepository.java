@@ -16,8 +16,10 @@
 
 package com.alipay.antchain.bridge.relayer.dal.repository.impl;
 
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
@@ -35,24 +37,42 @@ import com.alipay.antchain.bridge.relayer.dal.repository.IPluginServerRepository
 import com.alipay.antchain.bridge.relayer.dal.utils.ConvertUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.redisson.api.RMapCache;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.IntegerCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Component
+@Slf4j
 public class PluginServerRepository implements IPluginServerRepository {
 
     private static final String PLUGIN_SERVER_HEARTBEAT_LOCK_PREFIX = "plugin_server_heartbeat_lock-";
 
+    private static final String PLUGIN_SERVER_STATES_CACHE_KEY = "plugin_server_states";
+
     @Resource
     private PluginServerObjectsMapper pluginServerObjectsMapper;
 
     @Resource
     private RedissonClient redisson;
 
+    /**
+     * 插件服务状态在redis中的缓存时间，由心跳协调者刷新，为0时不使用缓存
+     */
+    @Value("${relayer.dal.plugin_server.state_cache.ttl:30000}")
+    private long stateCacheTTL;
+
     @Override
     public void insertNewPluginServer(PluginServerDO pluginServerDO) {
         try {
             pluginServerObjectsMapper.insertPluginServer(ConvertUtil.convertFromPluginServerDO(pluginServerDO));
+            getStatesCache().fastRemove(pluginServerDO.getPsId());
         } catch (Exception e) {
             throw new AntChainBridgeRelayerException(
                     RelayerErrorCodeEnum.DAL_PLUGINSERVER_ERROR,
@@ -78,6 +98,9 @@ public class PluginServerRepository implements IPluginServerRepository {
             ) {
                 throw new RuntimeException("update db failed");
             }
+            if (ObjectUtil.isNotNull(info.getState())) {
+                setStateToCache(psId, info.getState());
+            }
         } catch (Exception e) {
             throw new AntChainBridgeRelayerException(
                     RelayerErrorCodeEnum.DAL_PLUGINSERVER_ERROR,
@@ -94,6 +117,7 @@ public class PluginServerRepository implements IPluginServerRepository {
                     new LambdaUpdateWrapper<PluginServerObjectsEntity>()
                             .eq(PluginServerObjectsEntity::getPsId, pluginServerDO.getPsId())
             );
+            getStatesCache().fastRemove(pluginServerDO.getPsId());
         } catch (Exception e) {
             throw new AntChainBridgeRelayerException(
                     RelayerErrorCodeEnum.DAL_PLUGINSERVER_ERROR,
@@ -137,6 +161,7 @@ public class PluginServerRepository implements IPluginServerRepository {
             ) {
                 throw new RuntimeException("update db failed");
             }
+            setStateToCache(psId, stateEnum);
         } catch (Exception e) {
             throw new AntChainBridgeRelayerException(
                     RelayerErrorCodeEnum.DAL_PLUGINSERVER_ERROR,
@@ -146,9 +171,51 @@ public class PluginServerRepository implements IPluginServerRepository {
         }
     }
 
+    @Override
+    public void batchUpdatePluginServerStates(Map<String, PluginServerStateEnum> states) {
+        if (ObjectUtil.isEmpty(states)) {
+            return;
+        }
+        try {
+            // 相同状态的合并为一条update语句
+            Map<PluginServerStateEnum, List<String>> psIdsByState = states.entrySet().stream()
+                    .collect(Collectors.groupingBy(
+                            Map.Entry::getValue,
+                            Collectors.mapping(Map.Entry::getKey, Collectors.toList())
+                    ));
+            for (Map.Entry<PluginServerStateEnum, List<String>> entry : psIdsByState.entrySet()) {
+                pluginServerObjectsMapper.update(
+                        PluginServerObjectsEntity.builder()
+                                .state(entry.getKey())
+                                .build(),
+                        new LambdaUpdateWrapper<PluginServerObjectsEntity>()
+                                .in(PluginServerObjectsEntity::getPsId, entry.getValue())
+                );
+            }
+            if (stateCacheTTL > 0) {
+                Map<String, Integer> codes = states.entrySet().stream().collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> entry.getValue().getCode()
+                ));
+                getStatesCache().fastRemove(codes.keySet().toArray(new String[0]));
+                runAfterCommit(() -> getStatesCache().putAll(codes, stateCacheTTL, TimeUnit.MILLISECONDS));
+            }
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_PLUGINSERVER_ERROR,
+                    String.format("failed to batch update states for plugin servers %s", states.keySet()),
+                    e
+            );
+        }
+    }
+
     @Override
     public PluginServerStateEnum getPluginServerStateEnum(String psId) {
         try {
+            PluginServerStateEnum stateInCache = getStateFromCache(psId);
+            if (ObjectUtil.isNotNull(stateInCache)) {
+                return stateInCache;
+            }
             PluginServerObjectsEntity entity = pluginServerObjectsMapper.selectOne(
                     new LambdaQueryWrapper<PluginServerObjectsEntity>()
                             .select(ListUtil.of(PluginServerObjectsEntity::getState))
@@ -157,6 +224,7 @@ public class PluginServerRepository implements IPluginServerRepository {
             if (ObjectUtil.isNull(entity)) {
                 return PluginServerStateEnum.NOT_FOUND;
             }
+            fillStateCache(psId, entity.getState());
             return entity.getState();
         } catch (Exception e) {
             throw new AntChainBridgeRelayerException(
@@ -237,11 +305,89 @@ public class PluginServerRepository implements IPluginServerRepository {
         }
     }
 
+    @Override
+    public List<PluginServerDO> getAllPluginServers(PluginServerStateEnum... states) {
+        try {
+            List<PluginServerObjectsEntity> entities = pluginServerObjectsMapper.selectList(
+                    new LambdaQueryWrapper<PluginServerObjectsEntity>()
+                            .in(ObjectUtil.isNotEmpty(states), PluginServerObjectsEntity::getState, ListUtil.toList(states))
+            );
+            if (ObjectUtil.isEmpty(entities)) {
+                return ListUtil.empty();
+            }
+            return entities.stream()
+                    .map(ConvertUtil::convertFromPluginServerObjectsEntity)
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_PLUGINSERVER_ERROR,
+                    String.format("failed to query plugin servers with states %s", Arrays.toString(states)),
+                    e
+            );
+        }
+    }
+
     @Override
     public Lock getHeartbeatLock(String psId) {
         return redisson.getLock(getHeartbeatLockKey(psId));
     }
 
+    private RMapCache<String, Integer> getStatesCache() {
+        return redisson.getMapCache(
+                PLUGIN_SERVER_STATES_CACHE_KEY,
+                new CompositeCodec(StringCodec.INSTANCE, IntegerCodec.INSTANCE)
+        );
+    }
+
+    private PluginServerStateEnum getStateFromCache(String psId) {
+        if (stateCacheTTL <= 0) {
+            return null;
+        }
+        try {
+            Integer code = getStatesCache().get(psId);
+            return ObjectUtil.isNull(code) ? null : PluginServerStateEnum.parseFromValue(code);
+        } catch (Exception e) {
+            log.warn("failed to get state of plugin server {} from cache", psId, e);
+            return null;
+        }
+    }
+
+    private void setStateToCache(String psId, PluginServerStateEnum state) {
+        if (stateCacheTTL <= 0) {
+            return;
+        }
+        getStatesCache().fastRemove(psId);
+        runAfterCommit(() -> getStatesCache().fastPut(psId, state.getCode(), stateCacheTTL, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 读路径上缓存未命中时回填，不删除已有的值，避免覆盖并发写入的新状态
+     */
+    private void fillStateCache(String psId, PluginServerStateEnum state) {
+        if (stateCacheTTL <= 0) {
+            return;
+        }
+        runAfterCommit(() -> getStatesCache().fastPutIfAbsent(psId, state.getCode(), stateCacheTTL, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * 在事务中时等提交后再写缓存，避免其他节点读到未提交的状态
+     */
+    private void runAfterCommit(Runnable runnable) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            runnable.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        runnable.run();
+                    }
+                }
+        );
+    }
+
     private static String getHeartbeatLockKey(String psId) {
         return String.format("%s%s", PLUGIN_SERVER_HEARTBEAT_LOCK_PREFIX, psId);
     }
@@ -16,9 +16,9 @@
 
 package com.alipay.antchain.bridge.relayer.dal.repository.impl;
 
-import java.util.Date;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Resource;
 
@@ -58,6 +58,8 @@ public class ScheduleRepository implements IScheduleRepository {
 
     private static final String MARK_LOCK = "MARK_LOCK";
 
+    private static final String DT_TASK_ASSIGNMENT_TOPIC = "RELAYER_DT_TASK_ASSIGNMENT";
+
     @Resource
     private RedissonClient redisson;
 
@@ -88,7 +90,7 @@ public class ScheduleRepository implements IScheduleRepository {
 
     @Override
     @Synchronized
-    public void activate(String nodeId, String nodeIp) {
+    public void activate(String nodeId, String nodeIp, int queuedTaskCount, double cpuLoad) {
         try {
             if (
                     1 != dtActiveNodeMapper.update(
@@ -96,6 +98,8 @@ public class ScheduleRepository implements IScheduleRepository {
                                     .nodeId(nodeId)
                                     .nodeIp(nodeIp)
                                     .state(DTActiveNodeStateEnum.ONLINE)
+                                    .queuedTaskCount(queuedTaskCount)
+                                    .cpuLoad(cpuLoad)
                                     .build(),
                             new LambdaUpdateWrapper<DTActiveNodeEntity>()
                                     .eq(DTActiveNodeEntity::getNodeId, nodeId)
@@ -106,6 +110,8 @@ public class ScheduleRepository implements IScheduleRepository {
                                 .nodeId(nodeId)
                                 .nodeIp(nodeIp)
                                 .state(DTActiveNodeStateEnum.ONLINE)
+                                .queuedTaskCount(queuedTaskCount)
+                                .cpuLoad(cpuLoad)
                                 .build()
                 );
             }
@@ -313,6 +319,35 @@ public class ScheduleRepository implements IScheduleRepository {
         }
     }
 
+    @Override
+    public void publishDTTaskAssignment(Collection<String> nodeIds) {
+        if (ObjectUtil.isEmpty(nodeIds)) {
+            return;
+        }
+        try {
+            redisson.getTopic(DT_TASK_ASSIGNMENT_TOPIC).publish(StrUtil.join(",", nodeIds));
+        } catch (Exception e) {
+            // nodes would still refresh their tasks when time slice expired
+            log.warn("failed to publish distributed task assignment for nodes {}", nodeIds, e);
+        }
+    }
+
+    @Override
+    public void addDTTaskAssignmentListener(Consumer<Set<String>> listener) {
+        try {
+            redisson.getTopic(DT_TASK_ASSIGNMENT_TOPIC).addListener(
+                    String.class,
+                    (channel, msg) -> listener.accept(new HashSet<>(StrUtil.split(msg, ",")))
+            );
+        } catch (Exception e) {
+            throw new AntChainBridgeRelayerException(
+                    RelayerErrorCodeEnum.DAL_DT_TASK_ERROR,
+                    "failed to listen distributed task assignment",
+                    e
+            );
+        }
+    }
+
     public void markForDomainRouterQuery(String senderDomain, String receiverDomain) {
         if (!StrUtil.isAllNotEmpty(senderDomain, receiverDomain)) {
             throw new RuntimeException(StrUtil.format("empty sender domain {} or receiver domain {}", senderDomain, receiverDomain));
@@ -385,6 +385,8 @@ public class ConvertUtil {
         node.setNodeIp(entity.getNodeIp());
         node.setNodeId(entity.getNodeId());
         node.setLastActiveTime(entity.getLastActiveTime().getTime());
+        node.setQueuedTaskCount(ObjectUtil.defaultIfNull(entity.getQueuedTaskCount(), 0));
+        node.setCpuLoad(ObjectUtil.defaultIfNull(entity.getCpuLoad(), 0.0));
         return node;
     }
 
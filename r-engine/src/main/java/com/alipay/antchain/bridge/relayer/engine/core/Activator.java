@@ -1,12 +1,22 @@
 package com.alipay.antchain.bridge.relayer.engine.core;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.stream.Stream;
 import javax.annotation.Resource;
 
+import com.alipay.antchain.bridge.relayer.commons.constant.BizDistributedTaskTypeEnum;
+import com.alipay.antchain.bridge.relayer.commons.constant.BlockchainDistributedTaskTypeEnum;
 import com.alipay.antchain.bridge.relayer.dal.repository.IScheduleRepository;
+import com.alipay.antchain.bridge.relayer.engine.executor.BaseScheduleTaskExecutor;
 import org.springframework.stereotype.Component;
 
 /**
- * Activator负责分布式节点的定时心跳，往全局DB定时登记心跳，表示节点活性
+ * Activator负责分布式节点的定时心跳，往全局DB定时登记心跳，表示节点活性，
+ * 同时上报本节点的负载，供Dispatcher排值班表时参考
  */
 @Component
 public class Activator {
@@ -17,6 +27,11 @@ public class Activator {
     @Resource
     private ScheduleContext scheduleContext;
 
+    @Resource
+    private Map<BlockchainDistributedTaskTypeEnum, BaseScheduleTaskExecutor> scheduleTaskExecutorMap;
+
+    @Resource
+    private Map<BizDistributedTaskTypeEnum, BaseScheduleTaskExecutor> scheduleBizTaskExecutorMap;
 
     /**
      * 往全局DB定时登记心跳，表示节点活性
@@ -24,7 +39,35 @@ public class Activator {
     public void activate() {
         scheduleRepository.activate(
                 scheduleContext.getNodeId(),
-                scheduleContext.getNodeIp()
+                scheduleContext.getNodeIp(),
+                getQueuedTaskCount(),
+                getCpuLoad()
         );
     }
+
+    private int getQueuedTaskCount() {
+        return Stream.concat(scheduleTaskExecutorMap.values().stream(), scheduleBizTaskExecutorMap.values().stream())
+                .map(BaseScheduleTaskExecutor::getExecutor)
+                .distinct()
+                .mapToInt(this::getQueuedTaskCount)
+                .sum();
+    }
+
+    private int getQueuedTaskCount(ExecutorService executorService) {
+        if (!(executorService instanceof ThreadPoolExecutor)) {
+            return 0;
+        }
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) executorService;
+        return executor.getQueue().size() + executor.getActiveCount();
+    }
+
+    private double getCpuLoad() {
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        double loadAverage = osBean.getSystemLoadAverage();
+        // 部分平台不支持load average，返回负数
+        if (loadAverage < 0) {
+            return 0;
+        }
+        return loadAverage / Math.max(1, osBean.getAvailableProcessors());
+    }
 }
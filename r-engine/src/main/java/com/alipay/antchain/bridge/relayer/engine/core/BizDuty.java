@@ -18,6 +18,7 @@ package com.alipay.antchain.bridge.relayer.engine.core;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
 import com.alipay.antchain.bridge.relayer.commons.constant.BizDistributedTaskTypeEnum;
@@ -41,11 +42,37 @@ public class BizDuty {
     @Value("#{duty.timeSliceLength}")
     private long timeSliceLength;
 
+    @Value("${relayer.engine.schedule.duty.event_driven:true}")
+    private boolean eventDriven;
+
+    @Value("#{duty.maxRefreshInterval}")
+    private long maxRefreshInterval;
+
     @Resource
     private Map<BizDistributedTaskTypeEnum, BaseScheduleTaskExecutor> scheduleBizTaskExecutorMap;
 
+    private LocalDutyTable<BizDistributedTask> dutyTable;
+
+    @PostConstruct
+    public void init() {
+        dutyTable = new LocalDutyTable<>(
+                () -> scheduleRepository.getBizDistributedTasksByNodeId(this.scheduleContext.getNodeId()),
+                timeSliceLength,
+                eventDriven ? maxRefreshInterval : 0
+        );
+        if (eventDriven) {
+            scheduleRepository.addDTTaskAssignmentListener(
+                    nodeIds -> {
+                        if (nodeIds.contains(this.scheduleContext.getNodeId())) {
+                            dutyTable.markDirty();
+                        }
+                    }
+            );
+        }
+    }
+
     public void duty() {
-        List<BizDistributedTask> tasks = scheduleRepository.getBizDistributedTasksByNodeId(this.scheduleContext.getNodeId());
+        List<BizDistributedTask> tasks = dutyTable.getTasks();
         if (tasks.isEmpty()) {
             log.debug("empty duty tasks");
         } else {
@@ -53,7 +80,6 @@ public class BizDuty {
         }
 
         for (BizDistributedTask task : tasks) {
-            task.setTimeSliceLength(timeSliceLength);
             scheduleBizTaskExecutorMap.get(task.getTaskType()).execute(task);
         }
     }
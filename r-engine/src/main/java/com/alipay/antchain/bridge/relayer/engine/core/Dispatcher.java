@@ -2,6 +2,7 @@ package com.alipay.antchain.bridge.relayer.engine.core;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
@@ -10,6 +11,7 @@ import javax.annotation.Resource;
 
 import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
 import com.alipay.antchain.bridge.relayer.commons.constant.BizDistributedTaskTypeEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.BlockchainDistributedTaskTypeEnum;
 import com.alipay.antchain.bridge.relayer.commons.constant.PluginServerStateEnum;
@@ -48,8 +50,35 @@ public class Dispatcher {
     @Value("${relayer.engine.schedule.activate.ttl:5000}")
     private long nodeTimeToLive;
 
-//    @Value("${relayer.engine.schedule.dispatcher.task_diff_map:{anchor:5, committer:3, process:2}}")
-//    private Map<String, Integer> taskTypeDiffMap;
+    /**
+     * 各类任务的权重，key为任务类型的code，未配置的任务权重为1
+     */
+    @Value("#{${relayer.engine.schedule.dispatcher.task_cost_map:{anchor:8, committer:4, process:4, validation:2, amConfirm:2}}}")
+    private Map<String, Integer> taskCostMap;
+
+    /**
+     * 节点上每个排队中的任务折算的权重
+     */
+    @Value("${relayer.engine.schedule.dispatcher.queued_task_cost:1}")
+    private double queuedTaskCost;
+
+    /**
+     * 节点CPU满载时折算的权重
+     */
+    @Value("${relayer.engine.schedule.dispatcher.cpu_load_cost:16}")
+    private double cpuLoadCost;
+
+    /**
+     * 原节点负载比最空闲节点高出不超过该值时，任务留在原节点，避免重建区块缓存等状态
+     */
+    @Value("${relayer.engine.schedule.dispatcher.sticky_tolerance:8}")
+    private double stickyTolerance;
+
+    /**
+     * 为true时插件服务心跳作为业务任务分配给一个节点统一执行
+     */
+    @Value("${relayer.plugin_server_manager.grpc.heartbeat.coordinated:true}")
+    private boolean pluginServerHeartbeatCoordinated;
 
     public void dispatch() {
         Lock lock = getDistributeLock();
@@ -68,9 +97,18 @@ public class Dispatcher {
                             BizDistributedTaskTypeEnum.DOMAIN_APPLICATION_QUERY.getCode()
                     )
             );
+            if (pluginServerHeartbeatCoordinated) {
+                tasks.add(
+                        new BizDistributedTask(
+                                BizDistributedTaskTypeEnum.PLUGIN_SERVER_HEARTBEAT,
+                                BizDistributedTaskTypeEnum.PLUGIN_SERVER_HEARTBEAT.getCode()
+                        )
+                );
+            }
 
-            // 剔除已分配过时间片的任务
-            List<IDistributedTask> tasksToDispatch = filterTasksInTimeSlice(tasks);
+            // 剔除已分配过时间片的任务，同时统计各节点上仍在时间片内的任务权重
+            Map<String, Double> nodeCostMap = Maps.newHashMap();
+            List<IDistributedTask> tasksToDispatch = filterTasksInTimeSlice(tasks, nodeCostMap);
             if (ObjectUtil.isEmpty(tasksToDispatch)) {
                 log.debug("empty tasks to dispatch");
                 return;
@@ -85,7 +123,7 @@ public class Dispatcher {
             log.debug("size of online node : {}", onlineNodes.size());
 
             // 给剩余任务分配时间片
-            doDispatch(onlineNodes, tasksToDispatch);
+            doDispatch(onlineNodes, tasksToDispatch, nodeCostMap);
         } catch (Exception e) {
             log.error("failed to dispatch distributed task: ", e);
         } finally {
@@ -104,11 +142,11 @@ public class Dispatcher {
         if (ObjectUtil.isNull(blockchainMetas)) {
             return ListUtil.empty();
         }
+        // 服务该链的插件服务中有一个READY即可
         return blockchainMetas.stream().filter(
-                blockchainMeta ->
-                        PluginServerStateEnum.READY == bbcPluginManager.getPluginServerState(
-                                blockchainMeta.getProperties().getPluginServerId()
-                        )
+                blockchainMeta -> blockchainMeta.getAllPluginServerIds().stream().anyMatch(
+                        psId -> PluginServerStateEnum.READY == bbcPluginManager.getPluginServerState(psId)
+                )
         ).collect(Collectors.toList());
     }
 
@@ -158,7 +196,7 @@ public class Dispatcher {
         }).orElse(new ArrayList<>());
     }
 
-    private List<IDistributedTask> filterTasksInTimeSlice(List<IDistributedTask> allTasks) {
+    private List<IDistributedTask> filterTasksInTimeSlice(List<IDistributedTask> allTasks, Map<String, Double> nodeCostMap) {
 
         Map<String, IDistributedTask> allTasksMap = Maps.newHashMap();
         for (IDistributedTask task : allTasks) {
@@ -173,6 +211,10 @@ public class Dispatcher {
             newTaskMap.remove(existedTask.getUniqueTaskKey());
             if (!existedTask.ifFinish()) {
                 allTasksMap.remove(existedTask.getUniqueTaskKey());
+                nodeCostMap.merge(existedTask.getNodeId(), (double) getTaskCost(existedTask), Double::sum);
+            } else if (allTasksMap.containsKey(existedTask.getUniqueTaskKey())) {
+                // 记录上一个时间片的节点，排班时优先留在原节点
+                allTasksMap.get(existedTask.getUniqueTaskKey()).setNodeId(existedTask.getNodeId());
             }
         }
 
@@ -182,6 +224,10 @@ public class Dispatcher {
             newTaskMap.remove(existedTask.getUniqueTaskKey());
             if (!existedTask.ifFinish()) {
                 allTasksMap.remove(existedTask.getUniqueTaskKey());
+                nodeCostMap.merge(existedTask.getNodeId(), (double) getTaskCost(existedTask), Double::sum);
+            } else if (allTasksMap.containsKey(existedTask.getUniqueTaskKey())) {
+                // 记录上一个时间片的节点，排班时优先留在原节点
+                allTasksMap.get(existedTask.getUniqueTaskKey()).setNodeId(existedTask.getNodeId());
             }
         }
 
@@ -223,10 +269,8 @@ public class Dispatcher {
         return onlineNodes;
     }
 
-    private void doDispatch(List<ActiveNode> nodes, List<IDistributedTask> tasks) {
-        Collections.shuffle(nodes);
-        roundRobin(nodes, tasks);
-        // TODO: give a better algorithm for balancing tasks
+    private void doDispatch(List<ActiveNode> nodes, List<IDistributedTask> tasks, Map<String, Double> nodeCostMap) {
+        weightedPlacement(nodes, tasks, nodeCostMap);
         scheduleRepository.batchUpdateBlockchainDTTasks(
                 tasks.stream()
                         .filter(
@@ -241,60 +285,58 @@ public class Dispatcher {
                         ).map(task -> (BizDistributedTask) task)
                         .collect(Collectors.toList())
         );
-        log.info("dispatch tasks : {}", tasks.stream().map(IDistributedTask::getUniqueTaskKey).collect(Collectors.joining(" , ")));
+        log.info("dispatch tasks : {}", tasks.stream().map(task -> task.getUniqueTaskKey() + "@" + task.getNodeId()).collect(Collectors.joining(" , ")));
+
+        // 通知被分配任务的节点刷新本地值班表
+        scheduleRepository.publishDTTaskAssignment(
+                tasks.stream().map(IDistributedTask::getNodeId).collect(Collectors.toSet())
+        );
+    }
+
+    /**
+     * 按权重从大到小依次把任务分给当前负载最低的节点，
+     * 节点负载 = 时间片内已分配任务的权重 + 排队任务折算权重 + CPU负载折算权重。
+     * 如果任务上一个时间片所在的节点负载与最低负载相差不超过{@code stickyTolerance}，任务留在原节点。
+     */
+    private void weightedPlacement(List<ActiveNode> nodes, List<IDistributedTask> tasks, Map<String, Double> nodeCostMap) {
+        Map<String, Double> nodeLoadMap = Maps.newHashMap();
+        for (ActiveNode node : nodes) {
+            nodeLoadMap.put(
+                    node.getNodeId(),
+                    nodeCostMap.getOrDefault(node.getNodeId(), 0.0)
+                            + node.getQueuedTaskCount() * queuedTaskCost
+                            + Math.min(node.getCpuLoad(), 1.0) * cpuLoadCost
+            );
+        }
+
+        // 负载相同时随机选择节点
+        List<String> nodeIds = nodes.stream().map(ActiveNode::getNodeId).collect(Collectors.toList());
+        Collections.shuffle(nodeIds);
+
+        tasks.sort((a, b) -> Integer.compare(getTaskCost(b), getTaskCost(a)));
+        long now = System.currentTimeMillis();
+        for (IDistributedTask task : tasks) {
+            String leastLoadedNode = nodeIds.stream()
+                    .min(Comparator.comparingDouble(nodeLoadMap::get))
+                    .orElseThrow(() -> new RuntimeException("none online nodes"));
+            String lastNode = task.getNodeId();
+            String targetNode = nodeLoadMap.containsKey(lastNode)
+                    && nodeLoadMap.get(lastNode) - nodeLoadMap.get(leastLoadedNode) <= stickyTolerance
+                    ? lastNode : leastLoadedNode;
+
+            task.setNodeId(targetNode);
+            task.setStartTime(now);
+            nodeLoadMap.merge(targetNode, (double) getTaskCost(task), Double::sum);
+        }
     }
 
-//    private void averageDiffPerBlockchainForEachNode(List<ActiveNode> nodes, List<BlockchainDistributedTask> tasks) {
-//        Map<String, Map<String, Integer>> nodeCounterMap = nodes.stream().collect(Collectors.toMap(
-//                ActiveNode::getNodeId,
-//                node -> new HashMap<>()
-//        ));
-//        Map<String, ActiveNode> nodeMap = nodes.stream().collect(Collectors.toMap(
-//                ActiveNode::getNodeId,
-//                node -> node
-//        ));
-//
-//        for (int i = 0; i < tasks.size(); ++i) {
-//
-//            BlockchainDistributedTask task = tasks.get(i);
-//            int diffNum = taskTypeDiffMap.getOrDefault(task.getTaskType().getCode(), 1);
-//
-//            getTheMinDiffSumForBlockchain(nodeCounterMap, )
-//
-//            ActiveNode node = nodes.get(i % nodes.size());
-//            tasks.get(i).setNodeId(node.getNodeId());
-//            tasks.get(i).setStartTime(System.currentTimeMillis());
-//        }
-//    }
-//
-//    private String getTheMinDiffSumForBlockchain(Map<String, Map<String, Integer>> nodeCounterMap, String blockchainId) {
-//        String nodeId = "";
-//        Integer minDiff = Integer.MAX_VALUE;
-//        for (Map.Entry<String, Map<String, Integer>> entry : nodeCounterMap.entrySet()) {
-//            Integer diff = entry.getValue().getOrDefault(blockchainId, 0);
-//            if (diff < minDiff) {
-//                nodeId = entry.getKey();
-//                minDiff = diff;
-//            }
-//        }
-//
-//        return nodeId;
-//    }
-//
-//    private int calculateTotalDiff(Map<String, Map<String, Integer>> nodeCounterMap, String nodeId) {
-//        return nodeCounterMap.entrySet().stream()
-//                .collect(Collectors.toMap(
-//                        Map.Entry::getKey,
-//                        entry -> entry.getValue().values().stream().reduce(Integer::sum).orElse(0)
-//                )).getOrDefault(nodeId, 0);
-//    }
-
-    private void roundRobin(List<ActiveNode> nodes, List<IDistributedTask> tasks) {
-        Collections.shuffle(tasks);
-        for (int i = 0; i < tasks.size(); ++i) {
-            ActiveNode node = nodes.get(i % nodes.size());
-            tasks.get(i).setNodeId(node.getNodeId());
-            tasks.get(i).setStartTime(System.currentTimeMillis());
+    private int getTaskCost(IDistributedTask task) {
+        String taskType = StrUtil.EMPTY;
+        if (task instanceof BlockchainDistributedTask) {
+            taskType = ((BlockchainDistributedTask) task).getTaskType().getCode();
+        } else if (task instanceof BizDistributedTask) {
+            taskType = ((BizDistributedTask) task).getTaskType().getCode();
         }
+        return taskCostMap.getOrDefault(taskType, 1);
     }
 }
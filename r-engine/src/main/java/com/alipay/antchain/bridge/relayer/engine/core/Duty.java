@@ -2,6 +2,7 @@ package com.alipay.antchain.bridge.relayer.engine.core;
 
 import java.util.List;
 import java.util.Map;
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 
 import com.alipay.antchain.bridge.relayer.commons.constant.BlockchainDistributedTaskTypeEnum;
@@ -14,7 +15,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
- * Duty会定时轮询任务表，读取当前时间片属于本节点的任务，交给系列职能线程池处理
+ * Duty会定时读取当前时间片属于本节点的任务，交给系列职能线程池处理。
+ * <p>
+ * 任务表缓存在本地，只有Dispatcher发布了本节点的任务分配、时间片到期或者超过最大刷新间隔时才查询DB。
  */
 @Component
 @Slf4j
@@ -30,13 +33,40 @@ public class Duty {
     @Value("${relayer.engine.schedule.duty.dt_task.time_slice:180000}")
     private long timeSliceLength;
 
+    @Value("${relayer.engine.schedule.duty.event_driven:true}")
+    private boolean eventDriven;
+
+    @Getter
+    @Value("${relayer.engine.schedule.duty.max_refresh_interval:30000}")
+    private long maxRefreshInterval;
+
     @Resource
     private Map<BlockchainDistributedTaskTypeEnum, BaseScheduleTaskExecutor> scheduleTaskExecutorMap;
 
+    private LocalDutyTable<BlockchainDistributedTask> dutyTable;
+
+    @PostConstruct
+    public void init() {
+        dutyTable = new LocalDutyTable<>(
+                () -> scheduleRepository.getBlockchainDistributedTasksByNodeId(this.scheduleContext.getNodeId()),
+                timeSliceLength,
+                eventDriven ? maxRefreshInterval : 0
+        );
+        if (eventDriven) {
+            scheduleRepository.addDTTaskAssignmentListener(
+                    nodeIds -> {
+                        if (nodeIds.contains(this.scheduleContext.getNodeId())) {
+                            dutyTable.markDirty();
+                        }
+                    }
+            );
+        }
+    }
+
     public void duty() {
 
         // 查询本节点的时间片任务
-        List<BlockchainDistributedTask> tasks = scheduleRepository.getBlockchainDistributedTasksByNodeId(this.scheduleContext.getNodeId());
+        List<BlockchainDistributedTask> tasks = dutyTable.getTasks();
         if (tasks.isEmpty()) {
             log.debug("empty duty tasks");
         } else {
@@ -45,7 +75,6 @@ public class Duty {
 
         // 分配给各个职能线程池处理
         for (BlockchainDistributedTask task : tasks) {
-            task.setTimeSliceLength(timeSliceLength);
             scheduleTaskExecutorMap.get(task.getTaskType()).execute(task);
         }
     }
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.engine.core;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import cn.hutool.core.collection.ListUtil;
+import com.alipay.antchain.bridge.relayer.commons.model.IDistributedTask;
+import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 本节点的内存值班表，只有在任务分配发生变化、时间片到期或者超过最大刷新间隔时才从DB重新加载
+ */
+@Slf4j
+public class LocalDutyTable<T extends IDistributedTask> {
+
+    private final Supplier<List<T>> loader;
+
+    private final long timeSliceLength;
+
+    private final long maxRefreshInterval;
+
+    private volatile boolean dirty = true;
+
+    private List<T> tasks = ListUtil.empty();
+
+    private List<T> tasksInTimeSlice = ListUtil.empty();
+
+    private long lastRefreshTime = 0;
+
+    public LocalDutyTable(Supplier<List<T>> loader, long timeSliceLength, long maxRefreshInterval) {
+        this.loader = loader;
+        this.timeSliceLength = timeSliceLength;
+        this.maxRefreshInterval = maxRefreshInterval;
+    }
+
+    /**
+     * 任务分配发生变化，下次读取时刷新
+     */
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    @Synchronized
+    public List<T> getTasks() {
+        if (needRefresh()) {
+            refresh();
+        }
+        return tasks;
+    }
+
+    private boolean needRefresh() {
+        return dirty
+                || System.currentTimeMillis() - lastRefreshTime >= maxRefreshInterval
+                || tasksInTimeSlice.stream().anyMatch(IDistributedTask::ifFinish);
+    }
+
+    private void refresh() {
+        // 先清除标志，刷新期间到达的变化在下一轮处理
+        this.dirty = false;
+        List<T> newTasks;
+        try {
+            newTasks = loader.get();
+        } catch (RuntimeException e) {
+            this.dirty = true;
+            throw e;
+        }
+        newTasks.forEach(task -> task.setTimeSliceLength(timeSliceLength));
+
+        this.tasks = newTasks;
+        this.tasksInTimeSlice = newTasks.stream()
+                .filter(task -> !task.ifFinish())
+                .collect(Collectors.toList());
+        this.lastRefreshTime = System.currentTimeMillis();
+        log.debug("refresh local duty table with {} tasks and {} in time slice", tasks.size(), tasksInTimeSlice.size());
+    }
+}
@@ -30,7 +30,8 @@ public class AnchorScheduleTaskExecutor extends BaseScheduleTaskExecutor {
                 try {
                     multiAnchorProcessService.runAnchorProcess(
                             ((BlockchainDistributedTask) task).getBlockchainProduct(),
-                            ((BlockchainDistributedTask) task).getBlockchainId()
+                            ((BlockchainDistributedTask) task).getBlockchainId(),
+                            ((BlockchainDistributedTask) task).getStartTime() + ((BlockchainDistributedTask) task).getTimeSliceLength()
                     );
                 } catch (Throwable e) {
                     log.error("AnchorScheduleTaskExecutor failed, blockchainId is {}",
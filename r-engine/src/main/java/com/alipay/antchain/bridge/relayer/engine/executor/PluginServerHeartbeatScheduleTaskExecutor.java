@@ -0,0 +1,42 @@
+package com.alipay.antchain.bridge.relayer.engine.executor;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Resource;
+
+import com.alipay.antchain.bridge.relayer.commons.model.BizDistributedTask;
+import com.alipay.antchain.bridge.relayer.commons.model.IDistributedTask;
+import com.alipay.antchain.bridge.relayer.core.manager.bbc.IBBCPluginManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * 插件服务心跳的协调者，只在值班节点上运行，批量心跳所有插件服务
+ */
+@Component
+@Slf4j
+public class PluginServerHeartbeatScheduleTaskExecutor extends BaseScheduleTaskExecutor {
+
+    @Resource
+    private IBBCPluginManager bbcPluginManager;
+
+    @Autowired
+    public PluginServerHeartbeatScheduleTaskExecutor(@Qualifier("baseScheduleBizTaskExecutorThreadsPool") ExecutorService executorService) {
+        super(executorService);
+    }
+
+    @Override
+    public Runnable genTask(IDistributedTask task) {
+        return () -> {
+            if (task instanceof BizDistributedTask) {
+                try {
+                    bbcPluginManager.heartbeatPluginServers();
+                } catch (Throwable e) {
+                    log.error("PluginServerHeartbeatScheduleTaskExecutor failed", e);
+                }
+            }
+        };
+    }
+}
@@ -49,6 +49,11 @@ public abstract class BaseRelayerServer {
 
     private RedissonClient redisson;
 
+    /**
+     * 请求准入控制，为空时不做限制
+     */
+    private RelayerRequestAdmission requestAdmission;
+
     public BaseRelayerServer(
             IRelayerNetworkManager relayerNetworkManager,
             IBCDNSManager bcdnsManager,
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.server.network;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import cn.hutool.core.util.ObjectUtil;
+import com.alipay.antchain.bridge.relayer.core.grpc.network.RelayerNetworkServiceGrpc;
+import com.alipay.antchain.bridge.relayer.core.grpc.network.RelayerRawMessage;
+import com.alipay.antchain.bridge.relayer.core.types.network.ws.WsSslFactory;
+import com.google.protobuf.ByteString;
+import io.grpc.*;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.stub.StreamObserver;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+
+/**
+ * relayer之间的gRPC服务，与webservice服务共用请求处理逻辑，
+ * 请求和响应为TLV编码的二进制，不再经过Base64和SOAP封装
+ */
+@Slf4j
+@Getter
+@Order
+public class GRpcRelayerServer extends RelayerNetworkServiceGrpc.RelayerNetworkServiceImplBase implements ApplicationRunner {
+
+    private static final Context.Key<String> REMOTE_ADDRESS_KEY = Context.key("relayer-remote-address");
+
+    private final boolean enable;
+
+    private final String serverMode;
+
+    private final int port;
+
+    private final WSRelayerServerAPImpl relayerServerImpl;
+
+    private final ExecutorService workers;
+
+    private final WsSslFactory wsSslFactory;
+
+    private Server server;
+
+    public GRpcRelayerServer(
+            boolean enable,
+            String serverMode,
+            int port,
+            WSRelayerServerAPImpl relayerServerImpl,
+            ExecutorService workers,
+            WsSslFactory wsSslFactory
+    ) {
+        this.enable = enable;
+        this.serverMode = serverMode;
+        this.port = port;
+        this.relayerServerImpl = relayerServerImpl;
+        this.workers = workers;
+        this.wsSslFactory = wsSslFactory;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        if (!enable) {
+            log.info("grpc relayer node server is disabled");
+            return;
+        }
+
+        log.info("your mode for grpc relayer node server is {}", serverMode);
+        NettyServerBuilder serverBuilder;
+        switch (serverMode) {
+            case "http":
+                serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress(port));
+                break;
+            case "https":
+                serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress(port), buildTlsCredentials(false));
+                break;
+            case "https_client_auth":
+                serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress(port), buildTlsCredentials(true));
+                break;
+            default:
+                log.warn("mode for grpc connection is not found and start in https with two way authentication. ");
+                serverBuilder = NettyServerBuilder.forAddress(new InetSocketAddress(port), buildTlsCredentials(true));
+                break;
+        }
+
+        server = serverBuilder.addService(ServerInterceptors.intercept(this, new RemoteAddressInterceptor()))
+                .executor(workers)
+                .build()
+                .start();
+        log.info("grpc relayer node server started on port {}", port);
+    }
+
+    /**
+     * 与webservice服务一样使用{@link WsSslFactory}的信任所有证书的TrustManager，
+     * 要求客户端证书时也不校验证书链，对端身份在{@link WSRelayerServerAPImpl#doRequest}中通过跨链证书校验
+     */
+    private ServerCredentials buildTlsCredentials(boolean needClientAuth) throws Exception {
+        return TlsServerCredentials.newBuilder()
+                .keyManager(wsSslFactory.getKeyManagers())
+                .trustManager(wsSslFactory.getTrustManagers())
+                .clientAuth(needClientAuth ? TlsServerCredentials.ClientAuth.REQUIRE : TlsServerCredentials.ClientAuth.NONE)
+                .build();
+    }
+
+    @Override
+    public void request(RelayerRawMessage request, StreamObserver<RelayerRawMessage> responseObserver) {
+        log.debug("receive grpc request");
+
+        byte[] rawResponse = relayerServerImpl.doRequest(request.getPayload().toByteArray(), REMOTE_ADDRESS_KEY.get());
+        responseObserver.onNext(
+                RelayerRawMessage.newBuilder()
+                        .setPayload(ByteString.copyFrom(rawResponse))
+                        .build()
+        );
+        responseObserver.onCompleted();
+
+        log.debug("finish grpc request process");
+    }
+
+    /**
+     * 把传输层的对端地址放到gRPC上下文，未认证的请求按对端地址做准入
+     */
+    private static class RemoteAddressInterceptor implements ServerInterceptor {
+
+        @Override
+        public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers, ServerCallHandler<ReqT, RespT> next) {
+            SocketAddress remoteAddress = call.getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR);
+            String host = remoteAddress instanceof InetSocketAddress && ObjectUtil.isNotNull(((InetSocketAddress) remoteAddress).getAddress()) ?
+                    ((InetSocketAddress) remoteAddress).getAddress().getHostAddress() : null;
+            return Contexts.interceptCall(Context.current().withValue(REMOTE_ADDRESS_KEY, host), call, headers, next);
+        }
+    }
+
+    public boolean shutdown() {
+        if (ObjectUtil.isNull(server)) {
+            return true;
+        }
+        log.info("shutting down grpc relayer node server on port {}", port);
+        try {
+            if (server.shutdown().awaitTermination(3, TimeUnit.SECONDS)) {
+                return true;
+            }
+            // 等待超时后取消还没有完成的请求
+            return server.shutdownNow().awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            server.shutdownNow();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
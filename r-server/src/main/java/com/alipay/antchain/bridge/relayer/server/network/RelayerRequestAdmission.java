@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 Ant Group
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.alipay.antchain.bridge.relayer.server.network;
+
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.StrUtil;
+import com.alipay.antchain.bridge.relayer.core.types.network.request.RelayerRequestType;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * relayer请求的准入控制。
+ * <p>
+ * 请求分为高低两个优先级：握手、建立通道和传递跨链消息为高优先级，各类查询为低优先级。
+ * 低优先级请求的并发数单独限制，保证查询不会占满服务线程；
+ * 每个对端节点的并发请求数也有上限，避免单个节点挤占其他节点的处理能力。
+ * 超过限制的请求立即返回繁忙响应，由对端按照retryAfter退避，而不是在服务端排队占用线程。
+ * </p>
+ */
+@Slf4j
+public class RelayerRequestAdmission {
+
+    public enum Lane {
+        HIGH,
+        LOW
+    }
+
+    public static Lane laneOf(RelayerRequestType requestType) {
+        if (requestType == null) {
+            return Lane.LOW;
+        }
+        switch (requestType) {
+            case HELLO_START:
+            case HELLO_COMPLETE:
+            case SESSION_START:
+            case CROSSCHAIN_CHANNEL_START:
+            case CROSSCHAIN_CHANNEL_COMPLETE:
+            case PROPAGATE_CROSSCHAIN_MESSAGE:
+            case PROPAGATE_CROSSCHAIN_MESSAGES_BATCH:
+                return Lane.HIGH;
+            default:
+                return Lane.LOW;
+        }
+    }
+
+    private static final String UNKNOWN_PEER = "unknown";
+
+    private final int maxInFlightPerPeer;
+
+    private final Semaphore lowLanePermits;
+
+    @Getter
+    private final long retryAfter;
+
+    private final Map<String, AtomicInteger> peerInFlightMap = MapUtil.newConcurrentHashMap();
+
+    public RelayerRequestAdmission(int maxInFlightPerPeer, int lowLaneMaxConcurrency, long retryAfter) {
+        this.maxInFlightPerPeer = maxInFlightPerPeer;
+        this.lowLanePermits = new Semaphore(lowLaneMaxConcurrency);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * 未认证请求的准入标识，按传输层对端地址区分
+     */
+    public static String peerOfAddress(String remoteAddress) {
+        return StrUtil.isEmpty(remoteAddress) ? UNKNOWN_PEER : "addr:" + remoteAddress;
+    }
+
+    /**
+     * 尝试准入请求，返回null表示拒绝；准入成功后处理结束时必须关闭返回的ticket
+     *
+     * @param peer        验证过的节点ID，未认证的请求使用{@link #peerOfAddress(String)}
+     * @param requestType 请求类型
+     */
+    public Ticket tryAdmit(String peer, RelayerRequestType requestType) {
+        peer = StrUtil.isEmpty(peer) ? UNKNOWN_PEER : peer;
+        Lane lane = laneOf(requestType);
+
+        AtomicInteger peerInFlight = peerInFlightMap.computeIfAbsent(peer, k -> new AtomicInteger(0));
+        if (peerInFlight.incrementAndGet() > maxInFlightPerPeer) {
+            peerInFlight.decrementAndGet();
+            log.warn("reject {} request from relayer {}: too many requests in flight", lane, peer);
+            return null;
+        }
+        if (lane == Lane.LOW && !lowLanePermits.tryAcquire()) {
+            peerInFlight.decrementAndGet();
+            log.warn("reject {} request from relayer {}: low priority lane is full", lane, peer);
+            return null;
+        }
+        return new Ticket(peerInFlight, lane == Lane.LOW ? lowLanePermits : null);
+    }
+
+    public static class Ticket implements AutoCloseable {
+
+        private final AtomicInteger peerInFlight;
+
+        private final Semaphore lanePermits;
+
+        private Ticket(AtomicInteger peerInFlight, Semaphore lanePermits) {
+            this.peerInFlight = peerInFlight;
+            this.lanePermits = lanePermits;
+        }
+
+        @Override
+        public void close() {
+            peerInFlight.decrementAndGet();
+            if (lanePermits != null) {
+                lanePermits.release();
+            }
+        }
+    }
+}
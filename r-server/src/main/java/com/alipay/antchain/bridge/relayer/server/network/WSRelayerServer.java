@@ -16,18 +16,23 @@
 
 package com.alipay.antchain.bridge.relayer.server.network;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.util.concurrent.ExecutorService;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 import javax.xml.ws.Endpoint;
 
+import cn.hutool.core.util.ObjectUtil;
 import com.alipay.antchain.bridge.relayer.core.manager.bcdns.IBCDNSManager;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerCredentialManager;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerNetworkManager;
 import com.alipay.antchain.bridge.relayer.core.service.receiver.ReceiverService;
 import com.alipay.antchain.bridge.relayer.core.types.network.ws.WsSslFactory;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.HttpContext;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpServer;
 import com.sun.net.httpserver.HttpsConfigurator;
 import com.sun.net.httpserver.HttpsParameters;
@@ -54,7 +59,7 @@ public class WSRelayerServer implements ApplicationRunner {
 
     private HttpServer httpServer;
 
-    private final WSRelayerServerAPI wsRelayerServerAPI;
+    private final WSRelayerServerAPImpl wsRelayerServerAPI;
 
     private final ExecutorService workers;
 
@@ -72,7 +77,8 @@ public class WSRelayerServer implements ApplicationRunner {
             ReceiverService receiverService,
             ICrossChainMessageRepository crossChainMessageRepository,
             RedissonClient redisson,
-            boolean isDiscoveryService
+            boolean isDiscoveryService,
+            RelayerRequestAdmission requestAdmission
     ) {
         this.serverMode = serverMode;
         this.port = port;
@@ -85,6 +91,7 @@ public class WSRelayerServer implements ApplicationRunner {
                 redisson,
                 defaultNetworkId,
                 isDiscoveryService);
+        this.wsRelayerServerAPI.setRequestAdmission(requestAdmission);
         this.workers = wsRelayerServerExecutorService;
         this.wsSslFactory = wsSslFactory;
     }
@@ -127,7 +134,9 @@ public class WSRelayerServer implements ApplicationRunner {
 
         log.info("endpoint startup webservice : {}", httpsServer.getAddress().toString());
         endpoint = Endpoint.create(this.wsRelayerServerAPI);
-        endpoint.publish(httpsServer.createContext("/WSEndpointServer"));
+        HttpContext httpContext = httpsServer.createContext("/WSEndpointServer");
+        httpContext.getFilters().add(new RemoteAddressFilter());
+        endpoint.publish(httpContext);
 
         httpsServer.setExecutor(workers);
         httpsServer.start();
@@ -138,12 +147,38 @@ public class WSRelayerServer implements ApplicationRunner {
         log.info("endpoint startup webservice : {}", httpServer.getAddress().toString());
 
         endpoint = Endpoint.create(this.wsRelayerServerAPI);
-        endpoint.publish(httpServer.createContext("/WSEndpointServer"));
+        HttpContext httpContext = httpServer.createContext("/WSEndpointServer");
+        httpContext.getFilters().add(new RemoteAddressFilter());
+        endpoint.publish(httpContext);
 
         httpServer.setExecutor(workers);
         httpServer.start();
     }
 
+    /**
+     * 记录请求的对端地址，未认证的请求按对端地址做准入
+     */
+    private static class RemoteAddressFilter extends Filter {
+
+        @Override
+        public void doFilter(HttpExchange exchange, Chain chain) throws IOException {
+            InetSocketAddress remoteAddress = exchange.getRemoteAddress();
+            WSRelayerServerAPImpl.CURRENT_REMOTE_ADDRESS.set(
+                    ObjectUtil.isNull(remoteAddress) || ObjectUtil.isNull(remoteAddress.getAddress()) ? null : remoteAddress.getAddress().getHostAddress()
+            );
+            try {
+                chain.doFilter(exchange);
+            } finally {
+                WSRelayerServerAPImpl.CURRENT_REMOTE_ADDRESS.remove();
+            }
+        }
+
+        @Override
+        public String description() {
+            return "record remote address of relayer request";
+        }
+    }
+
     public boolean shutdown() {
         if (null != endpoint) {
             endpoint.stop();
@@ -19,8 +19,10 @@ package com.alipay.antchain.bridge.relayer.server.network;
 import java.security.Signature;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import javax.jws.WebMethod;
 import javax.jws.WebParam;
 import javax.jws.WebService;
@@ -44,10 +46,12 @@ import com.alipay.antchain.bridge.relayer.core.manager.bcdns.IBCDNSManager;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerCredentialManager;
 import com.alipay.antchain.bridge.relayer.core.manager.network.IRelayerNetworkManager;
 import com.alipay.antchain.bridge.relayer.core.service.receiver.ReceiverService;
+import com.alipay.antchain.bridge.relayer.core.types.network.RelayerSession;
 import com.alipay.antchain.bridge.relayer.core.types.network.exception.RejectRequestException;
 import com.alipay.antchain.bridge.relayer.core.types.network.request.*;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.ChannelStartRespPayload;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.HelloStartRespPayload;
+import com.alipay.antchain.bridge.relayer.core.types.network.response.PropagateCrossChainMsgsRespPayload;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.QueryCrossChainMsgReceiptsRespPayload;
 import com.alipay.antchain.bridge.relayer.core.types.network.response.RelayerResponse;
 import com.alipay.antchain.bridge.relayer.dal.repository.ICrossChainMessageRepository;
@@ -65,6 +69,13 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
 
     private static final String RELAYER_HELLO_RAND_KEY_PREFIX = "RELAYER_HELLO_RAND_";
 
+    private static final long RECEIPT_CURSOR_OVERLAP = 10_000;
+
+    /**
+     * webservice请求的对端地址，由{@link WSRelayerServer}在http上下文的filter里设置
+     */
+    static final ThreadLocal<String> CURRENT_REMOTE_ADDRESS = new ThreadLocal<>();
+
     public WSRelayerServerAPImpl(
             IRelayerNetworkManager relayerNetworkManager,
             IBCDNSManager bcdnsManager,
@@ -84,7 +95,7 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
 
         log.debug("receive ws request");
 
-        byte[] rawResponse = doRequest(Base64.decode(relayerRequest));
+        byte[] rawResponse = doRequest(Base64.decode(relayerRequest), CURRENT_REMOTE_ADDRESS.get());
 
         String response = Base64.encode(rawResponse);
 
@@ -94,13 +105,16 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
     }
 
     /**
-     * 处理请求
+     * 处理请求，webservice和gRPC两种传输共用
      *
-     * @param rawRequest
-     * @return
+     * @param rawRequest    TLV编码的请求体
+     * @param remoteAddress 传输层的对端地址，未认证的请求按它做准入
+     * @return TLV编码的响应体
      */
-    private byte[] doRequest(byte[] rawRequest) {
+    @WebMethod(exclude = true)
+    public byte[] doRequest(byte[] rawRequest, String remoteAddress) {
 
+        RelayerRequestAdmission.Ticket admissionTicket = null;
         try {
             RelayerRequest request = RelayerRequest.decode(rawRequest, RelayerRequest.class);
             if (ObjectUtil.isNull(request)) {
@@ -110,6 +124,47 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
                         getRelayerCredentialManager()
                 ).encode();
             }
+            if (ObjectUtil.isNull(request.getRequestType())) {
+                // 新版本relayer的请求类型，本节点无法识别
+                log.warn("relayer request with unknown type");
+                return RelayerResponse.createFailureResponse(
+                        RelayerResponse.REQUEST_TYPE_NOT_SUPPORTED_MSG,
+                        getRelayerCredentialManager()
+                ).encode();
+            }
+
+            // 除了握手和节点信息查询，其他请求都要先通过认证，准入按验证过的节点ID计算
+            boolean authenticated = !isAuthenticationFree(request.getRequestType());
+            if (authenticated) {
+                if (request.isSessionAuthenticated()
+                        && !getRelayerCredentialManager().hasValidSession(request.getSessionId(), request.getNodeId())) {
+                    log.info("relayer session {} from relayer {} not found or expired", request.getSessionId(), request.getNodeId());
+                    return RelayerResponse.createFailureResponse(
+                            RelayerSession.SESSION_INVALID_MSG,
+                            getRelayerCredentialManager()
+                    ).encode();
+                }
+                if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
+                    log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.getNodeId());
+                    return RelayerResponse.createFailureResponse(
+                            "verify crosschain cert failed",
+                            getRelayerCredentialManager()
+                    ).encode();
+                }
+            }
+
+            if (ObjectUtil.isNotNull(getRequestAdmission())) {
+                admissionTicket = getRequestAdmission().tryAdmit(
+                        authenticated ? request.calcRelayerNodeId() : RelayerRequestAdmission.peerOfAddress(remoteAddress),
+                        request.getRequestType()
+                );
+                if (ObjectUtil.isNull(admissionTicket)) {
+                    return RelayerResponse.createBusyResponse(
+                            getRequestAdmission().getRetryAfter(),
+                            getRelayerCredentialManager()
+                    ).encode();
+                }
+            }
 
             switch (request.getRequestType()) {
                 case GET_RELAYER_NODE_INFO:
@@ -126,6 +181,10 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
                     return processPropagateCrossChainMsgRequest(
                             PropagateCrossChainMsgRequest.createFrom(request)
                     ).encode();
+                case PROPAGATE_CROSSCHAIN_MESSAGES_BATCH:
+                    return processPropagateCrossChainMsgsBatchRequest(
+                            PropagateCrossChainMsgsBatchRequest.createFrom(request)
+                    ).encode();
                 case QUERY_CROSSCHAIN_MSG_RECEIPT:
                     return processCrossChainMsgReceiptsQuery(
                             QueryCrossChainMsgReceiptRequest.createFrom(request)
@@ -138,9 +197,11 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
                     return processChannelStart(ChannelStartRequest.createFrom(request)).encode();
                 case CROSSCHAIN_CHANNEL_COMPLETE:
                     return processChannelComplete(ChannelCompleteRequest.createFrom(request)).encode();
+                case SESSION_START:
+                    return processSessionStart(SessionStartRequest.createFrom(request)).encode();
                 default:
                     return RelayerResponse.createFailureResponse(
-                            "request type not supported: " + request.getRequestType().getCode(),
+                            RelayerResponse.REQUEST_TYPE_NOT_SUPPORTED_MSG + ": " + request.getRequestType().getCode(),
                             getRelayerCredentialManager()
                     ).encode();
             }
@@ -150,9 +211,20 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
                     "unexpected exception happened",
                     getRelayerCredentialManager()
             ).encode();
+        } finally {
+            getRelayerCredentialManager().clearSessionContext();
+            if (ObjectUtil.isNotNull(admissionTicket)) {
+                admissionTicket.close();
+            }
         }
     }
 
+    private static boolean isAuthenticationFree(RelayerRequestType requestType) {
+        return requestType == RelayerRequestType.GET_RELAYER_NODE_INFO
+                || requestType == RelayerRequestType.HELLO_START
+                || requestType == RelayerRequestType.HELLO_COMPLETE;
+    }
+
     private RelayerResponse processGetRelayerNodeInfo() {
         return RelayerResponse.createSuccessResponse(
                 () -> Base64.encode(getRelayerNetworkManager().getRelayerNodeInfo().getEncode()),
@@ -161,14 +233,6 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
     }
 
     private RelayerResponse processGetRelayerBlockchainInfo(GetRelayerBlockchainInfoRelayerRequest request) {
-        if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
-            log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.calcRelayerNodeId());
-            return RelayerResponse.createFailureResponse(
-                    "verify crosschain cert failed",
-                    getRelayerCredentialManager()
-            );
-        }
-
         RelayerBlockchainInfo blockchainInfo;
         try {
             blockchainInfo = getRelayerNetworkManager().getRelayerBlockchainInfo(
@@ -198,14 +262,6 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
     }
 
     private RelayerResponse processGetRelayerBlockchainContent(GetRelayerBlockchainContentRelayerRequest request) {
-        if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
-            log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.calcRelayerNodeId());
-            return RelayerResponse.createFailureResponse(
-                    "verify crosschain cert failed",
-                    getRelayerCredentialManager()
-            );
-        }
-
         RelayerBlockchainContent blockchainContent;
         try {
             blockchainContent = getRelayerNetworkManager().getRelayerNodeInfoWithContent()
@@ -231,14 +287,6 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
     }
 
     private RelayerResponse processPropagateCrossChainMsgRequest(PropagateCrossChainMsgRequest request) {
-        if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
-            log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.calcRelayerNodeId());
-            return RelayerResponse.createFailureResponse(
-                    "verify crosschain cert failed",
-                    getRelayerCredentialManager()
-            );
-        }
-
         try {
             propagateCrossChainMsg(
                     request.getDomainName(),
@@ -277,45 +325,89 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
         );
     }
 
-    private RelayerResponse processCrossChainMsgReceiptsQuery(QueryCrossChainMsgReceiptRequest request) {
-        if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
-            log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.calcRelayerNodeId());
+    private RelayerResponse processPropagateCrossChainMsgsBatchRequest(PropagateCrossChainMsgsBatchRequest request) {
+        if (ObjectUtil.isEmpty(request.getItems())) {
             return RelayerResponse.createFailureResponse(
-                    "verify crosschain cert failed",
+                    "empty am msgs",
                     getRelayerCredentialManager()
             );
         }
 
+        // 每条消息单独处理，单条失败不影响其他消息
+        List<PropagateCrossChainMsgsRespPayload.ItemResult> results = new ArrayList<>(request.getItems().size());
+        for (PropagateCrossChainMsgsBatchRequest.CrossChainMsgItem item : request.getItems()) {
+            try {
+                propagateCrossChainMsg(
+                        item.getDomainName(),
+                        item.getUcpId(),
+                        item.getAuthMsg(),
+                        item.getUdagProof(),
+                        item.getLedgerInfo()
+                );
+                results.add(new PropagateCrossChainMsgsRespPayload.ItemResult(item.getUcpId(), true, null));
+            } catch (RejectRequestException e) {
+                log.error(
+                        "reject am request (ucp: {}) from (blockchain: {}, relayer: {}) failed: ",
+                        item.getUcpId(), item.getDomainName(), request.calcRelayerNodeId(),
+                        e
+                );
+                results.add(new PropagateCrossChainMsgsRespPayload.ItemResult(item.getUcpId(), false, e.getErrorMsg()));
+            } catch (AntChainBridgeRelayerException e) {
+                log.error(
+                        "handle am request (ucp: {}) from (blockchain: {}, relayer: {}) failed: ",
+                        item.getUcpId(), item.getDomainName(), request.calcRelayerNodeId(),
+                        e
+                );
+                results.add(new PropagateCrossChainMsgsRespPayload.ItemResult(item.getUcpId(), false, e.getMsg()));
+            } catch (Exception e) {
+                log.error(
+                        "handle am request (ucp: {}) from (blockchain: {}, relayer: {}) failed with unexpected exception: ",
+                        item.getUcpId(), item.getDomainName(), request.calcRelayerNodeId(),
+                        e
+                );
+                results.add(new PropagateCrossChainMsgsRespPayload.ItemResult(item.getUcpId(), false, "unexpected exception happened"));
+            }
+        }
+
+        log.info("handle batch am request with {} msgs from relayer {}", results.size(), request.calcRelayerNodeId());
+
         return RelayerResponse.createSuccessResponse(
-                new QueryCrossChainMsgReceiptsRespPayload(
-                        request.getUcpIds().stream().map(
-                                s -> {
-                                    SDPMsgWrapper sdpMsgWrapper = getCrossChainMessageRepository().querySDPMessage(s);
-                                    CrossChainMessageReceipt receipt = null;
-                                    if (ObjectUtil.isNotNull(sdpMsgWrapper)) {
-                                        receipt = new CrossChainMessageReceipt();
-                                        receipt.setTxhash(sdpMsgWrapper.getTxHash());
-                                        receipt.setConfirmed(
-                                                sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.TX_SUCCESS ||
-                                                        sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.TX_FAILED ||
-                                                        sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.MSG_REJECTED ||
-                                                        sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.MSG_ILLEGAL
-                                        );
-                                        receipt.setSuccessful(sdpMsgWrapper.isTxSuccess());
-                                        receipt.setErrorMsg(sdpMsgWrapper.getTxFailReason());
-                                    }
-
-                                    return MapUtil.entry(s, receipt);
-                                }
-                        ).collect(Collectors.toMap(
-                                Map.Entry::getKey,
-                                Map.Entry::getValue
-                        ))
-                ),
+                new PropagateCrossChainMsgsRespPayload(results),
+                getRelayerCredentialManager()
+        );
+    }
+
+    private RelayerResponse processCrossChainMsgReceiptsQuery(QueryCrossChainMsgReceiptRequest request) {
+        // cursor在查询之前取值并留出余量，覆盖DB与本机的时钟偏差以及gmt_modified的秒级精度
+        long nextCursor = System.currentTimeMillis() - RECEIPT_CURSOR_OVERLAP;
+        Map<String, CrossChainMessageReceipt> receipts = new HashMap<>();
+        getCrossChainMessageRepository().querySDPMessages(request.getUcpIds(), 0)
+                .forEach((ucpId, sdpMsgWrapper) -> receipts.put(ucpId, convertToReceipt(sdpMsgWrapper)));
+        if (ObjectUtil.isNotEmpty(request.getSubscribedUcpIds())) {
+            getCrossChainMessageRepository().querySDPMessages(request.getSubscribedUcpIds(), request.getCursor())
+                    .forEach((ucpId, sdpMsgWrapper) -> receipts.put(ucpId, convertToReceipt(sdpMsgWrapper)));
+        }
+
+        return RelayerResponse.createSuccessResponse(
+                new QueryCrossChainMsgReceiptsRespPayload(receipts, nextCursor),
                 getRelayerCredentialManager()
         );
     }
 
+    private CrossChainMessageReceipt convertToReceipt(SDPMsgWrapper sdpMsgWrapper) {
+        CrossChainMessageReceipt receipt = new CrossChainMessageReceipt();
+        receipt.setTxhash(sdpMsgWrapper.getTxHash());
+        receipt.setConfirmed(
+                sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.TX_SUCCESS ||
+                        sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.TX_FAILED ||
+                        sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.MSG_REJECTED ||
+                        sdpMsgWrapper.getProcessState() == SDPMsgProcessStateEnum.MSG_ILLEGAL
+        );
+        receipt.setSuccessful(sdpMsgWrapper.isTxSuccess());
+        receipt.setErrorMsg(sdpMsgWrapper.getTxFailReason());
+        return receipt;
+    }
+
     private RelayerResponse processHelloStart(HelloStartRequest request) {
         log.info("process hello start from {}", request.getRelayerNodeId());
 
@@ -388,14 +480,6 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
     }
 
     private RelayerResponse processChannelStart(ChannelStartRequest request) {
-        if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
-            log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.calcRelayerNodeId());
-            return RelayerResponse.createFailureResponse(
-                    "verify crosschain cert failed",
-                    getRelayerCredentialManager()
-            );
-        }
-
         RelayerBlockchainInfo blockchainInfo;
         try {
             blockchainInfo = getRelayerNetworkManager().getRelayerBlockchainInfo(request.getDomain());
@@ -425,14 +509,6 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
     }
 
     private RelayerResponse processChannelComplete(ChannelCompleteRequest request) {
-        if (!getRelayerCredentialManager().validateRelayerRequest(request)) {
-            log.error("failed to validate {} request from relayer {}", request.getRequestType().getCode(), request.calcRelayerNodeId());
-            return RelayerResponse.createFailureResponse(
-                    "verify crosschain cert failed",
-                    getRelayerCredentialManager()
-            );
-        }
-
         RelayerBlockchainContent content = RelayerBlockchainContent.decodeFromJson(request.getRawContentWithSingleBlockchain());
         if (ObjectUtil.isNull(content)) {
             log.error("null relayer blockchain content in request from relayer {} for domain {}", request.calcRelayerNodeId(), request.getSenderDomain());
@@ -467,6 +543,30 @@ public class WSRelayerServerAPImpl extends BaseRelayerServer implements WSRelaye
         );
     }
 
+    private RelayerResponse processSessionStart(SessionStartRequest request) {
+        // 会话只能通过证书签名的请求建立
+        if (request.isSessionAuthenticated()) {
+            log.error("failed to validate {} request from relayer {}: session start must be signed", request.getRequestType().getCode(), request.getNodeId());
+            return RelayerResponse.createFailureResponse(
+                    "verify crosschain cert failed",
+                    getRelayerCredentialManager()
+            );
+        }
+
+        try {
+            return RelayerResponse.createSuccessResponse(
+                    getRelayerCredentialManager().acceptSession(request),
+                    getRelayerCredentialManager()
+            );
+        } catch (AntChainBridgeRelayerException e) {
+            log.warn("failed to accept session from relayer {}: {}", request.calcRelayerNodeId(), e.getMsg());
+            return RelayerResponse.createFailureResponse(
+                    e.getMsg(),
+                    getRelayerCredentialManager()
+            );
+        }
+    }
+
     private void setMyRelayerHelloRand(String relayerNodeId, byte[] myRand) {
         RBucket<byte[]> bucket = getRedisson().getBucket(
                 RELAYER_HELLO_RAND_KEY_PREFIX + relayerNodeId,